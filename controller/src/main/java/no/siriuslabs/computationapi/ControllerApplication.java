@@ -1,5 +1,7 @@
 package no.siriuslabs.computationapi;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import no.siriuslabs.computationapi.api.http.CompressionFilter;
 import no.siriuslabs.computationapi.api.model.computation.DomainType;
 import no.siriuslabs.computationapi.config.ControllerProperties;
 import no.siriuslabs.computationapi.config.NodesProperties;
@@ -16,8 +18,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.Executors;
@@ -27,7 +30,8 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * Controller Spring application.<p>
- * Executes a CommandLineRunner at start-up which sets-up timers to distribute tasks to registered worker nodes and execute regular pings to worker nodes.
+ * Executes a CommandLineRunner at start-up which sets-up timers to distribute tasks to registered worker nodes, execute regular pings to worker nodes
+ * and reclaim worker nodes that are stuck.
  */
 @SpringBootApplication
 @ComponentScan(basePackages = {"no.siriuslabs.computationapi", "no.siriuslabs.computationapi.api"})
@@ -62,7 +66,8 @@ public class ControllerApplication {
 	}
 
 	/**
-	 * CommandLineRunner that is executed at application startup to set the DomainType and set-up the timers.
+	 * CommandLineRunner that is executed at application startup to set the DomainTypes and set-up the timers.<p>
+	 * Every start-up argument is interpreted as a DomainType the controller is restricted to. Without arguments, the controller serves the DomainTypes of all registering nodes.
 	 */
 	@Bean
 	@Profile("!test")
@@ -73,13 +78,16 @@ public class ControllerApplication {
 				LOGGER.info("No domain set on start-up");
 			}
 			else {
-				// TODO rework for multi-domains later
-				DomainType domain = ControllerHelper.getDomainTypeFromParameter(args[0]);
-				nodeController.setDomain(domain);
+				List<DomainType> domains = new ArrayList<>(args.length);
+				for(String arg : args) {
+					domains.add(ControllerHelper.getDomainTypeFromParameter(arg));
+				}
+				nodeController.restrictToDomains(domains);
 			}
 
 			LOGGER.info("Setting up timers");
 			setupPingTimer();
+			setupReaperTimer();
 			setupWorkDistributionTimer();
 		};
 	}
@@ -105,6 +113,27 @@ public class ControllerApplication {
 		setupTimer("ping timer", timerTask, startupDelay, callInterval);
 	}
 
+	/**
+	 * Creates, configures and starts the timer reclaiming stuck nodes.
+	 */
+	private void setupReaperTimer() {
+		TimerTask timerTask = new TimerTask() {
+			@Override
+			public void run() {
+				try {
+					nodeController.reapNodes();
+				}
+				catch(Exception e) {
+					LOGGER.error(e.getMessage(), e);
+				}
+			}
+		};
+
+		final long startupDelay = nodesProperties.getReaper().getStartupDelay();
+		final long callInterval = nodesProperties.getReaper().getCallInterval();
+		setupTimer("reaper timer", timerTask, startupDelay, callInterval);
+	}
+
 	/**
 	 * Creates, configures and starts the work distribution timer.
 	 */
@@ -140,9 +169,12 @@ public class ControllerApplication {
 		LOGGER.info("Started timer {} with delay={} sec. and interval={} sec.", name, startupDelay / 1000, callInterval / 1000);
 	}
 
+	/**
+	 * Servlet filter compressing large responses and decompressing compressed requests of all controller services.
+	 */
 	@Bean
-	public RestTemplate restTemplate() {
-		return new RestTemplate();
+	public CompressionFilter compressionFilter(MeterRegistry meterRegistry) {
+		return new CompressionFilter(controllerProperties.getController().getCompression(), meterRegistry);
 	}
 
 }
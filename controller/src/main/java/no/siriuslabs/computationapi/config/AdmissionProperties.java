@@ -0,0 +1,63 @@
+package no.siriuslabs.computationapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration container class representing the top-most level of the configuration file structure in regards to admission control of computation requests.
+ * It contains the limits beyond which new computation requests are rejected and the time clients are asked to wait before retrying.
+ */
+@Component
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionProperties {
+
+	/**
+	 * Maximum number of accepted computation requests whose WorkPackages are still being generated.
+	 */
+	private int maxPendingRequests = 20;
+	/**
+	 * Maximum number of WorkPackages waiting to be distributed. New requests are rejected while this limit is reached.
+	 */
+	private int maxQueuedPackages = 1000000;
+	/**
+	 * Maximum size in bytes of the requests whose WorkPackages are still being generated or waiting to be distributed.
+	 * A single request exceeding the limit is only accepted while no other request is pending or queued.
+	 */
+	private long maxQueuedBytes = 512L * 1024 * 1024;
+	/**
+	 * Time in seconds a client is asked to wait before submitting a rejected request again.
+	 */
+	private int retryAfter = 5;
+
+	public int getMaxPendingRequests() {
+		return maxPendingRequests;
+	}
+
+	public void setMaxPendingRequests(int maxPendingRequests) {
+		this.maxPendingRequests = maxPendingRequests;
+	}
+
+	public int getMaxQueuedPackages() {
+		return maxQueuedPackages;
+	}
+
+	public void setMaxQueuedPackages(int maxQueuedPackages) {
+		this.maxQueuedPackages = maxQueuedPackages;
+	}
+
+	public long getMaxQueuedBytes() {
+		return maxQueuedBytes;
+	}
+
+	public void setMaxQueuedBytes(long maxQueuedBytes) {
+		this.maxQueuedBytes = maxQueuedBytes;
+	}
+
+	public int getRetryAfter() {
+		return retryAfter;
+	}
+
+	public void setRetryAfter(int retryAfter) {
+		this.retryAfter = retryAfter;
+	}
+}
@@ -0,0 +1,27 @@
+package no.siriuslabs.computationapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration container class representing the top-most level of the configuration file structure in regards to the controller's artifact store.
+ * It contains the directory the artifacts are kept in.
+ */
+@Component
+@ConfigurationProperties(prefix = "artifacts")
+public class ArtifactStoreProperties {
+
+	/**
+	 * Directory the artifacts are stored in. Created if missing. Defaults to computation-artifacts in the temporary directory. Artifacts only live as long as
+	 * their computation run, so they need not survive a restart of the controller.
+	 */
+	private String directory = System.getProperty("java.io.tmpdir") + "/computation-artifacts";
+
+	public String getDirectory() {
+		return directory;
+	}
+
+	public void setDirectory(String directory) {
+		this.directory = directory;
+	}
+}
@@ -0,0 +1,27 @@
+package no.siriuslabs.computationapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration container class representing the top-most level of the configuration file structure in regards to the controller's blob store.
+ * It contains the directory the blobs are kept in.
+ */
+@Component
+@ConfigurationProperties(prefix = "blobs")
+public class BlobStoreProperties {
+
+	/**
+	 * Directory the blobs are stored in. Created if missing. Defaults to computation-blobs in the temporary directory, which should be replaced by a
+	 * persistent directory if blobs are to survive a restart of the controller.
+	 */
+	private String directory = System.getProperty("java.io.tmpdir") + "/computation-blobs";
+
+	public String getDirectory() {
+		return directory;
+	}
+
+	public void setDirectory(String directory) {
+		this.directory = directory;
+	}
+}
@@ -0,0 +1,36 @@
+package no.siriuslabs.computationapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import no.siriuslabs.computationapi.api.http.PooledHttpClientFactory;
+import no.siriuslabs.computationapi.service.TimeoutClientHttpRequestFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Spring configuration of the HTTP client the controller calls worker nodes with.<p>
+ * All services and controllers share a single RestTemplate backed by a pool of keep-alive connections (see config.controller.pool), whose usage is reported
+ * as http.client.pool.* gauges tagged client=controller. Being defined apart from the application class, the RestTemplate can be injected into the services
+ * the application class itself depends on.
+ */
+@Configuration
+public class HttpClientConfiguration {
+
+	/**
+	 * Pooled HttpClient shared by all calls to worker nodes. Closed with the application context.
+	 */
+	@Bean
+	public CloseableHttpClient httpClient(ControllerProperties controllerProperties, MeterRegistry meterRegistry) {
+		return PooledHttpClientFactory.createHttpClient(controllerProperties.getController(), meterRegistry, "controller");
+	}
+
+	/**
+	 * RestTemplate shared by all calls to worker nodes, allowing the read timeout to be chosen per call and compressing large bodies.
+	 */
+	@Bean
+	public RestTemplate restTemplate(CloseableHttpClient httpClient, ControllerProperties controllerProperties, MeterRegistry meterRegistry) {
+		return PooledHttpClientFactory.createRestTemplate(new TimeoutClientHttpRequestFactory(httpClient), controllerProperties.getController(), meterRegistry);
+	}
+
+}
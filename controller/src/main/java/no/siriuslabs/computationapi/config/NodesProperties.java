@@ -4,8 +4,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
 /**
- * Configuration container class representing the top-most level of the configuration file structure in regards to node ping timer configuration.
- * It contains a controller element which provides more details.
+ * Configuration container class representing the top-most level of the configuration file structure in regards to node ping and reaper timer configuration.
+ * It contains elements for both timers which provide more details.
  */
 @Component
 @ConfigurationProperties(prefix = "nodes")
@@ -15,6 +15,10 @@ public class NodesProperties {
 	 * PingTimer object containing delays and intervals of ping calls.
 	 */
 	private PingTimer pingTimer;
+	/**
+	 * ReaperTimer object containing delays, intervals and time limits of the node reaper.
+	 */
+	private ReaperTimer reaper;
 
 	public PingTimer getPingTimer() {
 		return pingTimer;
@@ -23,4 +27,12 @@ public class NodesProperties {
 	public void setPingTimer(PingTimer pingTimer) {
 		this.pingTimer = pingTimer;
 	}
+
+	public ReaperTimer getReaper() {
+		return reaper;
+	}
+
+	public void setReaper(ReaperTimer reaper) {
+		this.reaper = reaper;
+	}
 }
@@ -1,7 +1,8 @@
 package no.siriuslabs.computationapi.config;
 
 /**
- * Configuration container class representing a PingTimer configuration including startup delay and ping interval.
+ * Configuration container class representing a PingTimer configuration including startup delay and ping interval as well as the time a node may take to answer
+ * and the number of nodes pinged in parallel.
  */
 public class PingTimer {
 
@@ -13,6 +14,14 @@ public class PingTimer {
 	 * Interval between two calls of the timer.
 	 */
 	private long callInterval;
+	/**
+	 * Maximum time in milliseconds a node may take to answer its heartbeat request. A node not answering in time is treated like one that cannot be reached.
+	 */
+	private long replyTimeout = 5000;
+	/**
+	 * Maximum number of nodes pinged in parallel.
+	 */
+	private int parallelism = 8;
 
 	public long getStartupDelay() {
 		return startupDelay;
@@ -29,4 +38,20 @@ public class PingTimer {
 	public void setCallInterval(long callInterval) {
 		this.callInterval = callInterval;
 	}
+
+	public long getReplyTimeout() {
+		return replyTimeout;
+	}
+
+	public void setReplyTimeout(long replyTimeout) {
+		this.replyTimeout = replyTimeout;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
 }
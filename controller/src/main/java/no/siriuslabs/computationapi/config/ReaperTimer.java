@@ -0,0 +1,94 @@
+package no.siriuslabs.computationapi.config;
+
+/**
+ * Configuration container class representing the configuration of the node reaper including startup delay, call interval and the time limits
+ * after which a node is considered to be stuck in a certain status as well as the time a node may take to report its status.
+ */
+public class ReaperTimer {
+
+	/**
+	 * Delay between application startup and the first execution of the timer.
+	 */
+	private long startupDelay;
+	/**
+	 * Interval between two calls of the timer.
+	 */
+	private long callInterval;
+
+	/**
+	 * Time after which a node still being RESERVED is considered to be stuck.
+	 */
+	private long reservedTimeout;
+	/**
+	 * Time after which a node still being BUSY is considered to be stuck. Has to be longer than the longest expected call to a worker node.
+	 */
+	private long busyTimeout;
+	/**
+	 * Time after which a node still being DRAINING is considered to be stuck. Has to be longer than the longest expected call to a worker node.
+	 */
+	private long drainingTimeout;
+	/**
+	 * Time after which a pulling node that has neither fetched work nor reported a result is considered to be gone. Has to be longer than the fetch timeout used by the nodes.
+	 */
+	private long pullingTimeout;
+	/**
+	 * Maximum time in milliseconds a node may take to answer the status request of the reaper. A node not answering in time is treated like one that cannot be reached.
+	 */
+	private long statusTimeout = 5000;
+
+	public long getStartupDelay() {
+		return startupDelay;
+	}
+
+	public void setStartupDelay(long startupDelay) {
+		this.startupDelay = startupDelay;
+	}
+
+	public long getCallInterval() {
+		return callInterval;
+	}
+
+	public void setCallInterval(long callInterval) {
+		this.callInterval = callInterval;
+	}
+
+	public long getReservedTimeout() {
+		return reservedTimeout;
+	}
+
+	public void setReservedTimeout(long reservedTimeout) {
+		this.reservedTimeout = reservedTimeout;
+	}
+
+	public long getBusyTimeout() {
+		return busyTimeout;
+	}
+
+	public void setBusyTimeout(long busyTimeout) {
+		this.busyTimeout = busyTimeout;
+	}
+
+	public long getDrainingTimeout() {
+		return drainingTimeout;
+	}
+
+	public void setDrainingTimeout(long drainingTimeout) {
+		this.drainingTimeout = drainingTimeout;
+	}
+
+	public long getPullingTimeout() {
+		return pullingTimeout;
+	}
+
+	public void setPullingTimeout(long pullingTimeout) {
+		this.pullingTimeout = pullingTimeout;
+	}
+
+	public long getStatusTimeout() {
+		return statusTimeout;
+	}
+
+	public void setStatusTimeout(long statusTimeout) {
+		this.statusTimeout = statusTimeout;
+	}
+}
@@ -0,0 +1,120 @@
+package no.siriuslabs.computationapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration container class representing the top-most level of the configuration file structure in regards to the scheduling of WorkPackages.
+ * It selects the WorkScheduler implementation and contains the weights used to share the worker nodes between clients.
+ */
+@Component
+@ConfigurationProperties(prefix = "scheduler")
+public class SchedulerProperties {
+
+	/**
+	 * Name of the WorkScheduler implementation to be used: "fair" (default) for weighted fair sharing between clients or "fifo" for strict submission order.
+	 */
+	private String strategy;
+
+	/**
+	 * Amount of work a client with weight 1 may dispatch per scheduling round of the fair scheduler. A WorkPackage with the average cost of its DomainType counts as one unit of work,
+	 * shorter and longer packages count as the corresponding fraction or multiple of it.
+	 */
+	private long quantum = 1;
+	/**
+	 * Weight of clients not listed in clientWeights.
+	 */
+	private int defaultWeight = 1;
+	/**
+	 * Weights per client-ID. A client with weight 3 gets three times the share of the worker nodes of a client with weight 1 while both have work queued.
+	 */
+	private Map<String, Integer> clientWeights = new HashMap<>();
+
+	/**
+	 * Time in milliseconds after which a waiting WorkPackage has gained one priority level, so that packages with a low priority are not starved by a steady stream
+	 * of packages with a higher priority. Zero disables aging.
+	 */
+	private long agingInterval;
+
+	/**
+	 * Weight between 0 and 1 of a newly observed running time when learning the costs of WorkPackages. Higher values adapt faster to changing running times.
+	 */
+	private double costSmoothing = 0.1;
+
+	/**
+	 * Time in milliseconds the WorkPackages of a computation run are held back for their preferred nodes before they are given to other nodes. Zero disables waiting.
+	 */
+	private long localityDelay;
+
+	public String getStrategy() {
+		return strategy;
+	}
+
+	public void setStrategy(String strategy) {
+		this.strategy = strategy;
+	}
+
+	public long getQuantum() {
+		return quantum;
+	}
+
+	public void setQuantum(long quantum) {
+		this.quantum = quantum;
+	}
+
+	public int getDefaultWeight() {
+		return defaultWeight;
+	}
+
+	public void setDefaultWeight(int defaultWeight) {
+		this.defaultWeight = defaultWeight;
+	}
+
+	public Map<String, Integer> getClientWeights() {
+		return clientWeights;
+	}
+
+	public void setClientWeights(Map<String, Integer> clientWeights) {
+		this.clientWeights = clientWeights;
+	}
+
+	public long getAgingInterval() {
+		return agingInterval;
+	}
+
+	public void setAgingInterval(long agingInterval) {
+		this.agingInterval = agingInterval;
+	}
+
+	public double getCostSmoothing() {
+		return costSmoothing;
+	}
+
+	public void setCostSmoothing(double costSmoothing) {
+		this.costSmoothing = costSmoothing;
+	}
+
+	public long getLocalityDelay() {
+		return localityDelay;
+	}
+
+	public void setLocalityDelay(long localityDelay) {
+		this.localityDelay = localityDelay;
+	}
+
+	/**
+	 * Returns the configured weight of the client with the given ID, which is at least 1.
+	 */
+	public int getWeight(String clientId) {
+		for(Map.Entry<String, Integer> clientWeight : clientWeights.entrySet()) {
+			// keys of config maps do not necessarily keep their case
+			if(clientWeight.getKey().equalsIgnoreCase(clientId) && clientWeight.getValue() != null) {
+				return Math.max(1, clientWeight.getValue());
+			}
+		}
+		return Math.max(1, defaultWeight);
+	}
+}
@@ -0,0 +1,24 @@
+package no.siriuslabs.computationapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import no.siriuslabs.computationapi.api.transport.UnixSocketNodeTransport;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring configuration of the node transports offered by the interface module.<p>
+ * HttpNodeTransport is a component of the controller itself; the Unix domain socket transport is added here, so that workers on the controller's host that
+ * registered with the URI of their socket are called through it.
+ */
+@Configuration
+public class TransportConfiguration {
+
+	/**
+	 * Transport calling worker nodes on the controller's host through their Unix domain socket, writing and reading bodies with the application's ObjectMapper.
+	 */
+	@Bean(destroyMethod = "close")
+	public UnixSocketNodeTransport unixSocketNodeTransport(ObjectMapper objectMapper) {
+		return new UnixSocketNodeTransport(objectMapper);
+	}
+
+}
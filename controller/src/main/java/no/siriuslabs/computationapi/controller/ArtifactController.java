@@ -0,0 +1,112 @@
+package no.siriuslabs.computationapi.controller;
+
+import no.siriuslabs.computationapi.api.artifact.ArtifactReference;
+import no.siriuslabs.computationapi.api.artifact.ArtifactTransfer;
+import no.siriuslabs.computationapi.config.ControllerProperties;
+import no.siriuslabs.computationapi.service.ArtifactStore;
+import no.siriuslabs.computationapi.service.NodeRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Rest controller offering the controller's ArtifactStore to worker nodes.<p>
+ * Worker nodes upload large binary results of their computations as artifacts and reference them in their WorkPackageResults (see WorkPackageResult.artifacts).
+ * The node accumulating the results of a run downloads the artifacts it needs. Neither direction buffers the content in memory: uploads are written to disk through
+ * FileChannel.transferFrom() and downloads are handed to the servlet container's sendfile support where it offers one, so the operating system copies the file
+ * straight to the socket, otherwise they are written through FileChannel.transferTo().
+ */
+@RestController
+public class ArtifactController extends AbstractController {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactController.class);
+
+	/**
+	 * Request attributes of Tomcat's sendfile support.
+	 */
+	private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+	/**
+	 * Store keeping the artifacts.
+	 */
+	private final ArtifactStore artifactStore;
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public ArtifactController(NodeRegistry nodeRegistry, ControllerProperties controllerProperties, ArtifactStore artifactStore) {
+		super(nodeRegistry, controllerProperties);
+		this.artifactStore = artifactStore;
+	}
+
+	/**
+	 * Stores the request body as a new artifact of the computation run with the given run-ID and returns its reference, with the artifact's URI as location.
+	 */
+	@PostMapping("/artifacts/{runId}")
+	public ResponseEntity<ArtifactReference> storeArtifact(@PathVariable("runId") long runId, HttpServletRequest request) throws IOException {
+		final String methodName = "storeArtifact";
+		logRequestStart(LOGGER, methodName, runId);
+
+		final ArtifactReference reference = artifactStore.store(runId, Channels.newChannel(request.getInputStream()));
+		final ResponseEntity<ArtifactReference> result = ResponseEntity.created(URI.create("/artifacts/" + runId + '/' + reference.getId())).body(reference);
+
+		logRequestFinish(LOGGER, methodName, reference, runId);
+		return result;
+	}
+
+	/**
+	 * Writes the content of the artifact with the given ID of the computation run with the given run-ID or replies HttpStatus 404 if there is no such artifact.
+	 */
+	@GetMapping("/artifacts/{runId}/{id}")
+	public void getArtifact(@PathVariable("runId") long runId, @PathVariable("id") String id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+		final String methodName = "getArtifact";
+		logRequestStart(LOGGER, methodName, runId, id);
+
+		final Path artifactFile = artifactStore.getArtifact(runId, id);
+		if(artifactFile == null) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			logRequestFinish(LOGGER, methodName, HttpServletResponse.SC_NOT_FOUND, runId, id);
+			return;
+		}
+
+		try(FileChannel file = FileChannel.open(artifactFile, StandardOpenOption.READ)) {
+			final long size = file.size();
+			response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+			response.setHeader("Content-Length", Long.toString(size));
+			response.setHeader("ETag", '"' + id + '"');
+
+			// a wrapped response (e.g. compressing the body) has to see the content, so the file cannot bypass it
+			if(Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE)) && !(response instanceof HttpServletResponseWrapper)) {
+				request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, artifactFile.toAbsolutePath().toString());
+				request.setAttribute(SENDFILE_START_ATTRIBUTE, 0L);
+				request.setAttribute(SENDFILE_END_ATTRIBUTE, size);
+			}
+			else {
+				ArtifactTransfer.transferTo(file, 0, Channels.newChannel(response.getOutputStream()));
+			}
+		}
+
+		logRequestFinish(LOGGER, methodName, HttpServletResponse.SC_OK, runId, id);
+	}
+
+}
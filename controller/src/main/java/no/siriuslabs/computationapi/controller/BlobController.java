@@ -0,0 +1,106 @@
+package no.siriuslabs.computationapi.controller;
+
+import no.siriuslabs.computationapi.config.ControllerProperties;
+import no.siriuslabs.computationapi.service.BlobStore;
+import no.siriuslabs.computationapi.service.NodeRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rest controller offering the controller's BlobStore to clients and worker nodes.<p>
+ * Large inputs are uploaded once as blobs and referenced by their hashes in the WorkPackages (see WorkPackage.blobs), so that they are not sent along with every
+ * call of a worker node. Worker nodes download each blob they need once and cache it. As a blob's content never changes, downloads may be cached by anyone.
+ */
+@RestController
+public class BlobController extends AbstractController {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BlobController.class);
+
+	/**
+	 * Store keeping the blobs.
+	 */
+	private final BlobStore blobStore;
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public BlobController(NodeRegistry nodeRegistry, ControllerProperties controllerProperties, BlobStore blobStore) {
+		super(nodeRegistry, controllerProperties);
+		this.blobStore = blobStore;
+	}
+
+	/**
+	 * Stores the request body as a blob and returns its hash, with the blob's URI as location. Content already stored is not stored a second time.
+	 */
+	@PostMapping("/blobs")
+	public ResponseEntity<String> storeBlob(InputStream content) throws IOException {
+		final String methodName = "storeBlob";
+		logRequestStart(LOGGER, methodName);
+
+		final String hash = blobStore.store(content);
+		final ResponseEntity<String> result = ResponseEntity.created(URI.create("/blobs/" + hash)).contentType(MediaType.TEXT_PLAIN).body(hash);
+
+		logRequestFinish(LOGGER, methodName, hash);
+		return result;
+	}
+
+	/**
+	 * Returns the content of the blob with the given hash or HttpStatus 404 if there is no such blob.
+	 */
+	@GetMapping("/blobs/{hash}")
+	public ResponseEntity<Resource> getBlob(@PathVariable("hash") String hash) {
+		final String methodName = "getBlob";
+		logRequestStart(LOGGER, methodName, hash);
+
+		final Path blobFile = blobStore.getBlob(hash);
+		final ResponseEntity<Resource> result;
+		if(blobFile == null) {
+			result = ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+		}
+		else {
+			result = ResponseEntity.ok()
+					.contentType(MediaType.APPLICATION_OCTET_STREAM)
+					.eTag(hash)
+					.cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic())
+					.body(new FileSystemResource(blobFile.toFile()));
+		}
+
+		logRequestFinish(LOGGER, methodName, result.getStatusCode(), hash);
+		return result;
+	}
+
+	/**
+	 * Deletes the blob with the given hash. Returns true if it was deleted, false if there was no such blob.
+	 * Worker nodes keep their cached copies, so a blob should only be deleted once no WorkPackage referencing it is to be computed anymore.
+	 */
+	@DeleteMapping("/blobs/{hash}")
+	public boolean deleteBlob(@PathVariable("hash") String hash) throws IOException {
+		final String methodName = "deleteBlob";
+		logRequestStart(LOGGER, methodName, hash);
+
+		final boolean result = blobStore.delete(hash);
+
+		logRequestFinish(LOGGER, methodName, result, hash);
+		return result;
+	}
+
+}
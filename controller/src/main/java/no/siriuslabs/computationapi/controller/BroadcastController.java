@@ -0,0 +1,50 @@
+package no.siriuslabs.computationapi.controller;
+
+import no.siriuslabs.computationapi.api.model.computation.RunBroadcast;
+import no.siriuslabs.computationapi.config.ControllerProperties;
+import no.siriuslabs.computationapi.service.BroadcastService;
+import no.siriuslabs.computationapi.service.NodeRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Rest controller offering the broadcast data of computation runs to worker nodes that did not receive it from the BroadcastService, e.g. pulling nodes.
+ */
+@RestController
+public class BroadcastController extends AbstractController {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BroadcastController.class);
+
+	/**
+	 * Service keeping the broadcast data of the active computation runs.
+	 */
+	private final BroadcastService broadcastService;
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public BroadcastController(NodeRegistry nodeRegistry, ControllerProperties controllerProperties, BroadcastService broadcastService) {
+		super(nodeRegistry, controllerProperties);
+		this.broadcastService = broadcastService;
+	}
+
+	/**
+	 * Returns the broadcast data of the computation run with the given run-ID. The data is null if the run has none or is not active anymore.
+	 */
+	@GetMapping("/broadcast/{runId}")
+	public RunBroadcast getBroadcast(@PathVariable("runId") long runId) {
+		final String methodName = "getBroadcast";
+		logRequestStart(LOGGER, methodName, runId);
+
+		final RunBroadcast result = new RunBroadcast(runId, broadcastService.getBroadcast(runId));
+
+		logRequestFinish(LOGGER, methodName, result, runId);
+		return result;
+	}
+
+}
@@ -1,8 +1,11 @@
 package no.siriuslabs.computationapi.controller;
 
 import no.siriuslabs.computationapi.api.exception.InvalidParameterException;
+import no.siriuslabs.computationapi.api.http.ComputationHeaders;
+import no.siriuslabs.computationapi.api.http.WireFormat;
 import no.siriuslabs.computationapi.api.model.computation.DomainType;
 import no.siriuslabs.computationapi.api.model.computation.DomainTypeImpl;
+import no.siriuslabs.computationapi.api.model.node.WorkerNode;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 
@@ -49,4 +52,52 @@ public final class ControllerHelper {
 		return new HttpEntity<>(parameterData, headers);
 	}
 
+	/**
+	 * Creates and returns a new HttpEntity based on the parameterData object given to the method, to be sent in and answered preferably in the given WireFormat.
+	 */
+	public static HttpEntity<?> createHttpEntity(Object parameterData, WireFormat wireFormat) {
+		return createHttpEntity(parameterData, 0, null, wireFormat);
+	}
+
+	/**
+	 * Creates and returns a new HttpEntity based on the parameterData object given to the method, carrying the given computation timeout in milliseconds as a header.
+	 * The header is left out if the timeout is not greater than zero.
+	 */
+	public static HttpEntity<?> createHttpEntity(Object parameterData, long computationTimeout) {
+		return createHttpEntity(parameterData, computationTimeout, null);
+	}
+
+	/**
+	 * Creates and returns a new HttpEntity based on the parameterData object given to the method, carrying the given computation timeout in milliseconds and
+	 * the given result callback path as headers. Each header is left out if there is no timeout greater than zero or no callback path respectively.
+	 */
+	public static HttpEntity<?> createHttpEntity(Object parameterData, long computationTimeout, String resultCallbackPath) {
+		return createHttpEntity(parameterData, computationTimeout, resultCallbackPath, WireFormat.JSON);
+	}
+
+	/**
+	 * Creates and returns a new HttpEntity like createHttpEntity(Object, long, String), to be sent in and answered preferably in the given WireFormat.
+	 */
+	public static HttpEntity<?> createHttpEntity(Object parameterData, long computationTimeout, String resultCallbackPath, WireFormat wireFormat) {
+		HttpHeaders headers = new HttpHeaders();
+		wireFormat.applyTo(headers);
+		if(computationTimeout > 0) {
+			headers.set(ComputationHeaders.COMPUTATION_TIMEOUT, String.valueOf(computationTimeout));
+		}
+		if(resultCallbackPath != null) {
+			headers.set(ComputationHeaders.RESULT_CALLBACK, resultCallbackPath);
+		}
+		return new HttpEntity<>(parameterData, headers);
+	}
+
+	/**
+	 * Returns the WireFormat to use when calling the given WorkerNode: the given preferred format if the node supports it, otherwise JSON.
+	 */
+	public static WireFormat selectWireFormat(WorkerNode node, WireFormat preferredFormat) {
+		if(node == null || preferredFormat == null || !preferredFormat.isAvailable() || !node.getWireFormats().contains(preferredFormat)) {
+			return WireFormat.JSON;
+		}
+		return preferredFormat;
+	}
+
 }
@@ -2,8 +2,11 @@ package no.siriuslabs.computationapi.controller;
 
 import no.siriuslabs.computationapi.api.exception.InvalidParameterException;
 import no.siriuslabs.computationapi.api.model.computation.DomainType;
+import no.siriuslabs.computationapi.api.model.node.NodeStatus;
 import no.siriuslabs.computationapi.api.model.node.WorkerNode;
 import no.siriuslabs.computationapi.config.ControllerProperties;
+import no.siriuslabs.computationapi.service.NodeHeartbeatService;
+import no.siriuslabs.computationapi.service.NodeReaperService;
 import no.siriuslabs.computationapi.service.NodeRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,22 +19,37 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * Rest controller responsible for worker node and domain type related services.<p>
- * It offers several service methods that provide information about the registered nodes and the active domain of the controller.
- * It also has two crucial service methods for registering and unregistering worker nodes with the controller.
+ * It offers several service methods that provide information about the registered nodes and the active domains of the controller.
+ * It also has crucial service methods for registering, draining and unregistering worker nodes with the controller.
  */
 @RestController
 public class NodeController extends AbstractController {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(NodeController.class);
 
+	/**
+	 * Service reclaiming stuck worker nodes.
+	 */
+	private final NodeReaperService nodeReaperService;
+	/**
+	 * Service collecting the heartbeats of worker nodes.
+	 */
+	private final NodeHeartbeatService nodeHeartbeatService;
+
 	/**
 	 * Autowired constructor.
 	 */
 	@Autowired
-	public NodeController(NodeRegistry nodeRegistry, ControllerProperties controllerProperties) {
+	public NodeController(NodeRegistry nodeRegistry, ControllerProperties controllerProperties, NodeReaperService nodeReaperService, NodeHeartbeatService nodeHeartbeatService) {
 		super(nodeRegistry, controllerProperties);
+		this.nodeReaperService = nodeReaperService;
+		this.nodeHeartbeatService = nodeHeartbeatService;
 	}
 
 	/**
@@ -66,8 +84,9 @@ public class NodeController extends AbstractController {
 	 * Registers the given WorkerNode as an available node with the controller. After registration the node is eligible to receive tasks to execute.<p>
 	 * Should this node or a node carrying the same node ID already be registered, the node will <b>not</b> be registered and this method will return HttpStatus 406 - "Not acceptable".
 	 * On successful registration it will return the node itself.<p>
-	 * If there should not yet be an active DomainType set for the controller, this node's DomainType will become the active one on registration.<p>
-	 * Should this node's DomainType not match the already set type of the controller, the node will not be registered and the method will return HttpStatus 406 - "Not acceptable" with an appropriate message.
+	 * Each of the node's DomainTypes not yet active on the controller will become an active one on registration.<p>
+	 * Should the controller be restricted to a set of DomainTypes and the node serve a DomainType outside of this set, the node will not be registered
+	 * and the method will return HttpStatus 406 - "Not acceptable" with an appropriate message.
 	 */
 	@PostMapping("/registerNode")
 	public ResponseEntity<Object> registerNode(@RequestBody WorkerNode node) {
@@ -81,8 +100,8 @@ public class NodeController extends AbstractController {
 			return response;
 		}
 
-		if(getNodeRegistry().hasDomainSet() && !getNodeRegistry().getDomain().getDomainType().equals(node.getDomainType().getDomainType())) {
-			final String message = "Node " + node.getId() + " has set a domain type different from the controller (" + node.getDomainType() + " <> " + getNodeRegistry().getDomain().getDomainType() + ')';
+		if(!getNodeRegistry().acceptsDomains(node)) {
+			final String message = "Node " + node.getId() + " serves domain types not served by the controller (" + node.getAllDomainTypes() + " <> " + getNodeRegistry().getDomains() + ')';
 			LOGGER.info(message);
 			final ResponseEntity<Object> response = ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).body(message);
 			logRequestFinish(LOGGER, methodName, response, node);
@@ -115,41 +134,94 @@ public class NodeController extends AbstractController {
 		logVoidRequestFinish(LOGGER, methodName, id);
 	}
 
+	/**
+	 * Puts the WorkerNode with the given ID into drain mode. A draining node will not be given any new tasks and is unregistered automatically as soon as
+	 * the task it is currently working on has reported its result. Should the node be idle, it is unregistered right away.<p>
+	 * Returns the node's status after the call, which will be DRAINING as long as the node is still working and UNAVAILABLE once it has been unregistered.
+	 * This allows the node to repeat the call until it is safe to shut down.<p>
+	 * Should the given node ID not belong to a registered node, this method will return HttpStatus 404 - "Not found".
+	 */
+	@PostMapping("/drainNode/{id}")
+	public ResponseEntity<NodeStatus> drainNode(@PathVariable String id) {
+		final String methodName = "drainNode";
+		logRequestStart(LOGGER, methodName, id);
+
+		final NodeStatus status = getNodeRegistry().drainNode(id);
+		final ResponseEntity<NodeStatus> response = status == null ? ResponseEntity.status(HttpStatus.NOT_FOUND).build() : ResponseEntity.ok(status);
+
+		logRequestFinish(LOGGER, methodName, response, id);
+		return response;
+	}
+
+	/**
+	 * Returns the currently active domain types on the controller. If there is no active domain type, the result will be an empty list.
+	 */
+	@GetMapping("activeDomains")
+	public List<String> getActiveDomains() {
+		final String methodName = "getActiveDomains";
+		logRequestStart(LOGGER, methodName);
+
+		final List<String> result = getNodeRegistry().getDomains().stream().map(DomainType::getDomainType).collect(Collectors.toList());
+
+		logRequestFinish(LOGGER, methodName, result);
+		return result;
+	}
+
 	/**
 	 * Returns the currently active domain type on the controller. If there is no active domain type, the result will be empty.
+	 * Should several domain types be active, the first one in alphabetical order is returned.
+	 * @deprecated The controller serves several domain types - use getActiveDomains() (/activeDomains) instead.
 	 */
+	@Deprecated
 	@GetMapping("activeDomain")
 	public String getActiveDomain() {
-		final String methodName = "getNodeList";
+		final String methodName = "getActiveDomain";
 		logRequestStart(LOGGER, methodName);
 
-		final DomainType domain = getNodeRegistry().getDomain();
-		String result = domain == null ? null : domain.getDomainType();
+		final String result = getActiveDomains().stream().sorted().findFirst().orElse(null);
 
 		logRequestFinish(LOGGER, methodName, result);
 		return result;
 	}
 
 	/**
-	 * Sets the active domain type to the given one.<p>
-	 * Throws an IllegalStateException if an already set active DomainType would be overwritten by the new one.
+	 * Returns the number of worker nodes currently registered with the controller that can serve the given domain type.
+	 */
+	@GetMapping("/numberOfNodes/{domain}")
+	public int getNumberOfNodes(@PathVariable String domain) {
+		final String methodName = "getNumberOfNodes";
+		logRequestStart(LOGGER, methodName, domain);
+
+		final int result = getNodeRegistry().getNumberOfNodes(ControllerHelper.getDomainTypeFromParameter(domain));
+
+		logRequestFinish(LOGGER, methodName, result, domain);
+		return result;
+	}
+
+	/**
+	 * Restricts the controller to the given domain types. Nodes serving other domain types will not be accepted afterwards.<p>
+	 * Throws an IllegalStateException if nodes are registered already.
 	 */
-	public void setDomain(DomainType domain) {
-		getNodeRegistry().setDomain(domain);
+	public void restrictToDomains(Collection<DomainType> domains) {
+		getNodeRegistry().restrictToDomains(domains);
 	}
 
 	/**
-	 * Triggers pinging of all registered worker nodes.
+	 * Triggers pinging of all registered worker nodes, recording the capacity and occupancy they report.
 	 */
 	public void pingNodes() {
 		if(getNodeRegistry().hasNodes()) {
-			getNodeRegistry().pingAllNodes();
+			nodeHeartbeatService.pingNodes();
 		}
 	}
 
-	// TODO add timer method to mark or clean up nodes that are
-		// - RESERVED for too long
-		// - SUSPICIOUS
-		// - DONE (not sure yet about this state)
+	/**
+	 * Triggers the reclaiming of worker nodes that are stuck in the status RESERVED, BUSY or DRAINING for too long.
+	 */
+	public void reapNodes() {
+		if(getNodeRegistry().hasNodes()) {
+			nodeReaperService.reapStuckNodes();
+		}
+	}
 
 }
@@ -1,5 +1,6 @@
 package no.siriuslabs.computationapi.controller;
 
+import no.siriuslabs.computationapi.api.http.WireFormat;
 import no.siriuslabs.computationapi.api.model.computation.ComputationResult;
 import no.siriuslabs.computationapi.api.model.computation.ComputationStatus;
 import no.siriuslabs.computationapi.api.model.computation.DomainType;
@@ -8,30 +9,34 @@ import no.siriuslabs.computationapi.api.model.computation.ResultsProtocol;
 import no.siriuslabs.computationapi.api.model.computation.Status;
 import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
 import no.siriuslabs.computationapi.api.model.computation.WorkPackageResult;
+import no.siriuslabs.computationapi.api.transport.NodeCall;
 import no.siriuslabs.computationapi.config.ControllerProperties;
 import no.siriuslabs.computationapi.event.AbstractDataWorkflowEvent;
+import no.siriuslabs.computationapi.event.ComputationCancelledEvent;
+import no.siriuslabs.computationapi.event.ComputationFailedEvent;
 import no.siriuslabs.computationapi.event.ComputationRequestAddedEvent;
 import no.siriuslabs.computationapi.event.DataPreparartionFinishedEvent;
 import no.siriuslabs.computationapi.event.ResultUpdateEvent;
+import no.siriuslabs.computationapi.service.ArtifactStore;
+import no.siriuslabs.computationapi.service.BroadcastService;
 import no.siriuslabs.computationapi.service.NodeRegistry;
+import no.siriuslabs.computationapi.service.NodeTransportSelector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationListener;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
 
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Rest controller responsible for keeping track of computation status and results and accumulating them in the end.<p>
@@ -48,23 +53,33 @@ public class ResultController extends AbstractController implements ApplicationL
 	private static final String ACCUMULATE_RESULTS_PATH = "/accumulateResults";
 
 	/**
-	 * Spring RestTemplate used to call worker node services.
+	 * Selector of the NodeTransport used to call worker node services.
 	 */
-	private final RestTemplate restTemplate;
+	private final NodeTransportSelector transportSelector;
+	/**
+	 * Service keeping the broadcast data of the computation runs, which is dropped together with a run's protocol.
+	 */
+	private final BroadcastService broadcastService;
+	/**
+	 * Store keeping the artifacts of the computation runs, which are deleted together with a run's protocol.
+	 */
+	private final ArtifactStore artifactStore;
 
 	/**
-	 * Protocol of everything that happened so far in a computation run. Can keep track of several runs, as long as their DomainType is different.
+	 * Protocols of everything that happened so far in the computation runs, identified by their run-IDs. Several runs of the same DomainType can be active at once.
 	 */
-	private Map<DomainType, RequestProtocol> protocolMap = new ConcurrentHashMap<>();
+	private Map<Long, RequestProtocol> protocolMap = new ConcurrentHashMap<>();
 
 	/**
 	 * Autowired constructor.
 	 */
 	@Autowired
-	public ResultController(NodeRegistry nodeRegistry, ControllerProperties controllerProperties/*, RestTemplate restTemplate*/) {
+	public ResultController(NodeRegistry nodeRegistry, ControllerProperties controllerProperties, NodeTransportSelector transportSelector, BroadcastService broadcastService,
+							ArtifactStore artifactStore) {
 		super(nodeRegistry, controllerProperties);
-//		this.restTemplate = restTemplate; // TODO RestTemplate causes cyclic dependency in Spring
-		this.restTemplate = new RestTemplate();
+		this.transportSelector = transportSelector;
+		this.broadcastService = broadcastService;
+		this.artifactStore = artifactStore;
 	}
 
 	/**
@@ -79,25 +94,58 @@ public class ResultController extends AbstractController implements ApplicationL
 			LOGGER.info("Event is {} --> {}", event.getClass().getName(), event);
 
 			final DomainType domain = event.getComputationRequest().getDomain();
-			protocolMap.put(domain, new RequestProtocol(domain, event.getComputationRequest()));
-			LOGGER.info("ComputationRequest added to protocol in domain {}", domain);
+			final long runId = event.getComputationRequest().getRunId();
+			protocolMap.put(runId, new RequestProtocol(domain, event.getComputationRequest()));
+			LOGGER.info("ComputationRequest added to protocol of run {} in domain {}", runId, domain);
 		}
 		else if(workflowEvent instanceof DataPreparartionFinishedEvent) {
 			DataPreparartionFinishedEvent event = (DataPreparartionFinishedEvent) workflowEvent;
 			LOGGER.info("Event is {} --> {}", event.getClass().getName(), event);
 
-			final DomainType domain = event.getDomain();
+			final long runId = event.getRunId();
 			List<WorkPackage> workPackages = event.getWorkPackages();
-			protocolMap.get(domain).addWorkPackages(workPackages);
-			LOGGER.info("Added {} work packages to protocol in domain {}", workPackages.size(), domain);
+			RequestProtocol protocol = protocolMap.get(runId);
+			if(protocol == null || protocol.isCancelled()) {
+				LOGGER.info("Computation run {} is not active anymore - ignoring {} work packages", runId, workPackages.size());
+				return;
+			}
+			protocol.addWorkPackages(workPackages);
+			LOGGER.info("Added {} work packages to protocol of run {}", workPackages.size(), runId);
 		}
 		else if(workflowEvent instanceof ResultUpdateEvent) {
 			ResultUpdateEvent event = (ResultUpdateEvent) workflowEvent;
 			LOGGER.info("Event is {} --> {}", event.getClass().getName(), event);
 
-			final DomainType domain = event.getWorkPackageResult().getWorkPackage().getDomain();
-			protocolMap.get(domain).addWorkPackageResults(event.getWorkPackageResult());
-			LOGGER.info("Result added for WP {} in domain {}", event.getWorkPackageResult().getWorkPackage().getId(), domain);
+			final long runId = event.getWorkPackageResult().getWorkPackage().getRunId();
+			RequestProtocol protocol = protocolMap.get(runId);
+			if(protocol == null || protocol.isCancelled()) {
+				LOGGER.info("Computation run {} is not active anymore - ignoring result for WP {}", runId, event.getWorkPackageResult().getWorkPackage().getId());
+				return;
+			}
+			protocol.addWorkPackageResults(event.getWorkPackageResult());
+			LOGGER.info("Result added for WP {} of run {}", event.getWorkPackageResult().getWorkPackage().getId(), runId);
+		}
+		else if(workflowEvent instanceof ComputationCancelledEvent) {
+			ComputationCancelledEvent event = (ComputationCancelledEvent) workflowEvent;
+			LOGGER.info("Event is {} --> {}", event.getClass().getName(), event);
+
+			final long runId = event.getRunId();
+			RequestProtocol protocol = protocolMap.get(runId);
+			if(protocol != null) {
+				protocol.cancel();
+				LOGGER.info("Protocol of run {} marked as cancelled", runId);
+			}
+		}
+		else if(workflowEvent instanceof ComputationFailedEvent) {
+			ComputationFailedEvent event = (ComputationFailedEvent) workflowEvent;
+			LOGGER.info("Event is {} --> {}", event.getClass().getName(), event);
+
+			final long runId = event.getRunId();
+			RequestProtocol protocol = protocolMap.get(runId);
+			if(protocol != null && !protocol.isCancelled()) {
+				protocol.fail(event.getErrorMessage());
+				LOGGER.info("Protocol of run {} marked as failed", runId);
+			}
 		}
 		else {
 			LOGGER.warn("Unknown even {}", workflowEvent);
@@ -105,35 +153,45 @@ public class ResultController extends AbstractController implements ApplicationL
 	}
 
 	/**
-	 * Returns a ComputationStatus object depicting the current status of the computation of the given domain.<p>
+	 * Returns a ComputationStatus object depicting the current status of the computation run with the given run-ID.<p>
 	 * The returned object contains three-part information:
 	 * <ul>
-	 *     <li>The computation status - UNKNOWN (nothing found for this domain), PENDING (found but no WorkPackages present yet), WORKING (WorkPackages found) and DONE (finished, results not collected)</li>
+	 *     <li>The computation status - UNKNOWN (nothing found for this run-ID), PENDING (found but no WorkPackages present yet, e.g. still being validated), WORKING (WorkPackages found),
+	 *     DONE (finished, results not collected), CANCELLED (cancelled before being finished, results not collected) and FAILED (rejected during validation or preparation)</li>
 	 *     <li>Percentage of WorkPackages done</li>
 	 *     <li>Number of WorkPackages still to do (without results)</li>
 	 * </ul>
 	 */
-	@GetMapping("/status/{domain}")
-	public ComputationStatus getStatus(@PathVariable("domain") String domain) {
+	@GetMapping("/status/{runId:[0-9]+}")
+	public ComputationStatus getStatus(@PathVariable("runId") long runId) {
 		final String methodName = "getStatus";
-		logRequestStart(LOGGER, methodName, domain);
+		logRequestStart(LOGGER, methodName, runId);
 
-		ControllerHelper.checkParameter(domain);
-		DomainType domainType = ControllerHelper.getDomainTypeFromParameter(domain);
-
-		LOGGER.info("Checking status for domain {}", domainType);
-		RequestProtocol protocol = protocolMap.get(domainType);
+		LOGGER.info("Checking status for run {}", runId);
+		RequestProtocol protocol = protocolMap.get(runId);
 
 		Status status;
 		int percentDone;
 		int packagesTodo;
 
 		if(protocol == null) {
-			LOGGER.info("No entry found - no request submitted for this domain");
+			LOGGER.info("No entry found - no request submitted for this run-ID");
 			status = Status.UNKNOWN;
 			percentDone = -1;
 			packagesTodo = -1;
 		}
+		else if(protocol.isCancelled()) {
+			LOGGER.info("Entry found but computation was cancelled");
+			status = Status.CANCELLED;
+			percentDone = protocol.getWorkPackages().isEmpty() ? 0 : (int) (((float)protocol.getWorkPackageResults().size() / (float) protocol.getWorkPackages().size()) * 100.0f);
+			packagesTodo = 0;
+		}
+		else if(protocol.isFailed()) {
+			LOGGER.info("Entry found but computation failed: {}", protocol.getErrorMessage());
+			status = Status.FAILED;
+			percentDone = 0;
+			packagesTodo = 0;
+		}
 		else if(protocol.getWorkPackages().isEmpty() && protocol.getWorkPackageResults().isEmpty()) {
 			LOGGER.info("Entry found but neither WPs nor results - assuming we did not start yet");
 			status = Status.PENDING;
@@ -156,6 +214,54 @@ public class ResultController extends AbstractController implements ApplicationL
 
 		final ComputationStatus result = new ComputationStatus(status, percentDone, packagesTodo);
 
+		logRequestFinish(LOGGER, methodName, result, runId);
+		return result;
+	}
+
+	/**
+	 * Returns the ComputationStatus of the single computation run of the given domain the controller keeps track of, like getStatus(long) does for a run-ID.
+	 * The status is UNKNOWN if there is no run of the domain. Answered with HttpStatus 409 - "Conflict" if several runs of the domain are active.
+	 * @deprecated Several runs of a domain can be active at once - use getRuns(String) (/runs/{domain}) and getStatus(long) (/status/{runId}) instead.
+	 */
+	@Deprecated
+	@GetMapping("/status/{domain:.*[^0-9].*}")
+	public ResponseEntity<Object> getDomainStatus(@PathVariable("domain") String domain) {
+		final String methodName = "getDomainStatus";
+		logRequestStart(LOGGER, methodName, domain);
+
+		final List<Long> runs = getRuns(domain);
+		final ResponseEntity<Object> response;
+		if(runs.size() > 1) {
+			response = createSeveralRunsResponse(domain, runs);
+		}
+		else if(runs.isEmpty()) {
+			response = ResponseEntity.ok(new ComputationStatus(Status.UNKNOWN, -1, -1));
+		}
+		else {
+			response = ResponseEntity.ok(getStatus(runs.get(0)));
+		}
+
+		logRequestFinish(LOGGER, methodName, response, domain);
+		return response;
+	}
+
+	/**
+	 * Returns the run-IDs of all computation runs of the given domain the controller currently keeps track of, in the order the runs were started.
+	 */
+	@GetMapping("/runs/{domain}")
+	public List<Long> getRuns(@PathVariable("domain") String domain) {
+		final String methodName = "getRuns";
+		logRequestStart(LOGGER, methodName, domain);
+
+		ControllerHelper.checkParameter(domain);
+		DomainType domainType = ControllerHelper.getDomainTypeFromParameter(domain);
+
+		final List<Long> result = protocolMap.values().stream()
+				.filter((RequestProtocol protocol) -> protocol.getDomain().getDomainType().equals(domainType.getDomainType()))
+				.map(RequestProtocol::getRunId)
+				.sorted()
+				.collect(Collectors.toList());
+
 		logRequestFinish(LOGGER, methodName, result, domain);
 		return result;
 	}
@@ -164,38 +270,53 @@ public class ResultController extends AbstractController implements ApplicationL
 	 * Triggers the domain specific accumulation of the collected results on a worker node.<p>
 	 * Returns ResponseEntity containing general statistical data about the computation run and a domain specific result if successful or an error or a negative
 	 * reply if there are no results (yet) or something went wrong.<p>
-	 * After results have been found and reported back successfully they will be removed the controller and this DomainType is applicable to be used in a further computation run again.
+	 * After results have been found and reported back successfully they will be removed from the controller.
+	 * The same applies to cancelled and failed computation runs, for which no results are accumulated.
 	 */
-	@GetMapping("/result/{domain}")
-	public ResponseEntity<Object> getResult(@PathVariable("domain") String domain) throws URISyntaxException {
+	@GetMapping("/result/{runId:[0-9]+}")
+	public ResponseEntity<Object> getResult(@PathVariable("runId") long runId) throws URISyntaxException {
 		final String methodName = "getResult";
-		logRequestStart(LOGGER, methodName, domain);
-
-		ControllerHelper.checkParameter(domain);
-		DomainType domainType = ControllerHelper.getDomainTypeFromParameter(domain);
+		logRequestStart(LOGGER, methodName, runId);
 
-		ComputationStatus status = getStatus(domain);
+		ComputationStatus status = getStatus(runId);
 		LOGGER.info("Computation status is {}", status);
+		if(Status.CANCELLED == status.getStatus()) {
+			LOGGER.info("Removing cancelled protocol of run {} from result store", runId);
+			removeProtocol(runId);
+
+			final ComputationResult result = new ComputationResult(status.getStatus(), "Computation was cancelled");
+			logRequestFinish(LOGGER, methodName, result, runId);
+			return ResponseEntity.status(HttpStatus.OK).body(result);
+		}
+		RequestProtocol failedProtocol = protocolMap.get(runId);
+		if(Status.FAILED == status.getStatus() && failedProtocol != null && failedProtocol.isFailed()) {
+			LOGGER.info("Removing failed protocol of run {} from result store", runId);
+			removeProtocol(runId);
+
+			final ComputationResult result = new ComputationResult(status.getStatus(), failedProtocol.getErrorMessage());
+			logRequestFinish(LOGGER, methodName, result, runId);
+			return ResponseEntity.status(HttpStatus.OK).body(result);
+		}
 		if(Status.DONE != status.getStatus() && Status.FAILED != status.getStatus()) {
 			final ComputationResult result = new ComputationResult(status.getStatus(), "Computation not done yet");
 
-			logRequestFinish(LOGGER, methodName, result, domain);
+			logRequestFinish(LOGGER, methodName, result, runId);
 			return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).body(result);
 		}
 
-		RequestProtocol protocol = protocolMap.get(domainType);
+		RequestProtocol protocol = protocolMap.get(runId);
 		if(protocol == null || protocol.getWorkPackageResults() == null || protocol.getWorkPackageResults().isEmpty()) {
 			final ComputationResult result = new ComputationResult(status.getStatus(), "No results found");
 
-			logRequestFinish(LOGGER, methodName, result, domain);
+			logRequestFinish(LOGGER, methodName, result, runId);
 			return ResponseEntity.status(HttpStatus.OK).body(result);
 		}
-		LOGGER.info("Protocol for domain {} contains {} results", domainType, protocol.getWorkPackageResults().size());
+		LOGGER.info("Protocol of run {} contains {} results", runId, protocol.getWorkPackageResults().size());
 
-		String nodeId = reserveNode(domainType);
+		String nodeId = reserveNode(protocol.getDomain());
 		if(nodeId == null) {
 			final ResponseEntity<Object> response = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("No free nodes found after max number of retries");
-			logRequestFinish(LOGGER, methodName, response, domain);
+			logRequestFinish(LOGGER, methodName, response, runId);
 			return response;
 		}
 
@@ -204,26 +325,64 @@ public class ResultController extends AbstractController implements ApplicationL
 		LOGGER.info("Node-URI to be called: {}", uri);
 
 		final ResultsProtocol resultsProtocol = new ResultsProtocol(protocol.getDomain(), protocol.getWorkPackageResults());
+		resultsProtocol.setRunId(runId);
 		addTimingData(protocol, resultsProtocol);
 
-		HttpEntity<ResultsProtocol> entity = (HttpEntity<ResultsProtocol>) ControllerHelper.createHttpEntity(resultsProtocol);
+		final WireFormat wireFormat = ControllerHelper.selectWireFormat(getNodeRegistry().getNode(nodeId), getControllerProperties().getController().getWireFormat());
+		NodeCall call = new NodeCall(ACCUMULATE_RESULTS_PATH, resultsProtocol);
+		call.setWireFormat(wireFormat);
 
 		getNodeRegistry().occupyNode(nodeId);
-		ResponseEntity<ComputationResult> response = restTemplate.exchange(uri, HttpMethod.POST, entity, ComputationResult.class);
+		ResponseEntity<ComputationResult> response = transportSelector.call(nodeUri, call, ComputationResult.class);
 
 		ComputationResult result = response.getBody();
 		LOGGER.info("Computation result received: {}", result);
 		if(HttpStatus.OK == response.getStatusCode()) {
-			LOGGER.info("Removing protocol from domain {} from result store", domainType);
-			protocolMap.remove(domainType);
+			LOGGER.info("Removing protocol of run {} from result store", runId);
+			removeProtocol(runId);
 		}
 
 		getNodeRegistry().freeNode(nodeId);
 
-		logRequestFinish(LOGGER, methodName, result, domain);
+		logRequestFinish(LOGGER, methodName, result, runId);
 		return ResponseEntity.status(HttpStatus.OK).body(result);
 	}
 
+	/**
+	 * Returns the result of the single computation run of the given domain the controller keeps track of, like getResult(long) does for a run-ID.
+	 * Answered with HttpStatus 406 - "Not acceptable" if there is no run of the domain and with HttpStatus 409 - "Conflict" if several runs of the domain are active.
+	 * @deprecated Several runs of a domain can be active at once - use getRuns(String) (/runs/{domain}) and getResult(long) (/result/{runId}) instead.
+	 */
+	@Deprecated
+	@GetMapping("/result/{domain:.*[^0-9].*}")
+	public ResponseEntity<Object> getDomainResult(@PathVariable("domain") String domain) throws URISyntaxException {
+		final String methodName = "getDomainResult";
+		logRequestStart(LOGGER, methodName, domain);
+
+		final List<Long> runs = getRuns(domain);
+		final ResponseEntity<Object> response;
+		if(runs.size() > 1) {
+			response = createSeveralRunsResponse(domain, runs);
+		}
+		else if(runs.isEmpty()) {
+			response = ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).body(new ComputationResult(Status.UNKNOWN, "Computation not done yet"));
+		}
+		else {
+			response = getResult(runs.get(0));
+		}
+
+		logRequestFinish(LOGGER, methodName, response, domain);
+		return response;
+	}
+
+	/**
+	 * Returns the reply to a request addressing the computation run of the given domain by the domain while the given runs of it are active.
+	 */
+	private ResponseEntity<Object> createSeveralRunsResponse(String domain, List<Long> runs) {
+		LOGGER.info("Several runs of domain {} are active: {}", domain, runs);
+		return ResponseEntity.status(HttpStatus.CONFLICT).body("Several runs of domain " + domain + " are active - address them by their run-IDs " + runs);
+	}
+
 	/**
 	 * Prepares and adds all available statistical and timing data in the given RequestProtocol to the given ResultsProtocol.
 	 */
@@ -258,8 +417,20 @@ public class ResultController extends AbstractController implements ApplicationL
 		resultsProtocol.setAvgWpTime(wpSum / protocol.getWorkPackageResults().size());
 	}
 
-	protected RequestProtocol getProtocolForDomain(DomainType domainType) {
-		return protocolMap.get(domainType);
+	/**
+	 * Removes the RequestProtocol of the computation run with the given run-ID, ending the run, and drops the run's broadcast data and artifacts.
+	 */
+	private void removeProtocol(long runId) {
+		protocolMap.remove(runId);
+		broadcastService.removeRun(runId);
+		artifactStore.removeRun(runId);
+	}
+
+	/**
+	 * Returns the RequestProtocol of the computation run with the given run-ID or null if the controller does not know such a run (anymore).
+	 */
+	protected RequestProtocol getProtocol(long runId) {
+		return protocolMap.get(runId);
 	}
 
 }
@@ -1,150 +1,174 @@
 package no.siriuslabs.computationapi.controller;
 
+import no.siriuslabs.computationapi.api.http.ComputationHeaders;
 import no.siriuslabs.computationapi.api.model.computation.DomainType;
+import no.siriuslabs.computationapi.api.model.computation.RunTicket;
+import no.siriuslabs.computationapi.api.model.computation.Status;
 import no.siriuslabs.computationapi.api.model.request.ComputationRequest;
-import no.siriuslabs.computationapi.api.model.request.Payload;
 import no.siriuslabs.computationapi.config.ControllerProperties;
+import no.siriuslabs.computationapi.event.ComputationCancelledEvent;
 import no.siriuslabs.computationapi.event.ComputationRequestAddedEvent;
+import no.siriuslabs.computationapi.service.AdmissionService;
 import no.siriuslabs.computationapi.service.DataPreparationService;
 import no.siriuslabs.computationapi.service.NodeRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
 
 import java.net.URI;
-import java.net.URISyntaxException;
-import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Rest controller responsible for accepting, validating and starting computation requests. It exposes a single service method to accept requests and start the process.
+ * Rest controller responsible for accepting and starting computation requests. It exposes a service method to accept requests and start the process asynchronously
+ * and another one to cancel a computation run that is in progress.
  */
 @RestController
 public class ServiceController extends AbstractController {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ServiceController.class);
 
-	public static final String DATA_VALIDATION_FAILED_RESPONSE_CODE_MSG = "Data validation failed: response code=";
-	public static final String DATA_VALIDATION_FAILED_NO_RESULT_MSG = "Data validation failed: no result";
-	public static final String DATA_VALIDATION_FAILED_MSG = "Data validation failed: ";
-	public static final String VALIDATE_DATA_PATH = "/validateData";
+	public static final String NO_COMPUTATION_FOUND_MSG = "No computation found for run-ID ";
+	public static final String COMPUTATION_ALREADY_FINISHED_MSG = "Computation already finished with status ";
 
 	/**
 	 * DataPreparationService instance to trigger work package generation.
 	 */
 	private final DataPreparationService dataPreparationService;
 	/**
-	 * Spring RestTemplate used to call worker node services.
+	 * Reference to ResultController to get information about the status of computation runs.
 	 */
-	private final RestTemplate restTemplate;
+	private final ResultController resultController;
 	/**
 	 * Event publisher to pass updates to other controllers.
 	 */
 	private final ApplicationEventPublisher applicationEventPublisher;
+	/**
+	 * AdmissionService deciding whether new computation requests are accepted.
+	 */
+	private final AdmissionService admissionService;
+
+	/**
+	 * Source of the run-IDs assigned to accepted computation requests.
+	 */
+	private final AtomicLong runIdSequence = new AtomicLong();
 
 	/**
 	 * Autowired constructor.
 	 */
 	@Autowired
-	public ServiceController(NodeRegistry nodeRegistry, DataPreparationService dataPreparationService, ControllerProperties controllerProperties, RestTemplate restTemplate, ApplicationEventPublisher applicationEventPublisher) {
+	public ServiceController(NodeRegistry nodeRegistry, DataPreparationService dataPreparationService, ResultController resultController, ControllerProperties controllerProperties, ApplicationEventPublisher applicationEventPublisher, AdmissionService admissionService) {
 		super(nodeRegistry, controllerProperties);
 		this.dataPreparationService = dataPreparationService;
-		this.restTemplate = restTemplate;
+		this.resultController = resultController;
 		this.applicationEventPublisher = applicationEventPublisher;
+		this.admissionService = admissionService;
 	}
 
 	/**
 	 * Accepts data to start a computation run. The contents of the ComputationRequest must fit the domain specific needs.<p>
-	 * The first steps of the computation run are executed in this method in a synchronous way: validation of the data and generation of work packages from the data.
-	 * If both steps are successful, the finishes and the following steps are executed asynchronously over time.
-	 * If not successful, the method will return a text description of the cause of the problem (e.g. why validation failed).
+	 * Every accepted request starts a computation run of its own, identified by a run-ID. The method returns right away with HttpStatus 202 ("Accepted") and a RunTicket
+	 * containing the run-ID and the paths to query the status and the result of the run and to cancel it. The run-ID is also returned in the header X-Run-Id and
+	 * the status path in the header Location. Several runs of the same domain can be active at once.<p>
+	 * All steps of the computation run are executed asynchronously: validation of the data and generation of work packages from the data on a worker node, followed by
+	 * the computation of the work packages. The run's status is PENDING until its work packages have been generated. If the data does not pass validation,
+	 * the status changes to FAILED and the result contains a text description of the cause of the problem.<p>
+	 * Requests are subject to admission control: if too many requests are pending or too much work is queued, the method returns HttpStatus 429 ("Too Many Requests")
+	 * with a Retry-After header instead.
 	 */
 	@PostMapping("/startComputation")
-	public ResponseEntity<Object> startComputation(@RequestBody ComputationRequest request) throws URISyntaxException, ExecutionException {
+	public ResponseEntity<Object> startComputation(@RequestBody ComputationRequest request, @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength) {
 		final String methodName = "startComputation";
 		logRequestStart(LOGGER, methodName, request);
 
 		DomainType domain = request.getDomain();
-
-		request.setStartedTimestamp(System.currentTimeMillis());
-
-		// TODO check status (task, not node usage) - if busy with that domain --> fail
-
-		String nodeId = reserveNode(domain);
-		if(nodeId == null) {
-			final ResponseEntity<Object> response = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("No free nodes found after max number of retries");
+		if(!getNodeRegistry().acceptsDomain(domain)) {
+			final ResponseEntity<Object> response = ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).body("Domain " + domain + " is not served by the controller");
 			logRequestFinish(LOGGER, methodName, response, request);
 			return response;
 		}
 
-		Payload payload = request.getPayload();
+		final long runId = runIdSequence.incrementAndGet();
+		final String rejectionReason = admissionService.admit(runId, contentLength == null ? 0 : contentLength);
+		if(rejectionReason != null) {
+			final ResponseEntity<Object> response = createTooManyRequestsResponse(rejectionReason);
+			logRequestFinish(LOGGER, methodName, response, request);
+			return response;
+		}
 
-		ResponseEntity<Object> response = validateData(nodeId, payload);
-		if(response == null) {
-			LOGGER.info("Validation was successful");
+		boolean submitted = false;
+		try {
+			request.setRunId(runId);
+			request.setStartedTimestamp(System.currentTimeMillis());
 
 			ComputationRequestAddedEvent event = new ComputationRequestAddedEvent(this, request);
 			LOGGER.info("Publishing event: {}", event);
 			applicationEventPublisher.publishEvent(event);
 
 			LOGGER.info("Invoking an asynchronous method from {}", Thread.currentThread().getName());
-			URI nodeUri = getNodeRegistry().getUriForNode(nodeId);
-			dataPreparationService.prepareAndPackageData(nodeId, nodeUri, request);
-
-			response = ResponseEntity.ok("Data accepted, computation submitted");
+			dataPreparationService.validateAndPrepareData(request);
+			submitted = true;
 		}
-		else {
-			LOGGER.info("Freeing node {} because validation failed", nodeId);
-			getNodeRegistry().occupyNode(nodeId);
-			getNodeRegistry().freeNode(nodeId);
+		finally {
+			if(!submitted) {
+				admissionService.release(runId);
+			}
 		}
 
+		final RunTicket ticket = new RunTicket(runId, domain, Status.PENDING);
+		final ResponseEntity<Object> response = ResponseEntity.accepted()
+				.location(URI.create(ticket.getStatusPath()))
+				.header(ComputationHeaders.RUN_ID, String.valueOf(runId))
+				.body(ticket);
+
 		logRequestFinish(LOGGER, methodName, response, request);
 		return response;
 	}
 
 	/**
-	 * Sends the data from the ComputationRequest's Payload to a worker node for domain specific validation.<p>
-	 * Returns a Spring ResponseEntity to be returned to the caller if the validation process was <b>not</b> successful.
-	 * The reasons for failure can be a non-OK HttpStatus code, no validation result returned or validation errors in the data.
-	 * The method will produce HttpStatus 406 ("Not Acceptable") responses with text explanations in theses cases.<p>
-	 * If the validation succeeded it will return just null.
+	 * Creates a response with HttpStatus 429 ("Too Many Requests") telling the client to submit its request again after the configured time.
 	 */
-	protected ResponseEntity<Object> validateData(String nodeId, Payload payload) throws URISyntaxException {
-		LOGGER.info("Validating data - using node {}; data package = {}", nodeId, payload);
-
-		URI nodeUri = getNodeRegistry().getUriForNode(nodeId);
-		URI uri = new URI(nodeUri + VALIDATE_DATA_PATH);
-		HttpEntity<Payload> entity = (HttpEntity<Payload>) ControllerHelper.createHttpEntity(payload);
-
-		LOGGER.info("Service to be called @ {} with parameters: {}", uri, payload);
-
-		ResponseEntity<Object> validationResponse = restTemplate.exchange(uri, HttpMethod.POST, entity, Object.class);
+	private ResponseEntity<Object> createTooManyRequestsResponse(String reason) {
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, String.valueOf(admissionService.getRetryAfter())).body(reason);
+	}
 
-		List<String> result = (List<String>) validationResponse.getBody();
-		if(HttpStatus.OK != validationResponse.getStatusCode()) {
-			LOGGER.info("Validation failed - response code was {}", validationResponse.getStatusCode());
-			return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).body(DATA_VALIDATION_FAILED_RESPONSE_CODE_MSG + validationResponse.getStatusCode());
+	/**
+	 * Cancels the computation run with the given run-ID.<p>
+	 * All WorkPackages of the run still waiting in the queue are dropped and the worker nodes currently computing packages of the run are asked to abort them,
+	 * so that they become available for other work within seconds. Results reported for the run afterwards are discarded and the run's status changes to CANCELLED.<p>
+	 * Returns HttpStatus 404 ("Not Found") if there is no computation run with this run-ID and HttpStatus 406 ("Not Acceptable") if the run has already finished or failed.
+	 */
+	@PostMapping("/cancelComputation/{runId}")
+	public ResponseEntity<Object> cancelComputation(@PathVariable("runId") long runId) {
+		final String methodName = "cancelComputation";
+		logRequestStart(LOGGER, methodName, runId);
+
+		final ResponseEntity<Object> response;
+		final Status status = resultController.getStatus(runId).getStatus();
+		if(Status.UNKNOWN == status) {
+			response = ResponseEntity.status(HttpStatus.NOT_FOUND).body(NO_COMPUTATION_FOUND_MSG + runId);
 		}
-		else if(result == null) {
-			LOGGER.info("Validation failed - null result");
-			return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).body(DATA_VALIDATION_FAILED_NO_RESULT_MSG);
+		else if(Status.DONE == status || Status.CANCELLED == status || Status.FAILED == status) {
+			response = ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).body(COMPUTATION_ALREADY_FINISHED_MSG + status);
 		}
-		else if(!result.isEmpty()) {
-			LOGGER.info("Validation failed - validation errors: {}", result);
-			return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).body(DATA_VALIDATION_FAILED_MSG + result);
+		else {
+			ComputationCancelledEvent event = new ComputationCancelledEvent(this, runId);
+			LOGGER.info("Publishing event: {}", event);
+			applicationEventPublisher.publishEvent(event);
+
+			response = ResponseEntity.ok("Computation cancelled");
 		}
 
-		return null;
+		logRequestFinish(LOGGER, methodName, response, runId);
+		return response;
 	}
 
 }
@@ -4,29 +4,52 @@ import no.siriuslabs.computationapi.api.model.computation.DomainType;
 import no.siriuslabs.computationapi.api.model.computation.RequestProtocol;
 import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
 import no.siriuslabs.computationapi.api.model.computation.WorkPackageResult;
+import no.siriuslabs.computationapi.api.model.node.WorkerNode;
+import no.siriuslabs.computationapi.api.model.request.ComputationRequest;
 import no.siriuslabs.computationapi.config.ControllerProperties;
 import no.siriuslabs.computationapi.event.AbstractDataWorkflowEvent;
+import no.siriuslabs.computationapi.event.ComputationCancelledEvent;
 import no.siriuslabs.computationapi.event.DataPreparartionFinishedEvent;
 import no.siriuslabs.computationapi.event.ResultUpdateEvent;
 import no.siriuslabs.computationapi.service.ComputationJobService;
+import no.siriuslabs.computationapi.service.DataPreparationService;
 import no.siriuslabs.computationapi.service.NodeRegistry;
+import no.siriuslabs.computationapi.service.ResultIngestionService;
+import no.siriuslabs.computationapi.service.WorkScheduler;
 import no.siriuslabs.computationapi.util.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 
 /**
  * Rest controller responsible for keeping track of the work packages still to run and for distributing the work to different nodes.
+ * The order in which queued work packages are handed out is decided by the configured WorkScheduler.<p>
+ * Work packages are either sent to idle worker nodes by the controller or fetched by pulling worker nodes through the fetchWork-service offered by this class.
+ * A pulling node long-polls for its next packages and reports their results through the reportResults-service later, so that the controller does not have to reach
+ * the node and does not keep a thread blocked while the node is computing. Nodes the controller sends work to may report results through the same service
+ * if they accepted the packages for computation in the background.
  */
 // TODO technically not a Rest controller anymore since it lost domain information --> rename/remove annotation/move?
 @RestController
@@ -42,30 +65,52 @@ public class WorkPackageController extends AbstractController implements Applica
 	 * Reference to ResultController to get information about results and overall status.
 	 */
 	private final ResultController resultController;
+	/**
+	 * WorkScheduler that keeps all WorkPackages still to run and decides which of them is handed out next.
+	 */
+	private final WorkScheduler workScheduler;
+	/**
+	 * Service accepting the results reported by worker nodes through the reportResults-service.
+	 */
+	private final ResultIngestionService resultIngestionService;
+	/**
+	 * DataPreparationService whose requests left pending for lack of a free node are started by the work distribution timer.
+	 */
+	private final DataPreparationService dataPreparationService;
 
 	/**
-	 * Map that keeps all WorkPackages ordered by DomainType.
+	 * Run-IDs of all computation runs whose WorkPackages have been queued and whose results have not been collected yet.
+	 */
+	private final Set<Long> activeRuns;
+	/**
+	 * Map that keeps a register of which WorkPackage currently runs on which node. WorkPackage-IDs are unique within a run only, so the package itself is the key.
 	 */
-	private final ConcurrentHashMap<DomainType, ConcurrentLinkedQueue<WorkPackage>> workToDo;
+	private final ConcurrentHashMap<WorkPackage, Pair<WorkPackage, String>> runningWorkPackages;
 	/**
-	 * Map that keeps a register of which WorkPackage currently runs on which node.
+	 * Fetch requests of pulling nodes waiting for work to be queued.
 	 */
-	private final ConcurrentHashMap<Long, Pair<WorkPackage, String>> runningWorkPackages;
+	private final Queue<WaitingFetch> waitingFetches;
 
 	/**
 	 * Autowired constructor.
 	 */
 	@Autowired
-	public WorkPackageController(NodeRegistry nodeRegistry, ComputationJobService computationJobService, ControllerProperties controllerProperties, ResultController resultController) {
+	public WorkPackageController(NodeRegistry nodeRegistry, ComputationJobService computationJobService, ControllerProperties controllerProperties, ResultController resultController, WorkScheduler workScheduler,
+								 ResultIngestionService resultIngestionService, DataPreparationService dataPreparationService) {
 		super(nodeRegistry, controllerProperties);
 		this.computationJobService = computationJobService;
 		this.resultController = resultController;
-		workToDo = new ConcurrentHashMap<>(5);
+		this.workScheduler = workScheduler;
+		this.resultIngestionService = resultIngestionService;
+		this.dataPreparationService = dataPreparationService;
+		activeRuns = ConcurrentHashMap.newKeySet();
 		runningWorkPackages = new ConcurrentHashMap<>();
+		waitingFetches = new ConcurrentLinkedQueue<>();
 	}
 
 	/**
-	 * Implementation of ApplicationListener to keep track of different application events reporting the completion of the preparation phase or a computation finishing for a WorkPackage.
+	 * Implementation of ApplicationListener to keep track of different application events reporting the completion of the preparation phase, a computation finishing for a WorkPackage
+	 * or a computation run being cancelled.
 	 * Different event classes are used here, depending on the application phase the event belongs to.
 	 */
 	@Override
@@ -74,21 +119,30 @@ public class WorkPackageController extends AbstractController implements Applica
 			DataPreparartionFinishedEvent dataPreparartionFinishedEvent = (DataPreparartionFinishedEvent) event;
 			LOGGER.info("DataPreparartionFinishedEvent triggered in thread {} with data {}", Thread.currentThread().getName(), dataPreparartionFinishedEvent);
 
-			final DomainType domain = dataPreparartionFinishedEvent.getDomain();
-			if(workToDo.get(domain) == null) {
-				LOGGER.info("Creating queue for domain {}", domain);
-				workToDo.put(domain, new ConcurrentLinkedQueue<>());
+			final long runId = dataPreparartionFinishedEvent.getRunId();
+			RequestProtocol protocol = resultController.getProtocol(runId);
+			if(protocol != null && protocol.isCancelled()) {
+				LOGGER.info("Computation run {} was cancelled - not queueing its work packages", runId);
+				return;
 			}
 
 			final List<WorkPackage> data = dataPreparartionFinishedEvent.getWorkPackages();
-			LOGGER.info("Adding {} work packages to current queue size of {}", data.size(), workToDo.get(domain).size());
-			workToDo.get(domain).addAll(data);
+			LOGGER.info("Adding {} work packages of run {} in domain {} to current queue size of {}", data.size(), runId, dataPreparartionFinishedEvent.getDomain(), workScheduler.getQueueSize());
+			activeRuns.add(runId);
+			workScheduler.addWorkPackages(dataPreparartionFinishedEvent.getRequest().getClientId(), data);
+			serveWaitingFetches();
 		}
 		else if(event instanceof ResultUpdateEvent) {
 			ResultUpdateEvent resultUpdateEvent = (ResultUpdateEvent) event;
 			LOGGER.info("ResultUpdateEvent triggered in thread {} with data {}", Thread.currentThread().getName(), resultUpdateEvent);
 
-			runningWorkPackages.remove(resultUpdateEvent.getWorkPackageResult().getWorkPackage().getId());
+			runningWorkPackages.remove(resultUpdateEvent.getWorkPackageResult().getWorkPackage());
+		}
+		else if(event instanceof ComputationCancelledEvent) {
+			ComputationCancelledEvent computationCancelledEvent = (ComputationCancelledEvent) event;
+			LOGGER.info("ComputationCancelledEvent triggered in thread {} with data {}", Thread.currentThread().getName(), computationCancelledEvent);
+
+			cancelWork(computationCancelledEvent.getRunId());
 		}
 		else {
 			LOGGER.info("Unknown triggered in thread {} with data {}", Thread.currentThread().getName(), event);
@@ -96,32 +150,86 @@ public class WorkPackageController extends AbstractController implements Applica
 	}
 
 	/**
-	 * Triggers distribution of work packages to all idle nodes that have a matching DomainType. Called from a timer regularly.
+	 * Removes all WorkPackages of the computation run with the given run-ID from the queue and asks the worker nodes currently computing packages of that run to abort them.
+	 * The nodes become available for other work as soon as their aborted computations return.<p>
+	 * Pulling nodes cannot be called. Results they report for packages of the run are discarded instead.
+	 */
+	private void cancelWork(long runId) {
+		activeRuns.remove(runId);
+		final int removed = workScheduler.removeRun(runId);
+		LOGGER.info("Removed {} queued work packages of run {}", removed, runId);
+
+		for(Pair<WorkPackage, String> running : runningWorkPackages.values()) {
+			final WorkPackage workPackage = running.getX();
+			final String nodeId = running.getY();
+			if(runId != workPackage.getRunId()) {
+				continue;
+			}
+
+			runningWorkPackages.remove(workPackage);
+			final WorkerNode node = getNodeRegistry().getNode(nodeId);
+			if(node == null) {
+				LOGGER.info("Node {} running package {} is not registered anymore - nothing to cancel", nodeId, workPackage.getId());
+				resultIngestionService.discard(workPackage);
+				continue;
+			}
+			if(node.isPulling()) {
+				LOGGER.info("Package {} was fetched by pulling node {} - its result will be discarded", workPackage.getId(), nodeId);
+				resultIngestionService.discard(workPackage);
+				continue;
+			}
+			URI nodeUri = node.getUri();
+
+			try {
+				computationJobService.cancelComputation(nodeId, nodeUri, workPackage);
+			}
+			catch(URISyntaxException e) {
+				LOGGER.error(e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Triggers distribution of work packages to all idle nodes that have a matching DomainType. Called from a timer regularly.<p>
+	 * The DomainTypes with queued work are served in turns, one WorkPackage per DomainType and round, so that nodes serving several DomainTypes are shared between them.
+	 * Which package of a DomainType is handed out is decided by the WorkScheduler.
 	 */
 	public void distributeWork() {
 		final String methodName = "distributeWork";
 		logRequestStart(LOGGER, methodName);
 		try {
-			final DomainType domain = getNodeRegistry().getDomain();
-			if(domain == null) {
+			if(!getNodeRegistry().hasDomainSet()) {
 				LOGGER.warn("Domain is not set");
 				return;
 			}
 
-			ConcurrentLinkedQueue<WorkPackage> queue = workToDo.get(domain);
-			if(queue == null) {
-				LOGGER.info("Queue for domain {} does not exist - nothing to do", domain);
-			}
-			else if(queue.isEmpty()) {
-				LOGGER.info("Queue for domain {} is empty - nothing to do", domain);
+			startPendingPreparations();
 
-				handleLostPackages();
+			if(activeRuns.isEmpty()) {
+				LOGGER.info("No active run exists - nothing to do");
+				return;
 			}
-			else {
-				LOGGER.info("Queue for domain {} has {} packages", domain, queue.size());
 
-				distributeWorkToNodes(queue);
+			for(Long runId : activeRuns) {
+				final RequestProtocol protocol = resultController.getProtocol(runId);
+				final int queueSize = workScheduler.getQueueSize(runId);
+				if(protocol == null) { // results of the run have already been collected
+					LOGGER.info("Run {} is not active anymore - removing it", runId);
+					activeRuns.remove(runId);
+					workScheduler.removeRun(runId);
+				}
+				else if(queueSize == 0) {
+					LOGGER.info("Queue for run {} is empty - nothing to do", runId);
+
+					handleLostPackages(protocol);
+				}
+				else {
+					LOGGER.info("Queue for run {} in domain {} has {} packages", runId, protocol.getDomain(), queueSize);
+				}
 			}
+
+			distributeWorkToNodes(workScheduler.getPendingDomains());
+			serveWaitingFetches();
 		}
 		catch(URISyntaxException e) {
 			LOGGER.error(e.getMessage(), e);
@@ -132,21 +240,19 @@ public class WorkPackageController extends AbstractController implements Applica
 	}
 
 	/**
-	 * Method that tries to find WorkPackages that were given to a node to be computed but have never reported a result.<p>
+	 * Method that tries to find WorkPackages of the computation run with the given RequestProtocol that were given to a node to be computed but have never reported a result.<p>
 	 * If such a WorkPackage is identified, it will be re-added to the queue.
 	 */
-	private void handleLostPackages() {
-		final DomainType domain = getNodeRegistry().getDomain();
-		RequestProtocol protocol = resultController.getProtocolForDomain(domain);
-		if(protocol == null) { // protocol might be null even if queue a exists and sent us here if results of previous run have already been collected
-			LOGGER.info("No protocol present --> no lost packages possible");
+	private void handleLostPackages(RequestProtocol protocol) {
+		if(protocol.isCancelled()) {
+			LOGGER.info("Computation was cancelled --> no lost packages to be recovered");
 			return;
 		}
 
 		final int numberOfPackages = protocol.getWorkPackages().size();
 		final int numberOfResults = protocol.getWorkPackageResults().size();
 
-		if(resultController.getStatus(domain.getDomainType()).getPackagesToDo() > 0 && numberOfPackages != numberOfResults) {
+		if(resultController.getStatus(protocol.getRunId()).getPackagesToDo() > 0 && numberOfPackages != numberOfResults) {
 			LOGGER.info("Possible lost packages found --> # WPs={} / # Results={} / # active={}", numberOfPackages, numberOfResults, runningWorkPackages.size());
 			List<WorkPackage> packagesToDo = new ArrayList<>(protocol.getWorkPackages());
 
@@ -160,8 +266,11 @@ public class WorkPackageController extends AbstractController implements Applica
 				for(WorkPackage w : packagesToDo) {
 					LOGGER.info("\t\t Adding lost package # {} back to queue", w.getId());
 					// TODO do we need to remove these WPs from the runningWPs map??
+					resultIngestionService.forget(w);
 
-					workToDo.get(domain).add(w);
+					if(activeRuns.contains(protocol.getRunId())) {
+						workScheduler.addWorkPackages(protocol.getComputationRequest().getClientId(), Collections.singletonList(w));
+					}
 				}
 			}
 		}
@@ -169,7 +278,7 @@ public class WorkPackageController extends AbstractController implements Applica
 
 	/**
 	 * Filters WorkPackages from the lost-package-candidates in the given list of packagesToDo that are found not to be lost, because they already have a result in
-	 * the RequestProtocol or are currently running on a node that is known to be alive.
+	 * the RequestProtocol or are currently running on a node that is still registered. Nodes stuck with a package or silent for too long are unregistered by the reaper.
 	 */
 	private void filterOutValidEntries(RequestProtocol protocol, List<WorkPackage> packagesToDo) {
 		List<WorkPackage> packagesWithResult = protocol.getWorkPackageResults().stream().map(WorkPackageResult::getWorkPackage).collect(Collectors.toCollection(() -> new ArrayList<>(protocol.getWorkPackageResults().size())));
@@ -178,41 +287,279 @@ public class WorkPackageController extends AbstractController implements Applica
 			packagesToDo.remove(w);
 		}
 		for(Pair<WorkPackage, String> p : runningWorkPackages.values()) {
-			if(getNodeRegistry().hasNode(p.getY())) { // TODO also include ping status here later
+			if(getNodeRegistry().hasNode(p.getY())) {
 				packagesToDo.remove(p.getX());
 			}
 		}
 	}
 
 	/**
-	 * Distributes WorkPackages to worker nodes with a matching DomainType as long as there are some in the given queue and as long as nodes can be reserved for that task.
-	 * Each WorkPackage is assigned to a node and run by an asynchronous service then.
+	 * Reserves worker nodes for the computation requests whose preparation was left pending for lack of a free node and starts their preparation in the order
+	 * the requests arrived. Once no node can be reserved for a DomainType, its remaining requests wait for the next round. Requests of cancelled runs are dropped.
 	 */
-	private void distributeWorkToNodes(ConcurrentLinkedQueue<WorkPackage> queue) throws URISyntaxException {
-		while(true) {
-			String nodeId = getNodeRegistry().reserveNode(getNodeRegistry().getDomain());
-			LOGGER.info("Reserved node {} to do some work", nodeId);
+	private void startPendingPreparations() {
+		final Set<DomainType> exhaustedDomains = new HashSet<>();
+		for(ComputationRequest request : dataPreparationService.getPendingRequests()) {
+			final RequestProtocol protocol = resultController.getProtocol(request.getRunId());
+			if(protocol == null || protocol.isCancelled()) {
+				dataPreparationService.discardPendingRequest(request);
+				continue;
+			}
+			if(exhaustedDomains.contains(request.getDomain())) {
+				continue;
+			}
 
+			final String nodeId = getNodeRegistry().reserveNode(request.getDomain());
 			if(nodeId == null) {
-				LOGGER.info("No free node available --> cancelling work");
-				break;
+				LOGGER.info("No free node available to prepare run {} --> leaving it pending", request.getRunId());
+				exhaustedDomains.add(request.getDomain());
 			}
+			else {
+				LOGGER.info("Reserved node {} to prepare pending run {}", nodeId, request.getRunId());
+				dataPreparationService.removePendingRequest(request);
+				dataPreparationService.validateAndPrepareData(nodeId, request);
+			}
+		}
+	}
 
-			WorkPackage workPackage = queue.poll();
-			if(workPackage == null) {
-				LOGGER.info("Queue seems to be empty (unexpectedly) --> cancelling work and freeing up node");
-				getNodeRegistry().freeNode(nodeId);
-				break;
+	/**
+	 * Distributes WorkPackages of the given DomainTypes to worker nodes with a matching DomainType as long as there are some queued and as long as nodes can be reserved for that task.
+	 * The DomainTypes are served round-robin until none of them can hand out a WorkPackage anymore.<p>
+	 * A node the WorkScheduler has no package for, because all queued packages are held back for their preferred nodes, is passed over for the rest of this distribution round.
+	 */
+	private void distributeWorkToNodes(List<DomainType> domains) throws URISyntaxException {
+		final Set<String> passedNodes = new HashSet<>();
+		boolean distributed = true;
+		while(distributed) {
+			distributed = false;
+			for(DomainType domain : domains) {
+				if(distributeWorkPackage(domain, passedNodes)) {
+					distributed = true;
+				}
 			}
+		}
+	}
 
-			LOGGER.info("WorkPackage ready and node reserved - we can do something");
+	/**
+	 * Reserves a worker node for the given DomainType, skipping the given passed nodes, and assigns the next WorkPackage chosen by the WorkScheduler for this node to it,
+	 * which is run by an asynchronous service then.<p>
+	 * Returns true if a WorkPackage was handed out or the node was passed over because the queued packages are held back for other nodes.
+	 * Returns false if no node was available or no package of the DomainType is queued.
+	 */
+	private boolean distributeWorkPackage(DomainType domain, Set<String> passedNodes) throws URISyntaxException {
+		String nodeId = getNodeRegistry().reserveNode(domain, passedNodes);
+		LOGGER.info("Reserved node {} to do some work in domain {}", nodeId, domain);
 
-			LOGGER.info("Invoking an asynchronous method from {}", Thread.currentThread().getName());
-			URI nodeUri = getNodeRegistry().getUriForNode(nodeId);
+		if(nodeId == null) {
+			LOGGER.info("No free node available for domain {} --> cancelling work", domain);
+			return false;
+		}
+
+		WorkPackage workPackage = workScheduler.nextWorkPackage(domain, nodeId);
+		if(workPackage == null) {
+			getNodeRegistry().freeNode(nodeId);
+			if(!workScheduler.getPendingDomains().contains(domain)) {
+				LOGGER.info("No work package of domain {} queued --> cancelling work and freeing up node", domain);
+				return false;
+			}
+			LOGGER.info("Queued work packages of domain {} are held back for other nodes --> freeing up node {}", domain, nodeId);
+			passedNodes.add(nodeId);
+			return true;
+		}
+
+		LOGGER.info("WorkPackage ready and node reserved - we can do something");
+
+		LOGGER.info("Invoking an asynchronous method from {}", Thread.currentThread().getName());
+		URI nodeUri = getNodeRegistry().getUriForNode(nodeId);
+
+		runningWorkPackages.put(workPackage, new Pair<>(workPackage, nodeId));
 
-			runningWorkPackages.put(workPackage.getId(), new Pair<>(workPackage, nodeId));
+		computationJobService.runComputation(nodeId, nodeUri, workPackage, getComputationTimeout(workPackage));
+		return true;
+	}
+
+	/**
+	 * Hands out up to the given maximum number of queued WorkPackages to the pulling worker node with the given ID.<p>
+	 * Should no package be queued for the node, the request is held open until work arrives or the given timeout in milliseconds has passed.
+	 * The packages are returned as soon as at least one is available, answered with HttpStatus 204 - "No content" if the timeout passes without any work
+	 * and with HttpStatus 404 - "Not found" if the node is not registered as a pulling node.<p>
+	 * Every package carries the time its computation may take. The node has to report the result of every package through the reportResults-service.
+	 */
+	@PostMapping("/fetchWork/{id}")
+	public DeferredResult<ResponseEntity<List<WorkPackage>>> fetchWork(@PathVariable String id, @RequestParam(defaultValue = "1") int maxPackages, @RequestParam(defaultValue = "30000") long timeout) {
+		final String methodName = "fetchWork";
+		logRequestStart(LOGGER, methodName, id, maxPackages, timeout);
+
+		final DeferredResult<ResponseEntity<List<WorkPackage>>> result = new DeferredResult<>(Math.max(1, timeout), ResponseEntity.noContent().build());
+		if(!getNodeRegistry().touchNode(id)) {
+			LOGGER.info("Node with ID {} is not registered as pulling node", id);
+			result.setResult(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+		}
+		else {
+			final WaitingFetch fetch = new WaitingFetch(id, Math.max(1, maxPackages), result);
+			if(!serveFetch(fetch)) {
+				LOGGER.info("No work queued for node {} - waiting up to {} ms", id, timeout);
+				waitingFetches.add(fetch);
+				result.onCompletion(() -> waitingFetches.remove(fetch));
+			}
+		}
+
+		logVoidRequestFinish(LOGGER, methodName, id, maxPackages, timeout);
+		return result;
+	}
+
+	/**
+	 * Accepts the given WorkPackageResults reported by the worker node with the given ID and publishes them. Nodes report in batches, so that a node finishing
+	 * many short computations does not need a call per result.<p>
+	 * Returns a list stating for every result in turn if it was accepted (true) or discarded (false), because the result is not awaited (anymore), e.g. because its run
+	 * was cancelled or it was reported before. Reporting a result again is therefore safe, which allows nodes to simply retry failed reports.
+	 * Like results of nodes replying to computation calls, results are accepted from nodes that have been unregistered in the meantime.
+	 */
+	@PostMapping("/reportResults/{id}")
+	public ResponseEntity<List<Boolean>> reportResults(@PathVariable String id, @RequestBody List<WorkPackageResult> results) {
+		final String methodName = "reportResults";
+		logRequestStart(LOGGER, methodName, id, results.size());
+
+		getNodeRegistry().touchNode(id);
+		final ResponseEntity<List<Boolean>> response = ResponseEntity.ok(resultIngestionService.ingest(id, results));
+
+		logRequestFinish(LOGGER, methodName, response, id);
+		return response;
+	}
+
+	/**
+	 * Tries to serve the fetch requests of pulling nodes that are waiting for work. Requests that still cannot be served keep waiting.
+	 */
+	private void serveWaitingFetches() {
+		final int waiting = waitingFetches.size();
+		for(int i = 0; i < waiting; i++) {
+			final WaitingFetch fetch = waitingFetches.poll();
+			if(fetch == null) {
+				return;
+			}
+			if(!fetch.getResult().isSetOrExpired() && !serveFetch(fetch)) {
+				waitingFetches.add(fetch);
+			}
+		}
+	}
+
+	/**
+	 * Takes up to the requested number of WorkPackages of the DomainTypes of the fetching node from the WorkScheduler and answers the given fetch request with them.
+	 * The DomainTypes of the node are served in turns.<p>
+	 * Returns true if the request was answered and false if there was no package for the node.
+	 */
+	private boolean serveFetch(WaitingFetch fetch) {
+		final WorkerNode node = getNodeRegistry().getNode(fetch.getNodeId());
+		if(node == null) {
+			LOGGER.info("Node {} waiting for work is not registered anymore", fetch.getNodeId());
+			return fetch.getResult().setResult(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+		}
+
+		final List<WorkPackage> workPackages = new ArrayList<>(fetch.getMaxPackages());
+		boolean found = true;
+		while(found && workPackages.size() < fetch.getMaxPackages()) {
+			found = false;
+			for(DomainType domain : node.getAllDomainTypes()) {
+				if(workPackages.size() >= fetch.getMaxPackages()) {
+					break;
+				}
+				final WorkPackage workPackage = workScheduler.nextWorkPackage(domain, node.getId());
+				if(workPackage != null) {
+					workPackages.add(workPackage);
+					found = true;
+				}
+			}
+		}
+		if(workPackages.isEmpty()) {
+			return false;
+		}
+
+		final long fetchedTimestamp = System.currentTimeMillis();
+		for(WorkPackage workPackage : workPackages) {
+			workPackage.setComputationTimeout(getComputationTimeout(workPackage));
+			runningWorkPackages.put(workPackage, new Pair<>(workPackage, node.getId()));
+			resultIngestionService.awaitResult(workPackage, node.getId(), fetchedTimestamp, false);
+		}
+
+		if(!fetch.getResult().setResult(ResponseEntity.ok(workPackages))) {
+			LOGGER.info("Fetch request of node {} expired in the meantime - putting {} packages back into the queue", node.getId(), workPackages.size());
+			requeue(workPackages);
+			return true;
+		}
+		LOGGER.info("Handed out {} work packages to pulling node {}", workPackages.size(), node.getId());
+		return true;
+	}
+
+	/**
+	 * Puts the given WorkPackages that could not be handed out after all back into the queue, as long as their runs are still active.
+	 */
+	private void requeue(List<WorkPackage> workPackages) {
+		for(WorkPackage workPackage : workPackages) {
+			runningWorkPackages.remove(workPackage);
+			resultIngestionService.forget(workPackage);
+			final RequestProtocol protocol = resultController.getProtocol(workPackage.getRunId());
+			if(protocol != null && activeRuns.contains(workPackage.getRunId())) {
+				workScheduler.addWorkPackages(protocol.getComputationRequest().getClientId(), Collections.singletonList(workPackage));
+			}
+		}
+	}
+
+	/**
+	 * Returns the maximum time in milliseconds the computation of the given WorkPackage may take or zero if there is no limit.<p>
+	 * A timeout set in the ComputationRequest of the package's run takes precedence over the timeout configured for the DomainType, which in turn takes precedence
+	 * over the configured default timeout.
+	 */
+	private long getComputationTimeout(WorkPackage workPackage) {
+		final DomainType domain = workPackage.getDomain();
+		RequestProtocol protocol = resultController.getProtocol(workPackage.getRunId());
+		if(protocol != null && protocol.getComputationRequest() != null && protocol.getComputationRequest().getComputationTimeout() > 0) {
+			return protocol.getComputationRequest().getComputationTimeout();
+		}
+
+		for(Map.Entry<String, Long> domainTimeout : getControllerProperties().getController().getDomainComputationTimeouts().entrySet()) {
+			// keys of config maps do not necessarily keep their case
+			if(domainTimeout.getKey().equalsIgnoreCase(domain.getDomainType()) && domainTimeout.getValue() != null && domainTimeout.getValue() > 0) {
+				return domainTimeout.getValue();
+			}
+		}
+
+		return getControllerProperties().getController().getComputationTimeout();
+	}
+
+	/**
+	 * Fetch request of a pulling worker node waiting for work.
+	 */
+	private static class WaitingFetch {
+
+		/**
+		 * ID of the fetching node.
+		 */
+		private final String nodeId;
+		/**
+		 * Maximum number of WorkPackages the node asked for.
+		 */
+		private final int maxPackages;
+		/**
+		 * Result to answer the request with.
+		 */
+		private final DeferredResult<ResponseEntity<List<WorkPackage>>> result;
+
+		WaitingFetch(String nodeId, int maxPackages, DeferredResult<ResponseEntity<List<WorkPackage>>> result) {
+			this.nodeId = nodeId;
+			this.maxPackages = maxPackages;
+			this.result = result;
+		}
+
+		String getNodeId() {
+			return nodeId;
+		}
+
+		int getMaxPackages() {
+			return maxPackages;
+		}
 
-			computationJobService.runComputation(nodeId, nodeUri, workPackage);
+		DeferredResult<ResponseEntity<List<WorkPackage>>> getResult() {
+			return result;
 		}
 	}
 
@@ -0,0 +1,31 @@
+package no.siriuslabs.computationapi.event;
+
+/**
+ * Event based on AbstractDataWorkflowEvent that can be fired when a computation run has been cancelled. The event carries the identifier of the cancelled run.
+ */
+public class ComputationCancelledEvent extends AbstractDataWorkflowEvent {
+
+	/**
+	 * Identifier of the computation run that was cancelled.
+	 */
+	private final long runId;
+
+	/**
+	 * Constructor accepting the event's source and the identifier of the cancelled run.
+	 */
+	public ComputationCancelledEvent(Object source, long runId) {
+		super(source);
+		this.runId = runId;
+	}
+
+	public long getRunId() {
+		return runId;
+	}
+
+	@Override
+	public String toString() {
+		return "ComputationCancelledEvent{" +
+				"runId=" + runId +
+				'}';
+	}
+}
@@ -0,0 +1,42 @@
+package no.siriuslabs.computationapi.event;
+
+/**
+ * Event based on AbstractDataWorkflowEvent that can be fired when a computation run failed before any WorkPackages were generated, e.g. because its data did not pass validation.
+ * The event carries the identifier of the failed run and the reason of the failure.
+ */
+public class ComputationFailedEvent extends AbstractDataWorkflowEvent {
+
+	/**
+	 * Identifier of the computation run that failed.
+	 */
+	private final long runId;
+	/**
+	 * Text description of the reason of the failure.
+	 */
+	private final String errorMessage;
+
+	/**
+	 * Constructor accepting the event's source, the identifier of the failed run and the reason of the failure.
+	 */
+	public ComputationFailedEvent(Object source, long runId, String errorMessage) {
+		super(source);
+		this.runId = runId;
+		this.errorMessage = errorMessage;
+	}
+
+	public long getRunId() {
+		return runId;
+	}
+
+	public String getErrorMessage() {
+		return errorMessage;
+	}
+
+	@Override
+	public String toString() {
+		return "ComputationFailedEvent{" +
+				"runId=" + runId +
+				", errorMessage='" + errorMessage + '\'' +
+				'}';
+	}
+}
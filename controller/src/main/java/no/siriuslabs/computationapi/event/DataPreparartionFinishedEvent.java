@@ -40,6 +40,10 @@ public class DataPreparartionFinishedEvent extends AbstractDataWorkflowEvent {
 		return request.getDomain();
 	}
 
+	public long getRunId() {
+		return request.getRunId();
+	}
+
 	public List<WorkPackage> getWorkPackages() {
 		return workPackages;
 	}
@@ -48,6 +52,7 @@ public class DataPreparartionFinishedEvent extends AbstractDataWorkflowEvent {
 	public String toString() {
 		return "DataPreparartionFinishedEvent{" +
 				"domain=" + request.getDomain() +
+				", runId=" + request.getRunId() +
 				", workPackages=" + workPackages +
 				'}';
 	}
@@ -1,21 +1,21 @@
 package no.siriuslabs.computationapi.service;
 
-import no.siriuslabs.computationapi.api.model.request.ComputationRequest;
+import no.siriuslabs.computationapi.api.http.WireFormat;
+import no.siriuslabs.computationapi.api.transport.NodeCall;
+import no.siriuslabs.computationapi.config.ControllerProperties;
 import no.siriuslabs.computationapi.controller.ControllerHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.RestTemplate;
 
 import java.net.URI;
 import java.net.URISyntaxException;
 
 /**
- * Common superclass of Spring services. Provides some functionality such as calling a webservice on a worker node and some shared injections.
+ * Common superclass of Spring services. Provides some functionality such as calling a webservice on a worker node and some shared injections.<p>
+ * Worker nodes are called through the NodeTransport chosen for their URI, usually HTTP.
  */
 public abstract class AbstractAsynchService {
 
@@ -26,25 +26,34 @@ public abstract class AbstractAsynchService {
 	 */
 	private final NodeRegistry nodeRegistry;
 	/**
-	 * Spring RestTemplate used to call worker node services.
+	 * Selector of the NodeTransport used to call worker node services.
 	 */
-	private final RestTemplate restTemplate;
+	private final NodeTransportSelector transportSelector;
 	/**
 	 * Event publisher to pass updates to other application parts.
 	 */
 	private final ApplicationEventPublisher applicationEventPublisher;
 
 	/**
-	 * Constructor accepting the NodeRegistry and the ApplicationEventPublisher (to be injected into the concrete implementation class).
+	 * Spring configuration with contents of config file.
 	 */
-	protected AbstractAsynchService(NodeRegistry nodeRegistry, ApplicationEventPublisher applicationEventPublisher) {
+	private final ControllerProperties controllerProperties;
+
+	/**
+	 * Constructor accepting the NodeRegistry, the ApplicationEventPublisher, the configuration object and the NodeTransportSelector (to be injected into the concrete
+	 * implementation class).
+	 */
+	protected AbstractAsynchService(NodeRegistry nodeRegistry, ApplicationEventPublisher applicationEventPublisher, ControllerProperties controllerProperties,
+									NodeTransportSelector transportSelector) {
 		this.nodeRegistry = nodeRegistry;
 		this.applicationEventPublisher = applicationEventPublisher;
-		restTemplate = new RestTemplate();	// TODO injected RestTemplate causes cyclic dependency in Spring
+		this.controllerProperties = controllerProperties;
+		this.transportSelector = transportSelector;
 	}
 
 	/**
-	 * Calls a Rest service on a worker node corresponding to the given parameters.
+	 * Calls a Rest service on a worker node corresponding to the given parameters.<p>
+	 * The node is occupied during the call and freed afterwards, regardless of the call being successful or not.
 	 * @param nodeId 	Identifier of the node that is to be called.
 	 * @param nodeUri 	URI of the <b>node</b> to be called (not the complete service-URI).
 	 * @param parameter	Parameter to be passed in the call (target service must use a RequestBody parameter type).
@@ -52,21 +61,59 @@ public abstract class AbstractAsynchService {
 	 * @throws URISyntaxException if the parameter nodeUri and the result of getServicePath() should not combine to a valid URI.
 	 */
 	protected ResponseEntity<Object> callNodeWebservice(String nodeId, URI nodeUri, Object parameter) throws URISyntaxException {
+		return callNodeWebservice(nodeId, nodeUri, parameter, 0);
+	}
+
+	/**
+	 * Calls a Rest service on a worker node corresponding to the given parameters, limiting the time the node may spend on the request.<p>
+	 * The timeout is passed to the node (as a header over HTTP), so that the node can enforce it and report the timeout itself. The controller waits for the reply for
+	 * the timeout plus the configured grace period before giving up on the call with a ResourceAccessException.<p>
+	 * The node is occupied during the call and freed afterwards, regardless of the call being successful or not. Only a node that accepted the request for
+	 * processing in the background (HttpStatus 202) stays occupied - it is freed once it has reported its result.
+	 * @param nodeId 	Identifier of the node that is to be called.
+	 * @param nodeUri 	URI of the <b>node</b> to be called (not the complete service-URI).
+	 * @param parameter	Parameter to be passed in the call (target service must use a RequestBody parameter type).
+	 * @param timeout	Maximum time in milliseconds the node may spend on the request. No limit if not greater than zero.
+	 * @return The original ResponseEntity returned by the service called.
+	 * @throws URISyntaxException if the parameter nodeUri and the result of getServicePath() should not combine to a valid URI.
+	 */
+	protected ResponseEntity<Object> callNodeWebservice(String nodeId, URI nodeUri, Object parameter, long timeout) throws URISyntaxException {
 		nodeRegistry.occupyNode(nodeId);
 
 		URI uri = new URI(nodeUri + getServicePath());
-		HttpEntity<ComputationRequest> entity = (HttpEntity<ComputationRequest>) ControllerHelper.createHttpEntity(parameter);
-
-		LOGGER.info("Service to be called @ {} with parameters: {}", uri, parameter);
-
-		ResponseEntity<Object> response = restTemplate.exchange(uri, HttpMethod.POST, entity, Object.class);
-
-		HttpStatus statusCode = response.getStatusCode();
-		LOGGER.info("Service call result={}", statusCode);
-
-		nodeRegistry.freeNode(nodeId);
+		NodeCall call = new NodeCall(getServicePath(), parameter);
+		call.setTimeout(timeout);
+		call.setResultCallbackPath(getResultCallbackPath(nodeId));
+		call.setWireFormat(getWireFormat(nodeId));
+		if(timeout > 0) {
+			call.setReplyTimeout(timeout + controllerProperties.getController().getTimeoutGracePeriod());
+		}
+
+		LOGGER.info("Service to be called @ {} with timeout {} and parameters: {}", uri, timeout, parameter);
+
+		boolean accepted = false;
+		try {
+			ResponseEntity<Object> response = transportSelector.call(nodeUri, call, Object.class);
+
+			HttpStatus statusCode = response.getStatusCode();
+			LOGGER.info("Service call result={}", statusCode);
+
+			accepted = HttpStatus.ACCEPTED == statusCode;
+			return response;
+		}
+		finally {
+			// free the node even if the call failed, otherwise it would never be used again
+			if(!accepted) {
+				nodeRegistry.freeNode(nodeId);
+			}
+		}
+	}
 
-		return response;
+	/**
+	 * Returns the WireFormat to call the node with the given ID in: the configured format if the node supports it, otherwise JSON.
+	 */
+	protected WireFormat getWireFormat(String nodeId) {
+		return ControllerHelper.selectWireFormat(nodeRegistry.getNode(nodeId), controllerProperties.getController().getWireFormat());
 	}
 
 	/**
@@ -74,15 +121,27 @@ public abstract class AbstractAsynchService {
 	 */
 	protected abstract String getServicePath();
 
+	/**
+	 * Returns the path, relative to the controller's URL, the node with the given ID may report the result of the call to later instead of replying with it.
+	 * Null if the node has to reply with the result, which is the default.
+	 */
+	protected String getResultCallbackPath(String nodeId) {
+		return null;
+	}
+
 	protected NodeRegistry getNodeRegistry() {
 		return nodeRegistry;
 	}
 
-	protected RestTemplate getRestTemplate() {
-		return restTemplate;
+	protected NodeTransportSelector getTransportSelector() {
+		return transportSelector;
 	}
 
 	protected ApplicationEventPublisher getApplicationEventPublisher() {
 		return applicationEventPublisher;
 	}
+
+	protected ControllerProperties getControllerProperties() {
+		return controllerProperties;
+	}
 }
@@ -0,0 +1,182 @@
+package no.siriuslabs.computationapi.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.config.SchedulerProperties;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Common superclass of WorkScheduler implementations. Provides the WorkPackageQueues used by the schedulers, the predicted costs of the queued WorkPackages,
+ * delay scheduling for WorkPackages preferring a certain node and the metrics every scheduler reports:
+ * <ul>
+ *     <li>"scheduler.queue.size" - the overall number of queued WorkPackages</li>
+ *     <li>"scheduler.wait.time" - the time WorkPackages waited in the queue before being dispatched, tagged with the client</li>
+ *     <li>"scheduler.share" - the share of all dispatched WorkPackages that belonged to a client, tagged with the client</li>
+ *     <li>"scheduler.locality" - the number of dispatched WorkPackages with a preferred node, tagged with whether they were dispatched to that node</li>
+ * </ul>
+ */
+public abstract class AbstractWorkScheduler implements WorkScheduler {
+
+	/**
+	 * Spring configuration of the scheduler.
+	 */
+	private final SchedulerProperties schedulerProperties;
+	/**
+	 * CostModel predicting how long the computation of a WorkPackage will take.
+	 */
+	private final CostModel costModel;
+	/**
+	 * Registry the scheduler's metrics are reported to.
+	 */
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * Overall number of WorkPackages dispatched.
+	 */
+	private final AtomicLong dispatchedPackages = new AtomicLong();
+	/**
+	 * Number of WorkPackages dispatched per client-ID.
+	 */
+	private final ConcurrentHashMap<String, AtomicLong> dispatchedPackagesPerClient = new ConcurrentHashMap<>();
+	/**
+	 * Timestamps since which computation runs have been waiting for the preferred nodes of their WorkPackages, per run-ID. A run starts waiting when one of its packages
+	 * is held back from another node and starts over whenever one of its packages is dispatched to its preferred node.
+	 */
+	private final ConcurrentHashMap<Long, Long> localityWaits = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor accepting the configuration object, the CostModel and the MeterRegistry (to be injected into the concrete implementation class).
+	 */
+	protected AbstractWorkScheduler(SchedulerProperties schedulerProperties, CostModel costModel, MeterRegistry meterRegistry) {
+		this.schedulerProperties = schedulerProperties;
+		this.costModel = costModel;
+		this.meterRegistry = meterRegistry;
+		meterRegistry.gauge("scheduler.queue.size", Tags.empty(), this, WorkScheduler::getQueueSize);
+	}
+
+	/**
+	 * Creates an empty queue handing out WorkPackages by priority, with aging as configured.
+	 */
+	protected WorkPackageQueue createQueue() {
+		return new WorkPackageQueue(QueuedWorkPackage.byPriority(schedulerProperties.getAgingInterval()));
+	}
+
+	/**
+	 * Wraps the given WorkPackage of the given client for queueing at the given time, together with its predicted cost. The cost is predicted once and only orders
+	 * the queued packages, the fair-share charges are predicted when a package is dispatched.
+	 */
+	protected QueuedWorkPackage createQueuedWorkPackage(WorkPackage workPackage, String clientId, long queuedTimestamp) {
+		return new QueuedWorkPackage(workPackage, clientId, costModel.predictCost(workPackage), queuedTimestamp);
+	}
+
+	/**
+	 * Returns the queued WorkPackage from the given queue that should be computed next on the node with the given ID, without removing it from the queue.<p>
+	 * This is the head of the queue, unless the head is held back for its preferred node. In that case the highest ranked package that may be computed on the node is returned.
+	 * As all packages of a run wait for their preferred nodes together, only the heads indexed by the queue have to be looked at for it: the best package without
+	 * a preferred node, the best package preferring the node and the best package of each run that has waited for the locality delay.
+	 * Returns null if the queue is empty or all packages are held back for other nodes.
+	 */
+	protected QueuedWorkPackage findWorkPackage(WorkPackageQueue queue, String nodeId) {
+		final QueuedWorkPackage head = queue.peek();
+		if(head == null || isAllowedOn(head, nodeId)) {
+			return head;
+		}
+
+		QueuedWorkPackage result = queue.better(queue.getUnconstrainedHead(), queue.getPreferringHead(nodeId));
+		for(QueuedWorkPackage runHead : queue.getRunHeads()) {
+			if(isAllowedOn(runHead, nodeId)) {
+				result = queue.better(result, runHead);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Removes the given WorkPackage returned by findWorkPackage() from the given queue.
+	 */
+	protected void removeWorkPackage(WorkPackageQueue queue, QueuedWorkPackage queuedWorkPackage) {
+		queue.remove(queuedWorkPackage);
+	}
+
+	/**
+	 * Returns true if the given queued WorkPackage may be computed on the node with the given ID. This is the case if the package has no preferred node,
+	 * if the node is the preferred one or if the package's run has been waiting for the preferred nodes of its packages for the configured locality delay.
+	 * A package that is held back makes its run start waiting.
+	 */
+	private boolean isAllowedOn(QueuedWorkPackage queuedWorkPackage, String nodeId) {
+		final String preferredNode = queuedWorkPackage.getWorkPackage().getPreferredNode();
+		final long localityDelay = schedulerProperties.getLocalityDelay();
+		if(nodeId == null || preferredNode == null || preferredNode.isEmpty() || preferredNode.equals(nodeId) || localityDelay <= 0) {
+			return true;
+		}
+
+		final long now = System.currentTimeMillis();
+		final long waitingSince = localityWaits.computeIfAbsent(queuedWorkPackage.getWorkPackage().getRunId(), (Long runId) -> now);
+		return now - waitingSince >= localityDelay;
+	}
+
+	/**
+	 * Forgets the locality state of the computation run with the given run-ID. To be called when a run is removed.
+	 */
+	protected void forgetRun(long runId) {
+		localityWaits.remove(runId);
+	}
+
+	/**
+	 * Returns the given client-ID or the default client-ID if the given one is null or empty.
+	 */
+	protected String getClientId(String clientId) {
+		return clientId == null || clientId.isEmpty() ? DEFAULT_CLIENT_ID : clientId;
+	}
+
+	/**
+	 * Records the metrics of the given WorkPackage being taken from the queue to be dispatched to the worker node with the given ID (null if unknown).
+	 * A package dispatched to its preferred node restarts the wait of its run, so that the run's other packages get the full locality delay again.
+	 */
+	protected void recordDispatch(QueuedWorkPackage queuedWorkPackage, String nodeId) {
+		final String preferredNode = queuedWorkPackage.getWorkPackage().getPreferredNode();
+		if(nodeId != null && preferredNode != null && !preferredNode.isEmpty()) {
+			final boolean local = preferredNode.equals(nodeId);
+			if(local) {
+				localityWaits.put(queuedWorkPackage.getWorkPackage().getRunId(), System.currentTimeMillis());
+			}
+			meterRegistry.counter("scheduler.locality", "local", String.valueOf(local)).increment();
+		}
+
+		final String clientId = queuedWorkPackage.getClientId();
+		final long waitTime = System.currentTimeMillis() - queuedWorkPackage.getQueuedTimestamp();
+		meterRegistry.timer("scheduler.wait.time", "client", clientId).record(waitTime, TimeUnit.MILLISECONDS);
+
+		dispatchedPackages.incrementAndGet();
+		dispatchedPackagesPerClient.computeIfAbsent(clientId, (String key) -> {
+			AtomicLong counter = new AtomicLong();
+			meterRegistry.gauge("scheduler.share", Tags.of("client", key), counter, this::getShare);
+			return counter;
+		}).incrementAndGet();
+	}
+
+	/**
+	 * Returns the share of all dispatched WorkPackages the given client counter stands for.
+	 */
+	private double getShare(AtomicLong clientCounter) {
+		final long overall = dispatchedPackages.get();
+		return overall == 0 ? 0.0 : (double) clientCounter.get() / (double) overall;
+	}
+
+	protected SchedulerProperties getSchedulerProperties() {
+		return schedulerProperties;
+	}
+
+	protected CostModel getCostModel() {
+		return costModel;
+	}
+
+	protected MeterRegistry getMeterRegistry() {
+		return meterRegistry;
+	}
+
+}
@@ -0,0 +1,140 @@
+package no.siriuslabs.computationapi.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import no.siriuslabs.computationapi.config.AdmissionProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Spring service deciding whether a new computation request can be accepted, so that a burst of submissions is rejected early instead of piling up in the controller.<p>
+ * A request is admitted as long as the number of pending requests (whose WorkPackages are still being generated), the number of queued WorkPackages and the size of
+ * pending and queued requests in bytes stay within the configured limits. A run stops counting against the byte limit as soon as all its WorkPackages have been distributed.<p>
+ * The service reports the metrics "admission.pending.requests", "admission.queued.bytes" and "admission.rejected" (tagged with the reason).
+ */
+@Service
+public class AdmissionService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AdmissionService.class);
+
+	/**
+	 * Spring configuration with the admission limits.
+	 */
+	private final AdmissionProperties admissionProperties;
+	/**
+	 * WorkScheduler to look up the number of queued WorkPackages.
+	 */
+	private final WorkScheduler workScheduler;
+	/**
+	 * Registry the service's metrics are reported to.
+	 */
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * Sizes in bytes of the admitted requests whose WorkPackages are still being generated, per run-ID.
+	 */
+	private final Map<Long, Long> pendingRuns = new HashMap<>();
+	/**
+	 * Sizes in bytes of the admitted requests whose WorkPackages are waiting to be distributed, per run-ID.
+	 */
+	private final Map<Long, Long> queuedRuns = new HashMap<>();
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public AdmissionService(AdmissionProperties admissionProperties, WorkScheduler workScheduler, MeterRegistry meterRegistry) {
+		this.admissionProperties = admissionProperties;
+		this.workScheduler = workScheduler;
+		this.meterRegistry = meterRegistry;
+
+		meterRegistry.gauge("admission.pending.requests", Tags.empty(), this, AdmissionService::getNumberOfPendingRequests);
+		meterRegistry.gauge("admission.queued.bytes", Tags.empty(), this, AdmissionService::getQueuedBytes);
+	}
+
+	/**
+	 * Tries to admit the computation run with the given run-ID and request size in bytes.<p>
+	 * Returns null if the run was admitted and counts as pending from now on. Otherwise returns the reason why it was rejected.
+	 */
+	public synchronized String admit(long runId, long bytes) {
+		removeDistributedRuns();
+
+		final String reason;
+		if(pendingRuns.size() >= admissionProperties.getMaxPendingRequests()) {
+			reason = "pending requests";
+		}
+		else if(workScheduler.getQueueSize() >= admissionProperties.getMaxQueuedPackages()) {
+			reason = "queued packages";
+		}
+		else if(getQueuedBytes() > 0 && getQueuedBytes() + bytes > admissionProperties.getMaxQueuedBytes()) {
+			reason = "queued bytes";
+		}
+		else {
+			pendingRuns.put(runId, Math.max(0, bytes));
+			return null;
+		}
+
+		LOGGER.info("Rejecting run {} - limit of {} reached", runId, reason);
+		meterRegistry.counter("admission.rejected", "reason", reason).increment();
+		return "Limit of " + reason + " reached";
+	}
+
+	/**
+	 * Marks the generation of the WorkPackages of the admitted run with the given run-ID as finished. If it was successful, the run counts as queued
+	 * until all its WorkPackages have been distributed.
+	 */
+	public synchronized void preparationFinished(long runId, boolean successful) {
+		final Long bytes = pendingRuns.remove(runId);
+		if(successful && bytes != null) {
+			queuedRuns.put(runId, bytes);
+		}
+	}
+
+	/**
+	 * Releases the admitted run with the given run-ID, e.g. because its data did not pass validation.
+	 */
+	public void release(long runId) {
+		preparationFinished(runId, false);
+	}
+
+	/**
+	 * Returns the number of admitted requests whose WorkPackages are still being generated.
+	 */
+	public synchronized int getNumberOfPendingRequests() {
+		return pendingRuns.size();
+	}
+
+	/**
+	 * Returns the size in bytes of the admitted requests whose WorkPackages are still being generated or waiting to be distributed.
+	 */
+	public synchronized long getQueuedBytes() {
+		long result = 0;
+		for(Long bytes : pendingRuns.values()) {
+			result += bytes;
+		}
+		for(Long bytes : queuedRuns.values()) {
+			result += bytes;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of seconds a rejected client should wait before submitting its request again.
+	 */
+	public int getRetryAfter() {
+		return admissionProperties.getRetryAfter();
+	}
+
+	/**
+	 * Forgets the queued runs whose WorkPackages have all been distributed (or removed because the run was cancelled).
+	 */
+	private void removeDistributedRuns() {
+		queuedRuns.keySet().removeIf((Long runId) -> workScheduler.getQueueSize(runId) == 0);
+	}
+
+}
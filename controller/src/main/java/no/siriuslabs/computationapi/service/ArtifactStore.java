@@ -0,0 +1,124 @@
+package no.siriuslabs.computationapi.service;
+
+import no.siriuslabs.computationapi.api.artifact.ArtifactReference;
+import no.siriuslabs.computationapi.api.artifact.ArtifactTransfer;
+import no.siriuslabs.computationapi.api.exception.InvalidParameterException;
+import no.siriuslabs.computationapi.config.ArtifactStoreProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Service keeping the binary artifacts uploaded by worker nodes as results of computation runs on the controller's local disk.<p>
+ * Every artifact gets a new ID and is kept in a directory of its run until the run ends (see removeRun()), so WorkPackageResults only need to carry
+ * ArtifactReferences. Uploads are written through FileChannel.transferFrom() to a temporary file and moved to their final name once complete,
+ * so an artifact is either complete or not visible at all.
+ */
+@Service
+public class ArtifactStore {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactStore.class);
+
+	/**
+	 * Directory the artifacts are stored in, in subdirectories named after their run-IDs.
+	 */
+	private final Path directory;
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public ArtifactStore(ArtifactStoreProperties artifactStoreProperties) throws IOException {
+		this(Paths.get(artifactStoreProperties.getDirectory()));
+	}
+
+	/**
+	 * Constructor expecting the directory the artifacts are stored in. Artifacts left over by an earlier run of the controller are deleted, as their runs are gone.
+	 * Only the run directories are deleted, anything else found in the directory is left alone.
+	 */
+	public ArtifactStore(Path directory) throws IOException {
+		this.directory = Files.createDirectories(directory.toAbsolutePath());
+		try(DirectoryStream<Path> runDirectories = Files.newDirectoryStream(this.directory, ArtifactStore::isRunDirectory)) {
+			for(Path runDirectory : runDirectories) {
+				FileSystemUtils.deleteRecursively(runDirectory);
+			}
+		}
+		LOGGER.info("Artifacts are stored in {}", this.directory);
+	}
+
+	/**
+	 * Stores the content of the given channel (without closing it) as a new artifact of the computation run with the given run-ID and returns its reference.
+	 */
+	public ArtifactReference store(long runId, ReadableByteChannel content) throws IOException {
+		final long start = System.currentTimeMillis();
+		final Path runDirectory = Files.createDirectories(directory.resolve(Long.toString(runId)));
+		final Path temporaryFile = Files.createTempFile(runDirectory, "upload", ".tmp");
+		try {
+			final long size;
+			try(FileChannel file = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+				size = ArtifactTransfer.transferFrom(content, file);
+			}
+
+			final String id = ArtifactTransfer.newId();
+			Files.move(temporaryFile, runDirectory.resolve(id), StandardCopyOption.ATOMIC_MOVE);
+			LOGGER.info("Stored artifact {} of run {} ({} bytes) in {} ms", id, runId, size, System.currentTimeMillis() - start);
+			return new ArtifactReference(runId, id, size);
+		}
+		finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	/**
+	 * Returns the file of the artifact with the given ID of the computation run with the given run-ID or null if there is no such artifact.
+	 * @throws InvalidParameterException if the given ID is not a valid artifact ID.
+	 */
+	public Path getArtifact(long runId, String id) {
+		if(!ArtifactTransfer.isValidId(id)) {
+			throw new InvalidParameterException("Invalid artifact ID " + id);
+		}
+		final Path artifactFile = directory.resolve(Long.toString(runId)).resolve(id);
+		return Files.isRegularFile(artifactFile) ? artifactFile : null;
+	}
+
+	/**
+	 * Returns true if the given path is a directory named after a run-ID, as created for the artifacts of a run, otherwise false.
+	 */
+	private static boolean isRunDirectory(Path path) {
+		final String name = path.getFileName().toString();
+		try {
+			return Long.toString(Long.parseLong(name)).equals(name) && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS);
+		}
+		catch(NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Deletes all artifacts of the computation run with the given run-ID, to be called once the run has ended.
+	 */
+	public void removeRun(long runId) {
+		try {
+			if(FileSystemUtils.deleteRecursively(directory.resolve(Long.toString(runId)))) {
+				LOGGER.info("Deleted artifacts of run {}", runId);
+			}
+		}
+		catch(IOException e) {
+			LOGGER.warn("Artifacts of run {} could not be deleted: {}", runId, e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,119 @@
+package no.siriuslabs.computationapi.service;
+
+import no.siriuslabs.computationapi.api.blob.BlobHash;
+import no.siriuslabs.computationapi.api.exception.InvalidParameterException;
+import no.siriuslabs.computationapi.config.BlobStoreProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Service keeping large inputs of computations as content-addressed blobs on the controller's local disk.<p>
+ * A blob is identified by the hash of its content (see BlobHash), so storing the same content twice keeps it once and a hash always stands for the same content.
+ * WorkPackages reference blobs by their hashes instead of carrying the content, and worker nodes fetch each blob once through the BlobController and cache it.<p>
+ * Blobs are written to a temporary file first and moved to their final name once their hash is known, so a blob is either complete or not visible at all.
+ * They are kept until deleted explicitly, as the store cannot tell which computation runs still need them.
+ */
+@Service
+public class BlobStore {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BlobStore.class);
+
+	/**
+	 * Directory the blobs are stored in, in subdirectories named after the first two characters of their hashes.
+	 */
+	private final Path directory;
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public BlobStore(BlobStoreProperties blobStoreProperties) throws IOException {
+		this(Paths.get(blobStoreProperties.getDirectory()));
+	}
+
+	/**
+	 * Constructor expecting the directory the blobs are stored in.
+	 */
+	public BlobStore(Path directory) throws IOException {
+		this.directory = Files.createDirectories(directory.toAbsolutePath());
+		LOGGER.info("Blobs are stored in {}", this.directory);
+	}
+
+	/**
+	 * Stores the content of the given stream (without closing it) as a blob and returns its hash. Content already stored is not stored a second time.
+	 */
+	public String store(InputStream content) throws IOException {
+		final Path temporaryFile = Files.createTempFile(directory, "upload", ".tmp");
+		try {
+			final String hash;
+			final long size;
+			try(OutputStream out = Files.newOutputStream(temporaryFile)) {
+				hash = BlobHash.copy(content, out);
+			}
+			size = Files.size(temporaryFile);
+
+			final Path blobFile = resolve(hash);
+			if(Files.exists(blobFile)) {
+				LOGGER.info("Blob {} ({} bytes) is already stored", hash, size);
+				return hash;
+			}
+			Files.createDirectories(blobFile.getParent());
+			try {
+				Files.move(temporaryFile, blobFile, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch(FileAlreadyExistsException e) {
+				// stored concurrently by another upload of the same content
+				LOGGER.debug("Blob {} was stored concurrently", hash);
+			}
+			LOGGER.info("Stored blob {} ({} bytes)", hash, size);
+			return hash;
+		}
+		finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	/**
+	 * Returns the file of the blob with the given hash or null if there is no such blob.
+	 * @throws InvalidParameterException if the given hash is not a valid hash.
+	 */
+	public Path getBlob(String hash) {
+		final Path blobFile = resolve(checkHash(hash));
+		return Files.isRegularFile(blobFile) ? blobFile : null;
+	}
+
+	/**
+	 * Deletes the blob with the given hash. Returns true if it was deleted, false if there was no such blob.
+	 * @throws InvalidParameterException if the given hash is not a valid hash.
+	 */
+	public boolean delete(String hash) throws IOException {
+		final boolean deleted = Files.deleteIfExists(resolve(checkHash(hash)));
+		if(deleted) {
+			LOGGER.info("Deleted blob {}", hash);
+		}
+		return deleted;
+	}
+
+	private Path resolve(String hash) {
+		return directory.resolve(hash.substring(0, 2)).resolve(hash);
+	}
+
+	private static String checkHash(String hash) {
+		if(!BlobHash.isValid(hash)) {
+			throw new InvalidParameterException("Invalid blob hash " + hash);
+		}
+		return hash;
+	}
+
+}
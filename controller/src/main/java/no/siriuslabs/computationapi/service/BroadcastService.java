@@ -0,0 +1,145 @@
+package no.siriuslabs.computationapi.service;
+
+import no.siriuslabs.computationapi.api.model.computation.RunBroadcast;
+import no.siriuslabs.computationapi.api.model.request.ComputationRequest;
+import no.siriuslabs.computationapi.api.transport.NodeCall;
+import no.siriuslabs.computationapi.config.ControllerProperties;
+import no.siriuslabs.computationapi.controller.ControllerHelper;
+import no.siriuslabs.computationapi.event.AbstractDataWorkflowEvent;
+import no.siriuslabs.computationapi.event.ComputationCancelledEvent;
+import no.siriuslabs.computationapi.event.ComputationFailedEvent;
+import no.siriuslabs.computationapi.event.ComputationRequestAddedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spring service shipping the broadcast data of computation runs (see Payload.broadcast) to the worker nodes computing their WorkPackages.<p>
+ * The broadcast data of a run is kept from the acceptance of its ComputationRequest until the run ends. Before a node is sent its first WorkPackage of a run,
+ * the data is sent to the node's receiveBroadcast-service, once per node and run. Should that fail, or should the node fetch its work itself, the node fetches
+ * the data through the BroadcastController instead.
+ */
+@Service
+public class BroadcastService implements ApplicationListener<AbstractDataWorkflowEvent> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BroadcastService.class);
+
+	/**
+	 * Relative path of the worker node service receiving broadcast data.
+	 */
+	protected static final String SERVICE_PATH = "/receiveBroadcast";
+
+	/**
+	 * Registry that keeps track of worker nodes and their state.
+	 */
+	private final NodeRegistry nodeRegistry;
+	/**
+	 * Spring configuration with contents of config file.
+	 */
+	private final ControllerProperties controllerProperties;
+	/**
+	 * Selector of the NodeTransport used to call worker node services.
+	 */
+	private final NodeTransportSelector transportSelector;
+
+	/**
+	 * Broadcast data of the active computation runs having any, by their run-IDs.
+	 */
+	private final Map<Long, Map<String, Object>> broadcasts = new ConcurrentHashMap<>();
+	/**
+	 * Run-IDs of the broadcast data each worker node has received, by the nodes' IDs. A node's set also serves as lock while data is sent to the node.
+	 */
+	private final Map<String, Set<Long>> deliveredRuns = new ConcurrentHashMap<>();
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public BroadcastService(NodeRegistry nodeRegistry, ControllerProperties controllerProperties, NodeTransportSelector transportSelector) {
+		this.nodeRegistry = nodeRegistry;
+		this.controllerProperties = controllerProperties;
+		this.transportSelector = transportSelector;
+	}
+
+	/**
+	 * Implementation of ApplicationListener keeping the broadcast data of newly accepted computation runs and dropping it when a run is cancelled or failed.
+	 */
+	@Override
+	public void onApplicationEvent(AbstractDataWorkflowEvent event) {
+		if(event instanceof ComputationRequestAddedEvent) {
+			final ComputationRequest request = ((ComputationRequestAddedEvent) event).getComputationRequest();
+			final Map<String, Object> broadcast = request.getPayload() == null ? null : request.getPayload().getBroadcast();
+			if(broadcast != null && !broadcast.isEmpty()) {
+				broadcasts.put(request.getRunId(), broadcast);
+				LOGGER.info("Keeping broadcast data {} of run {}", broadcast.keySet(), request.getRunId());
+			}
+		}
+		else if(event instanceof ComputationCancelledEvent) {
+			removeRun(((ComputationCancelledEvent) event).getRunId());
+		}
+		else if(event instanceof ComputationFailedEvent) {
+			removeRun(((ComputationFailedEvent) event).getRunId());
+		}
+	}
+
+	/**
+	 * Returns the broadcast data of the computation run with the given run-ID or null if the run has none or is not active anymore.
+	 */
+	public Map<String, Object> getBroadcast(long runId) {
+		return broadcasts.get(runId);
+	}
+
+	/**
+	 * Drops the broadcast data of the computation run with the given run-ID, to be called once the run has ended.
+	 */
+	public void removeRun(long runId) {
+		if(broadcasts.remove(runId) != null) {
+			LOGGER.info("Dropped broadcast data of run {}", runId);
+		}
+		for(Set<Long> runIds : deliveredRuns.values()) {
+			runIds.remove(runId);
+		}
+	}
+
+	/**
+	 * Sends the broadcast data of the computation run with the given run-ID to the worker node with the given ID and URI, unless the run has none or the node
+	 * has received it already. Returns once the node has received the data. A failing call is only logged, as the node fetches missing data itself.
+	 */
+	public void deliver(String nodeId, URI nodeUri, long runId) {
+		final Map<String, Object> broadcast = broadcasts.get(runId);
+		if(broadcast == null) {
+			return;
+		}
+
+		final Set<Long> runIds = deliveredRuns.computeIfAbsent(nodeId, (String id) -> ConcurrentHashMap.newKeySet());
+		if(runIds.contains(runId)) {
+			return;
+		}
+		synchronized(runIds) {
+			// sent concurrently for another package of the run?
+			if(runIds.contains(runId)) {
+				return;
+			}
+			final long start = System.currentTimeMillis();
+			try {
+				NodeCall call = new NodeCall(SERVICE_PATH, new RunBroadcast(runId, broadcast));
+				call.setWireFormat(ControllerHelper.selectWireFormat(nodeRegistry.getNode(nodeId), controllerProperties.getController().getWireFormat()));
+				transportSelector.call(nodeUri, call, Boolean.class);
+				runIds.add(runId);
+				LOGGER.info("Sent broadcast data of run {} to node {} in {} ms", runId, nodeId, System.currentTimeMillis() - start);
+			}
+			catch(RestClientException e) {
+				LOGGER.warn("Sending broadcast data of run {} to node {} failed - the node has to fetch it: {}", runId, nodeId, e.getMessage());
+			}
+		}
+	}
+
+}
@@ -1,24 +1,37 @@
 package no.siriuslabs.computationapi.service;
 
+import no.siriuslabs.computationapi.api.artifact.ArtifactReference;
+import no.siriuslabs.computationapi.api.model.computation.NumericColumn;
+import no.siriuslabs.computationapi.api.model.computation.Status;
 import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
 import no.siriuslabs.computationapi.api.model.computation.WorkPackageResult;
+import no.siriuslabs.computationapi.api.transport.NodeCall;
+import no.siriuslabs.computationapi.config.ControllerProperties;
 import no.siriuslabs.computationapi.controller.ControllerHelper;
 import no.siriuslabs.computationapi.event.ResultUpdateEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 
+import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Spring service that is used to asynchronously run computations of work packages.<p>
- * It uses functionality of AbstractAsynchService and provides only one public method to start a work package's computation on a worker node.
+ * It uses functionality of AbstractAsynchService and provides only one public method to start a work package's computation on a worker node.<p>
+ * The node is offered to report the result to the controller's reportResults-service later instead of replying with it. A node accepting the package for
+ * computation in the background stays occupied until its result has been reported to the ResultIngestionService.
  */
 @Service
 public class ComputationJobService extends AbstractAsynchService {
@@ -29,13 +42,39 @@ public class ComputationJobService extends AbstractAsynchService {
 	 * Relative path of the worker node service to be called.
 	 */
 	protected static final String SERVICE_PATH = "/runComputation";
+	/**
+	 * Relative path of the worker node service to be called to cancel a running computation.
+	 */
+	protected static final String CANCEL_SERVICE_PATH = "/cancelComputation";
+	/**
+	 * Path of the controller service nodes report results to, relative to the controller's URL and without the node's ID.
+	 */
+	public static final String RESULT_CALLBACK_PATH = "reportResults/";
+
+	/**
+	 * Service accepting the results nodes report later on.
+	 */
+	private final ResultIngestionService resultIngestionService;
+	/**
+	 * Service shipping the broadcast data of computation runs to the nodes.
+	 */
+	private final BroadcastService broadcastService;
+
+	/**
+	 * WorkPackages whose computation call is in flight, each with a flag showing if it was cancelled while running. Results of cancelled packages are discarded
+	 * when they come in. Entries only exist as long as their call, so that cancelling a package whose call has returned leaves nothing behind.
+	 */
+	private final ConcurrentHashMap<WorkPackage, Boolean> inFlightPackages = new ConcurrentHashMap<>();
 
 	/**
 	 * Autowired constructor.
 	 */
 	@Autowired
-	public ComputationJobService(NodeRegistry nodeRegistry, ApplicationEventPublisher applicationEventPublisher) {
-		super(nodeRegistry, applicationEventPublisher);
+	public ComputationJobService(NodeRegistry nodeRegistry, ApplicationEventPublisher applicationEventPublisher, ControllerProperties controllerProperties,
+								 ResultIngestionService resultIngestionService, NodeTransportSelector transportSelector, BroadcastService broadcastService) {
+		super(nodeRegistry, applicationEventPublisher, controllerProperties, transportSelector);
+		this.resultIngestionService = resultIngestionService;
+		this.broadcastService = broadcastService;
 	}
 
 	@Override
@@ -43,22 +82,87 @@ public class ComputationJobService extends AbstractAsynchService {
 		return SERVICE_PATH;
 	}
 
+	@Override
+	protected String getResultCallbackPath(String nodeId) {
+		return RESULT_CALLBACK_PATH + nodeId;
+	}
+
 	/**
-	 * Starts the asynchronous computation of the given WorkPackage on a worker node. The result is reported using events.
+	 * Starts the asynchronous computation of the given WorkPackage on a worker node. The result is reported using events.<p>
+	 * The node has to finish the computation within the given timeout. Should the node not reply in time (including the configured grace period),
+	 * a result with the status TIMED_OUT is reported instead. Should the node accept the package for computation in the background, its result is reported
+	 * once the node posted it to the reportResults-service.<p>
+	 * Should this be the node's first WorkPackage of the run, the broadcast data of the run is sent to the node beforehand.
 	 * @param nodeId 		Identifier of the node that is to be called.
 	 * @param nodeUri 		URI of the node to be called.
 	 * @param workPackage 	WorkPackage that is to be computed.
+	 * @param timeout		Maximum time in milliseconds the computation may take. No limit if not greater than zero.
 	 * @throws URISyntaxException if the parameter nodeUri and the result of getServicePath() should not combine to a valid URI.
 	 */
 	@Async
-	public void runComputation(String nodeId, URI nodeUri, WorkPackage workPackage) throws URISyntaxException {
+	public void runComputation(String nodeId, URI nodeUri, WorkPackage workPackage, long timeout) throws URISyntaxException {
 		LOGGER.info("Executing asynchronously in thread {}", Thread.currentThread().getName());
 
+		// the first package of a run sent to the node is preceded by the run's broadcast data
+		broadcastService.deliver(nodeId, nodeUri, workPackage.getRunId());
+
 		long startTime = System.currentTimeMillis();
 
-		ResponseEntity<Object> response = callNodeWebservice(nodeId, nodeUri, workPackage);
+		ResponseEntity<Object> response = null;
+		boolean accepted = false;
+		boolean cancelled;
+		inFlightPackages.put(workPackage, Boolean.FALSE);
+		try {
+			try {
+				response = callNodeWebservice(nodeId, nodeUri, workPackage, timeout);
+			}
+			catch(ResourceAccessException e) {
+				if(!(e.getCause() instanceof SocketTimeoutException)) {
+					throw e;
+				}
+				LOGGER.info("Node {} did not reply in time for package {}: {}", nodeId, workPackage.getId(), e.getMessage());
+			}
+
+			if(response != null && HttpStatus.ACCEPTED == response.getStatusCode()) {
+				LOGGER.info("Node {} accepted package {} for computation in the background", nodeId, workPackage.getId());
+				// awaited before the call counts as returned, so that a cancellation in between finds either the call or the awaited result
+				resultIngestionService.awaitResult(workPackage, nodeId, startTime, true);
+				accepted = true;
+			}
+		}
+		finally {
+			cancelled = Boolean.TRUE.equals(inFlightPackages.remove(workPackage));
+		}
+
+		if(accepted) {
+			if(cancelled) {
+				resultIngestionService.discard(workPackage);
+			}
+			return;
+		}
+
+		if(cancelled) {
+			LOGGER.info("Computation of package {} was cancelled - discarding result", workPackage.getId());
+			return;
+		}
 
-		WorkPackageResult result = getResultFromResponse(response);
+		final WorkPackageResult result;
+		if(response == null) {
+			result = new WorkPackageResult(workPackage);
+			result.setStatus(Status.TIMED_OUT);
+		}
+		else {
+			result = getResultFromResponse(response);
+			// the run is controller-assigned - do not rely on the node to report it back
+			result.getWorkPackage().setRunId(workPackage.getRunId());
+			result.getWorkPackage().setPriority(workPackage.getPriority());
+			result.getWorkPackage().setEstimatedCost(workPackage.getEstimatedCost());
+			result.getWorkPackage().setPreferredNode(workPackage.getPreferredNode());
+			result.getWorkPackage().setBlobs(workPackage.getBlobs());
+		}
+		if(Status.TIMED_OUT == result.getStatus()) {
+			LOGGER.info("Computation of package {} timed out after {} ms", workPackage.getId(), timeout);
+		}
 		addStatsToResult(nodeId, startTime, result);
 
 		ResultUpdateEvent event = new ResultUpdateEvent(this, result);
@@ -69,23 +173,93 @@ public class ComputationJobService extends AbstractAsynchService {
 	}
 
 	/**
-	 * Extracts the result from the given ResponseEntity and returns it as a WorkPackageResult.
+	 * Asks the worker node running the given WorkPackage to abort its computation. A result reported for this package afterwards will be discarded.<p>
+	 * The node itself is freed as soon as the aborted computation call returns.
+	 * @param nodeId 		Identifier of the node running the computation.
+	 * @param nodeUri 		URI of the node to be called.
+	 * @param workPackage 	WorkPackage whose computation is to be cancelled.
+	 * @throws URISyntaxException if the parameter nodeUri and the cancel service path should not combine to a valid URI.
+	 */
+	@Async
+	public void cancelComputation(String nodeId, URI nodeUri, WorkPackage workPackage) throws URISyntaxException {
+		// a package computed in the background has no pending call anymore - its result is discarded when it is reported
+		if(!resultIngestionService.discard(workPackage) && inFlightPackages.computeIfPresent(workPackage, (WorkPackage wp, Boolean cancelled) -> Boolean.TRUE) == null) {
+			LOGGER.info("Computation call of package {} on node {} has returned already - nothing to cancel", workPackage.getId(), nodeId);
+			return;
+		}
+
+		URI uri = new URI(nodeUri + CANCEL_SERVICE_PATH);
+
+		LOGGER.info("Cancelling computation of package {} on node {} @ {}", workPackage.getId(), nodeId, uri);
+		try {
+			ResponseEntity<Boolean> response = getTransportSelector().call(nodeUri, new NodeCall(CANCEL_SERVICE_PATH, workPackage), Boolean.class);
+			LOGGER.info("Cancel call result={}, computation found on node={}", response.getStatusCode(), response.getBody());
+		}
+		catch(RestClientException e) {
+			LOGGER.warn("Cancelling computation of package {} on node {} failed: {}", workPackage.getId(), nodeId, e.getMessage());
+		}
+	}
+
+	/**
+	 * Extracts the result from the given ResponseEntity and returns it as a WorkPackageResult.<p>
+	 * The body is either the generic structure of a deserialized result or, when the node was called in-process, the node's WorkPackageResult itself.
+	 * Either way a new WorkPackageResult using the controller side DomainType is returned, so that the node's objects are never shared.
 	 */
 	private WorkPackageResult getResultFromResponse(ResponseEntity<Object> response) {
+		if(response.getBody() instanceof WorkPackageResult) {
+			return copyResult((WorkPackageResult) response.getBody());
+		}
 		Map<String, Object> resultMap = (Map<String, Object>) response.getBody();
 
 		Map<String, Object> wpMap = (Map<String, Object>) resultMap.get("workPackage");
 		WorkPackage wp = new WorkPackage(ControllerHelper.getDomainTypeFromParameter((String) wpMap.get("domain")), ((Number) wpMap.get("id")).longValue());
-		wp.setRunId((Integer) wpMap.get("runId"));
+		if(wpMap.get("runId") != null) {
+			wp.setRunId(((Number) wpMap.get("runId")).longValue());
+		}
 		wp.setData((Map<String, Object>) wpMap.get("data"));
 
 		final WorkPackageResult result = new WorkPackageResult(wp);
-		Map<String, Object> data = (Map<String, Object>) resultMap.get("data");
+		if(resultMap.get("status") != null) {
+			result.setStatus(Status.valueOf((String) resultMap.get("status")));
+		}
+		// numeric columns are kept as primitive arrays rather than as maps of their wire form
+		Map<String, Object> data = (Map<String, Object>) NumericColumn.resolveColumns(resultMap.get("data"));
 		result.setData(data);
+		result.setArtifacts(getArtifactsFromMap((Map<String, Map<String, Object>>) resultMap.get("artifacts")));
 
 		return result;
 	}
 
+	/**
+	 * Returns a copy of the given WorkPackageResult, as returned by a node called in-process, using the controller side DomainType.
+	 */
+	private WorkPackageResult copyResult(WorkPackageResult nodeResult) {
+		final WorkPackage nodePackage = nodeResult.getWorkPackage();
+		WorkPackage wp = new WorkPackage(ControllerHelper.getDomainTypeFromParameter(nodePackage.getDomain().getDomainType()), nodePackage.getId());
+		wp.setRunId(nodePackage.getRunId());
+		wp.setData(nodePackage.getData());
+
+		final WorkPackageResult result = new WorkPackageResult(wp);
+		result.setStatus(nodeResult.getStatus());
+		result.setData(nodeResult.getData());
+		result.setArtifacts(nodeResult.getArtifacts());
+		return result;
+	}
+
+	/**
+	 * Returns the ArtifactReferences in the given generic structure of deserialized references by their names, or null if the given structure is null.
+	 */
+	private Map<String, ArtifactReference> getArtifactsFromMap(Map<String, Map<String, Object>> artifactsMap) {
+		if(artifactsMap == null) {
+			return null;
+		}
+		final Map<String, ArtifactReference> artifacts = new HashMap<>();
+		for(Map.Entry<String, Map<String, Object>> entry : artifactsMap.entrySet()) {
+			artifacts.put(entry.getKey(), ArtifactReference.fromMap(entry.getValue()));
+		}
+		return artifacts;
+	}
+
 	/**
 	 * Adds some statistical data to the result.
 	 * @param nodeId	Identifier of the node the computation run on.
@@ -0,0 +1,160 @@
+package no.siriuslabs.computationapi.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import no.siriuslabs.computationapi.api.model.computation.Status;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackageResult;
+import no.siriuslabs.computationapi.config.SchedulerProperties;
+import no.siriuslabs.computationapi.event.ResultUpdateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spring service predicting how long the computation of a WorkPackage will take, learned per DomainType from the running times observed for finished packages.<p>
+ * The model keeps two exponentially smoothed values per DomainType: the average running time and the factor between running times and the cost estimates the
+ * implementations attach to their WorkPackages. Packages with an estimate are predicted to take their estimate times the factor, packages without one the average running time.
+ * As long as nothing has been observed for a DomainType, the estimates are taken as they are.<p>
+ * The predictions serve two purposes. They are taken once when a package is queued to hand out the packages of a run longest first; within a DomainType
+ * this order follows the estimates, as they are all scaled by the same factor, and packages without an estimate keep the order they were queued in.
+ * The learned values therefore mainly affect the fair-share charges, which are predicted anew whenever a package is dispatched (see getRelativeCost()).<p>
+ * The model reports the metrics "scheduler.cost.average" and "scheduler.cost.factor", tagged with the DomainType.
+ */
+@Service
+public class CostModel implements ApplicationListener<ResultUpdateEvent> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CostModel.class);
+
+	/**
+	 * Smallest relative cost of a WorkPackage, so that even packages predicted to take no time at all are charged something.
+	 */
+	private static final double MIN_RELATIVE_COST = 0.001;
+
+	/**
+	 * Spring configuration of the scheduler.
+	 */
+	private final SchedulerProperties schedulerProperties;
+	/**
+	 * Registry the model's metrics are reported to.
+	 */
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * Learned costs per DomainType, identified by the DomainType's string representation.
+	 */
+	private final ConcurrentHashMap<String, DomainCosts> domainCosts = new ConcurrentHashMap<>();
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public CostModel(SchedulerProperties schedulerProperties, MeterRegistry meterRegistry) {
+		this.schedulerProperties = schedulerProperties;
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * Implementation of ApplicationListener learning from the running time of every successfully computed WorkPackage.
+	 */
+	@Override
+	public void onApplicationEvent(ResultUpdateEvent event) {
+		final WorkPackageResult result = event.getWorkPackageResult();
+		if(Status.DONE == result.getStatus() && result.getRunningTime() > 0) {
+			record(result.getWorkPackage(), result.getRunningTime());
+		}
+	}
+
+	/**
+	 * Learns from the given running time in milliseconds observed for the computation of the given WorkPackage.
+	 */
+	public void record(WorkPackage workPackage, long runningTime) {
+		final DomainCosts costs = domainCosts.computeIfAbsent(workPackage.getDomain().getDomainType(), this::createDomainCosts);
+		costs.record(workPackage.getEstimatedCost(), runningTime, schedulerProperties.getCostSmoothing());
+		LOGGER.debug("Recorded running time {} ms for package {} of run {} with estimate {}", runningTime, workPackage.getId(), workPackage.getRunId(), workPackage.getEstimatedCost());
+	}
+
+	/**
+	 * Returns the predicted time in milliseconds the computation of the given WorkPackage will take. Zero if nothing is known about the package and its DomainType.
+	 */
+	public long predictCost(WorkPackage workPackage) {
+		final DomainCosts costs = domainCosts.get(workPackage.getDomain().getDomainType());
+		if(costs == null) {
+			return workPackage.getEstimatedCost();
+		}
+		return costs.predict(workPackage.getEstimatedCost());
+	}
+
+	/**
+	 * Returns the predicted cost of the given WorkPackage relative to the average running time of its DomainType, i.e. how many average packages it is worth.
+	 * A package predicted to take a tenth of the average is worth 0.1. The result is exactly 1 as long as no running times have been observed for the DomainType.
+	 */
+	public double getRelativeCost(WorkPackage workPackage) {
+		final DomainCosts costs = domainCosts.get(workPackage.getDomain().getDomainType());
+		if(costs == null) {
+			return 1.0;
+		}
+		return costs.relative(workPackage.getEstimatedCost());
+	}
+
+	/**
+	 * Creates the learned costs of the DomainType with the given string representation and registers their metrics.
+	 */
+	private DomainCosts createDomainCosts(String domainType) {
+		DomainCosts costs = new DomainCosts();
+		meterRegistry.gauge("scheduler.cost.average", Tags.of("domain", domainType), costs, DomainCosts::getAverageRunningTime);
+		meterRegistry.gauge("scheduler.cost.factor", Tags.of("domain", domainType), costs, DomainCosts::getEstimateFactor);
+		return costs;
+	}
+
+	/**
+	 * Learned costs of a single DomainType: the smoothed average running time and the smoothed factor between running times and estimates.
+	 */
+	private static class DomainCosts {
+
+		private double averageRunningTime;
+		private double estimateFactor = 1.0;
+		private boolean hasRunningTime;
+		private boolean hasEstimateFactor;
+
+		synchronized void record(long estimatedCost, long runningTime, double smoothing) {
+			averageRunningTime = hasRunningTime ? smooth(averageRunningTime, runningTime, smoothing) : runningTime;
+			hasRunningTime = true;
+
+			if(estimatedCost > 0) {
+				final double factor = (double) runningTime / (double) estimatedCost;
+				estimateFactor = hasEstimateFactor ? smooth(estimateFactor, factor, smoothing) : factor;
+				hasEstimateFactor = true;
+			}
+		}
+
+		synchronized long predict(long estimatedCost) {
+			return Math.round(estimatedCost > 0 ? estimatedCost * estimateFactor : averageRunningTime);
+		}
+
+		synchronized double relative(long estimatedCost) {
+			if(averageRunningTime <= 0) {
+				return 1.0;
+			}
+			final double predicted = estimatedCost > 0 ? estimatedCost * estimateFactor : averageRunningTime;
+			return Math.max(MIN_RELATIVE_COST, predicted / averageRunningTime);
+		}
+
+		synchronized double getAverageRunningTime() {
+			return averageRunningTime;
+		}
+
+		synchronized double getEstimateFactor() {
+			return estimateFactor;
+		}
+
+		private static double smooth(double current, double sample, double smoothing) {
+			return current + smoothing * (sample - current);
+		}
+	}
+
+}
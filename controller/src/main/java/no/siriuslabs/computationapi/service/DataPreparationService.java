@@ -1,14 +1,20 @@
 package no.siriuslabs.computationapi.service;
 
+import no.siriuslabs.computationapi.api.http.WireFormat;
 import no.siriuslabs.computationapi.api.model.computation.DomainType;
 import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
 import no.siriuslabs.computationapi.api.model.request.ComputationRequest;
+import no.siriuslabs.computationapi.api.model.request.Payload;
+import no.siriuslabs.computationapi.api.transport.NodeCall;
+import no.siriuslabs.computationapi.config.ControllerProperties;
 import no.siriuslabs.computationapi.controller.ControllerHelper;
+import no.siriuslabs.computationapi.event.ComputationFailedEvent;
 import no.siriuslabs.computationapi.event.DataPreparartionFinishedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
@@ -16,74 +22,267 @@ import org.springframework.stereotype.Service;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
- * Spring service that is used to asynchronously run the data preparation and work package generation step of the pipeline.
- * It uses functionality of AbstractAsynchService and provides only one public method to start the generation of work packages on a worker node.
+ * Spring service that is used to asynchronously run the validation, data preparation and work package generation steps of the pipeline.
+ * It uses functionality of AbstractAsynchService and provides public methods to validate the data of a computation request and generate work packages from it on a worker node.<p>
+ * A request for which no node is free is left pending instead of waiting for a node on the asynchronous thread. The work distribution timer retries the reservation
+ * for the pending requests and starts their preparation once a node could be reserved.
  */
 @Service
 public class DataPreparationService extends AbstractAsynchService {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(DataPreparationService.class);
 
+	public static final String DATA_VALIDATION_FAILED_RESPONSE_CODE_MSG = "Data validation failed: response code=";
+	public static final String DATA_VALIDATION_FAILED_NO_RESULT_MSG = "Data validation failed: no result";
+	public static final String DATA_VALIDATION_FAILED_MSG = "Data validation failed: ";
+
 	/**
 	 * Relative path of the worker node service to be called.
 	 */
 	protected static final String SERVICE_PATH = "/prepareAndPackageData";
+	/**
+	 * Relative path of the worker node service validating the data.
+	 */
+	protected static final String VALIDATE_DATA_PATH = "/validateData";
+
+	/**
+	 * AdmissionService to be told when the WorkPackages of an admitted request have been generated.
+	 */
+	private final AdmissionService admissionService;
+
+	/**
+	 * Requests whose preparation is waiting for a free node, in the order they arrived.
+	 */
+	private final Queue<ComputationRequest> pendingRequests = new ConcurrentLinkedQueue<>();
 
 	/**
 	 * Autowired constructor.
 	 */
 	@Autowired
-	public DataPreparationService(NodeRegistry nodeRegistry, ApplicationEventPublisher applicationEventPublisher) {
-		super(nodeRegistry, applicationEventPublisher);
+	public DataPreparationService(NodeRegistry nodeRegistry, ApplicationEventPublisher applicationEventPublisher, ControllerProperties controllerProperties, AdmissionService admissionService,
+								  NodeTransportSelector transportSelector) {
+		super(nodeRegistry, applicationEventPublisher, controllerProperties, transportSelector);
+		this.admissionService = admissionService;
+	}
+
+	/**
+	 * Starts the asynchronous validation of the data of the given ComputationRequest and the generation of work packages from it on a worker node.<p>
+	 * Both steps are executed on the same node, which is reserved first. If no node is free, the request is left pending until the work distribution timer could reserve
+	 * one for it. If the data does not pass validation or the generation fails, the computation run is marked as failed. All outcomes are reported using events.
+	 * @param request	ComputationRequest containing the incoming data to validate and to generate the work packages from.
+	 */
+	@Async
+	public void validateAndPrepareData(ComputationRequest request) {
+		LOGGER.info("Executing asynchronously in thread {}", Thread.currentThread().getName());
+
+		String nodeId = getNodeRegistry().reserveNode(request.getDomain());
+		if(nodeId == null) {
+			LOGGER.info("No free node for run {} - leaving it pending", request.getRunId());
+			pendingRequests.add(request);
+			return;
+		}
+		prepareData(nodeId, request);
+
+		LOGGER.info("Asynchronous execution finished");
 	}
 
 	/**
-	 * Starts the asynchronous generation of work packages from the given ComputationRequest on a worker node. The result is reported using events.
-	 * @param nodeId	Identifier of the node that is to be called.
-	 * @param nodeUri	URI of the node to be called.
-	 * @param request	ComputationRequest containing the incoming data to gererate the work packages from.
-	 * @throws URISyntaxException	if the parameter nodeUri and the result of getServicePath() should not combine to a valid URI.
+	 * Starts the asynchronous validation of the data of the given ComputationRequest and the generation of work packages from it on the worker node with the given ID,
+	 * which has been reserved for it already. Used for the requests that were left pending.
+	 * @param nodeId	Identifier of the reserved node.
+	 * @param request	ComputationRequest containing the incoming data to validate and to generate the work packages from.
 	 */
 	@Async
-	public void prepareAndPackageData(String nodeId, URI nodeUri, ComputationRequest request) throws URISyntaxException {
+	public void validateAndPrepareData(String nodeId, ComputationRequest request) {
 		LOGGER.info("Executing asynchronously in thread {}", Thread.currentThread().getName());
 
+		prepareData(nodeId, request);
+
+		LOGGER.info("Asynchronous execution finished");
+	}
+
+	/**
+	 * Returns the requests whose preparation is waiting for a free node, in the order they arrived.
+	 */
+	public List<ComputationRequest> getPendingRequests() {
+		return new ArrayList<>(pendingRequests);
+	}
+
+	/**
+	 * Removes the given request from the pending requests, e.g. because a node has been reserved for it. Returns false if it was not pending.
+	 */
+	public boolean removePendingRequest(ComputationRequest request) {
+		return pendingRequests.remove(request);
+	}
+
+	/**
+	 * Drops the given pending request without preparing it, because its run was cancelled, and releases it from admission control.
+	 */
+	public void discardPendingRequest(ComputationRequest request) {
+		if(pendingRequests.remove(request)) {
+			LOGGER.info("Discarding pending run {}", request.getRunId());
+			admissionService.release(request.getRunId());
+		}
+	}
+
+	/**
+	 * Validates the data of the given ComputationRequest and generates the work packages from it on the reserved node with the given ID.
+	 */
+	private void prepareData(String nodeId, ComputationRequest request) {
+		boolean successful = false;
+		try {
+			URI nodeUri = getNodeRegistry().getUriForNode(nodeId);
+			final String validationError;
+			try {
+				validationError = validateData(nodeUri, request.getPayload(), getWireFormat(nodeId));
+			}
+			catch(URISyntaxException | RuntimeException e) {
+				freeReservedNode(nodeId);
+				throw e;
+			}
+			if(validationError != null) {
+				LOGGER.info("Freeing node {} because validation failed", nodeId);
+				freeReservedNode(nodeId);
+				failComputation(request, validationError);
+				return;
+			}
+			LOGGER.info("Validation was successful");
+
+			prepareAndPackageData(nodeId, nodeUri, request);
+			successful = true;
+		}
+		catch(URISyntaxException | RuntimeException e) {
+			LOGGER.error(e.getMessage(), e);
+			failComputation(request, "Data preparation failed: " + e.getMessage());
+		}
+		finally {
+			admissionService.preparationFinished(request.getRunId(), successful);
+		}
+	}
+
+	/**
+	 * Sends the data from the ComputationRequest's Payload to the worker node with the given URI for domain specific validation. The node is expected to be reserved.<p>
+	 * Returns a text explanation if the validation process was <b>not</b> successful. The reasons for failure can be a non-OK HttpStatus code,
+	 * no validation result returned or validation errors in the data. If the validation succeeded it will return just null.
+	 */
+	protected String validateData(URI nodeUri, Payload payload) throws URISyntaxException {
+		return validateData(nodeUri, payload, WireFormat.JSON);
+	}
+
+	/**
+	 * Sends the data from the ComputationRequest's Payload to the worker node with the given URI for validation like validateData(URI, Payload),
+	 * encoded preferably in the given WireFormat.
+	 */
+	protected String validateData(URI nodeUri, Payload payload, WireFormat wireFormat) throws URISyntaxException {
+		URI uri = new URI(nodeUri + VALIDATE_DATA_PATH);
+		NodeCall call = new NodeCall(VALIDATE_DATA_PATH, payload);
+		call.setWireFormat(wireFormat);
+
+		LOGGER.info("Service to be called @ {} with parameters: {}", uri, payload);
+
+		ResponseEntity<Object> validationResponse = getTransportSelector().call(nodeUri, call, Object.class);
+
+		List<String> result = (List<String>) validationResponse.getBody();
+		if(HttpStatus.OK != validationResponse.getStatusCode()) {
+			LOGGER.info("Validation failed - response code was {}", validationResponse.getStatusCode());
+			return DATA_VALIDATION_FAILED_RESPONSE_CODE_MSG + validationResponse.getStatusCode();
+		}
+		else if(result == null) {
+			LOGGER.info("Validation failed - null result");
+			return DATA_VALIDATION_FAILED_NO_RESULT_MSG;
+		}
+		else if(!result.isEmpty()) {
+			LOGGER.info("Validation failed - validation errors: {}", result);
+			return DATA_VALIDATION_FAILED_MSG + result;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Generates work packages from the given ComputationRequest on the given worker node and publishes them.
+	 */
+	private void prepareAndPackageData(String nodeId, URI nodeUri, ComputationRequest request) throws URISyntaxException {
 		long startTime = System.currentTimeMillis();
 
 		ResponseEntity<Object> response = callNodeWebservice(nodeId, nodeUri, request);
 
-		List<WorkPackage> workPackages = getWorkPackagesFromResponse(response);
+		List<WorkPackage> workPackages = getWorkPackagesFromResponse(response, request);
 		addStatsToRequest(nodeId, request, startTime, workPackages);
 
 		DataPreparartionFinishedEvent event = new DataPreparartionFinishedEvent(this, request, workPackages);
 		LOGGER.info("Publishing event: {}", event);
 		getApplicationEventPublisher().publishEvent(event);
+	}
 
-		LOGGER.info("Asynchronous execution finished");
+	/**
+	 * Returns the reserved node with the given ID to the pool without having given it anything to do.
+	 */
+	private void freeReservedNode(String nodeId) {
+		getNodeRegistry().occupyNode(nodeId);
+		getNodeRegistry().freeNode(nodeId);
+	}
+
+	/**
+	 * Publishes the failure of the computation run of the given ComputationRequest for the given reason.
+	 */
+	private void failComputation(ComputationRequest request, String errorMessage) {
+		ComputationFailedEvent event = new ComputationFailedEvent(this, request.getRunId(), errorMessage);
+		LOGGER.info("Publishing event: {}", event);
+		getApplicationEventPublisher().publishEvent(event);
 	}
 
 	/**
 	 * Extracts the generated WorkPackages from the given ResponseEntity and returns them as a List.
+	 * The packages are assigned to the computation run of the given request, regardless of what the worker node reported, and the request's priority is added to theirs.
+	 * The cost estimates, preferred nodes and blob references reported by the worker node are kept.<p>
+	 * The packages are either given in the generic structure of deserialized WorkPackages or, when the node was called in-process, as the node's WorkPackages themselves.
+	 * Either way new WorkPackages using the controller side DomainType are returned, so that the node's objects are never shared.
 	 */
-	private List<WorkPackage> getWorkPackagesFromResponse(ResponseEntity<Object> response) {
-		List<Map<String, Object>> result = (List<Map<String, Object>>) response.getBody();
+	private List<WorkPackage> getWorkPackagesFromResponse(ResponseEntity<Object> response, ComputationRequest request) {
+		List<?> result = (List<?>) response.getBody();
 		List<WorkPackage> workPackages = new ArrayList<>(result.size());
 
-		for(Map<String, Object> row : result) {
+		for(Object element : result) {
+			final Map<String, Object> row = element instanceof WorkPackage ? toRow((WorkPackage) element) : (Map<String, Object>) element;
 			final DomainType domain = ControllerHelper.getDomainTypeFromParameter((String) row.get("domain"));
 			final Number id = (Number) row.get("id");
 			WorkPackage workPackage = new WorkPackage(domain, id.longValue());
-			workPackage.setRunId((Integer) row.get("runId"));
+			workPackage.setRunId(request.getRunId());
+			final Number priority = (Number) row.get("priority");
+			workPackage.setPriority((priority == null ? 0 : priority.intValue()) + request.getPriority());
+			final Number estimatedCost = (Number) row.get("estimatedCost");
+			workPackage.setEstimatedCost(estimatedCost == null ? 0 : estimatedCost.longValue());
+			workPackage.setPreferredNode((String) row.get("preferredNode"));
 			workPackage.setData((Map<String, Object>) row.get("data"));
+			workPackage.setBlobs((Map<String, String>) row.get("blobs"));
 			workPackages.add(workPackage);
 		}
 		return workPackages;
 	}
 
+	/**
+	 * Returns the properties of the given WorkPackage, as returned by a node called in-process, in the structure of a deserialized WorkPackage.
+	 */
+	private Map<String, Object> toRow(WorkPackage workPackage) {
+		Map<String, Object> row = new HashMap<>();
+		row.put("domain", workPackage.getDomain().getDomainType());
+		row.put("id", workPackage.getId());
+		row.put("priority", workPackage.getPriority());
+		row.put("estimatedCost", workPackage.getEstimatedCost());
+		row.put("preferredNode", workPackage.getPreferredNode());
+		row.put("data", workPackage.getData());
+		row.put("blobs", workPackage.getBlobs());
+		return row;
+	}
+
 	/**
 	 * Adds some statistical data to the result.
 	 * @param nodeId		Identifier of the node the computation run on.
@@ -0,0 +1,255 @@
+package no.siriuslabs.computationapi.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import no.siriuslabs.computationapi.api.model.computation.DomainType;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.config.SchedulerProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WorkScheduler that shares the worker nodes between clients according to their configured weights using deficit round robin.<p>
+ * Every client with queued WorkPackages is visited in turns. On each visit the client's deficit grows by the configured quantum multiplied with the client's weight,
+ * and the client may dispatch packages as long as its deficit covers their cost. While several clients have work queued, each of them gets a share of the nodes
+ * proportional to its weight, no matter how many packages it has queued. A client submitting a small interactive run therefore does not have to wait
+ * for the large batch run of another client to be distributed completely.<p>
+ * The WorkPackages of a client are kept in one sub-queue per computation run, ordered by priority with aging and longest first. The runs of a client take turns.<p>
+ * This is the default scheduler, selected with "scheduler.strategy=fair" or if no strategy is configured.
+ */
+@Service
+@ConditionalOnProperty(prefix = "scheduler", name = "strategy", havingValue = "fair", matchIfMissing = true)
+public class FairShareWorkScheduler extends AbstractWorkScheduler {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(FairShareWorkScheduler.class);
+
+	/**
+	 * Clients with queued WorkPackages in the order they are visited.
+	 */
+	private final List<ClientQueue> activeClients = new ArrayList<>();
+	/**
+	 * Clients with queued WorkPackages per client-ID.
+	 */
+	private final Map<String, ClientQueue> clients = new HashMap<>();
+	/**
+	 * Sub-queues of all computation runs with queued WorkPackages per run-ID.
+	 */
+	private final Map<Long, RunQueue> runs = new LinkedHashMap<>();
+	/**
+	 * Index of the client in activeClients that is currently visited.
+	 */
+	private int currentClient;
+	/**
+	 * Overall number of queued WorkPackages.
+	 */
+	private int queueSize;
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public FairShareWorkScheduler(SchedulerProperties schedulerProperties, CostModel costModel, MeterRegistry meterRegistry) {
+		super(schedulerProperties, costModel, meterRegistry);
+	}
+
+	@Override
+	public synchronized void addWorkPackages(String clientId, Collection<WorkPackage> workPackages) {
+		final String client = getClientId(clientId);
+		final long queuedTimestamp = System.currentTimeMillis();
+		for(WorkPackage workPackage : workPackages) {
+			RunQueue run = runs.get(workPackage.getRunId());
+			if(run == null) {
+				run = new RunQueue(workPackage.getRunId(), workPackage.getDomain(), createQueue());
+				runs.put(run.runId, run);
+				getOrCreateClient(client).runs.add(run);
+			}
+			run.packages.add(createQueuedWorkPackage(workPackage, client, queuedTimestamp));
+			queueSize++;
+		}
+	}
+
+	/**
+	 * Returns the active client with the given ID. If the client has no work queued so far, it is added to the end of the visiting order.
+	 */
+	private ClientQueue getOrCreateClient(String clientId) {
+		ClientQueue client = clients.get(clientId);
+		if(client == null) {
+			client = new ClientQueue(clientId, getSchedulerProperties().getWeight(clientId));
+			clients.put(clientId, client);
+			activeClients.add(client);
+			LOGGER.info("Client {} with weight {} became active", clientId, client.weight);
+		}
+		return client;
+	}
+
+	@Override
+	public synchronized WorkPackage nextWorkPackage(DomainType domain, String nodeId) {
+		final String domainType = domain.getDomainType();
+		if(activeClients.stream().noneMatch((ClientQueue client) -> client.getNextRun(domainType, nodeId) != null)) {
+			return null;
+		}
+
+		// terminates, as at least one client has work of this domain for this node and its deficit grows on every visit
+		while(true) {
+			ClientQueue client = activeClients.get(currentClient);
+			RunQueue run = client.getNextRun(domainType, nodeId);
+			if(run != null) {
+				final QueuedWorkPackage next = findWorkPackage(run.packages, nodeId);
+				final double cost = getCost(next.getWorkPackage());
+				if(client.deficit >= cost) {
+					removeWorkPackage(run.packages, next);
+					client.deficit -= cost;
+					queueSize--;
+					rotate(client, run);
+					recordDispatch(next, nodeId);
+					return next.getWorkPackage();
+				}
+			}
+
+			currentClient = (currentClient + 1) % activeClients.size();
+			ClientQueue nextClient = activeClients.get(currentClient);
+			if(nextClient.getNextRun(domainType, nodeId) != null) {
+				nextClient.deficit += Math.max(1, getSchedulerProperties().getQuantum()) * nextClient.weight;
+			}
+		}
+	}
+
+	/**
+	 * Returns the cost of computing the given WorkPackage, which is deducted from the deficit of its client when the package is dispatched.
+	 * The cost is measured in packages of the average cost of the package's DomainType and not rounded, so that a client queueing long packages does not get more
+	 * of the nodes' time than a client queueing short ones, and a client queueing short packages dispatches proportionally more of them.
+	 */
+	protected double getCost(WorkPackage workPackage) {
+		return getCostModel().getRelativeCost(workPackage);
+	}
+
+	/**
+	 * Moves the given run of the given client to the end of the client's runs, so that its other runs take their turns.
+	 * Empty runs and clients without any queued WorkPackages left are removed.
+	 */
+	private void rotate(ClientQueue client, RunQueue run) {
+		client.runs.remove(run);
+		if(run.packages.isEmpty()) {
+			runs.remove(run.runId);
+			forgetRun(run.runId);
+		}
+		else {
+			client.runs.addLast(run);
+		}
+
+		if(client.runs.isEmpty()) {
+			removeClient(client);
+		}
+	}
+
+	/**
+	 * Removes the given client from the visiting order. Its deficit is lost, as a client may not save up deficit while it has nothing to do.
+	 */
+	private void removeClient(ClientQueue client) {
+		final int index = activeClients.indexOf(client);
+		activeClients.remove(index);
+		clients.remove(client.clientId);
+		if(index < currentClient) {
+			currentClient--;
+		}
+		if(currentClient >= activeClients.size()) {
+			currentClient = 0;
+		}
+		LOGGER.info("Client {} has no more work queued", client.clientId);
+	}
+
+	@Override
+	public synchronized int removeRun(long runId) {
+		RunQueue run = runs.remove(runId);
+		if(run == null) {
+			return 0;
+		}
+
+		final int removed = run.packages.size();
+		queueSize -= removed;
+		forgetRun(runId);
+		for(ClientQueue client : new ArrayList<>(activeClients)) {
+			if(client.runs.remove(run) && client.runs.isEmpty()) {
+				removeClient(client);
+			}
+		}
+		return removed;
+	}
+
+	@Override
+	public synchronized int getQueueSize(long runId) {
+		RunQueue run = runs.get(runId);
+		return run == null ? 0 : run.packages.size();
+	}
+
+	@Override
+	public synchronized int getQueueSize() {
+		return queueSize;
+	}
+
+	@Override
+	public synchronized List<DomainType> getPendingDomains() {
+		Map<String, DomainType> result = new LinkedHashMap<>();
+		for(RunQueue run : runs.values()) {
+			if(!run.packages.isEmpty()) {
+				result.putIfAbsent(run.domain.getDomainType(), run.domain);
+			}
+		}
+		return new ArrayList<>(result.values());
+	}
+
+	/**
+	 * State of a client with queued WorkPackages: its weight, its current deficit and the sub-queues of its runs.
+	 */
+	private class ClientQueue {
+
+		private final String clientId;
+		private final int weight;
+		private final ArrayDeque<RunQueue> runs = new ArrayDeque<>();
+		private double deficit;
+
+		ClientQueue(String clientId, int weight) {
+			this.clientId = clientId;
+			this.weight = weight;
+		}
+
+		/**
+		 * Returns the client's run of the given DomainType whose turn it is or null if the client has no work of this DomainType queued for the node with the given ID.
+		 */
+		RunQueue getNextRun(String domainType, String nodeId) {
+			for(RunQueue run : runs) {
+				if(run.domain.getDomainType().equals(domainType) && findWorkPackage(run.packages, nodeId) != null) {
+					return run;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Sub-queue of the WorkPackages of a single computation run, ordered by priority.
+	 */
+	private static class RunQueue {
+
+		private final long runId;
+		private final DomainType domain;
+		private final WorkPackageQueue packages;
+
+		RunQueue(long runId, DomainType domain, WorkPackageQueue packages) {
+			this.runId = runId;
+			this.domain = domain;
+			this.packages = packages;
+		}
+	}
+
+}
@@ -0,0 +1,122 @@
+package no.siriuslabs.computationapi.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import no.siriuslabs.computationapi.api.model.computation.DomainType;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.config.SchedulerProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WorkScheduler that hands out the WorkPackages of each DomainType by priority and, for equal priorities, in the order they were queued, regardless of run and client.
+ * Packages queued together are handed out longest first.<p>
+ * A large computation run will keep all nodes of its DomainType busy until it has been distributed completely, unless packages with a higher priority arrive.
+ * Selected with "scheduler.strategy=fifo".
+ */
+@Service
+@ConditionalOnProperty(prefix = "scheduler", name = "strategy", havingValue = "fifo")
+public class FifoWorkScheduler extends AbstractWorkScheduler {
+
+	/**
+	 * Queues of WorkPackages per DomainType, identified by the DomainType's string representation.
+	 */
+	private final Map<String, WorkPackageQueue> queues = new HashMap<>();
+	/**
+	 * DomainTypes of the queues, identified by their string representation.
+	 */
+	private final Map<String, DomainType> domains = new HashMap<>();
+	/**
+	 * Number of queued WorkPackages per run-ID.
+	 */
+	private final Map<Long, Integer> runSizes = new HashMap<>();
+	/**
+	 * Overall number of queued WorkPackages.
+	 */
+	private int queueSize;
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public FifoWorkScheduler(SchedulerProperties schedulerProperties, CostModel costModel, MeterRegistry meterRegistry) {
+		super(schedulerProperties, costModel, meterRegistry);
+	}
+
+	@Override
+	public synchronized void addWorkPackages(String clientId, Collection<WorkPackage> workPackages) {
+		final String client = getClientId(clientId);
+		final long queuedTimestamp = System.currentTimeMillis();
+		for(WorkPackage workPackage : workPackages) {
+			final String domainType = workPackage.getDomain().getDomainType();
+			domains.putIfAbsent(domainType, workPackage.getDomain());
+			queues.computeIfAbsent(domainType, (String key) -> createQueue()).add(createQueuedWorkPackage(workPackage, client, queuedTimestamp));
+			runSizes.merge(workPackage.getRunId(), 1, Integer::sum);
+			queueSize++;
+		}
+	}
+
+	@Override
+	public synchronized WorkPackage nextWorkPackage(DomainType domain, String nodeId) {
+		WorkPackageQueue queue = queues.get(domain.getDomainType());
+		QueuedWorkPackage next = queue == null ? null : findWorkPackage(queue, nodeId);
+		if(next == null) {
+			return null;
+		}
+
+		removeWorkPackage(queue, next);
+		decrementRunSize(next.getWorkPackage().getRunId());
+		queueSize--;
+		recordDispatch(next, nodeId);
+		return next.getWorkPackage();
+	}
+
+	@Override
+	public synchronized int removeRun(long runId) {
+		int removed = 0;
+		for(WorkPackageQueue queue : queues.values()) {
+			removed += queue.removeIf((QueuedWorkPackage queued) -> queued.getWorkPackage().getRunId() == runId);
+		}
+		runSizes.remove(runId);
+		forgetRun(runId);
+		queueSize -= removed;
+		return removed;
+	}
+
+	@Override
+	public synchronized int getQueueSize(long runId) {
+		return runSizes.getOrDefault(runId, 0);
+	}
+
+	@Override
+	public synchronized int getQueueSize() {
+		return queueSize;
+	}
+
+	@Override
+	public synchronized List<DomainType> getPendingDomains() {
+		List<DomainType> result = new ArrayList<>(queues.size());
+		for(Map.Entry<String, WorkPackageQueue> entry : queues.entrySet()) {
+			if(!entry.getValue().isEmpty()) {
+				result.add(domains.get(entry.getKey()));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Decrements the number of queued WorkPackages of the run with the given run-ID and forgets the run once it has no packages queued anymore.
+	 */
+	private void decrementRunSize(long runId) {
+		if(runSizes.computeIfPresent(runId, (Long key, Integer size) -> size > 1 ? size - 1 : null) == null) {
+			forgetRun(runId);
+		}
+	}
+
+}
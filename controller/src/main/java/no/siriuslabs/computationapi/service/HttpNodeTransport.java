@@ -0,0 +1,57 @@
+package no.siriuslabs.computationapi.service;
+
+import no.siriuslabs.computationapi.api.transport.NodeCall;
+import no.siriuslabs.computationapi.api.transport.NodeTransport;
+import no.siriuslabs.computationapi.controller.ControllerHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+
+/**
+ * NodeTransport calling worker node services over HTTP, the way every node registered with an http or https URI is reached.<p>
+ * The computation timeout and result callback path of a call are passed as headers, its body is encoded in the call's WireFormat and the reply timeout is applied
+ * as read timeout, which requires the RestTemplate to use a TimeoutClientHttpRequestFactory.
+ */
+@Component
+public class HttpNodeTransport implements NodeTransport {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(HttpNodeTransport.class);
+
+	/**
+	 * Spring RestTemplate used to call worker node services.
+	 */
+	private final RestTemplate restTemplate;
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public HttpNodeTransport(RestTemplate restTemplate) {
+		this.restTemplate = restTemplate;
+	}
+
+	@Override
+	public boolean supports(URI nodeUri) {
+		return "http".equalsIgnoreCase(nodeUri.getScheme()) || "https".equalsIgnoreCase(nodeUri.getScheme());
+	}
+
+	@Override
+	public <T> ResponseEntity<T> call(URI nodeUri, NodeCall call, Class<T> responseType) {
+		final URI uri = URI.create(nodeUri + call.getServicePath());
+		final HttpEntity<?> entity = ControllerHelper.createHttpEntity(call.getBody(), call.getTimeout(), call.getResultCallbackPath(), call.getWireFormat());
+		LOGGER.debug("Calling {} {} over HTTP", call.getMethod(), uri);
+
+		if(call.getReplyTimeout() > 0) {
+			final int readTimeout = (int) Math.min(Integer.MAX_VALUE, call.getReplyTimeout());
+			return TimeoutClientHttpRequestFactory.withReadTimeout(readTimeout, () -> restTemplate.exchange(uri, call.getMethod(), entity, responseType));
+		}
+		return restTemplate.exchange(uri, call.getMethod(), entity, responseType);
+	}
+
+}
@@ -0,0 +1,154 @@
+package no.siriuslabs.computationapi.service;
+
+import no.siriuslabs.computationapi.api.model.node.NodeStatus;
+import no.siriuslabs.computationapi.api.model.node.WorkerNode;
+import no.siriuslabs.computationapi.api.model.node.WorkerState;
+import no.siriuslabs.computationapi.api.transport.NodeCall;
+import no.siriuslabs.computationapi.config.NodesProperties;
+import no.siriuslabs.computationapi.config.PingTimer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spring service collecting the heartbeats of the registered worker nodes.<p>
+ * Every node the controller calls is asked for its WorkerState through its status service. The capacity and occupancy of the node's computation engine
+ * reported in it are kept in the NodeRegistry. Nodes that do not answer are only logged here, the NodeReaperService unregisters them once they are stuck.
+ * Pulling nodes are never called by the controller and keep the capacity they reported on registration.<p>
+ * The nodes are pinged in parallel on a pool of threads of the configured size (nodes.pingTimer.parallelism), each with the configured reply timeout
+ * (nodes.pingTimer.replyTimeout), so that a hanging node neither holds up the heartbeats of the others nor the ping timer. A round of pings
+ * is given up after the ping interval at the latest, nodes not having answered by then are treated like ones that cannot be reached.
+ */
+@Service
+public class NodeHeartbeatService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(NodeHeartbeatService.class);
+
+	/**
+	 * Relative path of the worker node's status service.
+	 */
+	private static final String STATUS_SERVICE_PATH = "/workerStatus";
+
+	/**
+	 * Registry keeping the reported states of the nodes.
+	 */
+	private final NodeRegistry nodeRegistry;
+	/**
+	 * Selector of the NodeTransport used to call worker node services.
+	 */
+	private final NodeTransportSelector transportSelector;
+	/**
+	 * Spring configuration of the ping timer.
+	 */
+	private final PingTimer pingTimer;
+	/**
+	 * Pool of threads pinging the nodes.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public NodeHeartbeatService(NodeRegistry nodeRegistry, NodesProperties nodesProperties, NodeTransportSelector transportSelector) {
+		this.nodeRegistry = nodeRegistry;
+		this.transportSelector = transportSelector;
+		this.pingTimer = nodesProperties.getPingTimer();
+		final AtomicInteger threadCounter = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(Math.max(1, pingTimer.getParallelism()), (Runnable runnable) -> {
+			Thread thread = new Thread(runnable, "node-heartbeat-" + threadCounter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Collects the heartbeats of all registered nodes the controller calls and records their states. Called from a timer regularly.<p>
+	 * Returns the number of nodes that answered.
+	 */
+	public int pingNodes() {
+		final List<WorkerNode> nodes = new ArrayList<>();
+		final List<Callable<Boolean>> pings = new ArrayList<>();
+		for(WorkerNode node : nodeRegistry.getNodes()) {
+			if(!node.isPulling() && NodeStatus.UNAVAILABLE != node.getStatus()) {
+				nodes.add(node);
+				pings.add(() -> pingNode(node));
+			}
+		}
+		if(pings.isEmpty()) {
+			return 0;
+		}
+
+		final List<Future<Boolean>> replies;
+		try {
+			replies = executor.invokeAll(pings, Math.max(pingTimer.getCallInterval(), pingTimer.getReplyTimeout()), TimeUnit.MILLISECONDS);
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return 0;
+		}
+
+		int answered = 0;
+		for(int i = 0; i < replies.size(); i++) {
+			try {
+				if(replies.get(i).get()) {
+					answered++;
+				}
+			}
+			catch(CancellationException e) {
+				LOGGER.warn("Node {} did not answer its heartbeat in time", nodes.get(i).getId());
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			catch(ExecutionException e) {
+				LOGGER.warn("Heartbeat of node {} failed: {}", nodes.get(i).getId(), e.getCause().getMessage());
+			}
+		}
+		return answered;
+	}
+
+	/**
+	 * Stops the threads pinging the nodes.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Asks the given node for its WorkerState and records it. Returns true if the node answered, otherwise false.
+	 */
+	private boolean pingNode(WorkerNode node) {
+		final NodeCall call = new NodeCall(HttpMethod.GET, STATUS_SERVICE_PATH, null);
+		call.setReplyTimeout(pingTimer.getReplyTimeout());
+		try {
+			final WorkerState state = transportSelector.call(node.getUri(), call, WorkerState.class).getBody();
+			if(state != null && nodeRegistry.updateNodeState(node.getId(), state)) {
+				LOGGER.debug("Heartbeat of node {}: {}", node.getId(), state);
+				return true;
+			}
+		}
+		catch(RestClientException e) {
+			LOGGER.warn("Node {} did not answer its heartbeat: {}", node.getId(), e.getMessage());
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,194 @@
+package no.siriuslabs.computationapi.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import no.siriuslabs.computationapi.api.model.node.NodeStatus;
+import no.siriuslabs.computationapi.api.model.node.WorkerNode;
+import no.siriuslabs.computationapi.api.model.node.WorkerState;
+import no.siriuslabs.computationapi.api.transport.NodeCall;
+import no.siriuslabs.computationapi.config.NodesProperties;
+import no.siriuslabs.computationapi.config.ReaperTimer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
+
+import java.net.URI;
+import java.util.Date;
+
+/**
+ * Spring service that looks for worker nodes being stuck in the status RESERVED, BUSY or DRAINING for longer than configured and reclaims them.<p>
+ * Before a node is reclaimed, the node itself is asked about what it is doing, so that long running tasks are not interrupted:
+ * <ul>
+ *     <li>A node that cannot be reached or does not answer within the configured status timeout is unregistered.</li>
+ *     <li>A RESERVED, BUSY or DRAINING node is reclaimed only if it reports that it is not working on any request. A RESERVED node may well be working,
+ *     as the controller calls the validation service of a node it has only reserved.</li>
+ * </ul>
+ * Pulling nodes are never called by the controller. They are unregistered once they have not fetched work or reported a result for longer than configured.<p>
+ * The numbers of reclaimed and unregistered nodes are reported as metrics "nodes.reaper.reclaimed" and "nodes.reaper.removed", tagged with the status the node was stuck in
+ * (SILENT for pulling nodes).
+ */
+@Service
+public class NodeReaperService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(NodeReaperService.class);
+
+	/**
+	 * Relative path of the worker node's status service.
+	 */
+	private static final String STATUS_SERVICE_PATH = "/workerStatus";
+
+	/**
+	 * Reference to the NodeRegistry to be able to inspect and reclaim nodes.
+	 */
+	private final NodeRegistry nodeRegistry;
+	/**
+	 * Spring configuration with the reaper's time limits.
+	 */
+	private final NodesProperties nodesProperties;
+	/**
+	 * Registry the reaper's metrics are reported to.
+	 */
+	private final MeterRegistry meterRegistry;
+	/**
+	 * Selector of the NodeTransport used to call worker node services.
+	 */
+	private final NodeTransportSelector transportSelector;
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public NodeReaperService(NodeRegistry nodeRegistry, NodesProperties nodesProperties, MeterRegistry meterRegistry, NodeTransportSelector transportSelector) {
+		this.nodeRegistry = nodeRegistry;
+		this.nodesProperties = nodesProperties;
+		this.meterRegistry = meterRegistry;
+		this.transportSelector = transportSelector;
+	}
+
+	/**
+	 * Checks all registered nodes and reclaims those that are stuck. Called from a timer regularly.<p>
+	 * Returns the number of nodes that were made available for new work again.
+	 */
+	public int reapStuckNodes() {
+		int checked = 0;
+		int reclaimed = 0;
+		int removed = 0;
+
+		for(WorkerNode node : nodeRegistry.getNodes()) {
+			if(node.isPulling()) {
+				if(removeSilentNode(node)) {
+					removed++;
+				}
+				continue;
+			}
+
+			// read the date before the status - should the status change in between, the registry's check will fail and the node is left alone
+			final Date lastStatusChange = node.getLastStatusChange();
+			final NodeStatus status = node.getStatus();
+			if(!isStuck(status, lastStatusChange)) {
+				continue;
+			}
+
+			checked++;
+			LOGGER.info("Node {} seems to be stuck with status {} since {}", node.getId(), status, lastStatusChange);
+
+			final WorkerState state;
+			try {
+				state = getWorkerState(node.getUri());
+			}
+			catch(HttpStatusCodeException e) {
+				LOGGER.warn("Node {} could not report its status (response code {}) - it will not be reclaimed", node.getId(), e.getStatusCode());
+				continue;
+			}
+			catch(RestClientException e) {
+				LOGGER.info("Node {} could not be reached: {}", node.getId(), e.getMessage());
+				if(nodeRegistry.removeStuckNode(node.getId(), status, lastStatusChange)) {
+					removed++;
+					meterRegistry.counter("nodes.reaper.removed", "status", status.name()).increment();
+				}
+				continue;
+			}
+
+			if(state != null) {
+				nodeRegistry.updateNodeState(node.getId(), state);
+			}
+			if(state != null && state.getActiveRequests() > 0) {
+				LOGGER.info("Node {} is still working on {} requests - leaving it alone", node.getId(), state.getActiveRequests());
+				continue;
+			}
+
+			if(nodeRegistry.reclaimNode(node.getId(), status, lastStatusChange)) {
+				if(NodeStatus.DRAINING == status) {
+					removed++;
+					meterRegistry.counter("nodes.reaper.removed", "status", status.name()).increment();
+				}
+				else {
+					reclaimed++;
+					meterRegistry.counter("nodes.reaper.reclaimed", "status", status.name()).increment();
+				}
+			}
+		}
+
+		if(checked > 0) {
+			LOGGER.info("Reaper checked {} stuck nodes: {} reclaimed and available again, {} unregistered", checked, reclaimed, removed);
+		}
+		return reclaimed;
+	}
+
+	/**
+	 * Unregisters the given pulling node if it has not been in contact with the controller for longer than configured. Returns true if the node was unregistered.
+	 */
+	private boolean removeSilentNode(WorkerNode node) {
+		final Date lastContact = node.getLastContact();
+		if(lastContact == null || System.currentTimeMillis() - lastContact.getTime() <= nodesProperties.getReaper().getPullingTimeout()) {
+			return false;
+		}
+
+		LOGGER.info("Pulling node {} has not been in contact since {}", node.getId(), lastContact);
+		if(nodeRegistry.removeSilentNode(node.getId(), lastContact)) {
+			meterRegistry.counter("nodes.reaper.removed", "status", "SILENT").increment();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns true if a node with the given status and date of the last status change has exceeded the configured time limit for this status.
+	 */
+	private boolean isStuck(NodeStatus status, Date lastStatusChange) {
+		if(lastStatusChange == null) {
+			return false;
+		}
+
+		final ReaperTimer reaper = nodesProperties.getReaper();
+		final long limit;
+		if(NodeStatus.RESERVED == status) {
+			limit = reaper.getReservedTimeout();
+		}
+		else if(NodeStatus.BUSY == status) {
+			limit = reaper.getBusyTimeout();
+		}
+		else if(NodeStatus.DRAINING == status) {
+			limit = reaper.getDrainingTimeout();
+		}
+		else {
+			return false;
+		}
+
+		return System.currentTimeMillis() - lastStatusChange.getTime() > limit;
+	}
+
+	/**
+	 * Calls the status service of the worker node at the given URI and returns the reported WorkerState.
+	 */
+	private WorkerState getWorkerState(URI nodeUri) {
+		NodeCall call = new NodeCall(HttpMethod.GET, STATUS_SERVICE_PATH, null);
+		// a hung node must not block the reaper
+		call.setReplyTimeout(nodesProperties.getReaper().getStatusTimeout());
+		return transportSelector.call(nodeUri, call, WorkerState.class).getBody();
+	}
+
+}
@@ -3,16 +3,29 @@ package no.siriuslabs.computationapi.service;
 import no.siriuslabs.computationapi.api.model.computation.DomainType;
 import no.siriuslabs.computationapi.api.model.node.NodeStatus;
 import no.siriuslabs.computationapi.api.model.node.WorkerNode;
+import no.siriuslabs.computationapi.api.model.node.WorkerState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Registry that keeps track of the identities and states of all worker nodes know to the controller and of the currently active DomainType the controller serves.<p>
- * The class has several methods that provide information about nodes and domain as well as those to register or de-register, reserve, occupy and free worker nodes.
+ * Registry that keeps track of the identities and states of all worker nodes know to the controller and of the DomainTypes the controller serves.<p>
+ * The class has several methods that provide information about nodes and domains as well as those to register or de-register, reserve, occupy and free worker nodes.<p>
+ * Nodes are kept in one pool per DomainType. A node serving several DomainTypes is part of the pool of each of them and can be reserved for any of them.
+ * Pulling nodes fetch their work themselves and are never reserved. The registry only keeps track of when they were last in contact with the controller.<p>
+ * The capacity and occupancy nodes report on registration and with their heartbeats are kept in their WorkerNodes.<p>
+ * The controller can be restricted to a fixed set of DomainTypes, in which case nodes serving other DomainTypes are rejected. Otherwise every DomainType
+ * of a registering node becomes an active DomainType of the controller.
  */
 // TODO rework to use events where possible?
 @Component
@@ -26,11 +39,19 @@ public class NodeRegistry {
 	private ConcurrentHashMap<String, WorkerNode> workerNodes = new ConcurrentHashMap<>(5);
 
 	/**
-	 * Currently active DomainType in the system.
+	 * Pools of node-IDs per DomainType, identified by the DomainType's string representation.
 	 */
-	// TODO rework for multi-domains later
-	// TODO offer service to set/add/remove domains?
-	private DomainType domain;
+	private final ConcurrentHashMap<String, Set<String>> nodePools = new ConcurrentHashMap<>(5);
+
+	/**
+	 * Currently active DomainTypes in the system, identified by their string representation.
+	 */
+	// TODO offer service to add/remove domains?
+	private final ConcurrentHashMap<String, DomainType> domains = new ConcurrentHashMap<>(5);
+	/**
+	 * Flag showing if the system is restricted to the DomainTypes set on start-up.
+	 */
+	private volatile boolean restrictedDomains;
 
 	/**
 	 * Returns true if any WorkerNodes are registered in the system, otherwise false.
@@ -46,6 +67,14 @@ public class NodeRegistry {
 		return workerNodes.size();
 	}
 
+	/**
+	 * Returns the number of WorkerNodes currently registered in the system that can serve the given DomainType.
+	 */
+	public int getNumberOfNodes(DomainType domainType) {
+		Set<String> pool = nodePools.get(domainType.getDomainType());
+		return pool == null ? 0 : pool.size();
+	}
+
 	/**
 	 * Returns true if this WorkerNode is registered in the system, otherwise returns false.
 	 */
@@ -60,6 +89,20 @@ public class NodeRegistry {
 		return workerNodes.containsKey(nodeId);
 	}
 
+	/**
+	 * Returns a list of all WorkerNodes currently registered in the system.
+	 */
+	public List<WorkerNode> getNodes() {
+		return new ArrayList<>(workerNodes.values());
+	}
+
+	/**
+	 * Returns the WorkerNode with the given ID or null if no node with this ID is registered.
+	 */
+	public WorkerNode getNode(String nodeId) {
+		return workerNodes.get(nodeId);
+	}
+
 	/**
 	 * Returns a String representation of a list of all WorkerNodes registered in the system.
 	 */
@@ -81,26 +124,32 @@ public class NodeRegistry {
 	/**
 	 * Registers the given WorkerNode as an available node with the controller. After registration the node's status will be set to READY and the nodes will be eligible to receive tasks to execute.<p>
 	 * Should this node or a node carrying the same node ID already be registered, the node will <b>not</b> be registered.<p>
-	 * If there should not yet be an active DomainType set for the controller, this node's DomainType will become the active one on registration.<p>
-	 * Should this node's DomainType not match the already set type of the controller, an IllegalArgumentException will be thrown.
+	 * Each of the node's DomainTypes not yet active will become an active one on registration and the node is added to the node pools of all its DomainTypes.<p>
+	 * Should the controller be restricted to a set of DomainTypes and the node serve a DomainType outside of this set, an IllegalArgumentException will be thrown.
 	 */
-	public void registerNode(WorkerNode node) {
+	public synchronized void registerNode(WorkerNode node) {
 		LOGGER.info("Register node {}", node);
 		if(hasNode(node)) {
 			LOGGER.info("Node {} already registered: {}", node, workerNodes.get(node.getId()));
 		}
 		else {
-			if(getDomain() == null) {
-				LOGGER.info("Domain not set - accepting node's domain {}", node.getDomainType());
-				setDomain(node.getDomainType());
-			}
-			else if(!getDomain().getDomainType().equals(node.getDomainType().getDomainType())) {
-				final String message = "Node " + node.getId() + " has set a domain type different from the controller (" + node.getDomainType() + " <> " + getDomain() + ')';
+			if(!acceptsDomains(node)) {
+				final String message = "Node " + node.getId() + " serves domain types not served by the controller (" + node.getAllDomainTypes() + " <> " + getDomains() + ')';
 				LOGGER.info(message);
 				throw new IllegalArgumentException(message);
 			}
 
+			for(DomainType domainType : node.getAllDomainTypes()) {
+				if(domains.putIfAbsent(domainType.getDomainType(), domainType) == null) {
+					LOGGER.info("Accepting node's domain {} as new active domain", domainType);
+				}
+				nodePools.computeIfAbsent(domainType.getDomainType(), (String key) -> ConcurrentHashMap.newKeySet()).add(node.getId());
+			}
+
 			node.setStatus(NodeStatus.READY);
+			if(node.isPulling()) {
+				node.setLastContact(new Date());
+			}
 			workerNodes.put(node.getId(), node);
 
 			LOGGER.info("Node registered as {} and status changed to {}", node.getId(), NodeStatus.READY);
@@ -111,25 +160,85 @@ public class NodeRegistry {
 	 * Unregisters the WorkerNode with the given ID from the controller. The node will not be given any new tasks after de-registration.<p>
 	 * Should the given node ID not belong to a registered node nothing will be done.
 	 */
-	public void unregisterNode(String id) {
+	public synchronized void unregisterNode(String id) {
 		if(hasNode(id)) {
-			workerNodes.remove(id);
+			removeNode(id);
 		}
 		else {
 			LOGGER.info("Node with ID {} was not found and could not be removed", id);
 		}
 	}
 
+	/**
+	 * Removes the WorkerNode with the given ID from the registry and from all node pools and sets its status to UNAVAILABLE.
+	 */
+	private void removeNode(String nodeId) {
+		WorkerNode node = workerNodes.remove(nodeId);
+		if(node == null) {
+			return;
+		}
+
+		for(DomainType domainType : node.getAllDomainTypes()) {
+			Set<String> pool = nodePools.get(domainType.getDomainType());
+			if(pool != null) {
+				pool.remove(nodeId);
+			}
+		}
+		node.setStatus(NodeStatus.UNAVAILABLE);
+	}
+
+	/**
+	 * Puts the WorkerNode with the given ID into drain mode. A draining node does not receive any new tasks and is unregistered automatically
+	 * as soon as the task it is currently working on (if any) has reported back.<p>
+	 * Should the node not be working on anything at the moment, it will be unregistered right away.<p>
+	 * Returns the node's status after the call or null if no node with this ID is registered.
+	 */
+	public synchronized NodeStatus drainNode(String nodeId) {
+		if(!hasNode(nodeId)) {
+			LOGGER.info("Node with ID {} was not found and could not be drained", nodeId);
+			return null;
+		}
+
+		WorkerNode node = workerNodes.get(nodeId);
+		if(NodeStatus.RESERVED == node.getStatus() || NodeStatus.BUSY == node.getStatus() || NodeStatus.DRAINING == node.getStatus()) {
+			node.setStatus(NodeStatus.DRAINING);
+			LOGGER.info("Node {} status changed to {} - it will be unregistered once its current task has finished", nodeId, node.getStatus());
+		}
+		else {
+			LOGGER.info("Node {} has status {} and is not working on anything - unregistering right away", nodeId, node.getStatus());
+			removeNode(nodeId);
+		}
+
+		return node.getStatus();
+	}
+
 	/**
 	 * Tries to reserve a WorkerNode for use with the given domain type.<p>
 	 * Reserving a node blocks it for other domains and tasks. It can be given something to do after a successful reservation or returned to the pool without being used.<p>
-	 * The method searches for the first free node that is capable to run tasks for the given domain type.
+	 * The method searches the given domain type's node pool for the first free node. Pulling nodes are never reserved, as the controller does not call them.
 	 * If a node is available, the method changes its status to RESERVED and returns the assigned node's ID.
 	 * If no compatible node is available null will be returned instead of a node ID.
 	 */
-	public String reserveNode(DomainType domainType) {
-		WorkerNode freeNode = workerNodes.values().stream().filter((WorkerNode node)
-				-> (NodeStatus.READY == node.getStatus()) && (node.getDomainType().getDomainType().equals(domainType.getDomainType()))).findFirst().orElse(null);
+	public synchronized String reserveNode(DomainType domainType) {
+		return reserveNode(domainType, Collections.emptySet());
+	}
+
+	/**
+	 * Tries to reserve a WorkerNode for use with the given domain type, skipping the nodes with the given IDs.<p>
+	 * This allows to offer work to every free node in turn, e.g. when the work waiting is held back for other nodes that hold the data it needs.
+	 * Behaves like reserveNode(DomainType) otherwise.
+	 */
+	public synchronized String reserveNode(DomainType domainType, Set<String> excludedNodeIds) {
+		Set<String> pool = nodePools.get(domainType.getDomainType());
+		if(pool == null) {
+			return null;
+		}
+
+		WorkerNode freeNode = pool.stream()
+				.filter((String nodeId) -> !excludedNodeIds.contains(nodeId))
+				.map(workerNodes::get)
+				.filter((WorkerNode node) -> node != null && !node.isPulling() && NodeStatus.READY == node.getStatus())
+				.findFirst().orElse(null);
 
 		if(freeNode == null) {
 			return null;
@@ -147,6 +256,27 @@ public class NodeRegistry {
 		return freeNode.getId();
 	}
 
+	/**
+	 * Records that the pulling WorkerNode with the given ID has just fetched work or reported a result.<p>
+	 * Returns true if the node is registered as a pulling node, otherwise false.
+	 */
+	public boolean touchNode(String nodeId) {
+		WorkerNode node = workerNodes.get(nodeId);
+		if(node == null || !node.isPulling()) {
+			return false;
+		}
+		node.setLastContact(new Date());
+		return true;
+	}
+
+	/**
+	 * Returns the current status of the WorkerNode with the given ID or null if no node with this ID is registered.
+	 */
+	public NodeStatus getNodeStatus(String nodeId) {
+		WorkerNode node = workerNodes.get(nodeId);
+		return node == null ? null : node.getStatus();
+	}
+
 	/**
 	 * Returns the URI encapsulated in the WorkerNode identified by the given nodeId. Should no WorkerNode with this ID exist null will be returned.
 	 */
@@ -162,16 +292,21 @@ public class NodeRegistry {
 
 	/**
 	 * Registers the WorkerNode with the given nodeId as occupied with actively performing a task by changing its status from RESERVED to BUSY.<p>
+	 * A node that was put into drain mode after being reserved keeps its status DRAINING while performing the task.<p>
 	 * Should no WorkerNode with this ID exist a IllegalArgumentException will be thrown as this prevents a task from being started.<p>
-	 * Should the WorkerNode have a different status than RESERVED an IllegalStateException will be thrown as this prevents a task from being started.
+	 * Should the WorkerNode have a different status than RESERVED or DRAINING an IllegalStateException will be thrown as this prevents a task from being started.
 	 */
-	public void occupyNode(String nodeId) {
+	public synchronized void occupyNode(String nodeId) {
 		if(!hasNode(nodeId)) {
 			LOGGER.error("Node with ID {} unknown", nodeId);
 			throw new IllegalArgumentException("Node with ID " + nodeId + " unknown");
 		}
 
 		WorkerNode node = workerNodes.get(nodeId);
+		if(NodeStatus.DRAINING == node.getStatus()) {
+			LOGGER.info("Node {} is draining - occupying it for its last task", nodeId);
+			return;
+		}
 		if(NodeStatus.RESERVED != node.getStatus()) {
 			LOGGER.error("Unexpected node status on occupy: Node with ID {} has status {} instead of RESERVED", nodeId, node.getStatus());
 			throw new IllegalStateException("Node with ID " + nodeId + " has status " + node.getStatus() + " instead of RESERVED");
@@ -183,15 +318,21 @@ public class NodeRegistry {
 
 	/**
 	 * Registers the WorkerNode with the given nodeId as no longer occupied with actively performing a task and free for reservation again by changing its status from BUSY to READY.<p>
+	 * Should the node be draining, it will be unregistered instead.<p>
 	 * Should no WorkerNode with this ID exist a IllegalArgumentException will be thrown as this prevents the correct node from being used again.
 	 */
-	public void freeNode(String nodeId) {
+	public synchronized void freeNode(String nodeId) {
 		if(!hasNode(nodeId)) {
 			LOGGER.error("Node with ID {} unknown", nodeId);
 			throw new IllegalArgumentException("Node with ID " + nodeId + " unknown");
 		}
 
 		WorkerNode node = workerNodes.get(nodeId);
+		if(NodeStatus.DRAINING == node.getStatus()) {
+			removeNode(nodeId);
+			LOGGER.info("Node {} finished its last task while draining and was unregistered", nodeId);
+			return;
+		}
 		if(NodeStatus.BUSY != node.getStatus()) {
 			LOGGER.warn("Unexpected node status on free: Node with ID {} has status {} instead of BUSY", nodeId, node.getStatus());
 		}
@@ -200,43 +341,147 @@ public class NodeRegistry {
 		LOGGER.info("Node {} status changed to {}", node.getId(), node.getStatus());
 	}
 
+	/**
+	 * Reclaims a WorkerNode that is considered to be stuck in its current status. A RESERVED or BUSY node is made READY again, a DRAINING node is unregistered.<p>
+	 * The node is only reclaimed if it still has the given status and its status has not changed since the given date. This makes sure a node that has moved on in the
+	 * meantime is not touched. Returns true if the node was reclaimed, otherwise false.
+	 */
+	public synchronized boolean reclaimNode(String nodeId, NodeStatus expectedStatus, Date expectedStatusChange) {
+		if(!hasNodeUnchanged(nodeId, expectedStatus, expectedStatusChange)) {
+			return false;
+		}
+
+		WorkerNode node = workerNodes.get(nodeId);
+		if(NodeStatus.DRAINING == node.getStatus()) {
+			removeNode(nodeId);
+			LOGGER.info("Node {} was stuck while draining and was unregistered", nodeId);
+		}
+		else {
+			node.setStatus(NodeStatus.READY);
+			LOGGER.info("Node {} was stuck with status {} and was reclaimed", nodeId, expectedStatus);
+		}
+		return true;
+	}
+
+	/**
+	 * Unregisters a WorkerNode that is considered to be stuck in its current status and cannot be reached anymore.<p>
+	 * The node is only unregistered if it still has the given status and its status has not changed since the given date.
+	 * Returns true if the node was unregistered, otherwise false.
+	 */
+	public synchronized boolean removeStuckNode(String nodeId, NodeStatus expectedStatus, Date expectedStatusChange) {
+		if(!hasNodeUnchanged(nodeId, expectedStatus, expectedStatusChange)) {
+			return false;
+		}
+
+		removeNode(nodeId);
+		LOGGER.info("Node {} was stuck with status {} and was unregistered", nodeId, expectedStatus);
+		return true;
+	}
+
+	/**
+	 * Unregisters a pulling WorkerNode that has not been in contact with the controller for too long and is considered to be gone.<p>
+	 * The node is only unregistered if it has not been in contact since the given date. Returns true if the node was unregistered, otherwise false.
+	 */
+	public synchronized boolean removeSilentNode(String nodeId, Date expectedLastContact) {
+		WorkerNode node = workerNodes.get(nodeId);
+		if(node == null || !Objects.equals(expectedLastContact, node.getLastContact())) {
+			LOGGER.info("Node {} is not registered anymore or has been in contact since being checked - leaving it alone", nodeId);
+			return false;
+		}
+
+		removeNode(nodeId);
+		LOGGER.info("Node {} has not been in contact since {} and was unregistered", nodeId, expectedLastContact);
+		return true;
+	}
+
+	/**
+	 * Returns true if a WorkerNode with the given ID is registered, has the given status and has not changed its status since the given date.
+	 */
+	private boolean hasNodeUnchanged(String nodeId, NodeStatus expectedStatus, Date expectedStatusChange) {
+		WorkerNode node = workerNodes.get(nodeId);
+		if(node == null || expectedStatus != node.getStatus() || !Objects.equals(expectedStatusChange, node.getLastStatusChange())) {
+			LOGGER.info("Node {} is not registered anymore or has changed its status since being checked - leaving it alone", nodeId);
+			return false;
+		}
+		return true;
+	}
+
 	public boolean hasDomainSet() {
-		return getDomain() != null;
+		return !domains.isEmpty();
+	}
+
+	/**
+	 * Returns true if the given DomainType is one of the currently active DomainTypes in the system, otherwise false.
+	 */
+	public boolean hasDomain(DomainType domainType) {
+		return domains.containsKey(domainType.getDomainType());
+	}
+
+	/**
+	 * Returns a list of the currently active DomainTypes in the system. The list is empty if no domain is active yet.
+	 */
+	public List<DomainType> getDomains() {
+		return new ArrayList<>(domains.values());
 	}
 
 	/**
-	 * Returns the currently active DomainType in the system or null if there is no active domain set yet.
+	 * Returns true if the system is restricted to the DomainTypes set on start-up, otherwise false.
 	 */
-	public synchronized DomainType getDomain() {
-		return domain;
+	public boolean isRestrictedToDomains() {
+		return restrictedDomains;
 	}
 
 	/**
-	 * Set the system's currently active DomainType to the given one.<p>
-	 * Throws an IllegalStateException if an already set active DomainType would be overwritten by the new one.
+	 * Restricts the system to the given DomainTypes. Only nodes serving no other than these DomainTypes will be accepted afterwards.<p>
+	 * Throws an IllegalStateException if nodes are registered already, as they might serve other DomainTypes.
 	 */
-	public synchronized void setDomain(DomainType domain) {
-		if(getDomain() == null) {
-			LOGGER.info("Setting active domain to {}", domain);
-			this.domain = domain;
+	public synchronized void restrictToDomains(Collection<DomainType> domainTypes) {
+		if(hasNodes()) {
+			throw new IllegalStateException("Domains must be restricted before nodes are registered");
 		}
-		else {
-			LOGGER.info("Active domain already set to {}", domain);
-			throw new IllegalStateException("Active domain already set to " + domain + ". May be set only once.");
+
+		LOGGER.info("Restricting active domains to {}", domainTypes);
+		domains.clear();
+		for(DomainType domainType : domainTypes) {
+			domains.put(domainType.getDomainType(), domainType);
 		}
+		restrictedDomains = true;
+	}
+
+	/**
+	 * Returns true if the given DomainType can be served by the system, which is the case for any DomainType if the system is not restricted
+	 * and for the active DomainTypes otherwise.
+	 */
+	public boolean acceptsDomain(DomainType domainType) {
+		return !restrictedDomains || hasDomain(domainType);
 	}
 
 	/**
-	 * Triggers a ping of all registered WorkerNodes. Called from a timer regularly.
+	 * Returns true if all DomainTypes of the given WorkerNode can be served by the system, otherwise false.
 	 */
-	public void pingAllNodes() {
-		for(WorkerNode node : workerNodes.values()) {
-			if(NodeStatus.UNAVAILABLE != node.getStatus()) {
-				// TODO use RestTemplate to ping
-				// TODO use extra threads to avoid ping hanging!
-				// TODO if no reply do something like mark suspicious
+	public boolean acceptsDomains(WorkerNode node) {
+		for(DomainType domainType : node.getAllDomainTypes()) {
+			if(!acceptsDomain(domainType)) {
+				return false;
 			}
 		}
+		return true;
+	}
+
+	/**
+	 * Records the capacity and occupancy the WorkerNode with the given ID reported in the given WorkerState with its last heartbeat.<p>
+	 * Returns true if the node is registered, otherwise false.
+	 */
+	public boolean updateNodeState(String nodeId, WorkerState state) {
+		WorkerNode node = workerNodes.get(nodeId);
+		if(node == null) {
+			return false;
+		}
+		if(state.getCapacity() > 0) {
+			node.setCapacity(state.getCapacity());
+		}
+		node.setOccupancy(state.getOccupancy());
+		return true;
 	}
 
 }
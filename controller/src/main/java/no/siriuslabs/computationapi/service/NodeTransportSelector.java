@@ -0,0 +1,61 @@
+package no.siriuslabs.computationapi.service;
+
+import no.siriuslabs.computationapi.api.transport.NodeCall;
+import no.siriuslabs.computationapi.api.transport.NodeTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spring component choosing the NodeTransport each worker node is called through.<p>
+ * All NodeTransports found in the application context are asked in their order whether they support the node's URI, the first one doing so is used.
+ * HttpNodeTransport is always available; further transports (e.g. the in-process transport of a worker running in the controller's JVM) are picked up
+ * simply by being Spring beans.
+ */
+@Component
+public class NodeTransportSelector {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(NodeTransportSelector.class);
+
+	/**
+	 * All available NodeTransports in the order they are asked.
+	 */
+	private final List<NodeTransport> transports;
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public NodeTransportSelector(List<NodeTransport> transports) {
+		this.transports = new ArrayList<>(transports);
+		LOGGER.info("Available node transports: {}", transports);
+	}
+
+	/**
+	 * Returns the NodeTransport to reach the worker node with the given URI through.
+	 * @throws IllegalStateException if no available transport supports the URI.
+	 */
+	public NodeTransport getTransport(URI nodeUri) {
+		for(NodeTransport transport : transports) {
+			if(transport.supports(nodeUri)) {
+				return transport;
+			}
+		}
+		throw new IllegalStateException("No transport available for node URI " + nodeUri);
+	}
+
+	/**
+	 * Calls the service described by the given NodeCall on the worker node with the given URI through the node's transport and returns its reply.
+	 * @see NodeTransport#call(URI, NodeCall, Class)
+	 */
+	public <T> ResponseEntity<T> call(URI nodeUri, NodeCall call, Class<T> responseType) {
+		return getTransport(nodeUri).call(nodeUri, call, responseType);
+	}
+
+}
@@ -0,0 +1,95 @@
+package no.siriuslabs.computationapi.service;
+
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Container class representing a WorkPackage waiting in a WorkScheduler, together with the client it belongs to, its predicted cost and the time it was queued.<p>
+ * Queued packages are ordered by priority with aging: a waiting package gains one priority level per aging interval. As all packages age at the same rate,
+ * the resulting order does not change over time and can be kept in a heap, comparing the packages' priorities minus the time they were queued.
+ * Packages of equal rank, e.g. those of one run queued together, are handed out longest first, so that long packages do not start last and stretch the run's makespan.
+ */
+public class QueuedWorkPackage {
+
+	/**
+	 * Source of the sequence numbers keeping packages of equal rank in the order they were queued.
+	 */
+	private static final AtomicLong SEQUENCE = new AtomicLong();
+
+	/**
+	 * The queued WorkPackage.
+	 */
+	private final WorkPackage workPackage;
+	/**
+	 * ID of the client that requested the computation run the package belongs to.
+	 */
+	private final String clientId;
+	/**
+	 * Predicted time in milliseconds the computation of the package will take. Zero if unknown.
+	 */
+	private final long cost;
+	/**
+	 * Timestamp the package was queued.
+	 */
+	private final long queuedTimestamp;
+	/**
+	 * Sequence number of the package, increasing in the order packages were queued.
+	 */
+	private final long sequence;
+
+	/**
+	 * Constructor accepting the WorkPackage, the client-ID, the predicted cost and the timestamp the package was queued.
+	 */
+	public QueuedWorkPackage(WorkPackage workPackage, String clientId, long cost, long queuedTimestamp) {
+		this.workPackage = workPackage;
+		this.clientId = clientId;
+		this.cost = cost;
+		this.queuedTimestamp = queuedTimestamp;
+		sequence = SEQUENCE.incrementAndGet();
+	}
+
+	/**
+	 * Returns a Comparator ordering queued packages by descending priority, with packages gaining one priority level per given aging interval in milliseconds
+	 * while they wait. Packages of equal rank are ordered by descending cost and then by the order they were queued. An aging interval of zero disables aging.
+	 */
+	public static Comparator<QueuedWorkPackage> byPriority(long agingInterval) {
+		final Comparator<QueuedWorkPackage> byRank = agingInterval > 0
+				? Comparator.comparingLong((QueuedWorkPackage queued) -> queued.getWorkPackage().getPriority() * agingInterval - queued.getQueuedTimestamp())
+				: Comparator.comparingInt((QueuedWorkPackage queued) -> queued.getWorkPackage().getPriority());
+		return byRank.reversed()
+				.thenComparing(Comparator.comparingLong(QueuedWorkPackage::getCost).reversed())
+				.thenComparingLong(QueuedWorkPackage::getSequence);
+	}
+
+	public WorkPackage getWorkPackage() {
+		return workPackage;
+	}
+
+	public String getClientId() {
+		return clientId;
+	}
+
+	public long getCost() {
+		return cost;
+	}
+
+	public long getQueuedTimestamp() {
+		return queuedTimestamp;
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+
+	@Override
+	public String toString() {
+		return "QueuedWorkPackage{" +
+				"workPackage=" + workPackage +
+				", clientId='" + clientId + '\'' +
+				", cost=" + cost +
+				", queuedTimestamp=" + queuedTimestamp +
+				'}';
+	}
+}
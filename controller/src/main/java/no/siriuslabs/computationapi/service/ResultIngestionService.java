@@ -0,0 +1,195 @@
+package no.siriuslabs.computationapi.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackageResult;
+import no.siriuslabs.computationapi.event.ResultUpdateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spring service accepting the results worker nodes report on their own instead of returning them as the reply to a computation call.<p>
+ * This is the case for WorkPackages fetched by pulling nodes and for WorkPackages a node accepted for computation in the background (HttpStatus 202).
+ * The service keeps track of the packages whose results are awaited and publishes each awaited result exactly once. Results reported again
+ * (e.g. because a node retried a report whose reply got lost), for packages not awaited (anymore) or by another node than the one the package was handed out to
+ * (e.g. a late report for a package that has been handed out again since) are acknowledged, but discarded, which makes reporting idempotent.<p>
+ * A node that accepted a package for computation in the background stays occupied until the package's result has been reported.<p>
+ * The service reports the metric "results.reported", tagged with whether the results were accepted.
+ */
+@Service
+public class ResultIngestionService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ResultIngestionService.class);
+
+	/**
+	 * Reference to the NodeRegistry to be able to free nodes.
+	 */
+	private final NodeRegistry nodeRegistry;
+	/**
+	 * Event publisher to pass the accepted results to other application parts.
+	 */
+	private final ApplicationEventPublisher applicationEventPublisher;
+	/**
+	 * Registry the service's metrics are reported to.
+	 */
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * WorkPackages whose results are awaited, identified by the packages themselves.
+	 */
+	private final ConcurrentHashMap<WorkPackage, AwaitedResult> awaitedResults = new ConcurrentHashMap<>();
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public ResultIngestionService(NodeRegistry nodeRegistry, ApplicationEventPublisher applicationEventPublisher, MeterRegistry meterRegistry) {
+		this.nodeRegistry = nodeRegistry;
+		this.applicationEventPublisher = applicationEventPublisher;
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * Registers that the result of the given WorkPackage, which was handed out to the node with the given ID at the given timestamp, will be reported by the node later.<p>
+	 * If the node is occupied with computing the package, it is freed as soon as the result comes in.
+	 */
+	public void awaitResult(WorkPackage workPackage, String nodeId, long startedTimestamp, boolean occupiesNode) {
+		awaitedResults.put(workPackage, new AwaitedResult(workPackage, nodeId, startedTimestamp, occupiesNode));
+	}
+
+	/**
+	 * Returns true if the result of the given WorkPackage is awaited, otherwise false.
+	 */
+	public boolean isAwaited(WorkPackage workPackage) {
+		return awaitedResults.containsKey(workPackage);
+	}
+
+	/**
+	 * Makes sure the result of the given WorkPackage is discarded when it comes in, e.g. because its computation run was cancelled.
+	 * A node occupied with computing the package is still freed once the result has been reported.<p>
+	 * Returns true if the result was awaited, otherwise false.
+	 */
+	public boolean discard(WorkPackage workPackage) {
+		final AwaitedResult awaited = awaitedResults.get(workPackage);
+		if(awaited == null) {
+			return false;
+		}
+
+		if(awaited.isOccupyingNode()) {
+			awaited.discard();
+		}
+		else {
+			awaitedResults.remove(workPackage);
+		}
+		return true;
+	}
+
+	/**
+	 * Stops awaiting the result of the given WorkPackage altogether, e.g. because the package is considered lost and has been queued again.
+	 */
+	public void forget(WorkPackage workPackage) {
+		awaitedResults.remove(workPackage);
+	}
+
+	/**
+	 * Accepts the given WorkPackageResults reported by the node with the given ID and publishes those whose results were awaited.<p>
+	 * Returns a list stating for every result in turn if it was accepted (true) or discarded (false).
+	 */
+	public List<Boolean> ingest(String nodeId, List<WorkPackageResult> results) {
+		List<Boolean> accepted = new ArrayList<>(results.size());
+		for(WorkPackageResult result : results) {
+			final boolean resultAccepted = ingest(nodeId, result);
+			meterRegistry.counter("results.reported", "accepted", String.valueOf(resultAccepted)).increment();
+			accepted.add(resultAccepted);
+		}
+		return accepted;
+	}
+
+	/**
+	 * Accepts the given WorkPackageResult reported by the node with the given ID and publishes it if it was awaited from that node. Returns true if it was accepted, otherwise false.<p>
+	 * A result reported by another node leaves the awaited result untouched, so that the node the package was handed out to is neither freed nor loses its result.
+	 */
+	private boolean ingest(String nodeId, WorkPackageResult reported) {
+		final AwaitedResult awaited = reported.getWorkPackage() == null ? null : awaitedResults.get(reported.getWorkPackage());
+		if(awaited == null || !awaited.getNodeId().equals(nodeId) || !awaitedResults.remove(reported.getWorkPackage(), awaited)) {
+			LOGGER.info("Result reported by node {} is not awaited (anymore) from it - discarding it: {}", nodeId, reported);
+			return false;
+		}
+
+		if(awaited.isOccupyingNode() && nodeRegistry.hasNode(awaited.getNodeId())) {
+			nodeRegistry.freeNode(awaited.getNodeId());
+		}
+		final WorkPackage workPackage = awaited.getWorkPackage();
+		if(awaited.isDiscarded()) {
+			LOGGER.info("Result of package {} of run {} is to be discarded", workPackage.getId(), workPackage.getRunId());
+			return false;
+		}
+
+		// the package is taken from the controller's records - do not rely on the node to report it back
+		final WorkPackageResult result = new WorkPackageResult(workPackage);
+		result.setStatus(reported.getStatus());
+		result.setData(reported.getData());
+		result.setArtifacts(reported.getArtifacts());
+		result.setNodeId(awaited.getNodeId());
+		final long finishTime = System.currentTimeMillis();
+		result.setFinishedTimestamp(finishTime);
+		result.setRunningTime(finishTime - awaited.getStartedTimestamp());
+		LOGGER.info("Computation of package {} on node {} took {} ms", workPackage.getId(), awaited.getNodeId(), result.getRunningTime());
+
+		ResultUpdateEvent event = new ResultUpdateEvent(this, result);
+		LOGGER.info("Publishing event: {}", event);
+		applicationEventPublisher.publishEvent(event);
+		return true;
+	}
+
+	/**
+	 * Record of a WorkPackage whose result is awaited: the package as handed out, the node computing it, when it was handed out and whether the node is occupied with it.
+	 */
+	private static class AwaitedResult {
+
+		private final WorkPackage workPackage;
+		private final String nodeId;
+		private final long startedTimestamp;
+		private final boolean occupyingNode;
+		private volatile boolean discarded;
+
+		AwaitedResult(WorkPackage workPackage, String nodeId, long startedTimestamp, boolean occupyingNode) {
+			this.workPackage = workPackage;
+			this.nodeId = nodeId;
+			this.startedTimestamp = startedTimestamp;
+			this.occupyingNode = occupyingNode;
+		}
+
+		WorkPackage getWorkPackage() {
+			return workPackage;
+		}
+
+		String getNodeId() {
+			return nodeId;
+		}
+
+		long getStartedTimestamp() {
+			return startedTimestamp;
+		}
+
+		boolean isOccupyingNode() {
+			return occupyingNode;
+		}
+
+		boolean isDiscarded() {
+			return discarded;
+		}
+
+		void discard() {
+			discarded = true;
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+package no.siriuslabs.computationapi.service;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.util.function.Supplier;
+
+/**
+ * ClientHttpRequestFactory that allows the read timeout to be chosen per call instead of once for all calls.<p>
+ * Calls made through withReadTimeout() use the given read timeout for all requests created by the calling thread during the call.
+ * All other calls use the read timeout set on the factory.
+ */
+public class TimeoutClientHttpRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+	/**
+	 * Read timeout to be used for requests created by the current thread, if set.
+	 */
+	private static final ThreadLocal<Integer> READ_TIMEOUT = new ThreadLocal<>();
+
+	/**
+	 * Constructor expecting the (pooled) HttpClient to execute the requests with.
+	 */
+	public TimeoutClientHttpRequestFactory(HttpClient httpClient) {
+		super(httpClient);
+	}
+
+	/**
+	 * Executes the given call with the given read timeout in milliseconds and returns its result.
+	 */
+	public static <T> T withReadTimeout(int readTimeout, Supplier<T> call) {
+		READ_TIMEOUT.set(readTimeout);
+		try {
+			return call.get();
+		}
+		finally {
+			READ_TIMEOUT.remove();
+		}
+	}
+
+	@Override
+	protected RequestConfig createRequestConfig(Object client) {
+		final RequestConfig config = super.createRequestConfig(client);
+
+		final Integer readTimeout = READ_TIMEOUT.get();
+		if(readTimeout == null) {
+			return config;
+		}
+		return RequestConfig.copy(config != null ? config : RequestConfig.DEFAULT).setSocketTimeout(readTimeout).build();
+	}
+}
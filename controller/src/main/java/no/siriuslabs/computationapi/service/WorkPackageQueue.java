@@ -0,0 +1,177 @@
+package no.siriuslabs.computationapi.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Queue of WorkPackages waiting in a WorkScheduler, ordered by a given Comparator and indexed for delay scheduling.<p>
+ * Packages without a preferred node are kept in a heap. Packages with a preferred node are kept in sorted sets, once per computation run and once per preferred node,
+ * so that the best package a node may compute is found by looking at a few heads instead of walking all queued packages: the head of the heap, the head of
+ * the packages preferring the node and the heads of the runs whose packages wait for other nodes. Adding and removing a package takes logarithmic time.
+ */
+public class WorkPackageQueue {
+
+	/**
+	 * Order of the queued packages.
+	 */
+	private final Comparator<QueuedWorkPackage> comparator;
+	/**
+	 * Packages without a preferred node.
+	 */
+	private final PriorityQueue<QueuedWorkPackage> unconstrained;
+	/**
+	 * Packages with a preferred node per run-ID.
+	 */
+	private final Map<Long, TreeSet<QueuedWorkPackage>> constrainedByRun = new HashMap<>();
+	/**
+	 * Packages with a preferred node per preferred node-ID.
+	 */
+	private final Map<String, TreeSet<QueuedWorkPackage>> constrainedByNode = new HashMap<>();
+	/**
+	 * Overall number of queued packages.
+	 */
+	private int size;
+
+	/**
+	 * Constructor accepting the order of the queued packages. The order has to be total, as packages comparing equal are kept once in the sorted sets.
+	 */
+	public WorkPackageQueue(Comparator<QueuedWorkPackage> comparator) {
+		this.comparator = comparator;
+		unconstrained = new PriorityQueue<>(comparator);
+	}
+
+	/**
+	 * Adds the given package to the queue.
+	 */
+	public void add(QueuedWorkPackage queuedWorkPackage) {
+		final String preferredNode = getPreferredNode(queuedWorkPackage);
+		if(preferredNode == null) {
+			unconstrained.add(queuedWorkPackage);
+		}
+		else {
+			constrainedByRun.computeIfAbsent(queuedWorkPackage.getWorkPackage().getRunId(), (Long runId) -> new TreeSet<>(comparator)).add(queuedWorkPackage);
+			constrainedByNode.computeIfAbsent(preferredNode, (String nodeId) -> new TreeSet<>(comparator)).add(queuedWorkPackage);
+		}
+		size++;
+	}
+
+	/**
+	 * Removes the given package, as returned by one of the head-methods, from the queue.
+	 */
+	public void remove(QueuedWorkPackage queuedWorkPackage) {
+		final String preferredNode = getPreferredNode(queuedWorkPackage);
+		final boolean removed;
+		if(preferredNode == null) {
+			removed = unconstrained.peek() == queuedWorkPackage ? unconstrained.poll() != null : unconstrained.remove(queuedWorkPackage);
+		}
+		else {
+			removed = removeFrom(constrainedByRun, queuedWorkPackage.getWorkPackage().getRunId(), queuedWorkPackage)
+					& removeFrom(constrainedByNode, preferredNode, queuedWorkPackage);
+		}
+		if(removed) {
+			size--;
+		}
+	}
+
+	/**
+	 * Removes all packages matching the given filter from the queue and returns their number. Walks all queued packages.
+	 */
+	public int removeIf(Predicate<QueuedWorkPackage> filter) {
+		final List<QueuedWorkPackage> matching = new ArrayList<>();
+		for(QueuedWorkPackage queued : unconstrained) {
+			if(filter.test(queued)) {
+				matching.add(queued);
+			}
+		}
+		for(TreeSet<QueuedWorkPackage> packages : constrainedByRun.values()) {
+			for(QueuedWorkPackage queued : packages) {
+				if(filter.test(queued)) {
+					matching.add(queued);
+				}
+			}
+		}
+		for(QueuedWorkPackage queued : matching) {
+			remove(queued);
+		}
+		return matching.size();
+	}
+
+	/**
+	 * Returns the best package without a preferred node or null if there is none.
+	 */
+	public QueuedWorkPackage getUnconstrainedHead() {
+		return unconstrained.peek();
+	}
+
+	/**
+	 * Returns the best package preferring the node with the given ID or null if there is none.
+	 */
+	public QueuedWorkPackage getPreferringHead(String nodeId) {
+		final TreeSet<QueuedWorkPackage> packages = nodeId == null ? null : constrainedByNode.get(nodeId);
+		return packages == null ? null : packages.first();
+	}
+
+	/**
+	 * Returns the best package with a preferred node of each computation run having any.
+	 */
+	public Collection<QueuedWorkPackage> getRunHeads() {
+		final List<QueuedWorkPackage> heads = new ArrayList<>(constrainedByRun.size());
+		for(TreeSet<QueuedWorkPackage> packages : constrainedByRun.values()) {
+			heads.add(packages.first());
+		}
+		return heads;
+	}
+
+	/**
+	 * Returns the best of all queued packages or null if the queue is empty.
+	 */
+	public QueuedWorkPackage peek() {
+		QueuedWorkPackage head = unconstrained.peek();
+		for(QueuedWorkPackage runHead : getRunHeads()) {
+			head = better(head, runHead);
+		}
+		return head;
+	}
+
+	/**
+	 * Returns the better of the given packages according to the queue's order, ignoring null.
+	 */
+	public QueuedWorkPackage better(QueuedWorkPackage first, QueuedWorkPackage second) {
+		if(first == null) {
+			return second;
+		}
+		return second == null || comparator.compare(first, second) <= 0 ? first : second;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private static <K> boolean removeFrom(Map<K, TreeSet<QueuedWorkPackage>> index, K key, QueuedWorkPackage queuedWorkPackage) {
+		final TreeSet<QueuedWorkPackage> packages = index.get(key);
+		if(packages == null || !packages.remove(queuedWorkPackage)) {
+			return false;
+		}
+		if(packages.isEmpty()) {
+			index.remove(key);
+		}
+		return true;
+	}
+
+	private static String getPreferredNode(QueuedWorkPackage queuedWorkPackage) {
+		final String preferredNode = queuedWorkPackage.getWorkPackage().getPreferredNode();
+		return preferredNode == null || preferredNode.isEmpty() ? null : preferredNode;
+	}
+
+}
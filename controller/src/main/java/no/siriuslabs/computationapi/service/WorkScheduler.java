@@ -0,0 +1,62 @@
+package no.siriuslabs.computationapi.service;
+
+import no.siriuslabs.computationapi.api.model.computation.DomainType;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Strategy deciding which of the queued WorkPackages is given to the next free worker node.<p>
+ * Implementations keep the WorkPackages of all active computation runs. The WorkPackageController adds the packages of a run as soon as they have been generated
+ * and asks for the next package whenever it has reserved a node for a DomainType. The implementation used is selected by the configuration property "scheduler.strategy".<p>
+ * Implementations have to be thread-safe.
+ */
+public interface WorkScheduler {
+
+	/**
+	 * Client-ID used for computation requests that do not name a client.
+	 */
+	String DEFAULT_CLIENT_ID = "default";
+
+	/**
+	 * Adds the given WorkPackages to the queue of their computation run, which belongs to the client with the given ID.
+	 * A client-ID of null stands for the default client.
+	 */
+	void addWorkPackages(String clientId, Collection<WorkPackage> workPackages);
+
+	/**
+	 * Removes and returns the WorkPackage of the given DomainType that should be computed next on any node or returns null if no package of this DomainType is queued.
+	 */
+	default WorkPackage nextWorkPackage(DomainType domain) {
+		return nextWorkPackage(domain, null);
+	}
+
+	/**
+	 * Removes and returns the WorkPackage of the given DomainType that should be computed next on the worker node with the given ID.<p>
+	 * Packages preferring another node are held back for a short time, so that their preferred node can pick them up when it becomes free (delay scheduling).
+	 * Returns null if no package of this DomainType is queued or all of them are held back for other nodes. A node-ID of null stands for any node.
+	 */
+	WorkPackage nextWorkPackage(DomainType domain, String nodeId);
+
+	/**
+	 * Removes all queued WorkPackages of the computation run with the given run-ID and returns their number.
+	 */
+	int removeRun(long runId);
+
+	/**
+	 * Returns the number of queued WorkPackages of the computation run with the given run-ID.
+	 */
+	int getQueueSize(long runId);
+
+	/**
+	 * Returns the overall number of queued WorkPackages.
+	 */
+	int getQueueSize();
+
+	/**
+	 * Returns all DomainTypes there are WorkPackages queued for.
+	 */
+	List<DomainType> getPendingDomains();
+
+}
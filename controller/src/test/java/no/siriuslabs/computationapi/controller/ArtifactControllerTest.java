@@ -0,0 +1,94 @@
+package no.siriuslabs.computationapi.controller;
+
+import no.siriuslabs.computationapi.api.artifact.ArtifactReference;
+import no.siriuslabs.computationapi.config.ControllerProperties;
+import no.siriuslabs.computationapi.service.ArtifactStore;
+import no.siriuslabs.computationapi.service.NodeRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the ArtifactController class.
+ */
+public class ArtifactControllerTest {
+
+	private static final byte[] CONTENT = "large binary result".getBytes(StandardCharsets.UTF_8);
+
+	private Path directory;
+	private ArtifactStore artifactStore;
+	private ArtifactController artifactController;
+
+	@BeforeEach
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("artifacts");
+		artifactStore = new ArtifactStore(directory);
+		artifactController = new ArtifactController(Mockito.mock(NodeRegistry.class), new ControllerProperties(), artifactStore);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		FileSystemUtils.deleteRecursively(directory.toFile());
+	}
+
+	/**
+	 * Tests that an uploaded artifact is stored and written back to a download, and that unknown artifacts are replied with HttpStatus 404.
+	 */
+	@DisplayName("Test uploading and downloading an artifact")
+	@Test
+	public void testUploadAndDownload() throws IOException {
+		final MockHttpServletRequest upload = new MockHttpServletRequest("POST", "/artifacts/3");
+		upload.setContent(CONTENT);
+
+		final ResponseEntity<ArtifactReference> response = artifactController.storeArtifact(3, upload);
+
+		assertEquals(HttpStatus.CREATED, response.getStatusCode(), "Upload is expected to be created");
+		final ArtifactReference reference = response.getBody();
+		assertEquals(CONTENT.length, reference.getSize(), "Whole content is expected to be stored");
+		assertEquals("/artifacts/3/" + reference.getId(), response.getHeaders().getLocation().toString(), "Location of the artifact is expected");
+
+		final MockHttpServletResponse download = new MockHttpServletResponse();
+		artifactController.getArtifact(3, reference.getId(), new MockHttpServletRequest("GET", "/artifacts/3/" + reference.getId()), download);
+		assertArrayEquals(CONTENT, download.getContentAsByteArray(), "Stored content is expected to be downloaded");
+		assertEquals(Integer.toString(CONTENT.length), download.getHeader("Content-Length"), "Length of the content is expected to be announced");
+
+		final MockHttpServletResponse missing = new MockHttpServletResponse();
+		artifactController.getArtifact(4, reference.getId(), new MockHttpServletRequest(), missing);
+		assertEquals(HttpStatus.NOT_FOUND.value(), missing.getStatus(), "Artifact of another run is not expected to be found");
+	}
+
+	/**
+	 * Tests that a download is handed to the servlet container's sendfile support if it offers one, instead of being written by the controller.
+	 */
+	@DisplayName("Test downloading through sendfile")
+	@Test
+	public void testSendfile() throws IOException {
+		final MockHttpServletRequest upload = new MockHttpServletRequest("POST", "/artifacts/3");
+		upload.setContent(CONTENT);
+		final ArtifactReference reference = artifactController.storeArtifact(3, upload).getBody();
+
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/artifacts/3/" + reference.getId());
+		request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		final MockHttpServletResponse download = new MockHttpServletResponse();
+		artifactController.getArtifact(3, reference.getId(), request, download);
+
+		assertEquals(artifactStore.getArtifact(3, reference.getId()).toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"), "File is expected to be handed to sendfile");
+		assertEquals((long) CONTENT.length, request.getAttribute("org.apache.tomcat.sendfile.end"), "Whole file is expected to be sent");
+		assertEquals(0, download.getContentAsByteArray().length, "Content is not expected to be written by the controller");
+	}
+
+}
@@ -1,15 +1,23 @@
 package no.siriuslabs.computationapi.controller;
 
 import no.siriuslabs.computationapi.api.exception.InvalidParameterException;
+import no.siriuslabs.computationapi.api.http.ComputationHeaders;
+import no.siriuslabs.computationapi.api.http.WireFormat;
 import no.siriuslabs.computationapi.api.model.computation.DomainType;
+import no.siriuslabs.computationapi.api.model.node.WorkerNode;
 import no.siriuslabs.computationapi.model.TestDomainType;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.Collections;
+
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest
@@ -63,4 +71,33 @@ public class ControllerHelperTest {
 		assertEquals(TestDomainType.TEST_1.getDomainType(), result.getDomainType());
 	}
 
+	@DisplayName("Test createHttpEntity() with and without computation timeout")
+	@Test
+	public void testCreateHttpEntity_Timeout() {
+		// a timeout is passed on as header
+		HttpEntity<?> result = ControllerHelper.createHttpEntity("data", 5000);
+		assertEquals("5000", result.getHeaders().getFirst(ComputationHeaders.COMPUTATION_TIMEOUT));
+
+		// no timeout means no header
+		result = ControllerHelper.createHttpEntity("data", 0);
+		assertFalse(result.getHeaders().containsKey(ComputationHeaders.COMPUTATION_TIMEOUT), "No timeout header expected without a timeout");
+	}
+
+	@DisplayName("Test selectWireFormat() and createHttpEntity() with a wire format")
+	@Test
+	public void testSelectWireFormat() {
+		WorkerNode jsonNode = new WorkerNode();
+		WorkerNode smileNode = new WorkerNode();
+		smileNode.setWireFormats(Collections.singletonList(WireFormat.SMILE));
+
+		// the preferred format is used only for nodes supporting it
+		assertEquals(WireFormat.SMILE, ControllerHelper.selectWireFormat(smileNode, WireFormat.SMILE));
+		assertEquals(WireFormat.JSON, ControllerHelper.selectWireFormat(smileNode, WireFormat.CBOR), "JSON expected for a format the node does not support");
+		assertEquals(WireFormat.JSON, ControllerHelper.selectWireFormat(jsonNode, WireFormat.SMILE), "JSON expected for a node supporting JSON only");
+		assertEquals(WireFormat.JSON, ControllerHelper.selectWireFormat(null, WireFormat.SMILE), "JSON expected for an unknown node");
+
+		HttpEntity<?> result = ControllerHelper.createHttpEntity("data", WireFormat.SMILE);
+		assertEquals(WireFormat.SMILE.getMediaType(), result.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+	}
+
 }
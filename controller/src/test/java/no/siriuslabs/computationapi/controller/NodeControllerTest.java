@@ -14,8 +14,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest
@@ -53,7 +57,7 @@ public class NodeControllerTest {
 
 		Mockito.when(nodeRegistry.hasNode(existingNode)).thenReturn(true);
 		Mockito.when(nodeRegistry.hasNode(newNode)).thenReturn(false);
-		Mockito.when(nodeRegistry.getDomain()).thenReturn(TestDomainType.TEST_1);
+		Mockito.when(nodeRegistry.acceptsDomains(newNode)).thenReturn(true);
 
 		// test with already registered node
 		ResponseEntity<Object> response = nodeController.registerNode(existingNode);
@@ -74,4 +78,14 @@ public class NodeControllerTest {
 		assertAll(() -> { nodeController.unregisterNode(EXISTING_NODE_ID); });
 	}
 
+	@DisplayName("Test the deprecated single active domain")
+	@Test
+	public void testGetActiveDomain() {
+		Mockito.when(nodeRegistry.getDomains()).thenReturn(Collections.emptyList());
+		assertNull(nodeController.getActiveDomain(), "No domain is expected without active domains");
+
+		Mockito.when(nodeRegistry.getDomains()).thenReturn(Arrays.asList(TestDomainType.TEST_2, TestDomainType.TEST_1));
+		assertEquals(TestDomainType.TEST_1.getDomainType(), nodeController.getActiveDomain(), "First active domain in alphabetical order is expected");
+	}
+
 }
@@ -0,0 +1,79 @@
+package no.siriuslabs.computationapi.controller;
+
+import no.siriuslabs.computationapi.api.model.computation.ComputationResult;
+import no.siriuslabs.computationapi.api.model.computation.ComputationStatus;
+import no.siriuslabs.computationapi.api.model.computation.Status;
+import no.siriuslabs.computationapi.api.model.config.Controller;
+import no.siriuslabs.computationapi.api.model.request.ComputationRequest;
+import no.siriuslabs.computationapi.config.ControllerProperties;
+import no.siriuslabs.computationapi.event.ComputationRequestAddedEvent;
+import no.siriuslabs.computationapi.model.TestDomainType;
+import no.siriuslabs.computationapi.service.ArtifactStore;
+import no.siriuslabs.computationapi.service.BroadcastService;
+import no.siriuslabs.computationapi.service.NodeRegistry;
+import no.siriuslabs.computationapi.service.NodeTransportSelector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URISyntaxException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the ResultController class.
+ */
+public class ResultControllerTest {
+
+	private ResultController resultController;
+
+	@BeforeEach
+	public void setup() {
+		ControllerProperties controllerProperties = new ControllerProperties();
+		controllerProperties.setController(new Controller());
+
+		resultController = new ResultController(Mockito.mock(NodeRegistry.class), controllerProperties, Mockito.mock(NodeTransportSelector.class),
+				Mockito.mock(BroadcastService.class), Mockito.mock(ArtifactStore.class));
+	}
+
+	/**
+	 * Tests that the deprecated services addressing a run by its domain answer for the single run of the domain and refuse to choose between several runs.
+	 */
+	@DisplayName("Test getDomainStatus() and getDomainResult()")
+	@Test
+	public void testDomainStatusAndResult() throws URISyntaxException {
+		ResponseEntity<Object> status = resultController.getDomainStatus("test_1");
+		assertEquals(HttpStatus.OK, status.getStatusCode(), "Status of a domain without runs is expected to be answered");
+		assertEquals(Status.UNKNOWN, ((ComputationStatus) status.getBody()).getStatus(), "Domain without runs is expected to be unknown");
+		ResponseEntity<Object> result = resultController.getDomainResult("test_1");
+		assertEquals(HttpStatus.NOT_ACCEPTABLE, result.getStatusCode(), "Result of a domain without runs is expected to be refused");
+		assertEquals(Status.UNKNOWN, ((ComputationResult) result.getBody()).getStatus(), "Domain without runs is expected to be unknown");
+
+		addRun(1, TestDomainType.TEST_1);
+		addRun(2, TestDomainType.TEST_2);
+
+		status = resultController.getDomainStatus("test_1");
+		assertEquals(HttpStatus.OK, status.getStatusCode(), "Status of the single run of the domain is expected");
+		assertEquals(Status.PENDING, ((ComputationStatus) status.getBody()).getStatus(), "Single run of the domain is expected to be pending");
+		result = resultController.getDomainResult("test_1");
+		assertEquals(HttpStatus.NOT_ACCEPTABLE, result.getStatusCode(), "Result of the single pending run of the domain is expected to be refused");
+		assertEquals(Status.PENDING, ((ComputationResult) result.getBody()).getStatus(), "Single run of the domain is expected to be pending");
+
+		addRun(3, TestDomainType.TEST_1);
+
+		assertEquals(HttpStatus.CONFLICT, resultController.getDomainStatus("test_1").getStatusCode(), "Status of a domain with several runs is expected to be refused");
+		assertEquals(HttpStatus.CONFLICT, resultController.getDomainResult("test_1").getStatusCode(), "Result of a domain with several runs is expected to be refused");
+		assertEquals(HttpStatus.OK, resultController.getDomainStatus("test_2").getStatusCode(), "Status of another domain's single run is expected");
+	}
+
+	private void addRun(long runId, TestDomainType domain) {
+		ComputationRequest request = new ComputationRequest();
+		request.setDomain(domain);
+		request.setRunId(runId);
+		resultController.onApplicationEvent(new ComputationRequestAddedEvent(this, request));
+	}
+
+}
@@ -1,9 +1,15 @@
 package no.siriuslabs.computationapi.controller;
 
+import no.siriuslabs.computationapi.api.model.computation.ComputationStatus;
+import no.siriuslabs.computationapi.api.model.computation.RunTicket;
+import no.siriuslabs.computationapi.api.model.computation.Status;
 import no.siriuslabs.computationapi.api.model.config.Controller;
-import no.siriuslabs.computationapi.api.model.request.Payload;
+import no.siriuslabs.computationapi.api.model.request.ComputationRequest;
 import no.siriuslabs.computationapi.config.ControllerProperties;
+import no.siriuslabs.computationapi.event.ComputationCancelledEvent;
 import no.siriuslabs.computationapi.model.TestDomainType;
+import no.siriuslabs.computationapi.service.AdmissionService;
+import no.siriuslabs.computationapi.service.DataPreparationService;
 import no.siriuslabs.computationapi.service.NodeRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,22 +19,14 @@ import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
-import org.springframework.web.client.RestTemplate;
-
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
-import static org.junit.jupiter.api.Assertions.fail;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -36,20 +34,26 @@ public class ServiceControllerTest {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ServiceControllerTest.class);
 
-	private static final String SUCCESS_NODE_ID = "successNode";
-	private static final String RESP_CODE_FAIL_NODE_ID = "responseCodeFailNode";
-	private static final String NULL_NODE_ID = "nullNode";
-	private static final String FAIL_NODE_ID = "failNode";
+	private static final long RUN_ID = 42;
 
 	@Mock
 	private NodeRegistry nodeRegistry;
 
 	@Mock
-	private RestTemplate restTemplate;
+	private DataPreparationService dataPreparationService;
 
 	@Mock
 	private ControllerProperties controllerProperties;
 
+	@Mock
+	private ResultController resultController;
+
+	@Mock
+	private ApplicationEventPublisher applicationEventPublisher;
+
+	@Mock
+	private AdmissionService admissionService;
+
 	@InjectMocks
 	private ServiceController serviceController;
 
@@ -85,91 +89,72 @@ public class ServiceControllerTest {
 		Mockito.verify(nodeRegistry, Mockito.times(1)).reserveNode(TestDomainType.TEST_1);
 	}
 
-	@DisplayName("Test validateData() with successful validation result")
+	@DisplayName("Test startComputation() with a request rejected by admission control")
+	@Test
+	public void testStartComputation_Rejected() {
+		ComputationRequest request = new ComputationRequest();
+		request.setDomain(TestDomainType.TEST_1);
+		Mockito.when(nodeRegistry.acceptsDomain(TestDomainType.TEST_1)).thenReturn(true);
+		Mockito.when(admissionService.admit(Mockito.anyLong(), Mockito.eq(1024L))).thenReturn("Limit of pending requests reached");
+		Mockito.when(admissionService.getRetryAfter()).thenReturn(5);
+
+		ResponseEntity<Object> result = serviceController.startComputation(request, 1024L);
+
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, result.getStatusCode(), "Request beyond the admission limits must be rejected");
+		assertEquals("5", result.getHeaders().getFirst(HttpHeaders.RETRY_AFTER), "Rejected client is expected to be told when to retry");
+		Mockito.verify(nodeRegistry, Mockito.never()).reserveNode(TestDomainType.TEST_1);
+	}
+
+	@DisplayName("Test startComputation() with an accepted request")
 	@Test
-	public void testValidateData_Success() {
-		try {
-			final URI successNodeUri = new URI("http://sirius-labs.no/" + SUCCESS_NODE_ID);
-
-			Mockito.when(nodeRegistry.getUriForNode(SUCCESS_NODE_ID)).thenReturn(successNodeUri);
-
-			// try successful validation
-			ResponseEntity<Object> successResponse = ResponseEntity.status(HttpStatus.OK).body(new ArrayList<String>());
-			Mockito.when(restTemplate.exchange(Mockito.eq(new URI(successNodeUri + ServiceController.VALIDATE_DATA_PATH)), Mockito.eq(HttpMethod.POST), Mockito.any(HttpEntity.class), Mockito.eq(Object.class))).thenReturn(successResponse);
-
-			assertNull(serviceController.validateData(SUCCESS_NODE_ID, new Payload()), "Validation of correct data must be accepted");
-		}
-		catch(URISyntaxException e) {
-			fail(e.getMessage());
-			LOGGER.error(e.getMessage(), e);
-		}
+	public void testStartComputation_Accepted() {
+		ComputationRequest request = new ComputationRequest();
+		request.setDomain(TestDomainType.TEST_1);
+		Mockito.when(nodeRegistry.acceptsDomain(TestDomainType.TEST_1)).thenReturn(true);
+
+		ResponseEntity<Object> result = serviceController.startComputation(request, null);
+
+		assertEquals(HttpStatus.ACCEPTED, result.getStatusCode(), "Request is expected to be accepted without waiting for validation");
+		RunTicket ticket = (RunTicket) result.getBody();
+		assertEquals(request.getRunId(), ticket.getRunId(), "Ticket is expected to carry the run-ID assigned to the request");
+		assertEquals(Status.PENDING, ticket.getStatus(), "Run is expected to be pending");
+		assertEquals(ticket.getStatusPath(), result.getHeaders().getLocation().toString(), "Location is expected to point to the run's status");
+		Mockito.verify(dataPreparationService, Mockito.times(1)).validateAndPrepareData(request);
+		Mockito.verify(nodeRegistry, Mockito.never()).reserveNode(TestDomainType.TEST_1);
+		Mockito.verify(admissionService, Mockito.never()).release(Mockito.anyLong());
 	}
 
-	@DisplayName("Test validateData() with fail because of response code")
+	@DisplayName("Test cancelComputation() for an unknown computation run")
 	@Test
-	public void testValidateData_ResponseCode() {
-		try {
-			final URI responseCodeFailNodeUri = new URI("http://sirius-labs.no/" + RESP_CODE_FAIL_NODE_ID);
-
-			Mockito.when(nodeRegistry.getUriForNode(RESP_CODE_FAIL_NODE_ID)).thenReturn(responseCodeFailNodeUri);
-
-			// try validation with response code != 200 (OK)
-			ResponseEntity<Object> responseCodeFailResponse = ResponseEntity.status(HttpStatus.I_AM_A_TEAPOT).body(new ArrayList<String>());
-			Mockito.when(restTemplate.exchange(Mockito.eq(new URI(responseCodeFailNodeUri + ServiceController.VALIDATE_DATA_PATH)), Mockito.eq(HttpMethod.POST), Mockito.any(HttpEntity.class), Mockito.eq(Object.class))).thenReturn(responseCodeFailResponse);
-
-			ResponseEntity<Object> result = serviceController.validateData(RESP_CODE_FAIL_NODE_ID, new Payload());
-			assertEquals(HttpStatus.NOT_ACCEPTABLE, result.getStatusCode(), "Validation with response code != 200 must be rejected");
-			assertEquals(ServiceController.DATA_VALIDATION_FAILED_RESPONSE_CODE_MSG + responseCodeFailResponse.getStatusCode(), result.getBody(), "Validation with response code != 200 must be rejected");
-		}
-		catch(URISyntaxException e) {
-			fail(e.getMessage());
-			LOGGER.error(e.getMessage(), e);
-		}
+	public void testCancelComputation_Unknown() {
+		Mockito.when(resultController.getStatus(RUN_ID)).thenReturn(new ComputationStatus(Status.UNKNOWN, -1, -1));
+
+		ResponseEntity<Object> result = serviceController.cancelComputation(RUN_ID);
+
+		assertEquals(HttpStatus.NOT_FOUND, result.getStatusCode(), "Cancelling a non-existing computation must be rejected");
+		Mockito.verify(applicationEventPublisher, Mockito.never()).publishEvent(Mockito.any(ComputationCancelledEvent.class));
 	}
 
-	@DisplayName("Test validateData() with fail because of null response body")
+	@DisplayName("Test cancelComputation() for a finished computation run")
 	@Test
-	public void testValidateData_NullBody() {
-		try {
-			final URI nullNodeUri = new URI("http://sirius-labs.no/" + NULL_NODE_ID);
-
-			Mockito.when(nodeRegistry.getUriForNode(NULL_NODE_ID)).thenReturn(nullNodeUri);
-
-			// try validation with null result in the body
-			ResponseEntity<Object> nullResponse = new ResponseEntity<>(HttpStatus.OK);
-			Mockito.when(restTemplate.exchange(Mockito.eq(new URI(nullNodeUri + ServiceController.VALIDATE_DATA_PATH)), Mockito.eq(HttpMethod.POST), Mockito.any(HttpEntity.class), Mockito.eq(Object.class))).thenReturn(nullResponse);
-
-			ResponseEntity<Object> result = serviceController.validateData(NULL_NODE_ID, new Payload());
-			assertEquals(HttpStatus.NOT_ACCEPTABLE, result.getStatusCode(), "Validation with response code 200 but null body must be rejected (likely error)");
-			assertEquals(ServiceController.DATA_VALIDATION_FAILED_NO_RESULT_MSG, result.getBody(), "Validation with response code 200 but null body must be rejected (likely error)");
-		}
-		catch(URISyntaxException e) {
-			fail(e.getMessage());
-			LOGGER.error(e.getMessage(), e);
-		}
+	public void testCancelComputation_Done() {
+		Mockito.when(resultController.getStatus(RUN_ID)).thenReturn(new ComputationStatus(Status.DONE, 100, 0));
+
+		ResponseEntity<Object> result = serviceController.cancelComputation(RUN_ID);
+
+		assertEquals(HttpStatus.NOT_ACCEPTABLE, result.getStatusCode(), "Cancelling a finished computation must be rejected");
+		Mockito.verify(applicationEventPublisher, Mockito.never()).publishEvent(Mockito.any(ComputationCancelledEvent.class));
 	}
 
-	@DisplayName("Test validateData() with fail because of error messages in body")
+	@DisplayName("Test cancelComputation() for a running computation run")
 	@Test
-	public void testValidateData_ErrorMessages() {
-		try {
-			final URI failNodeUri = new URI("http://sirius-labs.no/" + FAIL_NODE_ID);
-
-			Mockito.when(nodeRegistry.getUriForNode(FAIL_NODE_ID)).thenReturn(failNodeUri);
-
-			// try validation with validation error messages in the body
-			final List<String> messages = Arrays.asList("error message 1", "error message 2");
-			ResponseEntity<Object> failResponse = ResponseEntity.ok(messages);
-			Mockito.when(restTemplate.exchange(Mockito.eq(new URI(failNodeUri + ServiceController.VALIDATE_DATA_PATH)), Mockito.eq(HttpMethod.POST), Mockito.any(HttpEntity.class), Mockito.eq(Object.class))).thenReturn(failResponse);
-
-			ResponseEntity<Object> result = serviceController.validateData(FAIL_NODE_ID, new Payload());
-			assertEquals(HttpStatus.NOT_ACCEPTABLE, result.getStatusCode(), "Validation with response code 200 but errors messages must be rejected");
-			assertEquals(ServiceController.DATA_VALIDATION_FAILED_MSG + messages, result.getBody(), "Validation with response code 200 but errors messages must be rejected");
-		}
-		catch(URISyntaxException e) {
-			fail(e.getMessage());
-			LOGGER.error(e.getMessage(), e);
-		}
+	public void testCancelComputation_Working() {
+		Mockito.when(resultController.getStatus(RUN_ID)).thenReturn(new ComputationStatus(Status.WORKING, 50, 2));
+
+		ResponseEntity<Object> result = serviceController.cancelComputation(RUN_ID);
+
+		assertEquals(HttpStatus.OK, result.getStatusCode(), "Cancelling a running computation must be accepted");
+		Mockito.verify(applicationEventPublisher, Mockito.times(1)).publishEvent(Mockito.any(ComputationCancelledEvent.class));
 	}
 
 }
@@ -0,0 +1,232 @@
+package no.siriuslabs.computationapi.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import no.siriuslabs.computationapi.api.model.computation.RequestProtocol;
+import no.siriuslabs.computationapi.api.model.computation.Status;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackageResult;
+import no.siriuslabs.computationapi.api.model.config.Controller;
+import no.siriuslabs.computationapi.api.model.node.WorkerNode;
+import no.siriuslabs.computationapi.api.model.request.ComputationRequest;
+import no.siriuslabs.computationapi.config.ControllerProperties;
+import no.siriuslabs.computationapi.config.SchedulerProperties;
+import no.siriuslabs.computationapi.event.ComputationCancelledEvent;
+import no.siriuslabs.computationapi.event.DataPreparartionFinishedEvent;
+import no.siriuslabs.computationapi.event.ResultUpdateEvent;
+import no.siriuslabs.computationapi.model.TestDomainType;
+import no.siriuslabs.computationapi.service.ComputationJobService;
+import no.siriuslabs.computationapi.service.CostModel;
+import no.siriuslabs.computationapi.service.DataPreparationService;
+import no.siriuslabs.computationapi.service.FairShareWorkScheduler;
+import no.siriuslabs.computationapi.service.NodeRegistry;
+import no.siriuslabs.computationapi.service.ResultIngestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the WorkPackageController class serving pulling worker nodes.
+ */
+public class WorkPackageControllerTest {
+
+	private static final String NODE_ID = "pullingNode";
+	private static final long RUN_ID = 7;
+
+	private NodeRegistry nodeRegistry;
+	private ComputationJobService computationJobService;
+	private ResultController resultController;
+	private ApplicationEventPublisher applicationEventPublisher;
+	private DataPreparationService dataPreparationService;
+
+	private ComputationRequest request;
+
+	private WorkPackageController workPackageController;
+
+	@BeforeEach
+	public void setup() {
+		nodeRegistry = new NodeRegistry();
+		computationJobService = Mockito.mock(ComputationJobService.class);
+		resultController = Mockito.mock(ResultController.class);
+		applicationEventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+		dataPreparationService = Mockito.mock(DataPreparationService.class);
+
+		Controller controller = new Controller();
+		controller.setComputationTimeout(1000);
+		ControllerProperties controllerProperties = new ControllerProperties();
+		controllerProperties.setController(controller);
+
+		SchedulerProperties schedulerProperties = new SchedulerProperties();
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		FairShareWorkScheduler workScheduler = new FairShareWorkScheduler(schedulerProperties, new CostModel(schedulerProperties, meterRegistry), meterRegistry);
+
+		request = new ComputationRequest();
+		request.setDomain(TestDomainType.TEST_1);
+		request.setRunId(RUN_ID);
+		Mockito.when(resultController.getProtocol(RUN_ID)).thenReturn(new RequestProtocol(TestDomainType.TEST_1, request));
+
+		WorkerNode node = new WorkerNode();
+		node.setId(NODE_ID);
+		node.setDomainType(TestDomainType.TEST_1);
+		node.setUri(URI.create("http://localhost:1"));
+		node.setPulling(true);
+		nodeRegistry.registerNode(node);
+
+		ResultIngestionService resultIngestionService = new ResultIngestionService(nodeRegistry, applicationEventPublisher, meterRegistry);
+		workPackageController = new WorkPackageController(nodeRegistry, computationJobService, controllerProperties, resultController, workScheduler, resultIngestionService,
+				dataPreparationService);
+	}
+
+	/**
+	 * Tests that queued packages are handed out to a pulling node right away, up to the requested number and with their computation timeout,
+	 * and that the pulling node is never sent work by the controller.
+	 */
+	@DisplayName("Test fetchWork() with queued packages")
+	@Test
+	public void testFetchWork_Queued() throws Exception {
+		queueWorkPackages(3);
+		workPackageController.distributeWork();
+
+		DeferredResult<ResponseEntity<List<WorkPackage>>> result = workPackageController.fetchWork(NODE_ID, 2, 1000);
+
+		assertTrue(result.hasResult(), "Fetch request is expected to be answered right away");
+		List<WorkPackage> workPackages = getWorkPackages(result);
+		assertEquals(2, workPackages.size(), "Requested number of packages is expected");
+		assertEquals(1000, workPackages.get(0).getComputationTimeout(), "Package is expected to carry its computation timeout");
+		Mockito.verify(computationJobService, Mockito.never()).runComputation(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.anyLong());
+	}
+
+	/**
+	 * Tests that a fetch request without queued work waits and is answered as soon as packages are queued.
+	 */
+	@DisplayName("Test fetchWork() waiting for work")
+	@Test
+	public void testFetchWork_Waiting() {
+		DeferredResult<ResponseEntity<List<WorkPackage>>> result = workPackageController.fetchWork(NODE_ID, 5, 10000);
+		assertFalse(result.hasResult(), "Fetch request is expected to wait for work");
+
+		queueWorkPackages(1);
+
+		assertTrue(result.hasResult(), "Fetch request is expected to be answered once work is queued");
+		assertEquals(1, getWorkPackages(result).size(), "Queued package is expected");
+	}
+
+	/**
+	 * Tests that fetch requests of unknown nodes are rejected.
+	 */
+	@DisplayName("Test fetchWork() with an unknown node")
+	@Test
+	public void testFetchWork_UnknownNode() {
+		DeferredResult<ResponseEntity<List<WorkPackage>>> result = workPackageController.fetchWork("unknown", 1, 1000);
+
+		assertEquals(HttpStatus.NOT_FOUND, ((ResponseEntity<?>) result.getResult()).getStatusCode(), "Unknown node is expected to be rejected");
+	}
+
+	/**
+	 * Tests that the work distribution timer starts the preparation of pending requests on the nodes it can reserve and drops the requests of cancelled runs.
+	 */
+	@DisplayName("Test distributeWork() with pending preparations")
+	@Test
+	public void testDistributeWork_PendingPreparations() throws Exception {
+		WorkerNode node = new WorkerNode();
+		node.setId("pushNode");
+		node.setDomainType(TestDomainType.TEST_1);
+		node.setUri(URI.create("http://localhost:2"));
+		nodeRegistry.registerNode(node);
+
+		ComputationRequest waiting = new ComputationRequest();
+		waiting.setDomain(TestDomainType.TEST_1);
+		waiting.setRunId(RUN_ID + 1);
+		Mockito.when(resultController.getProtocol(RUN_ID + 1)).thenReturn(new RequestProtocol(TestDomainType.TEST_1, waiting));
+		ComputationRequest cancelled = new ComputationRequest();
+		cancelled.setDomain(TestDomainType.TEST_1);
+		cancelled.setRunId(RUN_ID + 2);
+		Mockito.when(dataPreparationService.getPendingRequests()).thenReturn(Arrays.asList(cancelled, request, waiting));
+
+		workPackageController.distributeWork();
+
+		Mockito.verify(dataPreparationService, Mockito.times(1)).discardPendingRequest(cancelled);
+		Mockito.verify(dataPreparationService, Mockito.times(1)).removePendingRequest(request);
+		Mockito.verify(dataPreparationService, Mockito.times(1)).validateAndPrepareData("pushNode", request);
+		Mockito.verify(dataPreparationService, Mockito.never()).validateAndPrepareData(Mockito.anyString(), Mockito.eq(waiting));
+		Mockito.verify(dataPreparationService, Mockito.never()).removePendingRequest(waiting);
+	}
+
+	/**
+	 * Tests that the result of a fetched package is published once and that results reported again or of packages not handed out are discarded.
+	 */
+	@DisplayName("Test reportResults()")
+	@Test
+	public void testReportResults() {
+		queueWorkPackages(1);
+		WorkPackage workPackage = getWorkPackages(workPackageController.fetchWork(NODE_ID, 1, 1000)).get(0);
+
+		WorkPackageResult reported = new WorkPackageResult(workPackage);
+		reported.setStatus(Status.DONE);
+		WorkPackageResult notHandedOut = new WorkPackageResult(new WorkPackage(TestDomainType.TEST_1, 99));
+
+		assertEquals(Arrays.asList(true, false), workPackageController.reportResults(NODE_ID, Arrays.asList(reported, notHandedOut)).getBody(),
+				"Only the result of the fetched package is expected to be accepted");
+		assertEquals(Arrays.asList(false), workPackageController.reportResults(NODE_ID, Arrays.asList(reported)).getBody(), "Result reported twice is expected to be discarded");
+
+		ArgumentCaptor<ResultUpdateEvent> captor = ArgumentCaptor.forClass(ResultUpdateEvent.class);
+		Mockito.verify(applicationEventPublisher).publishEvent(captor.capture());
+		assertEquals(NODE_ID, captor.getValue().getWorkPackageResult().getNodeId(), "Result is expected to be attributed to the reporting node");
+		assertEquals(Status.DONE, captor.getValue().getWorkPackageResult().getStatus(), "Reported status is expected to be kept");
+	}
+
+	/**
+	 * Tests that cancelling a run removes its queued packages, asks the node computing one of them to abort it and discards the result of a package
+	 * fetched by a pulling node.
+	 */
+	@DisplayName("Test cancelling a run")
+	@Test
+	public void testCancelWork() throws Exception {
+		WorkerNode pushingNode = new WorkerNode();
+		pushingNode.setId("pushingNode");
+		pushingNode.setDomainType(TestDomainType.TEST_1);
+		pushingNode.setUri(URI.create("http://localhost:2"));
+		nodeRegistry.registerNode(pushingNode);
+
+		queueWorkPackages(3);
+		workPackageController.distributeWork();
+		ArgumentCaptor<WorkPackage> sent = ArgumentCaptor.forClass(WorkPackage.class);
+		Mockito.verify(computationJobService).runComputation(Mockito.eq("pushingNode"), Mockito.eq(pushingNode.getUri()), sent.capture(), Mockito.anyLong());
+		WorkPackage fetched = getWorkPackages(workPackageController.fetchWork(NODE_ID, 1, 1000)).get(0);
+
+		workPackageController.onApplicationEvent(new ComputationCancelledEvent(this, RUN_ID));
+
+		Mockito.verify(computationJobService).cancelComputation("pushingNode", pushingNode.getUri(), sent.getValue());
+		assertFalse(workPackageController.fetchWork(NODE_ID, 5, 10000).hasResult(), "Queued packages of the cancelled run are expected to be removed");
+		assertEquals(Arrays.asList(false), workPackageController.reportResults(NODE_ID, Arrays.asList(new WorkPackageResult(fetched))).getBody(),
+				"Result of a fetched package of the cancelled run is expected to be discarded");
+		Mockito.verify(applicationEventPublisher, Mockito.never()).publishEvent(Mockito.any(ResultUpdateEvent.class));
+	}
+
+	private void queueWorkPackages(int number) {
+		List<WorkPackage> workPackages = new ArrayList<>(number);
+		for(int i = 0; i < number; i++) {
+			WorkPackage workPackage = new WorkPackage(TestDomainType.TEST_1, i);
+			workPackage.setRunId(RUN_ID);
+			workPackages.add(workPackage);
+		}
+		workPackageController.onApplicationEvent(new DataPreparartionFinishedEvent(this, request, workPackages));
+	}
+
+	private List<WorkPackage> getWorkPackages(DeferredResult<ResponseEntity<List<WorkPackage>>> result) {
+		return ((ResponseEntity<List<WorkPackage>>) result.getResult()).getBody();
+	}
+
+}
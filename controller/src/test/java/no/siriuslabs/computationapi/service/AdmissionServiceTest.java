@@ -0,0 +1,106 @@
+package no.siriuslabs.computationapi.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.config.AdmissionProperties;
+import no.siriuslabs.computationapi.config.SchedulerProperties;
+import no.siriuslabs.computationapi.model.TestDomainType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the AdmissionService class.
+ */
+public class AdmissionServiceTest {
+
+	private AdmissionProperties admissionProperties;
+	private MeterRegistry meterRegistry;
+	private WorkScheduler workScheduler;
+
+	private AdmissionService admissionService;
+
+	@BeforeEach
+	public void setup() {
+		admissionProperties = new AdmissionProperties();
+		meterRegistry = new SimpleMeterRegistry();
+		SchedulerProperties schedulerProperties = new SchedulerProperties();
+		workScheduler = new FairShareWorkScheduler(schedulerProperties, new CostModel(schedulerProperties, meterRegistry), meterRegistry);
+		admissionService = new AdmissionService(admissionProperties, workScheduler, meterRegistry);
+	}
+
+	/**
+	 * Tests that requests beyond the limit of pending requests are rejected until a pending request has been prepared or released.
+	 */
+	@DisplayName("Test admit() with the limit of pending requests")
+	@Test
+	public void testAdmit_PendingRequests() {
+		admissionProperties.setMaxPendingRequests(2);
+
+		assertNull(admissionService.admit(1, 0), "First request is expected to be admitted");
+		assertNull(admissionService.admit(2, 0), "Second request is expected to be admitted");
+		assertNotNull(admissionService.admit(3, 0), "Request beyond the limit of pending requests is expected to be rejected");
+		assertEquals(2, meterRegistry.get("admission.pending.requests").gauge().value(), 0.001, "Number of pending requests is expected to be reported");
+		assertEquals(1, meterRegistry.get("admission.rejected").tag("reason", "pending requests").counter().count(), 0.001, "Rejection is expected to be counted");
+
+		admissionService.release(1);
+
+		assertNull(admissionService.admit(3, 0), "Request is expected to be admitted after a pending request was released");
+	}
+
+	/**
+	 * Tests that requests are rejected while too many WorkPackages are queued.
+	 */
+	@DisplayName("Test admit() with the limit of queued packages")
+	@Test
+	public void testAdmit_QueuedPackages() {
+		admissionProperties.setMaxQueuedPackages(3);
+
+		workScheduler.addWorkPackages(null, createWorkPackages(1, 3));
+
+		assertNotNull(admissionService.admit(2, 0), "Request is expected to be rejected while the queue is full");
+
+		workScheduler.nextWorkPackage(TestDomainType.TEST_1);
+
+		assertNull(admissionService.admit(2, 0), "Request is expected to be admitted after a package was distributed");
+	}
+
+	/**
+	 * Tests that the bytes of a run count against the limit until all its WorkPackages have been distributed.
+	 */
+	@DisplayName("Test admit() with the limit of queued bytes")
+	@Test
+	public void testAdmit_QueuedBytes() {
+		admissionProperties.setMaxQueuedBytes(1000);
+
+		assertNull(admissionService.admit(1, 2000), "Oversized request is expected to be admitted while nothing else is queued");
+		assertNotNull(admissionService.admit(2, 10), "Request is expected to be rejected while the limit of bytes is exceeded");
+
+		workScheduler.addWorkPackages(null, createWorkPackages(1, 1));
+		admissionService.preparationFinished(1, true);
+
+		assertNotNull(admissionService.admit(2, 10), "Bytes of a run are expected to count until its packages have been distributed");
+
+		workScheduler.nextWorkPackage(TestDomainType.TEST_1);
+
+		assertNull(admissionService.admit(2, 10), "Request is expected to be admitted after the queued run was distributed");
+		assertEquals(10, admissionService.getQueuedBytes(), "Only the bytes of the new request are expected to be counted");
+	}
+
+	private List<WorkPackage> createWorkPackages(long runId, int number) {
+		List<WorkPackage> workPackages = new ArrayList<>(number);
+		for(int i = 0; i < number; i++) {
+			WorkPackage workPackage = new WorkPackage(TestDomainType.TEST_1, i);
+			workPackage.setRunId(runId);
+			workPackages.add(workPackage);
+		}
+		return workPackages;
+	}
+
+}
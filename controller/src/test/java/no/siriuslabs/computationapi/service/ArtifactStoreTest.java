@@ -0,0 +1,86 @@
+package no.siriuslabs.computationapi.service;
+
+import no.siriuslabs.computationapi.api.artifact.ArtifactReference;
+import no.siriuslabs.computationapi.api.artifact.ArtifactTransfer;
+import no.siriuslabs.computationapi.api.exception.InvalidParameterException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the ArtifactStore class.
+ */
+public class ArtifactStoreTest {
+
+	private Path directory;
+	private ArtifactStore artifactStore;
+
+	@BeforeEach
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("artifacts");
+		artifactStore = new ArtifactStore(directory);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		FileSystemUtils.deleteRecursively(directory.toFile());
+	}
+
+	/**
+	 * Tests that stored content larger than a single transfer chunk is kept completely under a new ID and can be read back.
+	 */
+	@DisplayName("Test storing and reading an artifact")
+	@Test
+	public void testStore() throws IOException {
+		final byte[] content = new byte[20 * 1024 * 1024 + 17];
+		for(int i = 0; i < content.length; i++) {
+			content[i] = (byte) (i * 31);
+		}
+
+		final ArtifactReference reference = artifactStore.store(7, Channels.newChannel(new ByteArrayInputStream(content)));
+
+		assertEquals(7, reference.getRunId(), "Artifact is expected to belong to its run");
+		assertTrue(ArtifactTransfer.isValidId(reference.getId()), "Artifact is expected to get a valid ID");
+		assertEquals(content.length, reference.getSize(), "Size of the whole content is expected");
+		final Path artifactFile = artifactStore.getArtifact(7, reference.getId());
+		assertNotNull(artifactFile, "Stored artifact is expected to be found");
+		assertArrayEquals(content, Files.readAllBytes(artifactFile), "Stored content is expected to be read back");
+		assertEquals(1, Files.list(artifactFile.getParent()).count(), "No temporary files are expected to be left");
+		assertNotEquals(reference.getId(), artifactStore.store(7, Channels.newChannel(new ByteArrayInputStream(content))).getId(), "Every artifact is expected to get a new ID");
+	}
+
+	/**
+	 * Tests that the artifacts of a run are deleted with the run, without affecting other runs, and that invalid IDs are refused.
+	 */
+	@DisplayName("Test removing runs and invalid IDs")
+	@Test
+	public void testRemoveRun() throws IOException {
+		final ArtifactReference removed = artifactStore.store(1, Channels.newChannel(new ByteArrayInputStream(new byte[] {1, 2, 3})));
+		final ArtifactReference kept = artifactStore.store(2, Channels.newChannel(new ByteArrayInputStream(new byte[] {4, 5})));
+
+		artifactStore.removeRun(1);
+
+		assertNull(artifactStore.getArtifact(1, removed.getId()), "Artifact of removed run is expected to be deleted");
+		assertNotNull(artifactStore.getArtifact(2, kept.getId()), "Artifact of other run is expected to be kept");
+		assertNull(artifactStore.getArtifact(2, removed.getId()), "Artifact is not expected to be found in another run");
+		assertThrows(InvalidParameterException.class, () -> artifactStore.getArtifact(2, "../1/" + removed.getId()), "Invalid ID is expected to be refused");
+
+		final Path otherDirectory = Files.createDirectories(directory.resolve("other"));
+		final Path otherFile = Files.write(directory.resolve("3"), new byte[] {6});
+		new ArtifactStore(directory);
+		assertNull(artifactStore.getArtifact(2, kept.getId()), "Artifacts left over by an earlier controller are expected to be deleted");
+		assertTrue(Files.isDirectory(otherDirectory), "Directory not belonging to a run is expected to be kept");
+		assertTrue(Files.isRegularFile(otherFile), "File not belonging to a run is expected to be kept");
+	}
+
+}
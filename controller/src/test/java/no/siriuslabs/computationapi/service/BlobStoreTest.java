@@ -0,0 +1,74 @@
+package no.siriuslabs.computationapi.service;
+
+import no.siriuslabs.computationapi.api.exception.InvalidParameterException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the BlobStore class.
+ */
+public class BlobStoreTest {
+
+	private static final byte[] CONTENT = "some large input".getBytes(StandardCharsets.UTF_8);
+
+	private Path directory;
+	private BlobStore blobStore;
+
+	@BeforeEach
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("blobs");
+		blobStore = new BlobStore(directory);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		FileSystemUtils.deleteRecursively(directory.toFile());
+	}
+
+	/**
+	 * Tests that stored content is identified by its SHA-256 hash, can be read back and is kept once only if stored again.
+	 */
+	@DisplayName("Test storing and reading a blob")
+	@Test
+	public void testStore() throws IOException {
+		final String hash = blobStore.store(new ByteArrayInputStream(CONTENT));
+
+		assertEquals("ec0071c06d86d80e36f5e79dc768ba431300afd7ea31a45a68e5be0775f48d00", hash, "Hash is expected to be the hexadecimal SHA-256 digest of the content");
+		final Path blobFile = blobStore.getBlob(hash);
+		assertNotNull(blobFile, "Stored blob is expected to be found");
+		assertArrayEquals(CONTENT, Files.readAllBytes(blobFile), "Stored content is expected to be read back");
+
+		assertEquals(hash, blobStore.store(new ByteArrayInputStream(CONTENT)), "Same content is expected to have the same hash");
+		assertEquals(1, Files.list(blobFile.getParent()).count(), "Same content is expected to be stored once");
+		assertNotEquals(hash, blobStore.store(new ByteArrayInputStream("other input".getBytes(StandardCharsets.UTF_8))), "Other content is expected to have another hash");
+	}
+
+	/**
+	 * Tests that unknown blobs are not found, deleted blobs are gone and invalid hashes are refused.
+	 */
+	@DisplayName("Test unknown, deleted and invalid blobs")
+	@Test
+	public void testUnknownBlobs() throws IOException {
+		final String hash = blobStore.store(new ByteArrayInputStream(CONTENT));
+
+		assertNull(blobStore.getBlob(hash.replace(hash.charAt(0), hash.charAt(0) == 'a' ? 'b' : 'a')), "Unknown blob is not expected to be found");
+		assertTrue(blobStore.delete(hash), "Stored blob is expected to be deleted");
+		assertNull(blobStore.getBlob(hash), "Deleted blob is not expected to be found");
+		assertFalse(blobStore.delete(hash), "Deleted blob is not expected to be deleted again");
+
+		assertThrows(InvalidParameterException.class, () -> blobStore.getBlob("../" + hash), "Invalid hash is expected to be refused");
+		assertThrows(InvalidParameterException.class, () -> blobStore.delete(hash.toUpperCase()), "Invalid hash is expected to be refused");
+	}
+
+}
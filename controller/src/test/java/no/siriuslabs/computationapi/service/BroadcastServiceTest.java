@@ -0,0 +1,115 @@
+package no.siriuslabs.computationapi.service;
+
+import no.siriuslabs.computationapi.api.model.computation.RunBroadcast;
+import no.siriuslabs.computationapi.api.model.config.Controller;
+import no.siriuslabs.computationapi.api.model.node.WorkerNode;
+import no.siriuslabs.computationapi.api.model.request.ComputationRequest;
+import no.siriuslabs.computationapi.api.model.request.Payload;
+import no.siriuslabs.computationapi.api.transport.NodeCall;
+import no.siriuslabs.computationapi.api.transport.NodeTransport;
+import no.siriuslabs.computationapi.config.ControllerProperties;
+import no.siriuslabs.computationapi.event.ComputationCancelledEvent;
+import no.siriuslabs.computationapi.event.ComputationRequestAddedEvent;
+import no.siriuslabs.computationapi.model.TestDomainType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the BroadcastService class.
+ */
+public class BroadcastServiceTest {
+
+	private static final URI NODE_URI = URI.create("http://localhost:1");
+
+	private NodeTransport transport;
+
+	private BroadcastService broadcastService;
+
+	@BeforeEach
+	public void setup() {
+		NodeRegistry nodeRegistry = new NodeRegistry();
+		for(String nodeId : new String[] {"node1", "node2"}) {
+			WorkerNode node = new WorkerNode();
+			node.setId(nodeId);
+			node.setDomainType(TestDomainType.TEST_1);
+			node.setUri(NODE_URI);
+			nodeRegistry.registerNode(node);
+		}
+		ControllerProperties controllerProperties = new ControllerProperties();
+		controllerProperties.setController(new Controller());
+
+		transport = Mockito.mock(NodeTransport.class);
+		Mockito.when(transport.supports(NODE_URI)).thenReturn(true);
+		Mockito.when(transport.call(Mockito.eq(NODE_URI), Mockito.any(NodeCall.class), Mockito.eq(Boolean.class))).thenReturn(ResponseEntity.ok(true));
+		broadcastService = new BroadcastService(nodeRegistry, controllerProperties, new NodeTransportSelector(Collections.singletonList(transport)));
+	}
+
+	/**
+	 * Tests that the broadcast data of a run is sent once to each node and that nothing is sent for runs without broadcast data.
+	 */
+	@DisplayName("Test deliver() for several packages and nodes")
+	@Test
+	public void testDeliver() {
+		final Map<String, Object> broadcast = Collections.singletonMap("reference", Collections.nCopies(3, 1.5));
+		broadcastService.onApplicationEvent(new ComputationRequestAddedEvent(this, createRequest(1, broadcast)));
+		broadcastService.onApplicationEvent(new ComputationRequestAddedEvent(this, createRequest(2, null)));
+
+		broadcastService.deliver("node1", NODE_URI, 1);
+		broadcastService.deliver("node1", NODE_URI, 1);
+		broadcastService.deliver("node2", NODE_URI, 1);
+		broadcastService.deliver("node1", NODE_URI, 2);
+
+		ArgumentCaptor<NodeCall> captor = ArgumentCaptor.forClass(NodeCall.class);
+		Mockito.verify(transport, Mockito.times(2)).call(Mockito.eq(NODE_URI), captor.capture(), Mockito.eq(Boolean.class));
+		final List<NodeCall> calls = captor.getAllValues();
+		assertEquals(BroadcastService.SERVICE_PATH, calls.get(0).getServicePath(), "Broadcast data is expected to be sent to the receiving service");
+		assertEquals(1, ((RunBroadcast) calls.get(0).getBody()).getRunId(), "Broadcast data is expected to belong to its run");
+		assertSame(broadcast, ((RunBroadcast) calls.get(1).getBody()).getData(), "Broadcast data is expected to be sent as given");
+		assertNull(broadcastService.getBroadcast(2), "Run without broadcast data is not expected to have any");
+	}
+
+	/**
+	 * Tests that a failed delivery is tried again with the next package and that the data of an ended run is dropped.
+	 */
+	@DisplayName("Test deliver() after a failure and after the run ended")
+	@Test
+	public void testDeliver_FailureAndEnd() {
+		broadcastService.onApplicationEvent(new ComputationRequestAddedEvent(this, createRequest(1, Collections.singletonMap("reference", "value"))));
+		Mockito.when(transport.call(Mockito.eq(NODE_URI), Mockito.any(NodeCall.class), Mockito.eq(Boolean.class)))
+				.thenThrow(new ResourceAccessException("unreachable"))
+				.thenReturn(ResponseEntity.ok(true));
+
+		broadcastService.deliver("node1", NODE_URI, 1);
+		broadcastService.deliver("node1", NODE_URI, 1);
+		broadcastService.deliver("node1", NODE_URI, 1);
+		Mockito.verify(transport, Mockito.times(2)).call(Mockito.eq(NODE_URI), Mockito.any(NodeCall.class), Mockito.eq(Boolean.class));
+
+		broadcastService.onApplicationEvent(new ComputationCancelledEvent(this, 1));
+		assertNull(broadcastService.getBroadcast(1), "Broadcast data of a cancelled run is expected to be dropped");
+		broadcastService.deliver("node2", NODE_URI, 1);
+		Mockito.verify(transport, Mockito.times(2)).call(Mockito.eq(NODE_URI), Mockito.any(NodeCall.class), Mockito.eq(Boolean.class));
+	}
+
+	private ComputationRequest createRequest(long runId, Map<String, Object> broadcast) {
+		Payload payload = new Payload();
+		payload.setBroadcast(broadcast);
+		ComputationRequest request = new ComputationRequest();
+		request.setDomain(TestDomainType.TEST_1);
+		request.setRunId(runId);
+		request.setPayload(payload);
+		return request;
+	}
+
+}
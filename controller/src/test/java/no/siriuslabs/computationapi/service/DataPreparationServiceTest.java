@@ -0,0 +1,179 @@
+package no.siriuslabs.computationapi.service;
+
+import no.siriuslabs.computationapi.api.model.config.Controller;
+import no.siriuslabs.computationapi.api.model.request.ComputationRequest;
+import no.siriuslabs.computationapi.api.model.request.Payload;
+import no.siriuslabs.computationapi.config.ControllerProperties;
+import no.siriuslabs.computationapi.event.ComputationFailedEvent;
+import no.siriuslabs.computationapi.event.DataPreparartionFinishedEvent;
+import no.siriuslabs.computationapi.model.TestDomainType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the DataPreparationService class.
+ */
+public class DataPreparationServiceTest {
+
+	private static final String NODE_ID = "node";
+	private static final long RUN_ID = 42;
+
+	private NodeRegistry nodeRegistry;
+	private ApplicationEventPublisher applicationEventPublisher;
+	private AdmissionService admissionService;
+	private RestTemplate restTemplate;
+
+	private URI nodeUri;
+	private URI validationUri;
+
+	private DataPreparationService dataPreparationService;
+
+	@BeforeEach
+	public void setup() throws URISyntaxException {
+		nodeRegistry = Mockito.mock(NodeRegistry.class);
+		applicationEventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+		admissionService = Mockito.mock(AdmissionService.class);
+		restTemplate = Mockito.mock(RestTemplate.class);
+
+		Controller controller = new Controller();
+		controller.setRetryCount(2);
+		controller.setRetryDelay(10);
+		ControllerProperties controllerProperties = new ControllerProperties();
+		controllerProperties.setController(controller);
+
+		nodeUri = new URI("http://sirius-labs.no/" + NODE_ID);
+		validationUri = new URI(nodeUri + DataPreparationService.VALIDATE_DATA_PATH);
+		Mockito.when(nodeRegistry.getUriForNode(NODE_ID)).thenReturn(nodeUri);
+
+		dataPreparationService = new DataPreparationService(nodeRegistry, applicationEventPublisher, controllerProperties, admissionService,
+				new NodeTransportSelector(Collections.singletonList(new HttpNodeTransport(restTemplate))));
+	}
+
+	@DisplayName("Test validateData() with successful validation result")
+	@Test
+	public void testValidateData_Success() throws URISyntaxException {
+		mockValidationResponse(ResponseEntity.status(HttpStatus.OK).body(new ArrayList<String>()));
+
+		assertNull(dataPreparationService.validateData(nodeUri, new Payload()), "Validation of correct data must be accepted");
+	}
+
+	@DisplayName("Test validateData() with fail because of response code")
+	@Test
+	public void testValidateData_ResponseCode() throws URISyntaxException {
+		// try validation with response code != 200 (OK)
+		mockValidationResponse(ResponseEntity.status(HttpStatus.I_AM_A_TEAPOT).body(new ArrayList<String>()));
+
+		assertEquals(DataPreparationService.DATA_VALIDATION_FAILED_RESPONSE_CODE_MSG + HttpStatus.I_AM_A_TEAPOT, dataPreparationService.validateData(nodeUri, new Payload()),
+				"Validation with response code != 200 must be rejected");
+	}
+
+	@DisplayName("Test validateData() with fail because of null response body")
+	@Test
+	public void testValidateData_NullBody() throws URISyntaxException {
+		// try validation with null result in the body
+		mockValidationResponse(new ResponseEntity<>(HttpStatus.OK));
+
+		assertEquals(DataPreparationService.DATA_VALIDATION_FAILED_NO_RESULT_MSG, dataPreparationService.validateData(nodeUri, new Payload()),
+				"Validation with response code 200 but null body must be rejected (likely error)");
+	}
+
+	@DisplayName("Test validateData() with fail because of error messages in body")
+	@Test
+	public void testValidateData_ErrorMessages() throws URISyntaxException {
+		// try validation with validation error messages in the body
+		final List<String> messages = Arrays.asList("error message 1", "error message 2");
+		mockValidationResponse(ResponseEntity.ok(messages));
+
+		assertEquals(DataPreparationService.DATA_VALIDATION_FAILED_MSG + messages, dataPreparationService.validateData(nodeUri, new Payload()),
+				"Validation with response code 200 but errors messages must be rejected");
+	}
+
+	/**
+	 * Tests that a run whose data does not pass validation is reported as failed, its node is freed and it is released from admission control.
+	 */
+	@DisplayName("Test validateAndPrepareData() with fail because of validation errors")
+	@Test
+	public void testValidateAndPrepareData_ValidationFailed() throws URISyntaxException {
+		Mockito.when(nodeRegistry.reserveNode(TestDomainType.TEST_1)).thenReturn(NODE_ID);
+		mockValidationResponse(ResponseEntity.ok(Arrays.asList("error message")));
+
+		dataPreparationService.validateAndPrepareData(createRequest());
+
+		ArgumentCaptor<ComputationFailedEvent> event = ArgumentCaptor.forClass(ComputationFailedEvent.class);
+		Mockito.verify(applicationEventPublisher, Mockito.times(1)).publishEvent(event.capture());
+		assertEquals(RUN_ID, event.getValue().getRunId(), "Failure is expected to be reported for the run of the request");
+		Mockito.verify(nodeRegistry, Mockito.times(1)).freeNode(NODE_ID);
+		Mockito.verify(admissionService, Mockito.times(1)).preparationFinished(RUN_ID, false);
+	}
+
+	/**
+	 * Tests that a run for which no node can be reserved is left pending without failing it or waiting for a node, and that it is prepared on the node reserved for it later.
+	 */
+	@DisplayName("Test validateAndPrepareData() without a free node")
+	@Test
+	public void testValidateAndPrepareData_NoFreeNode() {
+		final ComputationRequest request = createRequest();
+		dataPreparationService.validateAndPrepareData(request);
+
+		Mockito.verify(nodeRegistry, Mockito.times(1)).reserveNode(TestDomainType.TEST_1);
+		assertEquals(Collections.singletonList(request), dataPreparationService.getPendingRequests(), "Request is expected to be left pending");
+		Mockito.verify(applicationEventPublisher, Mockito.never()).publishEvent(Mockito.any());
+		Mockito.verify(admissionService, Mockito.never()).preparationFinished(Mockito.anyLong(), Mockito.anyBoolean());
+
+		assertTrue(dataPreparationService.removePendingRequest(request), "Pending request is expected to be removed");
+		mockValidationResponse(ResponseEntity.ok(Arrays.asList("error message")));
+		dataPreparationService.validateAndPrepareData(NODE_ID, request);
+
+		assertTrue(dataPreparationService.getPendingRequests().isEmpty(), "Request is not expected to be pending anymore");
+		Mockito.verify(nodeRegistry, Mockito.times(1)).reserveNode(TestDomainType.TEST_1);
+		Mockito.verify(applicationEventPublisher, Mockito.times(1)).publishEvent(Mockito.any(ComputationFailedEvent.class));
+		Mockito.verify(admissionService, Mockito.times(1)).preparationFinished(RUN_ID, false);
+	}
+
+	/**
+	 * Tests that a discarded pending request is released from admission control.
+	 */
+	@DisplayName("Test discardPendingRequest()")
+	@Test
+	public void testDiscardPendingRequest() {
+		final ComputationRequest request = createRequest();
+		dataPreparationService.validateAndPrepareData(request);
+
+		dataPreparationService.discardPendingRequest(request);
+
+		assertTrue(dataPreparationService.getPendingRequests().isEmpty(), "Discarded request is not expected to be pending anymore");
+		Mockito.verify(admissionService, Mockito.times(1)).release(RUN_ID);
+		Mockito.verify(applicationEventPublisher, Mockito.never()).publishEvent(Mockito.any(DataPreparartionFinishedEvent.class));
+	}
+
+	private void mockValidationResponse(ResponseEntity<Object> response) {
+		Mockito.when(restTemplate.exchange(Mockito.eq(validationUri), Mockito.eq(HttpMethod.POST), Mockito.any(HttpEntity.class), Mockito.eq(Object.class))).thenReturn(response);
+	}
+
+	private ComputationRequest createRequest() {
+		ComputationRequest request = new ComputationRequest();
+		request.setDomain(TestDomainType.TEST_1);
+		request.setRunId(RUN_ID);
+		request.setPayload(new Payload());
+		return request;
+	}
+
+}
@@ -0,0 +1,285 @@
+package no.siriuslabs.computationapi.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.config.SchedulerProperties;
+import no.siriuslabs.computationapi.model.TestDomainType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the FairShareWorkScheduler class.
+ */
+public class FairShareWorkSchedulerTest {
+
+	private SchedulerProperties schedulerProperties;
+	private MeterRegistry meterRegistry;
+	private CostModel costModel;
+
+	private FairShareWorkScheduler workScheduler;
+
+	@BeforeEach
+	public void setup() {
+		schedulerProperties = new SchedulerProperties();
+		meterRegistry = new SimpleMeterRegistry();
+		costModel = new CostModel(schedulerProperties, meterRegistry);
+		workScheduler = new FairShareWorkScheduler(schedulerProperties, costModel, meterRegistry);
+	}
+
+	/**
+	 * Tests that a small run of one client is not starved by a large run of another client queued before it.
+	 */
+	@DisplayName("Test nextWorkPackage() with a large and a small run of different clients")
+	@Test
+	public void testNextWorkPackage_NoStarvation() {
+		workScheduler.addWorkPackages("batch", createWorkPackages(1, 1000));
+		workScheduler.addWorkPackages("interactive", createWorkPackages(2, 2));
+
+		List<Long> runIds = new ArrayList<>();
+		for(int i = 0; i < 4; i++) {
+			runIds.add(workScheduler.nextWorkPackage(TestDomainType.TEST_1).getRunId());
+		}
+
+		assertEquals(2, Collections.frequency(runIds, 2L), "Both packages of the small run are expected within the first rounds");
+		assertEquals(0, workScheduler.getQueueSize(2), "Small run is expected to be distributed completely");
+		assertEquals(998, workScheduler.getQueueSize(1), "Large run is expected to have been served in turns");
+	}
+
+	/**
+	 * Tests that clients get shares of the dispatched packages according to their weights and that the shares are reported as metrics.
+	 */
+	@DisplayName("Test nextWorkPackage() with weighted clients")
+	@Test
+	public void testNextWorkPackage_Weights() {
+		schedulerProperties.getClientWeights().put("heavy", 3);
+		workScheduler.addWorkPackages("light", createWorkPackages(1, 100));
+		workScheduler.addWorkPackages("heavy", createWorkPackages(2, 100));
+
+		int heavyPackages = 0;
+		for(int i = 0; i < 40; i++) {
+			if(workScheduler.nextWorkPackage(TestDomainType.TEST_1).getRunId() == 2) {
+				heavyPackages++;
+			}
+		}
+
+		assertEquals(30, heavyPackages, "Client with weight 3 is expected to get three quarters of the packages");
+		assertEquals(0.75, meterRegistry.get("scheduler.share").tag("client", "heavy").gauge().value(), 0.001, "Share of client is expected to be reported");
+		assertEquals(30, meterRegistry.get("scheduler.wait.time").tag("client", "heavy").timer().count(), "Wait time of every dispatched package is expected to be recorded");
+	}
+
+	/**
+	 * Tests that a client with short packages dispatches proportionally more of them than a client with long packages, so that both get about the same node time.
+	 */
+	@DisplayName("Test nextWorkPackage() with clients of different package costs")
+	@Test
+	public void testNextWorkPackage_Costs() {
+		List<WorkPackage> shortPackages = createWorkPackages(1, 200);
+		shortPackages.forEach((WorkPackage workPackage) -> workPackage.setEstimatedCost(1));
+		List<WorkPackage> longPackages = createWorkPackages(2, 50);
+		longPackages.forEach((WorkPackage workPackage) -> workPackage.setEstimatedCost(10));
+		costModel.record(longPackages.get(0), 1000);
+		assertEquals(0.1, costModel.getRelativeCost(shortPackages.get(0)), 0.001, "Package predicted to take a tenth of the average is expected to count as a tenth");
+
+		workScheduler.addWorkPackages("short", shortPackages);
+		workScheduler.addWorkPackages("long", longPackages);
+
+		long shortTime = 0;
+		long longTime = 0;
+		for(int i = 0; i < 110; i++) {
+			WorkPackage next = workScheduler.nextWorkPackage(TestDomainType.TEST_1);
+			if(next.getRunId() == 1) {
+				shortTime += costModel.predictCost(next);
+			}
+			else {
+				longTime += costModel.predictCost(next);
+			}
+		}
+
+		assertTrue(shortTime > 8000 && longTime > 8000, "Both clients are expected to get about the same node time, but got " + shortTime + " and " + longTime);
+	}
+
+	/**
+	 * Tests that only packages of the requested DomainType are handed out and that removed runs are not scheduled anymore.
+	 */
+	@DisplayName("Test nextWorkPackage() with several domains and removeRun()")
+	@Test
+	public void testNextWorkPackage_DomainsAndRemoval() {
+		workScheduler.addWorkPackages(null, createWorkPackages(1, 2));
+		List<WorkPackage> otherDomain = createWorkPackages(2, 1);
+		otherDomain.get(0).setDomain(TestDomainType.TEST_2);
+		workScheduler.addWorkPackages(null, otherDomain);
+
+		assertEquals(2, workScheduler.getPendingDomains().size(), "Both domains are expected to have work queued");
+		assertEquals(2L, workScheduler.nextWorkPackage(TestDomainType.TEST_2).getRunId(), "Package of the requested domain is expected");
+		assertNull(workScheduler.nextWorkPackage(TestDomainType.TEST_2), "No package of a domain without queued work is expected");
+
+		assertEquals(2, workScheduler.removeRun(1), "All queued packages of the removed run are expected to be reported");
+		assertNull(workScheduler.nextWorkPackage(TestDomainType.TEST_1), "Packages of a removed run must not be handed out");
+		assertEquals(0, workScheduler.getQueueSize(), "Queue is expected to be empty");
+	}
+
+	/**
+	 * Tests that packages of a run are handed out by priority and that waiting packages gain priority over time.
+	 */
+	@DisplayName("Test nextWorkPackage() with priorities and aging")
+	@Test
+	public void testNextWorkPackage_Priority() throws InterruptedException {
+		schedulerProperties.setAgingInterval(10);
+
+		List<WorkPackage> oldPackages = createWorkPackages(1, 1);
+		workScheduler.addWorkPackages(null, oldPackages);
+
+		Thread.sleep(100);
+
+		List<WorkPackage> newPackages = createWorkPackages(1, 3);
+		newPackages.get(1).setPriority(2);
+		newPackages.get(2).setPriority(20);
+		workScheduler.addWorkPackages(null, newPackages);
+
+		assertSame(newPackages.get(2), workScheduler.nextWorkPackage(TestDomainType.TEST_1), "Package with the highest priority is expected first");
+		assertSame(oldPackages.get(0), workScheduler.nextWorkPackage(TestDomainType.TEST_1), "Waiting package is expected to have aged past the newer package with priority 2");
+		assertSame(newPackages.get(1), workScheduler.nextWorkPackage(TestDomainType.TEST_1), "Package with priority 2 is expected before the one without priority");
+		assertSame(newPackages.get(0), workScheduler.nextWorkPackage(TestDomainType.TEST_1), "Package without priority is expected last");
+	}
+
+	/**
+	 * Tests that the packages of a run are handed out longest first and that this shortens the makespan of a skewed run on several nodes
+	 * compared to handing them out in the order they were generated.
+	 */
+	@DisplayName("Test nextWorkPackage() with skewed package costs")
+	@Test
+	public void testNextWorkPackage_LongestFirst() {
+		final long[] estimates = {10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 60};
+		List<WorkPackage> workPackages = createWorkPackages(1, estimates.length);
+		for(int i = 0; i < estimates.length; i++) {
+			workPackages.get(i).setEstimatedCost(estimates[i]);
+		}
+		workScheduler.addWorkPackages(null, workPackages);
+
+		List<Long> dispatched = new ArrayList<>();
+		WorkPackage next;
+		while((next = workScheduler.nextWorkPackage(TestDomainType.TEST_1)) != null) {
+			dispatched.add(next.getEstimatedCost());
+		}
+
+		assertEquals(60L, (long) dispatched.get(0), "Longest package is expected first");
+		final List<Long> generated = new ArrayList<>();
+		for(long estimate : estimates) {
+			generated.add(estimate);
+		}
+		assertEquals(60, getMakespan(dispatched, 3), "Longest package is expected to run alongside the short ones");
+		assertEquals(100, getMakespan(generated, 3), "Longest package started last is expected to stretch the makespan");
+	}
+
+	/**
+	 * Tests that the cost of packages is learned from observed running times and used to order packages without estimates.
+	 */
+	@DisplayName("Test nextWorkPackage() with learned costs")
+	@Test
+	public void testNextWorkPackage_LearnedCosts() {
+		List<WorkPackage> workPackages = createWorkPackages(1, 2);
+		workPackages.get(0).setEstimatedCost(1);
+		workPackages.get(1).setEstimatedCost(5);
+		costModel.record(workPackages.get(1), 1000);
+
+		assertEquals(200, costModel.predictCost(workPackages.get(0)), "Estimate is expected to be scaled by the learned factor");
+		assertEquals(1000, costModel.predictCost(new WorkPackage(TestDomainType.TEST_1, 3)), "Package without estimate is expected to cost the average running time");
+		WorkPackage longPackage = new WorkPackage(TestDomainType.TEST_1, 4);
+		longPackage.setEstimatedCost(25);
+		assertEquals(5.0, costModel.getRelativeCost(longPackage), 0.001, "Package predicted to take five times the average is expected to count as five packages");
+
+		workScheduler.addWorkPackages(null, workPackages);
+
+		assertSame(workPackages.get(1), workScheduler.nextWorkPackage(TestDomainType.TEST_1), "Package predicted to take longer is expected first");
+	}
+
+	/**
+	 * Tests that packages preferring a node are held back from other nodes for the locality delay and given to any node afterwards,
+	 * while packages without a preferred node are handed out to any node right away.
+	 */
+	@DisplayName("Test nextWorkPackage() with preferred nodes")
+	@Test
+	public void testNextWorkPackage_Locality() throws InterruptedException {
+		schedulerProperties.setLocalityDelay(100);
+
+		List<WorkPackage> workPackages = createWorkPackages(1, 4);
+		for(WorkPackage workPackage : workPackages) {
+			workPackage.setPreferredNode("nodeA");
+			workPackage.setEstimatedCost(10);
+		}
+		workPackages.get(3).setPreferredNode(null);
+		workPackages.get(3).setEstimatedCost(1);
+		workScheduler.addWorkPackages(null, workPackages);
+
+		assertSame(workPackages.get(3), workScheduler.nextWorkPackage(TestDomainType.TEST_1, "nodeB"), "Package without preferred node is expected to go to any node");
+		assertNull(workScheduler.nextWorkPackage(TestDomainType.TEST_1, "nodeB"), "Packages preferring another node are expected to be held back");
+		assertEquals("nodeA", workScheduler.nextWorkPackage(TestDomainType.TEST_1, "nodeA").getPreferredNode(), "Preferred node is expected to get its package");
+
+		Thread.sleep(200);
+
+		assertNotNull(workScheduler.nextWorkPackage(TestDomainType.TEST_1, "nodeB"), "Package is expected to go to any node after the locality delay");
+		assertEquals(1, meterRegistry.get("scheduler.locality").tag("local", "true").counter().count(), 0.001, "Dispatch to the preferred node is expected to be counted");
+		assertEquals(1, meterRegistry.get("scheduler.locality").tag("local", "false").counter().count(), 0.001, "Dispatch to another node is expected to be counted");
+	}
+
+	/**
+	 * Tests that each node gets the highest ranked package it may compute from a run whose packages prefer different nodes, while packages ranked higher
+	 * are held back for their preferred nodes, and that the run's remaining packages are removed.
+	 */
+	@DisplayName("Test nextWorkPackage() with packages preferring different nodes")
+	@Test
+	public void testNextWorkPackage_LocalityMixed() {
+		schedulerProperties.setLocalityDelay(60000);
+
+		List<WorkPackage> workPackages = createWorkPackages(1, 300);
+		for(int i = 0; i < workPackages.size(); i++) {
+			workPackages.get(i).setPreferredNode(i < 200 ? "nodeA" : i < 250 ? "nodeB" : null);
+			workPackages.get(i).setPriority(i < 200 ? 2 : i < 250 ? 1 : 0);
+		}
+		workScheduler.addWorkPackages(null, workPackages);
+
+		assertEquals("nodeB", workScheduler.nextWorkPackage(TestDomainType.TEST_1, "nodeB").getPreferredNode(), "Package preferring the node is expected before packages ranked lower");
+		assertNull(workScheduler.nextWorkPackage(TestDomainType.TEST_1, "nodeC").getPreferredNode(), "Package without preferred node is expected for another node");
+		assertEquals(2, workScheduler.nextWorkPackage(TestDomainType.TEST_1, "nodeA").getPriority(), "Highest ranked package is expected on its preferred node");
+		assertEquals(297, workScheduler.getQueueSize(1), "Dispatched packages are expected to be removed from the queue");
+		assertEquals(297, workScheduler.removeRun(1), "All remaining packages are expected to be removed with the run");
+		assertNull(workScheduler.nextWorkPackage(TestDomainType.TEST_1, "nodeA"), "No package is expected to be left");
+	}
+
+	/**
+	 * Returns the time it takes to compute packages of the given costs on the given number of nodes if each package goes to the node that becomes free first.
+	 */
+	private long getMakespan(List<Long> costs, int nodes) {
+		PriorityQueue<Long> nodeFinishTimes = new PriorityQueue<>();
+		for(int i = 0; i < nodes; i++) {
+			nodeFinishTimes.add(0L);
+		}
+		long makespan = 0;
+		for(long cost : costs) {
+			final long finish = nodeFinishTimes.poll() + cost;
+			makespan = Math.max(makespan, finish);
+			nodeFinishTimes.add(finish);
+		}
+		return makespan;
+	}
+
+	private List<WorkPackage> createWorkPackages(long runId, int number) {
+		List<WorkPackage> workPackages = new ArrayList<>(number);
+		for(int i = 0; i < number; i++) {
+			WorkPackage workPackage = new WorkPackage(TestDomainType.TEST_1, i);
+			workPackage.setRunId(runId);
+			workPackages.add(workPackage);
+		}
+		return workPackages;
+	}
+
+}
@@ -0,0 +1,128 @@
+package no.siriuslabs.computationapi.service;
+
+import no.siriuslabs.computationapi.api.model.node.NodeStatus;
+import no.siriuslabs.computationapi.api.model.node.WorkerNode;
+import no.siriuslabs.computationapi.api.model.node.WorkerState;
+import no.siriuslabs.computationapi.api.transport.NodeCall;
+import no.siriuslabs.computationapi.api.transport.NodeTransport;
+import no.siriuslabs.computationapi.config.NodesProperties;
+import no.siriuslabs.computationapi.config.PingTimer;
+import no.siriuslabs.computationapi.model.TestDomainType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the NodeHeartbeatService class.
+ */
+public class NodeHeartbeatServiceTest {
+
+	private NodeRegistry nodeRegistry;
+	private NodeTransport transport;
+	private PingTimer pingTimer;
+
+	private NodeHeartbeatService nodeHeartbeatService;
+
+	@BeforeEach
+	public void setup() {
+		nodeRegistry = new NodeRegistry();
+		transport = Mockito.mock(NodeTransport.class);
+		Mockito.when(transport.supports(Mockito.any(URI.class))).thenReturn(true);
+		pingTimer = new PingTimer();
+		pingTimer.setReplyTimeout(200);
+		NodesProperties nodesProperties = new NodesProperties();
+		nodesProperties.setPingTimer(pingTimer);
+		nodeHeartbeatService = new NodeHeartbeatService(nodeRegistry, nodesProperties, new NodeTransportSelector(Collections.singletonList(transport)));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		nodeHeartbeatService.shutdown();
+	}
+
+	/**
+	 * Tests that the capacity and occupancy reported by a node are recorded, while a node that does not answer stays registered and a pulling node is not called.
+	 */
+	@DisplayName("Test pingNodes() recording the reported states")
+	@Test
+	public void testPingNodes() {
+		WorkerNode busyNode = createWorkerNode("busyNode", "http://localhost:1");
+		nodeRegistry.registerNode(busyNode);
+		busyNode.setStatus(NodeStatus.BUSY);
+		WorkerNode silentNode = createWorkerNode("silentNode", "http://localhost:2");
+		nodeRegistry.registerNode(silentNode);
+		WorkerNode pullingNode = createWorkerNode("pullingNode", "http://localhost:3");
+		pullingNode.setPulling(true);
+		pullingNode.setCapacity(4);
+		nodeRegistry.registerNode(pullingNode);
+
+		Mockito.when(transport.call(Mockito.eq(busyNode.getUri()), Mockito.any(NodeCall.class), Mockito.eq(WorkerState.class)))
+				.thenReturn(ResponseEntity.ok(new WorkerState(3, 8, 3)));
+		Mockito.when(transport.call(Mockito.eq(silentNode.getUri()), Mockito.any(NodeCall.class), Mockito.eq(WorkerState.class)))
+				.thenThrow(new ResourceAccessException("Connection refused"));
+
+		assertEquals(1, nodeHeartbeatService.pingNodes(), "Only the answering node is expected to be counted");
+		assertEquals(8, busyNode.getCapacity(), "Reported capacity is expected to be recorded");
+		assertEquals(3, busyNode.getOccupancy(), "Reported occupancy is expected to be recorded");
+		assertEquals(1, silentNode.getCapacity(), "Node not answering is expected to keep its capacity");
+		assertTrue(nodeRegistry.hasNode(silentNode), "Node not answering is expected to be left to the reaper");
+		assertEquals(4, pullingNode.getCapacity(), "Pulling node is expected to keep the capacity reported on registration");
+		Mockito.verify(transport, Mockito.never()).call(Mockito.eq(pullingNode.getUri()), Mockito.any(NodeCall.class), Mockito.any());
+
+		ArgumentCaptor<NodeCall> captor = ArgumentCaptor.forClass(NodeCall.class);
+		Mockito.verify(transport).call(Mockito.eq(busyNode.getUri()), captor.capture(), Mockito.eq(WorkerState.class));
+		assertEquals(200, captor.getValue().getReplyTimeout(), "Heartbeat request is expected to carry the configured reply timeout");
+	}
+
+	/**
+	 * Tests that a node hanging in its heartbeat neither holds up the heartbeats of the other nodes nor the round of pings beyond the ping interval.
+	 */
+	@DisplayName("Test pingNodes() with a hanging node")
+	@Test
+	public void testPingNodes_Hanging() {
+		pingTimer.setCallInterval(500);
+		WorkerNode hangingNode = createWorkerNode("hangingNode", "http://localhost:1");
+		nodeRegistry.registerNode(hangingNode);
+		WorkerNode answeringNode = createWorkerNode("answeringNode", "http://localhost:2");
+		nodeRegistry.registerNode(answeringNode);
+
+		final CountDownLatch hanging = new CountDownLatch(1);
+		Mockito.when(transport.call(Mockito.eq(hangingNode.getUri()), Mockito.any(NodeCall.class), Mockito.eq(WorkerState.class))).thenAnswer(invocation -> {
+			hanging.await();
+			return ResponseEntity.ok(new WorkerState(0, 2, 0));
+		});
+		Mockito.when(transport.call(Mockito.eq(answeringNode.getUri()), Mockito.any(NodeCall.class), Mockito.eq(WorkerState.class)))
+				.thenReturn(ResponseEntity.ok(new WorkerState(0, 4, 1)));
+
+		try {
+			assertEquals(1, (int) assertTimeoutPreemptively(Duration.ofSeconds(5), () -> nodeHeartbeatService.pingNodes(), "Round of pings is expected to be given up"),
+					"Only the answering node is expected to be counted");
+			assertEquals(4, answeringNode.getCapacity(), "Reported capacity of the answering node is expected to be recorded");
+			assertEquals(1, hangingNode.getCapacity(), "Hanging node is expected to keep its capacity");
+		}
+		finally {
+			hanging.countDown();
+		}
+	}
+
+	private WorkerNode createWorkerNode(String id, String uri) {
+		WorkerNode node = new WorkerNode();
+		node.setId(id);
+		node.setDomainType(TestDomainType.TEST_1);
+		node.setUri(URI.create(uri));
+		return node;
+	}
+
+}
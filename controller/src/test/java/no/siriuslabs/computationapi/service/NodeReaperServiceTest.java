@@ -0,0 +1,170 @@
+package no.siriuslabs.computationapi.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import no.siriuslabs.computationapi.api.model.node.NodeStatus;
+import no.siriuslabs.computationapi.api.model.node.WorkerNode;
+import no.siriuslabs.computationapi.api.model.node.WorkerState;
+import no.siriuslabs.computationapi.api.transport.NodeCall;
+import no.siriuslabs.computationapi.api.transport.NodeTransport;
+import no.siriuslabs.computationapi.config.NodesProperties;
+import no.siriuslabs.computationapi.config.ReaperTimer;
+import no.siriuslabs.computationapi.model.TestDomainType;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the NodeReaperService class.
+ */
+public class NodeReaperServiceTest {
+
+	private NodeRegistry nodeRegistry;
+	private ReaperTimer reaper;
+	private MeterRegistry meterRegistry;
+
+	private NodeReaperService nodeReaperService;
+
+	@BeforeEach
+	public void setup() {
+		nodeRegistry = new NodeRegistry();
+
+		reaper = new ReaperTimer();
+		reaper.setReservedTimeout(60000);
+		reaper.setBusyTimeout(60000);
+		reaper.setDrainingTimeout(60000);
+		NodesProperties nodesProperties = new NodesProperties();
+		nodesProperties.setReaper(reaper);
+
+		meterRegistry = new SimpleMeterRegistry();
+		nodeReaperService = new NodeReaperService(nodeRegistry, nodesProperties, meterRegistry, new NodeTransportSelector(Collections.singletonList(
+				new HttpNodeTransport(new RestTemplate(new TimeoutClientHttpRequestFactory(HttpClients.createDefault()))))));
+	}
+
+	/**
+	 * Tests that nodes within their time limits are not touched.
+	 */
+	@DisplayName("Test reapStuckNodes() without stuck nodes")
+	@Test
+	public void testReapStuckNodes_NotStuck() {
+		WorkerNode node = createWorkerNode("reservedNode");
+		nodeRegistry.registerNode(node);
+		node.setStatus(NodeStatus.RESERVED);
+
+		assertEquals(0, nodeReaperService.reapStuckNodes(), "No node is expected to be reclaimed within its time limit");
+		assertEquals(NodeStatus.RESERVED, node.getStatus(), "Node within its time limit must not be touched");
+	}
+
+	/**
+	 * Tests that a stuck node which cannot be reached is unregistered and reported, while a READY node is left alone.
+	 */
+	@DisplayName("Test reapStuckNodes() with a stuck node that cannot be reached")
+	@Test
+	public void testReapStuckNodes_Unreachable() {
+		reaper.setBusyTimeout(-1);
+
+		WorkerNode readyNode = createWorkerNode("readyNode");
+		nodeRegistry.registerNode(readyNode);
+
+		WorkerNode busyNode = createWorkerNode("busyNode");
+		nodeRegistry.registerNode(busyNode);
+		busyNode.setStatus(NodeStatus.BUSY);
+
+		assertEquals(0, nodeReaperService.reapStuckNodes(), "An unreachable node must not be counted as available again");
+		assertFalse(nodeRegistry.hasNode(busyNode), "A stuck node that cannot be reached is expected to be unregistered");
+		assertTrue(nodeRegistry.hasNode(readyNode), "A READY node must never be reaped");
+		assertEquals(1.0, meterRegistry.counter("nodes.reaper.removed", "status", NodeStatus.BUSY.name()).count(), "Unregistered node is expected to be reported");
+	}
+
+	/**
+	 * Tests that a pulling node is never called, but unregistered once it has not been in contact for longer than allowed.
+	 */
+	@DisplayName("Test reapStuckNodes() with a silent pulling node")
+	@Test
+	public void testReapStuckNodes_SilentPullingNode() {
+		WorkerNode pullingNode = createWorkerNode("pullingNode");
+		pullingNode.setPulling(true);
+		nodeRegistry.registerNode(pullingNode);
+
+		reaper.setPullingTimeout(60000);
+		nodeReaperService.reapStuckNodes();
+		assertTrue(nodeRegistry.hasNode(pullingNode), "Pulling node in contact within its time limit must not be touched");
+
+		reaper.setPullingTimeout(-1);
+		nodeReaperService.reapStuckNodes();
+		assertFalse(nodeRegistry.hasNode(pullingNode), "Silent pulling node is expected to be unregistered");
+		assertEquals(1.0, meterRegistry.counter("nodes.reaper.removed", "status", "SILENT").count(), "Unregistered node is expected to be reported");
+	}
+
+	/**
+	 * Tests that a stuck RESERVED node still working on a request (e.g. validating data) is left alone, while an idle one is reclaimed.
+	 */
+	@DisplayName("Test reapStuckNodes() with a RESERVED node still working")
+	@Test
+	public void testReapStuckNodes_ReservedWorking() {
+		reaper.setReservedTimeout(-1);
+		NodeTransport transport = Mockito.mock(NodeTransport.class);
+		Mockito.when(transport.supports(Mockito.any(URI.class))).thenReturn(true);
+		Mockito.when(transport.call(Mockito.any(URI.class), Mockito.any(NodeCall.class), Mockito.eq(WorkerState.class)))
+				.thenReturn(ResponseEntity.ok(new WorkerState(1)), ResponseEntity.ok(new WorkerState(0)));
+		nodeReaperService = new NodeReaperService(nodeRegistry, nodesProperties(), meterRegistry, new NodeTransportSelector(Collections.singletonList(transport)));
+
+		WorkerNode node = createWorkerNode("reservedNode");
+		nodeRegistry.registerNode(node);
+		node.setStatus(NodeStatus.RESERVED);
+
+		assertEquals(0, nodeReaperService.reapStuckNodes(), "RESERVED node still working is not expected to be reclaimed");
+		assertEquals(NodeStatus.RESERVED, node.getStatus(), "RESERVED node still working must not be touched");
+		assertEquals(1, nodeReaperService.reapStuckNodes(), "Idle RESERVED node is expected to be reclaimed");
+		assertEquals(NodeStatus.READY, node.getStatus(), "Reclaimed node is expected to be READY again");
+	}
+
+	/**
+	 * Tests that a stuck node accepting connections but never answering does not block the reaper and is unregistered once its status request timed out.
+	 */
+	@DisplayName("Test reapStuckNodes() with a hung node")
+	@Test
+	public void testReapStuckNodes_Hung() throws IOException {
+		reaper.setBusyTimeout(-1);
+		reaper.setStatusTimeout(200);
+
+		// connections are completed by the backlog, but never accepted and answered
+		try(ServerSocket hungNode = new ServerSocket(0, 10, InetAddress.getLoopbackAddress())) {
+			WorkerNode node = createWorkerNode("hungNode");
+			node.setUri(URI.create("http://localhost:" + hungNode.getLocalPort()));
+			nodeRegistry.registerNode(node);
+			node.setStatus(NodeStatus.BUSY);
+
+			assertTimeoutPreemptively(Duration.ofSeconds(5), () -> nodeReaperService.reapStuckNodes(), "Hung node is not expected to block the reaper");
+			assertFalse(nodeRegistry.hasNode(node), "Hung node is expected to be unregistered");
+		}
+	}
+
+	private NodesProperties nodesProperties() {
+		NodesProperties nodesProperties = new NodesProperties();
+		nodesProperties.setReaper(reaper);
+		return nodesProperties;
+	}
+
+	private WorkerNode createWorkerNode(String id) {
+		WorkerNode node = new WorkerNode();
+		node.setId(id);
+		node.setDomainType(TestDomainType.TEST_1);
+		node.setUri(URI.create("http://localhost:1"));
+		return node;
+	}
+
+}
@@ -15,6 +15,11 @@ import org.springframework.test.context.ActiveProfiles;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -75,12 +80,12 @@ public class NodeRegistryTest {
 		assertTrue(nodeRegistry.hasNode(node.getId()), "Adding 2nd WorkerNode must not remove existing nodes");
 	}
 
-	@DisplayName("Test registering nodes in relation to the set domain")
+	@DisplayName("Test registering nodes in relation to the set domains")
 	@Test
 	public void testRegisterNode_Domain() {
-		// try to add a node with the 'wrong' domain for a registry
+		// try to add a node with the 'wrong' domain for a restricted registry
 		NodeRegistry domainNodeRegistry = new NodeRegistry();
-		domainNodeRegistry.setDomain(TestDomainType.TEST_2);
+		domainNodeRegistry.restrictToDomains(Collections.singletonList(TestDomainType.TEST_2));
 
 		WorkerNode node = createWorkerNode("someID");
 
@@ -89,16 +94,74 @@ public class NodeRegistryTest {
 
 		// make sure a registry is initialized without a domain set
 		NodeRegistry nodeRegistry = new NodeRegistry();
-		assertNull(nodeRegistry.getDomain());
+		assertFalse(nodeRegistry.hasDomainSet());
 
-		// if no domain is set yet, the domain from first node registered is set as active domain
+		// if the registry is not restricted, the domain of each node registered becomes an active domain
 		nodeRegistry.registerNode(node);
-		assertEquals(TestDomainType.TEST_1, nodeRegistry.getDomain(), "Domain of domain-less NodeRegistry did not change to first node's set domain");
+		assertEquals(Collections.singletonList(TestDomainType.TEST_1), nodeRegistry.getDomains(), "Domain of domain-less NodeRegistry did not change to first node's set domain");
 
 		WorkerNode anotherIdNode = createWorkerNode("someOtherID");
+		anotherIdNode.setDomainType(TestDomainType.TEST_2);
 
 		nodeRegistry.registerNode(anotherIdNode);
 		assertEquals(2, nodeRegistry.getNumberOfNodes());
+		assertEquals(2, nodeRegistry.getDomains().size(), "Domain of 2nd node was not added to the active domains");
+		assertEquals(1, nodeRegistry.getNumberOfNodes(TestDomainType.TEST_1), "Each domain's pool must contain one node");
+		assertEquals(1, nodeRegistry.getNumberOfNodes(TestDomainType.TEST_2), "Each domain's pool must contain one node");
+
+		// restricting is not possible with nodes registered
+		assertThrows(IllegalStateException.class, () -> { nodeRegistry.restrictToDomains(Collections.singletonList(TestDomainType.TEST_1)); });
+	}
+
+	/**
+	 * Tests that nodes can be skipped when reserving a node.
+	 */
+	@DisplayName("Test reserveNode() with excluded nodes")
+	@Test
+	public void testReserveNode_Excluded() {
+		NodeRegistry nodeRegistry = new NodeRegistry();
+		WorkerNode node1 = createWorkerNode("node1");
+		WorkerNode node2 = createWorkerNode("node2");
+		nodeRegistry.registerNode(node1);
+		nodeRegistry.registerNode(node2);
+
+		final Set<String> excluded = new HashSet<>();
+		excluded.add(nodeRegistry.reserveNode(TestDomainType.TEST_1));
+		nodeRegistry.occupyNode(excluded.iterator().next());
+		nodeRegistry.freeNode(excluded.iterator().next());
+
+		final String reserved = nodeRegistry.reserveNode(TestDomainType.TEST_1, excluded);
+		assertNotNull(reserved, "Node that is not excluded is expected to be reserved");
+		assertFalse(excluded.contains(reserved), "Excluded node must not be reserved");
+		assertNull(nodeRegistry.reserveNode(TestDomainType.TEST_1, excluded), "No node is expected to be left to reserve");
+	}
+
+	/**
+	 * Tests that a node serving several domains is part of all domain pools and is reserved for one domain at a time.
+	 */
+	@DisplayName("Test reserving nodes serving several domains")
+	@Test
+	public void testReserveNode_MultiDomain() {
+		NodeRegistry nodeRegistry = new NodeRegistry();
+		nodeRegistry.restrictToDomains(Arrays.asList(TestDomainType.TEST_1, TestDomainType.TEST_2));
+
+		WorkerNode node = createWorkerNode("someID");
+		node.setAdditionalDomainTypes(Collections.singletonList(TestDomainType.TEST_2));
+		nodeRegistry.registerNode(node);
+
+		assertEquals(1, nodeRegistry.getNumberOfNodes(TestDomainType.TEST_1), "Multi-domain node must be part of its main domain's pool");
+		assertEquals(1, nodeRegistry.getNumberOfNodes(TestDomainType.TEST_2), "Multi-domain node must be part of its additional domain's pool");
+
+		assertEquals(node.getId(), nodeRegistry.reserveNode(TestDomainType.TEST_2), "Multi-domain node could not be reserved for its additional domain");
+		assertNull(nodeRegistry.reserveNode(TestDomainType.TEST_1), "Reserved node must not be reserved again for another domain");
+
+		nodeRegistry.occupyNode(node.getId());
+		nodeRegistry.freeNode(node.getId());
+		assertEquals(node.getId(), nodeRegistry.reserveNode(TestDomainType.TEST_1), "Freed multi-domain node could not be reserved for its main domain");
+
+		nodeRegistry.unregisterNode(node.getId());
+		assertEquals(0, nodeRegistry.getNumberOfNodes(TestDomainType.TEST_1), "Unregistered node must be removed from all pools");
+		assertEquals(0, nodeRegistry.getNumberOfNodes(TestDomainType.TEST_2), "Unregistered node must be removed from all pools");
 	}
 
 	@DisplayName("Test removing a node from the empty registry")
@@ -209,6 +272,73 @@ public class NodeRegistryTest {
 		assertEquals(rightDomainNode.getId(), secondTry, "Wrong or no node was reserved, even though only one matching node was available");
 	}
 
+	@DisplayName("Test draining idle and working nodes")
+	@Test
+	public void testDrainNode() {
+		NodeRegistry nodeRegistry = new NodeRegistry();
+
+		assertNull(nodeRegistry.drainNode("notThere"), "Draining an unknown node must return null");
+
+		WorkerNode idleNode = createWorkerNode("idleNode");
+		nodeRegistry.registerNode(idleNode);
+
+		WorkerNode workingNode = createWorkerNode("workingNode");
+		nodeRegistry.registerNode(workingNode);
+		workingNode.setStatus(NodeStatus.RESERVED); // status has to be set AFTER registering, as during that process the status is set to READY!
+
+
+		// an idle node is unregistered right away
+		assertEquals(NodeStatus.UNAVAILABLE, nodeRegistry.drainNode(idleNode.getId()), "An idle node is expected to be unregistered right away when drained");
+		assertFalse(nodeRegistry.hasNode(idleNode), "An idle node is expected to be unregistered right away when drained");
+
+
+		// a working node stays registered, but cannot be reserved anymore
+		assertEquals(NodeStatus.DRAINING, nodeRegistry.drainNode(workingNode.getId()), "A working node is expected to be draining");
+		assertTrue(nodeRegistry.hasNode(workingNode), "A draining node must stay registered until its task has finished");
+		assertNull(nodeRegistry.reserveNode(TestDomainType.TEST_1), "A draining node must not be reserved");
+
+
+		// the reserved task can still be started and the node is unregistered as soon as it is finished
+		nodeRegistry.occupyNode(workingNode.getId());
+		assertEquals(NodeStatus.DRAINING, nodeRegistry.getNodeStatus(workingNode.getId()), "A draining node must keep its status while working on its last task");
+
+		nodeRegistry.freeNode(workingNode.getId());
+		assertFalse(nodeRegistry.hasNode(workingNode), "A draining node is expected to be unregistered once its last task has finished");
+		assertNull(nodeRegistry.getNodeStatus(workingNode.getId()), "Status of an unregistered node is expected to be null");
+	}
+
+	@DisplayName("Test reclaiming stuck nodes only if their status did not change")
+	@Test
+	public void testReclaimNode() {
+		NodeRegistry nodeRegistry = new NodeRegistry();
+
+		WorkerNode node = createWorkerNode("stuckNode");
+		nodeRegistry.registerNode(node);
+		node.setStatus(NodeStatus.RESERVED); // status has to be set AFTER registering, as during that process the status is set to READY!
+		final Date lastStatusChange = node.getLastStatusChange();
+
+
+		// wrong expected status - node must not be touched
+		assertFalse(nodeRegistry.reclaimNode(node.getId(), NodeStatus.BUSY, lastStatusChange), "Node with a different status must not be reclaimed");
+		assertEquals(NodeStatus.RESERVED, node.getStatus(), "Node with a different status must not be reclaimed");
+
+
+		// wrong expected date of last change - node must not be touched
+		assertFalse(nodeRegistry.reclaimNode(node.getId(), NodeStatus.RESERVED, new Date(0)), "Node that changed its status since being checked must not be reclaimed");
+		assertEquals(NodeStatus.RESERVED, node.getStatus(), "Node that changed its status since being checked must not be reclaimed");
+
+
+		// matching status and date - node is reclaimed
+		assertTrue(nodeRegistry.reclaimNode(node.getId(), NodeStatus.RESERVED, lastStatusChange), "Stuck node is expected to be reclaimed");
+		assertEquals(NodeStatus.READY, node.getStatus(), "Reclaimed node is expected to be READY");
+
+
+		// a stuck draining node is unregistered
+		node.setStatus(NodeStatus.DRAINING);
+		assertTrue(nodeRegistry.reclaimNode(node.getId(), NodeStatus.DRAINING, node.getLastStatusChange()), "Stuck draining node is expected to be reclaimed");
+		assertFalse(nodeRegistry.hasNode(node), "Stuck draining node is expected to be unregistered");
+	}
+
 	@DisplayName("Test retrieving the URI property of existing and non-existing nodes")
 	@Test
 	public void testGetUriForNode() {
@@ -0,0 +1,127 @@
+package no.siriuslabs.computationapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import no.siriuslabs.computationapi.api.model.computation.Status;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackageResult;
+import no.siriuslabs.computationapi.api.model.node.NodeStatus;
+import no.siriuslabs.computationapi.api.model.node.WorkerNode;
+import no.siriuslabs.computationapi.event.ResultUpdateEvent;
+import no.siriuslabs.computationapi.model.TestDomainType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the ResultIngestionService class.
+ */
+public class ResultIngestionServiceTest {
+
+	private static final String NODE_ID = "node";
+
+	private NodeRegistry nodeRegistry;
+	private ApplicationEventPublisher applicationEventPublisher;
+	private SimpleMeterRegistry meterRegistry;
+
+	private ResultIngestionService resultIngestionService;
+
+	@BeforeEach
+	public void setup() {
+		nodeRegistry = new NodeRegistry();
+		applicationEventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+		meterRegistry = new SimpleMeterRegistry();
+		resultIngestionService = new ResultIngestionService(nodeRegistry, applicationEventPublisher, meterRegistry);
+
+		WorkerNode node = new WorkerNode();
+		node.setId(NODE_ID);
+		node.setDomainType(TestDomainType.TEST_1);
+		node.setUri(URI.create("http://localhost:1"));
+		nodeRegistry.registerNode(node);
+	}
+
+	/**
+	 * Tests that a node computing a package in the background stays occupied until its result is reported, that the result is published once
+	 * with the package as handed out and that the accepted and discarded results are counted.
+	 */
+	@DisplayName("Test ingest() for a package computed in the background")
+	@Test
+	public void testIngest_Background() {
+		WorkPackage workPackage = createWorkPackage(1);
+		nodeRegistry.occupyNode(nodeRegistry.reserveNode(TestDomainType.TEST_1));
+		resultIngestionService.awaitResult(workPackage, NODE_ID, System.currentTimeMillis(), true);
+		assertEquals(NodeStatus.BUSY, nodeRegistry.getNode(NODE_ID).getStatus(), "Node is expected to stay busy while the result is awaited");
+
+		WorkPackage reportedPackage = new WorkPackage(TestDomainType.TEST_1, 1);
+		reportedPackage.setRunId(workPackage.getRunId());
+		WorkPackageResult reported = new WorkPackageResult(reportedPackage);
+		reported.setStatus(Status.DONE);
+
+		assertEquals(Arrays.asList(true, false), resultIngestionService.ingest(NODE_ID, Arrays.asList(reported, reported)), "Result is expected to be accepted once");
+		assertEquals(NodeStatus.READY, nodeRegistry.getNode(NODE_ID).getStatus(), "Node is expected to be freed once the result is reported");
+		assertFalse(resultIngestionService.isAwaited(workPackage), "Result is not expected to be awaited anymore");
+
+		ArgumentCaptor<ResultUpdateEvent> captor = ArgumentCaptor.forClass(ResultUpdateEvent.class);
+		Mockito.verify(applicationEventPublisher).publishEvent(captor.capture());
+		assertSame(workPackage, captor.getValue().getWorkPackageResult().getWorkPackage(), "Result is expected to carry the package as handed out");
+		assertEquals(NODE_ID, captor.getValue().getWorkPackageResult().getNodeId(), "Result is expected to be attributed to the node");
+		assertEquals(1, meterRegistry.get("results.reported").tag("accepted", "true").counter().count(), 0.001, "Accepted result is expected to be counted");
+		assertEquals(1, meterRegistry.get("results.reported").tag("accepted", "false").counter().count(), 0.001, "Discarded result is expected to be counted");
+	}
+
+	/**
+	 * Tests that the result of a discarded package is not published, but the node computing it is still freed once the result comes in.
+	 */
+	@DisplayName("Test discard()")
+	@Test
+	public void testDiscard() {
+		WorkPackage workPackage = createWorkPackage(1);
+		nodeRegistry.occupyNode(nodeRegistry.reserveNode(TestDomainType.TEST_1));
+		resultIngestionService.awaitResult(workPackage, NODE_ID, System.currentTimeMillis(), true);
+
+		assertTrue(resultIngestionService.discard(workPackage), "Awaited result is expected to be found");
+		assertFalse(resultIngestionService.discard(createWorkPackage(2)), "Result not awaited is not expected to be found");
+
+		assertEquals(Collections.singletonList(false), resultIngestionService.ingest(NODE_ID, Collections.singletonList(new WorkPackageResult(workPackage))),
+				"Discarded result is not expected to be accepted");
+		assertEquals(NodeStatus.READY, nodeRegistry.getNode(NODE_ID).getStatus(), "Node is expected to be freed although the result was discarded");
+		Mockito.verify(applicationEventPublisher, Mockito.never()).publishEvent(Mockito.any(ResultUpdateEvent.class));
+	}
+
+	/**
+	 * Tests that a late result reported by a node the package was handed out to before is discarded, while the node computing the package now
+	 * stays occupied until it reports the result itself.
+	 */
+	@DisplayName("Test ingest() for a result reported by another node")
+	@Test
+	public void testIngest_OtherNode() {
+		WorkPackage workPackage = createWorkPackage(1);
+		nodeRegistry.occupyNode(nodeRegistry.reserveNode(TestDomainType.TEST_1));
+		resultIngestionService.awaitResult(workPackage, NODE_ID, System.currentTimeMillis(), true);
+
+		assertEquals(Collections.singletonList(false), resultIngestionService.ingest("previousNode", Collections.singletonList(new WorkPackageResult(workPackage))),
+				"Result reported by another node is not expected to be accepted");
+		assertEquals(NodeStatus.BUSY, nodeRegistry.getNode(NODE_ID).getStatus(), "Node computing the package is expected to stay busy");
+		assertTrue(resultIngestionService.isAwaited(workPackage), "Result is expected to be still awaited from the node computing the package");
+		Mockito.verify(applicationEventPublisher, Mockito.never()).publishEvent(Mockito.any(ResultUpdateEvent.class));
+
+		assertEquals(Collections.singletonList(true), resultIngestionService.ingest(NODE_ID, Collections.singletonList(new WorkPackageResult(workPackage))),
+				"Result reported by the node computing the package is expected to be accepted");
+		assertEquals(NodeStatus.READY, nodeRegistry.getNode(NODE_ID).getStatus(), "Node is expected to be freed once it reported the result");
+	}
+
+	private WorkPackage createWorkPackage(long id) {
+		WorkPackage workPackage = new WorkPackage(TestDomainType.TEST_1, id);
+		workPackage.setRunId(3);
+		return workPackage;
+	}
+
+}
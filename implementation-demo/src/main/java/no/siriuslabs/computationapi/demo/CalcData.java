@@ -0,0 +1,37 @@
+package no.siriuslabs.computationapi.demo;
+
+/**
+ * Typed data of a WorkPackage of the Demo application: one amount-multiplier pair of the calc data structure.<p>
+ * Registered for the Demo DomainType, so that WorkPackages received by the node carry an instance of it instead of a map. The values arrive as Strings
+ * from the client and are parsed by Jackson while binding.
+ */
+public class CalcData {
+
+	private long amount;
+
+	private long multiplier;
+
+	public long getAmount() {
+		return amount;
+	}
+
+	public void setAmount(long amount) {
+		this.amount = amount;
+	}
+
+	public long getMultiplier() {
+		return multiplier;
+	}
+
+	public void setMultiplier(long multiplier) {
+		this.multiplier = multiplier;
+	}
+
+	@Override
+	public String toString() {
+		return "CalcData{" +
+				"amount=" + amount +
+				", multiplier=" + multiplier +
+				'}';
+	}
+}
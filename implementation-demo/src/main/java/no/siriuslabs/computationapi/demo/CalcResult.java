@@ -0,0 +1,38 @@
+package no.siriuslabs.computationapi.demo;
+
+/**
+ * Typed data of a WorkPackageResult of the Demo application: the product of a package's amount and multiplier.<p>
+ * Registered for the Demo DomainType, so that results received for accumulation carry an instance of it instead of a map.
+ */
+public class CalcResult {
+
+	private long result;
+
+	/**
+	 * Constructor needed for de-serialization.
+	 */
+	public CalcResult() {
+	}
+
+	/**
+	 * Constructor expecting the result.
+	 */
+	public CalcResult(long result) {
+		this.result = result;
+	}
+
+	public long getResult() {
+		return result;
+	}
+
+	public void setResult(long result) {
+		this.result = result;
+	}
+
+	@Override
+	public String toString() {
+		return "CalcResult{" +
+				"result=" + result +
+				'}';
+	}
+}
@@ -1,6 +1,7 @@
 package no.siriuslabs.computationapi.demo;
 
 import no.siriuslabs.computationapi.api.model.computation.ComputationResult;
+import no.siriuslabs.computationapi.api.model.computation.DomainDataTypes;
 import no.siriuslabs.computationapi.api.model.computation.ResultsProtocol;
 import no.siriuslabs.computationapi.api.model.computation.Status;
 import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
@@ -29,6 +30,7 @@ import java.util.Map;
  * Rest controller implementation for the DEmo application.<p>
  * This contains the domain specific worker node API implementation required for ImplementationControllers for the Demo domain.<p>
  * The Demo application accepts data to "calculate" as amounts that are multiplied with a multiplier to illustrate how the system handles variable data packages.
+ * WorkPackages and their results are bound to the typed CalcData and CalcResult, while the Payload is validated in the generic map form.
  */
 @RestController
 public class DemoController extends AbstractImplementationController implements ImplementationController {
@@ -51,11 +53,13 @@ public class DemoController extends AbstractImplementationController implements
 	public static final String AVG_RESULT_KEY = "avgResult";
 
 	/**
-	 * Autowired constructor.
+	 * Autowired constructor. Registers the typed data of the Demo DomainType.
 	 */
 	@Autowired
 	public DemoController(ConfigProperties configProperties) {
 		super(configProperties);
+		DomainDataTypes.register(DemoDomainType.DEMO, DomainDataTypes.Role.WORK_PACKAGE, CalcData.class);
+		DomainDataTypes.register(DemoDomainType.DEMO, DomainDataTypes.Role.RESULT, CalcResult.class);
 	}
 
 	// TODO receive ping
@@ -168,12 +172,22 @@ public class DemoController extends AbstractImplementationController implements
 	/**
 	 * Implements the computation step of the Demo application.<p>
 	 * For demo purposes the method calculates the result of the amount and multiplier values found in the given WorkPackage. To simulate a more complex process, it waits some time until the result is returned.
+	 * The computation is run through executeComputation(), so that it can be cancelled by the controller or aborted on timeout while waiting.
 	 * @return A WorkPackageResult containing the resulting value of the multiplication.
 	 */
 	@PostMapping("/runComputation")
 	public ResponseEntity<WorkPackageResult> runComputation(@RequestBody WorkPackage workPackage) {
 		LOGGER.info("Received data package for computation: {}", workPackage);
 
+		return executeComputation(workPackage, this::compute);
+	}
+
+	/**
+	 * Does the actual "computation" for the given WorkPackage. Returns early with a result without data if the computation gets interrupted.
+	 */
+	private WorkPackageResult compute(WorkPackage workPackage) {
+		WorkPackageResult result = new WorkPackageResult(workPackage);
+
 		try {
 			final int delay = 60000;
 			LOGGER.info("Computing package {} for " + delay / 1000 + "s...", workPackage.getId());
@@ -181,26 +195,22 @@ public class DemoController extends AbstractImplementationController implements
 			LOGGER.info("Computing package {} is done", workPackage.getId());
 		}
 		catch(InterruptedException e) {
-			LOGGER.error(e.getMessage(), e);
+			LOGGER.info("Computing package {} was interrupted", workPackage.getId());
+			Thread.currentThread().interrupt();
+			return result;
 		}
 
-		long amount = Long.parseLong((String)workPackage.getData().get(AMOUNT_KEY));
-		long multiplier = Long.parseLong((String)workPackage.getData().get(MULTIPLIER_KEY));
-		long calcResult = amount * multiplier;
-
-		Map<String, Object> resultData = new HashMap<>();
-		resultData.put(RESULT_KEY, calcResult);
-
-		WorkPackageResult result = new WorkPackageResult(workPackage);
-		result.setData(resultData);
+		final CalcData calcData = workPackage.getData(CalcData.class);
+		result.setTypedData(new CalcResult(calcData.getAmount() * calcData.getMultiplier()));
 
 		LOGGER.info("Computation finished. Returned result: {}", result);
-		return ResponseEntity.ok(result);
+		return result;
 	}
 
 	/**
 	 * Implements the results accumulation of the Demo application.<p>
-	 * The method inspects all WorkPackageResults of the computation run and calculates average values for amount, multiplier and calculation result for demo purposes.
+	 * The method inspects all successful WorkPackageResults of the computation run and calculates average values for amount, multiplier and calculation result for demo purposes.
+	 * Results of packages that timed out are skipped.
 	 * It also adds statistical information about the computation run (provided by AbstractImplementationController).
 	 * @return ComputationResult containing calculated values and statistics.
 	 */
@@ -212,20 +222,25 @@ public class DemoController extends AbstractImplementationController implements
 		long avgMultiplier = 0;
 		long avgCalcResult = 0;
 
+		long numberOfResults = 0;
 		for(WorkPackageResult workPackageResult : protocol.getWorkPackageResults()) {
-			long amount = Long.parseLong((String)workPackageResult.getWorkPackage().getData().get(AMOUNT_KEY));
-			long multiplier = Long.parseLong((String)workPackageResult.getWorkPackage().getData().get(MULTIPLIER_KEY));
-			long calcResult = ((Integer)workPackageResult.getData().get(RESULT_KEY)).longValue();
+			if(Status.DONE != workPackageResult.getStatus()) {
+				LOGGER.info("Skipping result of package {} with status {}", workPackageResult.getWorkPackage().getId(), workPackageResult.getStatus());
+				continue;
+			}
 
-			avgAmount += amount;
-			avgMultiplier += multiplier;
-			avgCalcResult += calcResult;
+			final CalcData calcData = workPackageResult.getWorkPackage().getData(CalcData.class);
+			avgAmount += calcData.getAmount();
+			avgMultiplier += calcData.getMultiplier();
+			avgCalcResult += workPackageResult.getData(CalcResult.class).getResult();
+			numberOfResults++;
 		}
 
-		long numberOfResults = protocol.getWorkPackageResults().size();
-		avgAmount = avgAmount / numberOfResults;
-		avgMultiplier = avgMultiplier / numberOfResults;
-		avgCalcResult = avgCalcResult / numberOfResults;
+		if(numberOfResults > 0) {
+			avgAmount = avgAmount / numberOfResults;
+			avgMultiplier = avgMultiplier / numberOfResults;
+			avgCalcResult = avgCalcResult / numberOfResults;
+		}
 		LOGGER.info("Average amount was {}, average multiplier {} and average result {}", avgAmount, avgMultiplier, avgCalcResult);
 
 		Map<String, Object> resultData = new HashMap<>();
@@ -1,6 +1,9 @@
 package no.siriuslabs.computationapi.demo;
 
 import no.siriuslabs.computationapi.implementation.AbstractImplementationApplication;
+import no.siriuslabs.computationapi.implementation.BroadcastReceiver;
+import no.siriuslabs.computationapi.implementation.ImplementationController;
+import no.siriuslabs.computationapi.implementation.ResultReporter;
 import no.siriuslabs.computationapi.implementation.config.ConfigProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +62,7 @@ public class DemoImplementationApplication extends AbstractImplementationApplica
 
 	/**
 	 * CommandLineRunner that is executed a application startup to register this worker node with the controller.
+	 * Should the node be configured to pull its work, it starts fetching work from the controller afterwards.
 	 */
 	@Bean
 	@Profile("!test")
@@ -70,16 +74,24 @@ public class DemoImplementationApplication extends AbstractImplementationApplica
 				LOGGER.error("Registering with controller failed - shutting down");
 				SpringApplication.exit(ctx, () -> 1);
 			}
+			else if(startFetchingWork(ctx.getBean(ImplementationController.class), ctx.getBean(BroadcastReceiver.class), ctx.getBean(ResultReporter.class))) {
+				LOGGER.info("Fetching work from controller...");
+			}
 		};
 	}
 
 	/**
-	 * Method that is called on application shutdown to de-register this worker node with the controller.
+	 * Method that is called on application shutdown to de-register this worker node with the controller.<p>
+	 * The node is drained first, so that a package it is still computing gets finished and reported. Should draining fail, the node is unregistered right away.
+	 * A pulling node stops fetching work and finishes the packages it has fetched before.
 	 */
 	@PreDestroy
 	@Profile("!test")
 	private void unregisterOnShutdown() throws URISyntaxException, UnknownHostException {
-		unregisterWithController();
+		stopFetchingWork();
+		if(!drainWithController()) {
+			unregisterWithController();
+		}
 	}
 
 }
@@ -1,10 +1,19 @@
 package no.siriuslabs.computationapi.implementation;
 
+import io.micrometer.core.instrument.Metrics;
+import no.siriuslabs.computationapi.api.http.CompressionFilter;
+import no.siriuslabs.computationapi.api.http.PooledHttpClientFactory;
+import no.siriuslabs.computationapi.api.http.WireFormat;
+import no.siriuslabs.computationapi.api.model.node.NodeStatus;
 import no.siriuslabs.computationapi.api.model.node.WorkerNode;
+import no.siriuslabs.computationapi.api.transport.UnixSocketNodeTransport;
+import no.siriuslabs.computationapi.api.transport.UnixSockets;
 import no.siriuslabs.computationapi.implementation.config.ConfigProperties;
+import no.siriuslabs.computationapi.implementation.config.Node;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -18,12 +27,16 @@ import java.net.InetAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
+import java.nio.file.Paths;
 
 /**
  * Abstract superclass for WorkerNode implementation applications.<p>
  * It includes prepared functionality such as registering and unregistering a node with the controller and configuring a WorkerNode object with the correct data.
  * Usually the concrete node-side implementation only needs to extend this class and provide a Spring CommandLineRunner to execute the registration as well as a
  * method annotated with PreDestroy or some kind of other lifecycle listener to notify the controller when the application goes down.
+ * Preferably the node is drained on shutdown, so that a package it is currently computing can still be finished and reported before the application exits.<p>
+ * A node configured to pull its work fetches WorkPackages from the controller itself after registration (see startFetchingWork()) instead of being sent them,
+ * so that it does not need to be reachable by the controller and decides itself how many packages it computes at once.
  */
 public abstract class AbstractImplementationApplication {
 
@@ -33,6 +46,7 @@ public abstract class AbstractImplementationApplication {
 	 */
 	protected enum RegistrationFlavour {
 		REGISTER("registering", "registerNode"),
+		DRAIN("draining", "drainNode"),
 		UNREGISTER("unregistering", "unregisterNode");
 
 		/**
@@ -63,16 +77,30 @@ public abstract class AbstractImplementationApplication {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(AbstractImplementationApplication.class);
 
+	/**
+	 * Relative path of the controller's service handing out work to pulling nodes.
+	 */
+	private static final String FETCH_WORK_PATH = "fetchWork";
+	/**
+	 * Relative path of the controller's service accepting results reported by nodes.
+	 */
+	private static final String REPORT_RESULTS_PATH = "reportResults";
+
 	/**
 	 * Spring configuration with contents of config file.
 	 */
 	private final ConfigProperties configProperties;
 
 	/**
-	 * Spring RestTemplate to execute Rest communication.
+	 * Spring RestTemplate to execute Rest communication, backed by a pool of keep-alive connections to the controller.
 	 */
 	private final RestTemplate restTemplate;
 
+	/**
+	 * WorkFetcher fetching the work of a pulling node. Null as long as the node does not fetch work.
+	 */
+	private WorkFetcher workFetcher;
+
 	/**
 	 * Port this server runs on. Mapped from config file.<p>
 	 * Annotated is the default port if nothing is stated in the config file.
@@ -85,7 +113,7 @@ public abstract class AbstractImplementationApplication {
 	 */
 	protected AbstractImplementationApplication(ConfigProperties configProperties) {
 		this.configProperties = configProperties;
-		this.restTemplate = new RestTemplate();
+		this.restTemplate = PooledHttpClientFactory.createRestTemplate(configProperties.getController(), Metrics.globalRegistry, "worker");
 	}
 
 	/**
@@ -96,6 +124,24 @@ public abstract class AbstractImplementationApplication {
 		this.restTemplate = restTemplate;
 	}
 
+	/**
+	 * RestTemplate shared by all calls of this worker node to the controller, so that they share the pool of keep-alive connections (see config.controller.pool).
+	 * The pool's usage is recorded as http.client.pool.* gauges tagged client=worker in Micrometer's global registry.
+	 */
+	@Bean
+	public RestTemplate restTemplate() {
+		return restTemplate;
+	}
+
+	/**
+	 * Servlet filter compressing large responses and decompressing compressed requests of all worker node services.<p>
+	 * Its metrics are recorded in Micrometer's global registry, which Spring Boot Actuator adds its registry to, should the implementation use it.
+	 */
+	@Bean
+	public CompressionFilter compressionFilter() {
+		return new CompressionFilter(configProperties.getController().getCompression(), Metrics.globalRegistry);
+	}
+
 	/**
 	 * Entry point to the registration of this node with the controller.
 	 * @throws URISyntaxException 	If one of the generated URIs is a correct URI.
@@ -118,6 +164,10 @@ public abstract class AbstractImplementationApplication {
 	protected WorkerNode configureWorkerNode() throws UnknownHostException, URISyntaxException {
 		WorkerNode node = new WorkerNode();
 		node.setDomainType(configProperties.getNode().getDomain());
+		node.setAdditionalDomainTypes(configProperties.getNode().getAdditionalDomains());
+		node.setPulling(configProperties.getNode().isPull());
+		node.setWireFormats(WireFormat.getAvailableBinaryFormats());
+		node.setCapacity(ComputationEngine.getParallelism(configProperties.getNode()));
 		LOGGER.info("Node's domain is {}", node.getDomainType());
 
 		InetAddress inetAddress = InetAddress.getLocalHost();
@@ -126,35 +176,65 @@ public abstract class AbstractImplementationApplication {
 		node.setId(ipAndPort);
 		LOGGER.info("Node's IP:port combination is {}", ipAndPort);
 
-		final String url = "http://" + ipAndPort;
-		node.setUri(new URI(url));
+		node.setUri(createNodeUri(ipAndPort));
 		return node;
 	}
 
+	/**
+	 * Returns the URI the controller is to call this node at: an in-process URI or the URI of its Unix domain socket if configured (and supported),
+	 * otherwise its HTTP URI based on the given host and port.
+	 * @throws URISyntaxException If the generated worker node URI is a correct URI.
+	 */
+	private URI createNodeUri(String ipAndPort) throws URISyntaxException {
+		final Node nodeConfig = configProperties.getNode();
+		if(nodeConfig.isInProcess()) {
+			return new URI(InProcessNodeTransport.SCHEME + "://" + ipAndPort);
+		}
+		if(nodeConfig.getSocketPath() != null && !nodeConfig.getSocketPath().trim().isEmpty()) {
+			if(UnixSockets.isSupported()) {
+				return UnixSocketNodeTransport.toUri(Paths.get(nodeConfig.getSocketPath().trim()));
+			}
+			LOGGER.warn("Unix domain sockets are not supported by this Java runtime - registering HTTP URI instead of socket {}", nodeConfig.getSocketPath());
+		}
+		return new URI("http://" + ipAndPort);
+	}
+
 	/**
 	 * Creates and returns the complete URI for a registration or de-registration service call to the controller (depending on given RegistrationFlavour).<p>
 	 * This also takes into account if this node is running in a Docker environment or not (assuming that the controller will use the same environment).
 	 * @throws URISyntaxException If the generated controller URI is a correct URI.
 	 */
 	protected URI createServiceUri(RegistrationFlavour flavour) throws URISyntaxException {
-		final URI controllerUrl;
-		if(isDockerActive()) {
-			controllerUrl = configProperties.getController().getDockerUrl();
-		}
-		else {
-			controllerUrl = configProperties.getController().getLocalUrl();
-		}
+		return createServiceUri(flavour.getServiceSubPath());
+	}
+
+	/**
+	 * Creates and returns the complete URI for a call of the controller's service with the given relative path, taking the Docker environment into account like createServiceUri(RegistrationFlavour).
+	 * @throws URISyntaxException If the generated controller URI is a correct URI.
+	 */
+	protected URI createServiceUri(String serviceSubPath) throws URISyntaxException {
+		final URI controllerUrl = getControllerUrl(configProperties);
 		LOGGER.info("Controller's URL is {}", controllerUrl);
-		final String serviceUrl = controllerUrl + flavour.getServiceSubPath();
+		final String serviceUrl = controllerUrl + serviceSubPath;
 		LOGGER.info("Service URL to be called is {}", serviceUrl);
 
 		return new URI(serviceUrl);
 	}
 
+	/**
+	 * Returns the controller's URL from the given configuration, depending on the application running in a Docker environment or not.
+	 */
+	static URI getControllerUrl(ConfigProperties configProperties) {
+		if(isDockerActive()) {
+			return configProperties.getController().getDockerUrl();
+		}
+		return configProperties.getController().getLocalUrl();
+	}
+
 	/**
 	 * Returns true if the application runs in a Docker environment (based on a system property that must be set in that case).
 	 */
-	private boolean isDockerActive() {
+	private static boolean isDockerActive() {
 		String dockerFlag = System.getProperties().getProperty("docker");
 		return dockerFlag == null || dockerFlag.trim().isEmpty() ? false : Boolean.parseBoolean(dockerFlag);
 	}
@@ -245,6 +325,128 @@ public abstract class AbstractImplementationApplication {
 		}
 	}
 
+	/**
+	 * Entry point to the graceful de-registration of this node with the controller.<p>
+	 * The node is put into drain mode, so that it does not receive any new work. The method then blocks until the controller has unregistered the node
+	 * (which happens as soon as its last package has reported back) or the drain timeout specified in the config file has passed.
+	 * The node keeps serving requests in the meantime, so a running computation can deliver its result.
+	 * @return True if the node was released by the controller, false if the timeout passed or the controller could not be reached.
+	 * @throws URISyntaxException 	If one of the generated URIs is a correct URI.
+	 * @throws UnknownHostException	If the local host name of this machine could not be resolved into an address.
+	 */
+	protected boolean drainWithController() throws URISyntaxException, UnknownHostException {
+		LOGGER.info("Starting to drain with controller");
+
+		WorkerNode node = configureWorkerNode();
+		URI uri = new URI(createServiceUri(RegistrationFlavour.DRAIN) + "/" + node.getId());
+
+		return drain(node, uri);
+	}
+
+	/**
+	 * Repeatedly asks the controller at the given URI to drain the given WorkerNode until the controller reports that the node is no longer registered.<p>
+	 * Gives up and returns false once the drain timeout specified in the config file has passed or the controller could not be reached.
+	 */
+	protected boolean drain(WorkerNode node, URI uri) {
+		HttpHeaders headers = new HttpHeaders();
+		HttpEntity<WorkerNode> entity = new HttpEntity<>(node, headers);
+
+		final long deadline = System.currentTimeMillis() + configProperties.getController().getDrainTimeout();
+		while(true) {
+			final NodeStatus status = callDrainService(uri, entity);
+			if(status == null) {
+				LOGGER.info("Draining not successful - controller could not be reached");
+				return false;
+			}
+			if(NodeStatus.DRAINING != status) {
+				LOGGER.info("Drained successfully @ {}", uri);
+				return true;
+			}
+			if(System.currentTimeMillis() >= deadline) {
+				LOGGER.info("Node still draining after timeout - giving up");
+				return false;
+			}
+
+			LOGGER.info("Node still working on its last package - waiting");
+			waitForRetry();
+		}
+	}
+
+	/**
+	 * Calls the drain service specified in the URI using the given WorkerNode HttpEntity and returns the node status reported by the controller.<p>
+	 * A node unknown to the controller is reported as UNAVAILABLE. Should the call fail otherwise, null is returned.
+	 */
+	protected NodeStatus callDrainService(URI uri, HttpEntity<WorkerNode> entity) {
+		try {
+			ResponseEntity<NodeStatus> response = restTemplate.exchange(uri, HttpMethod.POST, entity, NodeStatus.class);
+
+			LOGGER.info("Response code={}, result={}", response.getStatusCode(), response.getBody());
+			return response.getBody();
+		}
+		catch(HttpClientErrorException e) {
+			if(HttpStatus.NOT_FOUND == e.getStatusCode()) {
+				LOGGER.info("Node is not registered with the controller (anymore)");
+				return NodeStatus.UNAVAILABLE;
+			}
+			LOGGER.error("Call to {} service failed with response code {} and message: {}", RegistrationFlavour.DRAIN.getActivityString(), e.getStatusCode(), e.getResponseBodyAsString());
+			return null;
+		}
+		catch(RestClientException e) {
+			LOGGER.error("Call to {} service failed with message: {}", RegistrationFlavour.DRAIN.getActivityString(), e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Returns true if this node is configured to fetch its work from the controller itself, otherwise false.
+	 */
+	protected boolean isPulling() {
+		return configProperties.getNode().isPull();
+	}
+
+	/**
+	 * Starts fetching work from the controller if this node is configured to pull its work. Has to be called after the node has been registered.<p>
+	 * The fetched WorkPackages are computed through the runComputation-method of the given ImplementationController, up to the capacity of the node's ComputationEngine at once,
+	 * with a handle to their run's broadcast data from the given BroadcastReceiver attached, and their results are reported back to the controller through the given ResultReporter.
+	 * @return True if the node started fetching work, false if it is not configured to pull its work or fetches work already.
+	 * @throws URISyntaxException 	If one of the generated URIs is a correct URI.
+	 * @throws UnknownHostException	If the local host name of this machine could not be resolved into an address.
+	 */
+	protected synchronized boolean startFetchingWork(ImplementationController implementationController, BroadcastReceiver broadcastReceiver, ResultReporter resultReporter)
+			throws URISyntaxException, UnknownHostException {
+		if(!isPulling() || workFetcher != null) {
+			return false;
+		}
+
+		WorkerNode node = configureWorkerNode();
+		URI fetchUri = new URI(createServiceUri(FETCH_WORK_PATH) + "/" + node.getId());
+		final String reportPath = REPORT_RESULTS_PATH + "/" + node.getId();
+		final Node nodeConfig = configProperties.getNode();
+
+		workFetcher = new WorkFetcher(restTemplate, implementationController, broadcastReceiver, resultReporter, fetchUri, reportPath, ComputationEngine.getParallelism(nodeConfig), nodeConfig.getPollTimeout(),
+				configProperties.getController().getRetryDelay(), configProperties.getController().getWireFormat());
+		workFetcher.start();
+		return true;
+	}
+
+	/**
+	 * Stops fetching work from the controller and waits for the computations already fetched to finish and report their results, at most for the drain timeout
+	 * specified in the config file. To be called on shutdown before draining or unregistering the node. Does nothing if the node does not fetch work.
+	 * @return True if all fetched computations have finished, false if the timeout passed.
+	 */
+	protected synchronized boolean stopFetchingWork() {
+		if(workFetcher == null) {
+			return true;
+		}
+
+		final boolean finished = workFetcher.stop(configProperties.getController().getDrainTimeout());
+		workFetcher = null;
+		if(!finished) {
+			LOGGER.info("Fetched computations still running after timeout - giving up");
+		}
+		return finished;
+	}
+
 	/**
 	 * Waits for an amount of time specified in the config file and then returns.
 	 */
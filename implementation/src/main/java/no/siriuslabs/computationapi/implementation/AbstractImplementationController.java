@@ -1,17 +1,46 @@
 package no.siriuslabs.computationapi.implementation;
 
+import no.siriuslabs.computationapi.api.artifact.ArtifactReference;
+import no.siriuslabs.computationapi.api.http.ComputationHeaders;
 import no.siriuslabs.computationapi.api.model.computation.ResultsProtocol;
+import no.siriuslabs.computationapi.api.model.computation.Status;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackageResult;
 import no.siriuslabs.computationapi.implementation.config.ConfigProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Abstract superclass for worker node Rest controllers.<p>
- * It provides shared functionality such as managing generation of WorkPackage unique IDs and adding timing metadata the results.<p>
+ * It provides shared functionality such as managing generation of WorkPackage unique IDs and adding timing metadata the results.
+ * It also keeps track of running computations, so that they can be cancelled by the controller through the cancelComputation-service offered by this class
+ * or aborted when they exceed the computation timeout sent by the controller. Computations run on the node's ComputationEngine, which lets concurrent requests
+ * share the node's cores.
+ * If configured, computations the controller offers to receive the result of later are run in the background and reported through the ResultReporter.
+ * Blobs referenced by WorkPackages are provided through the BlobCache and large binary results are exchanged as artifacts through the ArtifactChannel.<p>
  * These convenience methods still have to be called by the concrete implementation to be used!
  */
 public abstract class AbstractImplementationController implements ImplementationController {
@@ -28,6 +57,58 @@ public abstract class AbstractImplementationController implements Implementation
 	 */
 	private long packageIdCounter = 0;
 
+	/**
+	 * Map of the threads currently computing a WorkPackage started through executeComputation(), identified by their WorkPackage.
+	 */
+	private final ConcurrentHashMap<WorkPackage, Thread> runningComputations = new ConcurrentHashMap<>();
+	/**
+	 * Set of running WorkPackages that were asked to be cancelled.
+	 */
+	private final Set<WorkPackage> cancelledComputations = ConcurrentHashMap.newKeySet();
+	/**
+	 * Set of running WorkPackages that exceeded their computation timeout.
+	 */
+	private final Set<WorkPackage> timedOutComputations = ConcurrentHashMap.newKeySet();
+	/**
+	 * Hashes of the blobs pinned in the BlobCache for running WorkPackages, released once their computations have finished.
+	 */
+	private final ConcurrentHashMap<WorkPackage, ConcurrentLinkedQueue<String>> pinnedBlobs = new ConcurrentHashMap<>();
+
+	/**
+	 * Scheduler interrupting computations that exceed their computation timeout.
+	 */
+	private final ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor((Runnable runnable) -> {
+		Thread thread = new Thread(runnable, "computation-timeout");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Threads running the computations accepted for computation in the background.
+	 */
+	private final ExecutorService backgroundComputations = Executors.newCachedThreadPool((Runnable runnable) -> {
+		Thread thread = new Thread(runnable, "background-computation");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * ResultReporter reporting the results of computations run in the background. Computations are never run in the background without it.
+	 */
+	private ResultReporter resultReporter;
+	/**
+	 * Cache of the blobs referenced by WorkPackages.
+	 */
+	private BlobCache blobCache;
+	/**
+	 * Channel uploading and downloading the artifacts of computation runs.
+	 */
+	private ArtifactChannel artifactChannel;
+	/**
+	 * Engine running the computations. Computations run in the calling thread without it.
+	 */
+	private ComputationEngine computationEngine;
+
 	/**
 	 * Constructor accepting the configuration object (to be injected into the concrete implementation class).
 	 */
@@ -35,6 +116,118 @@ public abstract class AbstractImplementationController implements Implementation
 		this.configProperties = configProperties;
 	}
 
+	/**
+	 * Sets the ResultReporter used to report the results of computations run in the background.
+	 */
+	@Autowired(required = false)
+	public void setResultReporter(ResultReporter resultReporter) {
+		this.resultReporter = resultReporter;
+	}
+
+	/**
+	 * Sets the BlobCache providing the blobs referenced by WorkPackages.
+	 */
+	@Autowired(required = false)
+	public void setBlobCache(BlobCache blobCache) {
+		this.blobCache = blobCache;
+	}
+
+	/**
+	 * Returns the BlobCache, e.g. to store large inputs generated while preparing WorkPackages in the controller's blob store.
+	 */
+	protected BlobCache getBlobCache() {
+		return blobCache;
+	}
+
+	/**
+	 * Returns the local file of the blob the given WorkPackage references by the given name, fetching it from the controller if it is not cached yet.<p>
+	 * While the WorkPackage is computed through executeComputation() or executeComputations(), the blob is pinned in the cache until the computation has finished,
+	 * so that blobs fetched by computations running in parallel cannot delete it. Otherwise the file may be deleted once other blobs are fetched.
+	 * @throws IllegalArgumentException if the WorkPackage does not reference a blob by that name.
+	 * @see BlobCache#pinBlob(String)
+	 */
+	protected Path getBlob(WorkPackage workPackage, String name) {
+		final String hash = workPackage.getBlobs() == null ? null : workPackage.getBlobs().get(name);
+		if(hash == null) {
+			throw new IllegalArgumentException("WorkPackage " + workPackage.getId() + " does not reference a blob named " + name);
+		}
+		if(!runningComputations.containsKey(workPackage)) {
+			return blobCache.getBlob(hash);
+		}
+
+		final Path blobFile = blobCache.pinBlob(hash);
+		pinnedBlobs.computeIfAbsent(workPackage, (WorkPackage key) -> new ConcurrentLinkedQueue<>()).add(hash);
+		return blobFile;
+	}
+
+	/**
+	 * Releases the blobs pinned for the computation of the given WorkPackage.
+	 */
+	private void unpinBlobs(WorkPackage workPackage) {
+		final ConcurrentLinkedQueue<String> hashes = pinnedBlobs.remove(workPackage);
+		if(hashes != null) {
+			for(String hash : hashes) {
+				blobCache.unpinBlob(hash);
+			}
+		}
+	}
+
+	/**
+	 * Sets the ArtifactChannel uploading and downloading the artifacts of computation runs.
+	 */
+	@Autowired(required = false)
+	public void setArtifactChannel(ArtifactChannel artifactChannel) {
+		this.artifactChannel = artifactChannel;
+	}
+
+	/**
+	 * Uploads the given file as an artifact of the given result's computation run and references it in the result by the given name. Returns the reference.
+	 * The file is not needed anymore afterwards.
+	 * @see ArtifactChannel#upload(long, Path)
+	 */
+	protected ArtifactReference putArtifact(WorkPackageResult result, String name, Path file) {
+		final ArtifactReference reference = artifactChannel.upload(result.getWorkPackage().getRunId(), file);
+		if(result.getArtifacts() == null) {
+			result.setArtifacts(new HashMap<>());
+		}
+		result.getArtifacts().put(name, reference);
+		return reference;
+	}
+
+	/**
+	 * Downloads the artifact the given result references by the given name into the given local file and returns the file.
+	 * @throws IllegalArgumentException if the result does not reference an artifact by that name.
+	 * @see ArtifactChannel#download(ArtifactReference, Path)
+	 */
+	protected Path getArtifact(WorkPackageResult result, String name, Path target) {
+		return artifactChannel.download(getArtifactReference(result, name), target);
+	}
+
+	/**
+	 * Streams the artifact the given result references by the given name into the given reader and returns what it returns.
+	 * @throws IllegalArgumentException if the result does not reference an artifact by that name.
+	 * @see ArtifactChannel#read(ArtifactReference, ArtifactChannel.ArtifactReader)
+	 */
+	protected <T> T readArtifact(WorkPackageResult result, String name, ArtifactChannel.ArtifactReader<T> reader) {
+		return artifactChannel.read(getArtifactReference(result, name), reader);
+	}
+
+	private static ArtifactReference getArtifactReference(WorkPackageResult result, String name) {
+		final ArtifactReference reference = result.getArtifacts() == null ? null : result.getArtifacts().get(name);
+		if(reference == null) {
+			throw new IllegalArgumentException("Result of WorkPackage " + result.getWorkPackage().getId() + " does not reference an artifact named " + name);
+		}
+		return reference;
+	}
+
+	/**
+	 * Sets the ComputationEngine running the computations started through executeComputation() and executeComputations().
+	 */
+	@Autowired(required = false)
+	public void setComputationEngine(ComputationEngine computationEngine) {
+		this.computationEngine = computationEngine;
+	}
+
 	/**
 	 * Returns the next free WorkPackage ID.
 	 */
@@ -59,4 +252,214 @@ public abstract class AbstractImplementationController implements Implementation
 		resultData.put("timingData", timingData);
 	}
 
+	/**
+	 * Runs the given domain specific computation for the given WorkPackage on the ComputationEngine, waiting for it to finish, and keeps track of it while it is running, so that it can be cancelled.<p>
+	 * Should the current request carry a computation timeout header, the computation is aborted once the timeout has passed.
+	 * WorkPackages fetched by a pulling node carry their timeout themselves.<p>
+	 * Should the current request carry a result callback header and the node be configured to report results asynchronously, the computation is run in the background
+	 * instead. The request is answered with HttpStatus 202 - "Accepted" and no body right away and the result is reported to the callback path once it is available.<p>
+	 * Cancelling a computation or exceeding its timeout interrupts the computing thread. The computation should therefore either use interruptible calls (like Thread.sleep() or blocking I/O)
+	 * or check isCancelled() regularly and return early. If the computation was cancelled, the returned WorkPackageResult carries the status CANCELLED,
+	 * if it exceeded its timeout, it carries the status TIMED_OUT.
+	 * @param workPackage	WorkPackage to be computed.
+	 * @param computation	Domain specific computation producing the WorkPackageResult for the WorkPackage.
+	 * @return ResponseEntity containing the WorkPackageResult of the computation.
+	 */
+	protected ResponseEntity<WorkPackageResult> executeComputation(WorkPackage workPackage, Function<WorkPackage, WorkPackageResult> computation) {
+		final long timeout = getRequestedTimeout(workPackage);
+		final String resultCallback = getRequestHeader(ComputationHeaders.RESULT_CALLBACK);
+		if(resultCallback == null || resultReporter == null || !configProperties.getNode().isAsyncResults()) {
+			return executeComputation(workPackage, computation, timeout);
+		}
+
+		LOGGER.info("Computing package {} in the background - result will be reported to {}", workPackage.getId(), resultCallback);
+		resultReporter.expectResult();
+		backgroundComputations.execute(() -> {
+			WorkPackageResult result;
+			try {
+				result = executeComputation(workPackage, computation, timeout).getBody();
+			}
+			catch(RuntimeException e) {
+				LOGGER.error("Computation of package " + workPackage.getId() + " failed", e);
+				result = null;
+			}
+			if(result == null) {
+				// report a failed computation as well, so that the controller does not wait for the package forever
+				result = new WorkPackageResult(workPackage);
+				result.setStatus(Status.FAILED);
+			}
+			resultReporter.report(resultCallback, result);
+		});
+		return ResponseEntity.accepted().build();
+	}
+
+	/**
+	 * Runs the given domain specific computation for the given WorkPackage like executeComputation(WorkPackage, Function), but with an explicitly given timeout.
+	 * @param workPackage	WorkPackage to be computed.
+	 * @param computation	Domain specific computation producing the WorkPackageResult for the WorkPackage.
+	 * @param timeout		Maximum time in milliseconds the computation may take. No limit if not greater than zero.
+	 * @return ResponseEntity containing the WorkPackageResult of the computation.
+	 */
+	protected ResponseEntity<WorkPackageResult> executeComputation(WorkPackage workPackage, Function<WorkPackage, WorkPackageResult> computation, long timeout) {
+		if(computationEngine == null) {
+			return computeTracked(workPackage, computation, timeout);
+		}
+		return computationEngine.execute(() -> computeTracked(workPackage, computation, timeout));
+	}
+
+	/**
+	 * Runs the given domain specific computation for each of the given WorkPackages in parallel on the ComputationEngine, waits for all of them to finish
+	 * and returns their results in the order of the packages. Each computation is tracked, cancelled and timed out like one started through executeComputation(),
+	 * the timeout being the one sent with the current request or carried by the package. A computation that fails results in a WorkPackageResult with the status FAILED.
+	 * @param workPackages	WorkPackages to be computed.
+	 * @param computation	Domain specific computation producing the WorkPackageResult for a WorkPackage.
+	 * @return List of the WorkPackageResults of the computations.
+	 */
+	protected List<WorkPackageResult> executeComputations(List<WorkPackage> workPackages, Function<WorkPackage, WorkPackageResult> computation) {
+		final List<Supplier<WorkPackageResult>> computations = new ArrayList<>(workPackages.size());
+		for(WorkPackage workPackage : workPackages) {
+			final long timeout = getRequestedTimeout(workPackage);
+			computations.add(() -> {
+				WorkPackageResult result;
+				try {
+					result = computeTracked(workPackage, computation, timeout).getBody();
+				}
+				catch(RuntimeException e) {
+					LOGGER.error("Computation of package " + workPackage.getId() + " failed", e);
+					result = null;
+				}
+				if(result == null) {
+					result = new WorkPackageResult(workPackage);
+					result.setStatus(Status.FAILED);
+				}
+				return result;
+			});
+		}
+
+		if(computationEngine == null) {
+			final List<WorkPackageResult> results = new ArrayList<>(computations.size());
+			for(Supplier<WorkPackageResult> supplier : computations) {
+				results.add(supplier.get());
+			}
+			return results;
+		}
+		return computationEngine.executeAll(computations);
+	}
+
+	/**
+	 * Runs the given domain specific computation for the given WorkPackage in the calling thread and keeps track of it while it is running, as described for
+	 * executeComputation(WorkPackage, Function).
+	 */
+	private ResponseEntity<WorkPackageResult> computeTracked(WorkPackage workPackage, Function<WorkPackage, WorkPackageResult> computation, long timeout) {
+		runningComputations.put(workPackage, Thread.currentThread());
+
+		ScheduledFuture<?> timeoutFuture = null;
+		if(timeout > 0) {
+			LOGGER.info("Computation of package {} has to finish within {} ms", workPackage.getId(), timeout);
+			timeoutFuture = timeoutScheduler.schedule(() -> interruptComputation(workPackage, timedOutComputations), timeout, TimeUnit.MILLISECONDS);
+		}
+
+		WorkPackageResult result = null;
+		RuntimeException exception = null;
+		boolean cancelled;
+		boolean timedOut;
+		try {
+			result = computation.apply(workPackage);
+		}
+		catch(RuntimeException e) {
+			exception = e;
+		}
+		finally {
+			if(timeoutFuture != null) {
+				timeoutFuture.cancel(false);
+			}
+			runningComputations.remove(workPackage);
+			unpinBlobs(workPackage);
+			cancelled = cancelledComputations.remove(workPackage);
+			timedOut = timedOutComputations.remove(workPackage);
+			// clear a possibly pending interrupt, as the thread is likely to be reused for other computations or requests
+			Thread.interrupted();
+		}
+
+		if(cancelled || timedOut) {
+			LOGGER.info("Computation of package {} was {}", workPackage.getId(), cancelled ? "cancelled" : "aborted after exceeding its timeout");
+			if(result == null) {
+				result = new WorkPackageResult(workPackage);
+			}
+			result.setStatus(cancelled ? Status.CANCELLED : Status.TIMED_OUT);
+		}
+		else if(exception != null) {
+			throw exception;
+		}
+
+		return ResponseEntity.ok(result);
+	}
+
+	/**
+	 * Returns the computation timeout in milliseconds sent by the controller with the current request, the one the given WorkPackage carries if it was not sent
+	 * with a request (but fetched) or zero if there is none.
+	 */
+	private long getRequestedTimeout(WorkPackage workPackage) {
+		final String header = getRequestHeader(ComputationHeaders.COMPUTATION_TIMEOUT);
+		if(header == null) {
+			return Math.max(0, workPackage.getComputationTimeout());
+		}
+		try {
+			return Long.parseLong(header.trim());
+		}
+		catch(NumberFormatException e) {
+			LOGGER.warn("Ignoring invalid computation timeout {}", header);
+			return 0;
+		}
+	}
+
+	/**
+	 * Returns the value of the header with the given name sent with the current request or null if there is no such header or no current request.
+	 */
+	private String getRequestHeader(String name) {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if(!(attributes instanceof ServletRequestAttributes)) {
+			return null;
+		}
+		return ((ServletRequestAttributes) attributes).getRequest().getHeader(name);
+	}
+
+	/**
+	 * Returns true if the computation of the given WorkPackage was asked to be cancelled or has exceeded its timeout while running, otherwise false.
+	 */
+	protected boolean isCancelled(WorkPackage workPackage) {
+		return cancelledComputations.contains(workPackage) || timedOutComputations.contains(workPackage);
+	}
+
+	/**
+	 * Signals the computation of the given WorkPackage to abort if it has been started through executeComputation() and is still running.
+	 * Returns true if a running computation was found and signalled, otherwise false.
+	 */
+	@Override
+	@PostMapping("/cancelComputation")
+	public ResponseEntity<Boolean> cancelComputation(@RequestBody WorkPackage workPackage) {
+		LOGGER.info("Received request to cancel computation of package {}", workPackage.getId());
+
+		final boolean found = interruptComputation(workPackage, cancelledComputations);
+
+		LOGGER.info("Computation of package {} {}", workPackage.getId(), found ? "signalled to abort" : "not running on this node");
+		return ResponseEntity.ok(found);
+	}
+
+	/**
+	 * Interrupts the thread computing the given WorkPackage if it is still running and adds the package to the given set of reasons for the abort.
+	 * Returns true if a running computation was found and signalled, otherwise false.
+	 */
+	private boolean interruptComputation(WorkPackage workPackage, Set<WorkPackage> abortReason) {
+		final boolean[] found = {false};
+		// computeIfPresent() makes sure we never interrupt a thread that has already finished this computation and moved on
+		runningComputations.computeIfPresent(workPackage, (WorkPackage wp, Thread thread) -> {
+			abortReason.add(wp);
+			thread.interrupt();
+			found[0] = true;
+			return thread;
+		});
+		return found[0];
+	}
+
 }
@@ -0,0 +1,61 @@
+package no.siriuslabs.computationapi.implementation;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servlet filter that keeps count of the requests this worker node is currently working on.<p>
+ * All requests are counted, regardless of the service being called, except for the status service that reports the count.
+ */
+@Component
+public class ActiveRequestFilter extends OncePerRequestFilter {
+
+	/**
+	 * Number of requests currently being processed.
+	 */
+	private final AtomicInteger activeRequests = new AtomicInteger();
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+		requestStarted();
+		try {
+			filterChain.doFilter(request, response);
+		}
+		finally {
+			requestFinished();
+		}
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return request.getRequestURI().endsWith(WorkerStatusController.STATUS_SERVICE_PATH);
+	}
+
+	/**
+	 * Counts a request as being processed. Used for requests not passing through this filter, like in-process calls, which have to call requestFinished() afterwards.
+	 */
+	void requestStarted() {
+		activeRequests.incrementAndGet();
+	}
+
+	/**
+	 * Counts a request started with requestStarted() as finished.
+	 */
+	void requestFinished() {
+		activeRequests.decrementAndGet();
+	}
+
+	/**
+	 * Returns the number of requests currently being processed.
+	 */
+	public int getActiveRequests() {
+		return activeRequests.get();
+	}
+}
@@ -0,0 +1,161 @@
+package no.siriuslabs.computationapi.implementation;
+
+import io.micrometer.core.instrument.Metrics;
+import no.siriuslabs.computationapi.api.artifact.ArtifactReference;
+import no.siriuslabs.computationapi.api.artifact.ArtifactTransfer;
+import no.siriuslabs.computationapi.api.http.PooledHttpClientFactory;
+import no.siriuslabs.computationapi.implementation.config.ConfigProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Channel for the binary artifacts of computation runs kept in the controller's artifact store, uploading large results and downloading them for accumulation.<p>
+ * Content is streamed between local files and the connection through FileChannel.transferTo() and transferFrom() and never buffered in memory, so artifacts
+ * of any size pass with constant memory. For that, the channel uses a RestTemplate of its own that streams request bodies and leaves bodies uncompressed,
+ * which also lets the controller hand downloads to the operating system's sendfile.<p>
+ * Computations put the references returned by uploads into their WorkPackageResults (see WorkPackageResult.artifacts) instead of the content.
+ */
+@Component
+public class ArtifactChannel {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactChannel.class);
+
+	/**
+	 * Path of the controller's artifact services, relative to the controller's URL.
+	 */
+	private static final String ARTIFACTS_PATH = "artifacts/";
+
+	/**
+	 * Spring configuration with contents of config file.
+	 */
+	private final ConfigProperties configProperties;
+	/**
+	 * RestTemplate streaming the artifacts.
+	 */
+	private final RestTemplate restTemplate;
+
+	/**
+	 * Autowired constructor, creating a streaming RestTemplate with a connection pool of its own, as configured for calls to the controller.
+	 */
+	@Autowired
+	public ArtifactChannel(ConfigProperties configProperties) {
+		this(configProperties, PooledHttpClientFactory.createStreamingRestTemplate(configProperties.getController(), Metrics.globalRegistry, "artifacts"));
+	}
+
+	/**
+	 * Constructor expecting the RestTemplate to stream the artifacts with.
+	 */
+	public ArtifactChannel(ConfigProperties configProperties, RestTemplate restTemplate) {
+		this.configProperties = configProperties;
+		this.restTemplate = restTemplate;
+	}
+
+	/**
+	 * Uploads the given file as a new artifact of the computation run with the given run-ID and returns its reference.
+	 * @throws org.springframework.web.client.RestClientException if the artifact could not be uploaded.
+	 * @throws UncheckedIOException if the file could not be read or the controller stored a different number of bytes.
+	 */
+	public ArtifactReference upload(long runId, Path file) {
+		final long start = System.currentTimeMillis();
+		try {
+			final long size = Files.size(file);
+			final ResponseEntity<ArtifactReference> response = restTemplate.execute(createArtifactsUri(Long.toString(runId)), HttpMethod.POST, (request) -> {
+				request.getHeaders().setContentType(MediaType.APPLICATION_OCTET_STREAM);
+				request.getHeaders().setContentLength(size);
+				if(request instanceof StreamingHttpOutputMessage) {
+					((StreamingHttpOutputMessage) request).setBody((OutputStream out) -> transfer(file, out));
+				}
+				else {
+					transfer(file, request.getBody());
+				}
+			}, restTemplate.responseEntityExtractor(ArtifactReference.class));
+
+			final ArtifactReference reference = response == null ? null : response.getBody();
+			if(reference == null || reference.getSize() != size) {
+				throw new IOException("Controller stored " + (reference == null ? "nothing" : reference.getSize() + " bytes") + " of " + size + " bytes");
+			}
+			LOGGER.info("Uploaded artifact {} of run {} ({} bytes) in {} ms", reference.getId(), runId, size, System.currentTimeMillis() - start);
+			return reference;
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException("Artifact " + file + " could not be uploaded", e);
+		}
+	}
+
+	/**
+	 * Downloads the referenced artifact into the given file, replacing its content, and returns the file.
+	 * @throws org.springframework.web.client.RestClientException if the artifact could not be downloaded or written, e.g. HttpClientErrorException if the controller
+	 * does not know it.
+	 * @throws UncheckedIOException if the download was incomplete.
+	 */
+	public Path download(ArtifactReference reference, Path target) {
+		final long start = System.currentTimeMillis();
+		final Long size = restTemplate.execute(createArtifactUri(reference), HttpMethod.GET, null, (response) -> {
+			try(FileChannel file = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				return ArtifactTransfer.transferFrom(Channels.newChannel(response.getBody()), file);
+			}
+		});
+		if(size == null || size != reference.getSize()) {
+			throw new UncheckedIOException(new IOException("Downloaded " + size + " of " + reference.getSize() + " bytes of " + reference));
+		}
+		LOGGER.info("Downloaded artifact {} of run {} ({} bytes) in {} ms", reference.getId(), reference.getRunId(), size, System.currentTimeMillis() - start);
+		return target;
+	}
+
+	/**
+	 * Streams the referenced artifact into the given reader and returns what it returns. The stream is only valid while the reader runs.
+	 * @throws org.springframework.web.client.RestClientException if the artifact could not be downloaded or read, e.g. HttpClientErrorException if the controller
+	 * does not know it or ResourceAccessException if the reader failed.
+	 */
+	public <T> T read(ArtifactReference reference, ArtifactReader<T> reader) {
+		return restTemplate.execute(createArtifactUri(reference), HttpMethod.GET, null, (response) -> reader.read(response.getBody()));
+	}
+
+	private static void transfer(Path file, OutputStream out) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ArtifactTransfer.transferTo(channel, 0, Channels.newChannel(out));
+		}
+	}
+
+	private URI createArtifactUri(ArtifactReference reference) {
+		if(!ArtifactTransfer.isValidId(reference.getId())) {
+			throw new IllegalArgumentException("Invalid artifact ID " + reference.getId());
+		}
+		return createArtifactsUri(reference.getRunId() + "/" + reference.getId());
+	}
+
+	private URI createArtifactsUri(String subPath) {
+		return URI.create(AbstractImplementationApplication.getControllerUrl(configProperties) + ARTIFACTS_PATH + subPath);
+	}
+
+	/**
+	 * Reader of the content of an artifact.
+	 */
+	@FunctionalInterface
+	public interface ArtifactReader<T> {
+
+		/**
+		 * Reads the given content of an artifact and returns the result.
+		 */
+		T read(InputStream content) throws IOException;
+	}
+
+}
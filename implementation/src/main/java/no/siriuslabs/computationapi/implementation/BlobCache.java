@@ -0,0 +1,355 @@
+package no.siriuslabs.computationapi.implementation;
+
+import io.micrometer.core.instrument.Metrics;
+import no.siriuslabs.computationapi.api.blob.BlobHash;
+import no.siriuslabs.computationapi.api.http.PooledHttpClientFactory;
+import no.siriuslabs.computationapi.implementation.config.ConfigProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local cache of the blobs in the controller's blob store that the WorkPackages computed by this worker node reference (see WorkPackage.blobs).<p>
+ * A blob is fetched from the controller the first time it is asked for and then kept in the configured directory (config.node.blobCacheDirectory), so every blob crosses
+ * the network once per node instead of once per WorkPackage. Fetched content is verified against its hash. Concurrent requests of a blob not cached yet fetch it once.<p>
+ * The cached blobs may take up the configured disk space (config.node.blobCacheSize); beyond it the least recently used blobs are deleted. A blob returned by getBlob()
+ * can therefore be deleted once other blobs are fetched. Blobs returned by pinBlob() are kept until they are unpinned again, even if the cache exceeds its size meanwhile,
+ * so that computations running in parallel cannot delete each other's blobs. Blobs cached by an earlier run of the node are kept.<p>
+ * Blobs are streamed from and to the controller through a RestTemplate of their own, which neither buffers nor compresses them.
+ */
+@Component
+public class BlobCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BlobCache.class);
+
+	/**
+	 * Path of the controller's blob services, relative to the controller's URL.
+	 */
+	private static final String BLOBS_PATH = "blobs";
+	/**
+	 * Suffix of files being fetched or stored, which do not belong to the cache yet.
+	 */
+	private static final String TEMPORARY_SUFFIX = ".tmp";
+
+	/**
+	 * Spring configuration with contents of config file.
+	 */
+	private final ConfigProperties configProperties;
+	/**
+	 * RestTemplate streaming the blobs.
+	 */
+	private final RestTemplate restTemplate;
+	/**
+	 * Directory the blobs are cached in, named by their hashes.
+	 */
+	private final Path directory;
+	/**
+	 * Maximum number of bytes the cached blobs may take up.
+	 */
+	private final long maxSize;
+
+	/**
+	 * Sizes of the cached blobs by their hashes, least recently used first. Guards itself and cachedSize.
+	 */
+	private final LinkedHashMap<String, Long> cachedBlobs = new LinkedHashMap<>(16, 0.75f, true);
+	/**
+	 * Number of bytes the cached blobs take up.
+	 */
+	private long cachedSize;
+	/**
+	 * Number of times the blobs in use are pinned by their hashes. Guarded by cachedBlobs.
+	 */
+	private final Map<String, Integer> pinnedBlobs = new HashMap<>();
+
+	/**
+	 * Locks of the blobs currently being fetched by their hashes, so that each blob is fetched once.
+	 */
+	private final ConcurrentHashMap<String, Object> fetchLocks = new ConcurrentHashMap<>();
+
+	/**
+	 * Autowired constructor, creating a streaming RestTemplate with a connection pool of its own, as configured for calls to the controller.
+	 * Indexes the blobs already in the cache directory.
+	 * @throws IOException if the cache directory could not be created or read.
+	 */
+	@Autowired
+	public BlobCache(ConfigProperties configProperties) throws IOException {
+		this(configProperties, PooledHttpClientFactory.createStreamingRestTemplate(configProperties.getController(), Metrics.globalRegistry, "blobs"));
+	}
+
+	/**
+	 * Constructor expecting the RestTemplate to stream the blobs with. Indexes the blobs already in the cache directory.
+	 * @throws IOException if the cache directory could not be created or read.
+	 */
+	public BlobCache(ConfigProperties configProperties, RestTemplate restTemplate) throws IOException {
+		this.configProperties = configProperties;
+		this.restTemplate = restTemplate;
+		this.directory = Files.createDirectories(Paths.get(configProperties.getNode().getBlobCacheDirectory()).toAbsolutePath());
+		this.maxSize = configProperties.getNode().getBlobCacheSize();
+		loadCachedBlobs();
+	}
+
+	/**
+	 * Returns the file of the blob with the given hash, fetching it from the controller first if it is not cached yet. The file may be deleted
+	 * once other blobs are fetched, use pinBlob() to keep it.
+	 * @throws IllegalArgumentException if the given hash is not a valid hash.
+	 * @throws org.springframework.web.client.RestClientException if the blob could not be fetched, e.g. HttpClientErrorException if the controller does not know it.
+	 * @throws UncheckedIOException if the blob could not be cached or its content did not match its hash.
+	 */
+	public Path getBlob(String hash) {
+		return getBlob(hash, false);
+	}
+
+	/**
+	 * Returns the file of the blob with the given hash like getBlob() and pins it, so that it is not deleted from the cache until unpinBlob() has been called
+	 * as many times as it was pinned.
+	 * @throws IllegalArgumentException if the given hash is not a valid hash.
+	 * @throws org.springframework.web.client.RestClientException if the blob could not be fetched, e.g. HttpClientErrorException if the controller does not know it.
+	 * @throws UncheckedIOException if the blob could not be cached or its content did not match its hash.
+	 */
+	public Path pinBlob(String hash) {
+		return getBlob(hash, true);
+	}
+
+	/**
+	 * Releases a pin of the blob with the given hash taken by pinBlob(). Once the blob is not pinned anymore, it may be deleted should the cache exceed its size.
+	 */
+	public void unpinBlob(String hash) {
+		synchronized(cachedBlobs) {
+			if(pinnedBlobs.computeIfPresent(hash, (String key, Integer pins) -> pins > 1 ? pins - 1 : null) == null) {
+				evict(null);
+			}
+		}
+	}
+
+	/**
+	 * Returns the file of the blob with the given hash, fetching it from the controller first if it is not cached yet, and pins it if requested.
+	 */
+	private Path getBlob(String hash, boolean pin) {
+		if(!BlobHash.isValid(hash)) {
+			throw new IllegalArgumentException("Invalid blob hash " + hash);
+		}
+
+		Path blobFile = lookup(hash, pin);
+		if(blobFile != null) {
+			return blobFile;
+		}
+
+		final Object lock = fetchLocks.computeIfAbsent(hash, (String key) -> new Object());
+		synchronized(lock) {
+			try {
+				// fetched while waiting for the lock?
+				blobFile = lookup(hash, pin);
+				return blobFile != null ? blobFile : fetch(hash, pin);
+			}
+			catch(IOException e) {
+				throw new UncheckedIOException("Blob " + hash + " could not be cached", e);
+			}
+			finally {
+				fetchLocks.remove(hash, lock);
+			}
+		}
+	}
+
+	/**
+	 * Stores the content of the given stream (without closing it) in the controller's blob store and returns its hash, by which WorkPackages can reference it.
+	 * The blob is cached right away, so this node does not need to fetch it.
+	 * @throws org.springframework.web.client.RestClientException if the blob could not be stored.
+	 * @throws UncheckedIOException if the content could not be read or the controller replied a different hash.
+	 */
+	public String putBlob(InputStream content) {
+		try {
+			final Path temporaryFile = Files.createTempFile(directory, "upload", TEMPORARY_SUFFIX);
+			try {
+				final String hash;
+				try(OutputStream out = Files.newOutputStream(temporaryFile)) {
+					hash = BlobHash.copy(content, out);
+				}
+
+				final String storedHash = restTemplate.execute(createBlobsUri(""), HttpMethod.POST, (request) -> {
+					request.getHeaders().setContentType(MediaType.APPLICATION_OCTET_STREAM);
+					Files.copy(temporaryFile, request.getBody());
+				}, (response) -> StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8));
+				if(storedHash == null || !hash.equals(storedHash.trim())) {
+					throw new IOException("Controller stored blob " + hash + " as " + storedHash);
+				}
+				LOGGER.info("Stored blob {} ({} bytes)", hash, Files.size(temporaryFile));
+
+				if(lookup(hash, false) == null) {
+					add(hash, temporaryFile, false);
+				}
+				return hash;
+			}
+			finally {
+				Files.deleteIfExists(temporaryFile);
+			}
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException("Blob could not be stored", e);
+		}
+	}
+
+	/**
+	 * Returns true if the blob with the given hash is cached, otherwise false. Does not count as use of the blob.
+	 */
+	public boolean isCached(String hash) {
+		synchronized(cachedBlobs) {
+			return cachedBlobs.containsKey(hash);
+		}
+	}
+
+	/**
+	 * Returns the number of bytes the cached blobs take up.
+	 */
+	public long getCachedSize() {
+		synchronized(cachedBlobs) {
+			return cachedSize;
+		}
+	}
+
+	/**
+	 * Returns the file of the cached blob with the given hash, marking it as most recently used and pinning it if requested, or null if the blob is not cached.
+	 */
+	private Path lookup(String hash, boolean pin) {
+		final Path blobFile = directory.resolve(hash);
+		synchronized(cachedBlobs) {
+			final Long size = cachedBlobs.get(hash);
+			if(size == null) {
+				return null;
+			}
+			if(!Files.isRegularFile(blobFile)) {
+				LOGGER.warn("Cached blob {} was deleted from {}", hash, directory);
+				cachedBlobs.remove(hash);
+				cachedSize -= size;
+				return null;
+			}
+			if(pin) {
+				pinnedBlobs.merge(hash, 1, Integer::sum);
+			}
+			return blobFile;
+		}
+	}
+
+	/**
+	 * Fetches the blob with the given hash from the controller, verifies its content and adds it to the cache, pinned if requested. Returns its file.
+	 */
+	private Path fetch(String hash, boolean pin) throws IOException {
+		final long start = System.currentTimeMillis();
+		final Path temporaryFile = Files.createTempFile(directory, hash, TEMPORARY_SUFFIX);
+		try {
+			final String fetchedHash = restTemplate.execute(createBlobsUri('/' + hash), HttpMethod.GET, null, (response) -> {
+				try(OutputStream out = Files.newOutputStream(temporaryFile)) {
+					return BlobHash.copy(response.getBody(), out);
+				}
+			});
+			if(!hash.equals(fetchedHash)) {
+				throw new IOException("Content of blob " + hash + " has hash " + fetchedHash);
+			}
+			LOGGER.info("Fetched blob {} ({} bytes) in {} ms", hash, Files.size(temporaryFile), System.currentTimeMillis() - start);
+			return add(hash, temporaryFile, pin);
+		}
+		finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	/**
+	 * Moves the given file into the cache as the blob with the given hash, pinned if requested, and deletes the least recently used blobs, should the cache exceed its size.
+	 * Returns the blob's file.
+	 */
+	private Path add(String hash, Path file, boolean pin) throws IOException {
+		final long size = Files.size(file);
+		final Path blobFile = directory.resolve(hash);
+		Files.move(file, blobFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		synchronized(cachedBlobs) {
+			final Long replacedSize = cachedBlobs.put(hash, size);
+			cachedSize += size - (replacedSize == null ? 0 : replacedSize);
+			if(pin) {
+				pinnedBlobs.merge(hash, 1, Integer::sum);
+			}
+			evict(hash);
+		}
+		return blobFile;
+	}
+
+	/**
+	 * Deletes the least recently used blobs, except the one with the given hash and the pinned ones, until the cached blobs fit into the configured size.
+	 * Must hold the lock of cachedBlobs.
+	 */
+	private void evict(String keptHash) {
+		final Iterator<Map.Entry<String, Long>> iterator = cachedBlobs.entrySet().iterator();
+		while(cachedSize > maxSize && iterator.hasNext()) {
+			final Map.Entry<String, Long> entry = iterator.next();
+			if(entry.getKey().equals(keptHash) || pinnedBlobs.containsKey(entry.getKey())) {
+				continue;
+			}
+			iterator.remove();
+			cachedSize -= entry.getValue();
+			try {
+				Files.deleteIfExists(directory.resolve(entry.getKey()));
+				LOGGER.info("Evicted blob {} ({} bytes) from cache", entry.getKey(), entry.getValue());
+			}
+			catch(IOException e) {
+				LOGGER.warn("Evicted blob {} could not be deleted: {}", entry.getKey(), e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Indexes the blobs left in the cache directory by an earlier run, least recently modified first, and deletes files left over by interrupted fetches.
+	 */
+	private void loadCachedBlobs() throws IOException {
+		final List<Path> blobFiles = new ArrayList<>();
+		try(DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for(Path file : files) {
+				final String name = file.getFileName().toString();
+				if(name.endsWith(TEMPORARY_SUFFIX)) {
+					Files.deleteIfExists(file);
+				}
+				else if(BlobHash.isValid(name) && Files.isRegularFile(file)) {
+					blobFiles.add(file);
+				}
+			}
+		}
+		blobFiles.sort(Comparator.comparingLong((Path file) -> file.toFile().lastModified()));
+
+		synchronized(cachedBlobs) {
+			for(Path file : blobFiles) {
+				final long size = Files.size(file);
+				cachedBlobs.put(file.getFileName().toString(), size);
+				cachedSize += size;
+			}
+			evict(null);
+		}
+		LOGGER.info("Blob cache in {} contains {} blobs ({} of at most {} bytes)", directory, cachedBlobs.size(), cachedSize, maxSize);
+	}
+
+	private URI createBlobsUri(String subPath) {
+		return URI.create(AbstractImplementationApplication.getControllerUrl(configProperties) + BLOBS_PATH + subPath);
+	}
+
+}
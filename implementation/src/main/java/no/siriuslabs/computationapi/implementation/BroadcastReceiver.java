@@ -0,0 +1,144 @@
+package no.siriuslabs.computationapi.implementation;
+
+import no.siriuslabs.computationapi.api.model.computation.Broadcast;
+import no.siriuslabs.computationapi.api.model.computation.RunBroadcast;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.implementation.config.ConfigProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rest controller receiving the broadcast data of computation runs and handing it to the computations of their WorkPackages. It needs no domain specific code.<p>
+ * The controller sends a run's broadcast data before the first WorkPackage of the run it sends to this node. A WorkPackage of a run whose data has not been
+ * received (e.g. fetched by a pulling node) makes the node fetch the data from the controller the first time it is used. The data of the most recently used runs
+ * is kept, up to the configured number of runs (config.node.broadcastRuns).<p>
+ * Every WorkPackage computed on the node gets a handle to its run's data attached (see attachTo()), which looks the data up only when it is used.
+ */
+@RestController
+public class BroadcastReceiver {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BroadcastReceiver.class);
+
+	/**
+	 * Relative path of the service receiving broadcast data.
+	 */
+	public static final String RECEIVE_BROADCAST_PATH = "/receiveBroadcast";
+	/**
+	 * Path of the controller's broadcast service, relative to the controller's URL and without the run-ID.
+	 */
+	private static final String BROADCAST_PATH = "broadcast/";
+
+	/**
+	 * Spring configuration with contents of config file.
+	 */
+	private final ConfigProperties configProperties;
+	/**
+	 * Spring RestTemplate to execute Rest communication.
+	 */
+	private final RestTemplate restTemplate;
+
+	/**
+	 * Broadcast data of the most recently used runs by their run-IDs, least recently used first. Guards itself.
+	 */
+	private final LinkedHashMap<Long, Map<String, Object>> broadcasts = new LinkedHashMap<>(16, 0.75f, true);
+	/**
+	 * Locks of the runs whose data is currently being fetched by their run-IDs, so that the data of a run is fetched once.
+	 */
+	private final ConcurrentHashMap<Long, Object> fetchLocks = new ConcurrentHashMap<>();
+
+	/**
+	 * Autowired constructor expecting the RestTemplate shared by all calls to the controller.
+	 */
+	@Autowired
+	public BroadcastReceiver(ConfigProperties configProperties, RestTemplate restTemplate) {
+		this.configProperties = configProperties;
+		this.restTemplate = restTemplate;
+	}
+
+	/**
+	 * Keeps the given broadcast data of a computation run for the run's WorkPackages. Returns true.
+	 */
+	@PostMapping(RECEIVE_BROADCAST_PATH)
+	public ResponseEntity<Boolean> receiveBroadcast(@RequestBody RunBroadcast broadcast) {
+		LOGGER.info("Received {}", broadcast);
+		keep(broadcast.getRunId(), broadcast.getData());
+		return ResponseEntity.ok(true);
+	}
+
+	/**
+	 * Attaches a handle to the broadcast data of its computation run to the given WorkPackage.
+	 */
+	public void attachTo(WorkPackage workPackage) {
+		final long runId = workPackage.getRunId();
+		workPackage.setBroadcast(() -> getBroadcast(runId));
+	}
+
+	/**
+	 * Returns the broadcast data of the computation run with the given run-ID, fetching it from the controller if it has not been received.
+	 * Returns an empty map if the run has no broadcast data.
+	 * @throws org.springframework.web.client.RestClientException if the data could not be fetched.
+	 */
+	public Map<String, Object> getBroadcast(long runId) {
+		Map<String, Object> data = lookup(runId);
+		if(data != null) {
+			return data;
+		}
+
+		final Object lock = fetchLocks.computeIfAbsent(runId, (Long key) -> new Object());
+		synchronized(lock) {
+			try {
+				// fetched or received while waiting for the lock?
+				data = lookup(runId);
+				return data != null ? data : fetch(runId);
+			}
+			finally {
+				fetchLocks.remove(runId, lock);
+			}
+		}
+	}
+
+	private Map<String, Object> lookup(long runId) {
+		synchronized(broadcasts) {
+			return broadcasts.get(runId);
+		}
+	}
+
+	/**
+	 * Fetches the broadcast data of the computation run with the given run-ID from the controller, keeps and returns it.
+	 */
+	private Map<String, Object> fetch(long runId) {
+		final URI uri = URI.create(AbstractImplementationApplication.getControllerUrl(configProperties) + BROADCAST_PATH + runId);
+		LOGGER.info("Fetching broadcast data of run {} @ {}", runId, uri);
+		final RunBroadcast broadcast = restTemplate.getForObject(uri, RunBroadcast.class);
+		return keep(runId, broadcast == null ? null : broadcast.getData());
+	}
+
+	/**
+	 * Keeps the given broadcast data of the computation run with the given run-ID, dropping the least recently used runs beyond the configured number. Returns the kept data.
+	 */
+	private Map<String, Object> keep(long runId, Map<String, Object> data) {
+		final Map<String, Object> kept = data == null ? Collections.emptyMap() : Collections.unmodifiableMap(data);
+		synchronized(broadcasts) {
+			broadcasts.put(runId, kept);
+			while(broadcasts.size() > Math.max(1, configProperties.getNode().getBroadcastRuns())) {
+				final Long eldest = broadcasts.keySet().iterator().next();
+				broadcasts.remove(eldest);
+				LOGGER.info("Dropped broadcast data of run {}", eldest);
+			}
+		}
+		return kept;
+	}
+
+}
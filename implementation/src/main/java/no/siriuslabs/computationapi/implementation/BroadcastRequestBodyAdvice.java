@@ -0,0 +1,44 @@
+package no.siriuslabs.computationapi.implementation;
+
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Advice attaching a handle to the broadcast data of their computation run to the WorkPackages arriving in request bodies of the node's services,
+ * so that the implementation's runComputation-service finds it through WorkPackage.getBroadcast().
+ */
+@ControllerAdvice
+public class BroadcastRequestBodyAdvice extends RequestBodyAdviceAdapter {
+
+	/**
+	 * The node's receiver of broadcast data.
+	 */
+	private final BroadcastReceiver broadcastReceiver;
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public BroadcastRequestBodyAdvice(BroadcastReceiver broadcastReceiver) {
+		this.broadcastReceiver = broadcastReceiver;
+	}
+
+	@Override
+	public boolean supports(MethodParameter methodParameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return WorkPackage.class.equals(targetType);
+	}
+
+	@Override
+	public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+		broadcastReceiver.attachTo((WorkPackage) body);
+		return body;
+	}
+
+}
@@ -0,0 +1,197 @@
+package no.siriuslabs.computationapi.implementation;
+
+import no.siriuslabs.computationapi.implementation.config.ConfigProperties;
+import no.siriuslabs.computationapi.implementation.config.Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Engine running the computations of this worker node on a work-stealing pool with a configured number of threads (config.node.parallelism).<p>
+ * Every request computing a WorkPackage hands its computation to the engine and waits for it, so that the requests arriving concurrently share the node's cores
+ * instead of each computing on its own request thread. Computations beyond the parallelism wait for a free thread. Subtasks forked by a computation
+ * (e.g. RecursiveTasks or parallel streams) run on the engine's threads as well, where idle threads steal them from busy ones.<p>
+ * The engine's capacity (its parallelism) and occupancy (computations accepted and not finished yet) are reported to the controller on registration and with every heartbeat.
+ */
+@Component
+public class ComputationEngine {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ComputationEngine.class);
+
+	/**
+	 * Number of computations run in parallel.
+	 */
+	private final int capacity;
+	/**
+	 * Work-stealing pool running the computations.
+	 */
+	private final ForkJoinPool pool;
+	/**
+	 * Number of computations accepted and not finished yet.
+	 */
+	private final AtomicInteger occupancy = new AtomicInteger();
+
+	/**
+	 * Autowired constructor taking the parallelism from the configuration.
+	 */
+	@Autowired
+	public ComputationEngine(ConfigProperties configProperties) {
+		this(getParallelism(configProperties.getNode()));
+	}
+
+	/**
+	 * Constructor accepting the number of computations to run in parallel.
+	 */
+	public ComputationEngine(int parallelism) {
+		capacity = Math.max(1, parallelism);
+		final AtomicInteger threadCounter = new AtomicInteger();
+		pool = new ForkJoinPool(capacity, (ForkJoinPool forkJoinPool) -> {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+			thread.setName("computation-engine-" + threadCounter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}, null, false);
+		LOGGER.info("Computation engine runs {} computations in parallel", capacity);
+	}
+
+	/**
+	 * Returns the number of computations a node with the given configuration runs in parallel: the configured parallelism or the number of available processors
+	 * if none is configured.
+	 */
+	public static int getParallelism(Node nodeConfig) {
+		return nodeConfig.getParallelism() > 0 ? nodeConfig.getParallelism() : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Returns the number of computations run in parallel.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of computations accepted and not finished yet, whether running or waiting for a free thread.
+	 */
+	public int getOccupancy() {
+		return occupancy.get();
+	}
+
+	/**
+	 * Runs the given computation on the engine, waits for it to finish and returns its result. Exceptions thrown by the computation are rethrown as they are.<p>
+	 * A computation started from within another computation of the engine is run right away in the calling thread, so that it neither waits for a free thread
+	 * held by its caller nor counts twice.
+	 * @throws IllegalStateException if the calling thread is interrupted while waiting. The computation keeps running in that case.
+	 */
+	public <T> T execute(Supplier<T> computation) {
+		if(isEngineThread()) {
+			return computation.get();
+		}
+		return await(submit(computation));
+	}
+
+	/**
+	 * Runs the given batch of computations on the engine in parallel, waits for all of them to finish and returns their results in the order of the computations.
+	 * Should any computation throw an exception, the first one in the order of the computations is rethrown once all have finished.
+	 * @throws IllegalStateException if the calling thread is interrupted while waiting. The computations keep running in that case.
+	 */
+	public <T> List<T> executeAll(List<? extends Supplier<T>> computations) {
+		final List<CompletableFuture<T>> futures = new ArrayList<>(computations.size());
+		for(Supplier<T> computation : computations) {
+			futures.add(submit(computation));
+		}
+
+		final List<T> results = new ArrayList<>(futures.size());
+		RuntimeException failure = null;
+		for(CompletableFuture<T> future : futures) {
+			try {
+				results.add(await(future));
+			}
+			catch(IllegalStateException e) {
+				if(Thread.currentThread().isInterrupted()) {
+					throw e;
+				}
+				failure = failure == null ? e : failure;
+			}
+			catch(RuntimeException e) {
+				failure = failure == null ? e : failure;
+			}
+		}
+		if(failure != null) {
+			throw failure;
+		}
+		return results;
+	}
+
+	/**
+	 * Stops the engine's threads once the computations accepted have finished.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Hands the given computation to the pool and returns its future. The computation counts towards the occupancy until it has finished.
+	 */
+	private <T> CompletableFuture<T> submit(Supplier<T> computation) {
+		occupancy.incrementAndGet();
+		try {
+			return CompletableFuture.supplyAsync(() -> {
+				try {
+					return computation.get();
+				}
+				finally {
+					occupancy.decrementAndGet();
+				}
+			}, pool);
+		}
+		catch(RuntimeException e) {
+			// rejected by a pool shutting down
+			occupancy.decrementAndGet();
+			throw e;
+		}
+	}
+
+	/**
+	 * Waits for the given future and returns its result, rethrowing the exception thrown by its computation.
+	 */
+	private static <T> T await(CompletableFuture<T> future) {
+		try {
+			return future.get();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a computation", e);
+		}
+		catch(ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if(cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if(cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * Returns true if the calling thread is one of the engine's threads, otherwise false.
+	 */
+	private boolean isEngineThread() {
+		final Thread thread = Thread.currentThread();
+		return thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == pool;
+	}
+
+}
@@ -13,6 +13,7 @@ import java.util.List;
 /**
  * Interface specifying the API methods a worker node (Rest-)controller has to implement.
  * These methods basically show the four phases of a computation run: validate, prepare, compute and collect results.
+ * Additionally a running computation can be cancelled.
  */
 public interface ImplementationController {
 
@@ -31,6 +32,12 @@ public interface ImplementationController {
 	 */
 	ResponseEntity<WorkPackageResult> runComputation(WorkPackage workPackage);
 
+	/**
+	 * Signals the computation of the given WorkPackage to abort if it is currently running on this worker node.
+	 * Returns true if a running computation was found and signalled, otherwise false.
+	 */
+	ResponseEntity<Boolean> cancelComputation(WorkPackage workPackage);
+
 	/**
 	 * Accumulates all the data from the given ResultsProtocol in a domain specific way and returns a matching ComputationResult to end this computation run.
 	 */
@@ -0,0 +1,138 @@
+package no.siriuslabs.computationapi.implementation;
+
+import no.siriuslabs.computationapi.api.transport.NodeCall;
+import no.siriuslabs.computationapi.api.transport.NodeTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+import javax.annotation.PreDestroy;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * NodeTransport calling the ImplementationController of a worker node running in the same JVM as the controller directly, without any serialization.<p>
+ * Only available if the node is configured with config.node.inProcess=true, in which case the node registers itself with an URI of the scheme "inproc".
+ * The controller picks this transport up like any other Spring bean, as long as the application context contains both the controller and the node.<p>
+ * The request bodies are handed to the node's services as they are and the objects returned are passed back as reply bodies, so both sides must not change
+ * them afterwards. The services are called through the NodeServiceDispatcher, so the node always replies with its result. A call limited by a reply timeout
+ * runs in a separate thread, the controller's thread gives up on it like on an HTTP read timeout.
+ */
+@Component
+@ConditionalOnProperty(prefix = "config.node", name = "in-process", havingValue = "true")
+public class InProcessNodeTransport implements NodeTransport {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(InProcessNodeTransport.class);
+
+	/**
+	 * URI scheme of nodes called in-process.
+	 */
+	public static final String SCHEME = "inproc";
+
+	/**
+	 * Dispatcher calling the node's services.
+	 */
+	private final NodeServiceDispatcher dispatcher;
+
+	/**
+	 * Threads running the calls limited by a reply timeout.
+	 */
+	private final ExecutorService timedCalls = Executors.newCachedThreadPool((Runnable runnable) -> {
+		Thread thread = new Thread(runnable, "in-process-call");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public InProcessNodeTransport(NodeServiceDispatcher dispatcher) {
+		this.dispatcher = dispatcher;
+	}
+
+	@Override
+	public boolean supports(URI nodeUri) {
+		return SCHEME.equalsIgnoreCase(nodeUri.getScheme());
+	}
+
+	@Override
+	public <T> ResponseEntity<T> call(URI nodeUri, NodeCall call, Class<T> responseType) {
+		LOGGER.debug("Calling {} in-process on {}", call.getServicePath(), nodeUri);
+
+		final ResponseEntity<?> response = call.getReplyTimeout() > 0 ? dispatchWithTimeout(call) : dispatch(call);
+		if(response.getStatusCode().isError()) {
+			throw response.getStatusCode().is4xxClientError() ? new HttpClientErrorException(response.getStatusCode()) : new HttpServerErrorException(response.getStatusCode());
+		}
+
+		final Object body = response.getBody();
+		if(body != null && responseType != Object.class && !responseType.isInstance(body)) {
+			throw new RestClientException("Reply of " + call.getServicePath() + " is a " + body.getClass().getName() + ", not a " + responseType.getName());
+		}
+		return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders()).body(responseType.cast(body));
+	}
+
+	/**
+	 * Dispatches the given NodeCall in a separate thread and waits for its reply for the call's reply timeout at most.
+	 * @throws ResourceAccessException caused by a SocketTimeoutException if there was no reply in time.
+	 */
+	private ResponseEntity<?> dispatchWithTimeout(NodeCall call) {
+		final Future<ResponseEntity<?>> future = timedCalls.submit(() -> dispatch(call));
+		try {
+			return future.get(call.getReplyTimeout(), TimeUnit.MILLISECONDS);
+		}
+		catch(TimeoutException e) {
+			future.cancel(true);
+			throw new ResourceAccessException("No reply of " + call.getServicePath() + " within " + call.getReplyTimeout() + " ms",
+					new SocketTimeoutException("Reply timeout of " + call.getReplyTimeout() + " ms exceeded"));
+		}
+		catch(InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new ResourceAccessException("Interrupted while waiting for the reply of " + call.getServicePath());
+		}
+		catch(ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RestClientException("In-process call of " + call.getServicePath() + " failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Calls the node's service matching the given NodeCall and returns its reply. Failures of the service are thrown as RestClientException.
+	 */
+	private ResponseEntity<?> dispatch(NodeCall call) {
+		try {
+			return dispatcher.dispatch(call.getServicePath(), call.getBody(), call.getTimeout());
+		}
+		catch(RestClientException e) {
+			throw e;
+		}
+		catch(RuntimeException e) {
+			throw new RestClientException("In-process call of " + call.getServicePath() + " failed: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Stops the threads running calls limited by a reply timeout.
+	 */
+	@PreDestroy
+	public void destroy() {
+		timedCalls.shutdownNow();
+	}
+
+}
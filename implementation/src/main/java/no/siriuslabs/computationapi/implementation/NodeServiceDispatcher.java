@@ -0,0 +1,120 @@
+package no.siriuslabs.computationapi.implementation;
+
+import no.siriuslabs.computationapi.api.model.computation.ResultsProtocol;
+import no.siriuslabs.computationapi.api.model.computation.RunBroadcast;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.api.model.request.ComputationRequest;
+import no.siriuslabs.computationapi.api.model.request.Payload;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Spring component calling the worker node service with a given path directly, for node transports that do not go through the servlet container.<p>
+ * Calls are counted as active requests of the node, so that they show up in its WorkerState. As there are no headers, a computation timeout is passed as the
+ * WorkPackage's own timeout and no result callback is offered, so the node always replies with its result. WorkPackages to be computed get a handle to the broadcast
+ * data of their run attached, like those sent over HTTP.
+ */
+@Component
+public class NodeServiceDispatcher {
+
+	public static final String VALIDATE_DATA_PATH = "/validateData";
+	public static final String PREPARE_DATA_PATH = "/prepareAndPackageData";
+	public static final String RUN_COMPUTATION_PATH = "/runComputation";
+	public static final String CANCEL_COMPUTATION_PATH = "/cancelComputation";
+	public static final String ACCUMULATE_RESULTS_PATH = "/accumulateResults";
+
+	/**
+	 * The node's ImplementationController offering its domain specific services.
+	 */
+	private final ImplementationController implementationController;
+	/**
+	 * The node's status service.
+	 */
+	private final WorkerStatusController workerStatusController;
+	/**
+	 * Filter counting the requests the node is currently working on.
+	 */
+	private final ActiveRequestFilter activeRequestFilter;
+	/**
+	 * The node's receiver of broadcast data.
+	 */
+	private final BroadcastReceiver broadcastReceiver;
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public NodeServiceDispatcher(ImplementationController implementationController, WorkerStatusController workerStatusController, ActiveRequestFilter activeRequestFilter,
+								 BroadcastReceiver broadcastReceiver) {
+		this.implementationController = implementationController;
+		this.workerStatusController = workerStatusController;
+		this.activeRequestFilter = activeRequestFilter;
+		this.broadcastReceiver = broadcastReceiver;
+	}
+
+	/**
+	 * Returns the type of the request body expected by the service with the given path or null if the service expects no body.
+	 * @throws HttpClientErrorException with HttpStatus 404 if there is no such service.
+	 */
+	public Class<?> getRequestType(String servicePath) {
+		switch(servicePath) {
+			case VALIDATE_DATA_PATH:
+				return Payload.class;
+			case PREPARE_DATA_PATH:
+				return ComputationRequest.class;
+			case RUN_COMPUTATION_PATH:
+			case CANCEL_COMPUTATION_PATH:
+				return WorkPackage.class;
+			case ACCUMULATE_RESULTS_PATH:
+				return ResultsProtocol.class;
+			case BroadcastReceiver.RECEIVE_BROADCAST_PATH:
+				return RunBroadcast.class;
+			case WorkerStatusController.STATUS_SERVICE_PATH:
+				return null;
+			default:
+				throw new HttpClientErrorException(HttpStatus.NOT_FOUND, "Unknown service " + servicePath);
+		}
+	}
+
+	/**
+	 * Calls the service with the given path, passing the given body, and returns its reply. The given computation timeout in milliseconds is applied if greater than zero.
+	 * @throws HttpClientErrorException with HttpStatus 404 if there is no such service.
+	 */
+	public ResponseEntity<?> dispatch(String servicePath, Object body, long timeout) {
+		if(WorkerStatusController.STATUS_SERVICE_PATH.equals(servicePath)) {
+			// the status service does not count itself, like with the ActiveRequestFilter
+			return workerStatusController.getWorkerStatus();
+		}
+		if(timeout > 0 && body instanceof WorkPackage) {
+			((WorkPackage) body).setComputationTimeout(timeout);
+		}
+
+		activeRequestFilter.requestStarted();
+		try {
+			switch(servicePath) {
+				case VALIDATE_DATA_PATH:
+					return implementationController.validateData((Payload) body);
+				case PREPARE_DATA_PATH:
+					return implementationController.prepareAndPackageData((ComputationRequest) body);
+				case RUN_COMPUTATION_PATH:
+					broadcastReceiver.attachTo((WorkPackage) body);
+					return implementationController.runComputation((WorkPackage) body);
+				case CANCEL_COMPUTATION_PATH:
+					return implementationController.cancelComputation((WorkPackage) body);
+				case ACCUMULATE_RESULTS_PATH:
+					return implementationController.accumulateResults((ResultsProtocol) body);
+				case BroadcastReceiver.RECEIVE_BROADCAST_PATH:
+					return broadcastReceiver.receiveBroadcast((RunBroadcast) body);
+				default:
+					throw new HttpClientErrorException(HttpStatus.NOT_FOUND, "Unknown service " + servicePath);
+			}
+		}
+		finally {
+			activeRequestFilter.requestFinished();
+		}
+	}
+
+}
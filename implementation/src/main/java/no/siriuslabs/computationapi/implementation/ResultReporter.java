@@ -0,0 +1,234 @@
+package no.siriuslabs.computationapi.implementation;
+
+import no.siriuslabs.computationapi.api.http.WireFormat;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackageResult;
+import no.siriuslabs.computationapi.implementation.config.ConfigProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PostConstruct;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Reports the results of computations this worker node runs in the background (or fetched as a pulling node) to the controller.<p>
+ * Results are queued and posted by a single sender thread. Whatever has been queued while the previous call was running is sent with the next call, up to the
+ * configured batch size, so that a node finishing many short computations does not need a call per result. Failing calls are retried a number of times.
+ * The controller accepts every result once and acknowledges results reported again, so retrying a call whose reply got lost is safe.<p>
+ * Results the node is still computing or reporting count as pending, so that the node does not appear idle to the controller before its results are delivered.
+ */
+@Component
+public class ResultReporter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ResultReporter.class);
+
+	/**
+	 * Spring configuration with contents of config file.
+	 */
+	private final ConfigProperties configProperties;
+	/**
+	 * Spring RestTemplate to execute Rest communication.
+	 */
+	private final RestTemplate restTemplate;
+
+	/**
+	 * Results waiting to be sent together with the controller service path they are to be reported to.
+	 */
+	private final BlockingQueue<QueuedResult> queuedResults = new LinkedBlockingQueue<>();
+	/**
+	 * Lock guarding the number of pending results.
+	 */
+	private final Object pendingLock = new Object();
+	/**
+	 * Number of results expected or queued, but not reported yet.
+	 */
+	private int pendingResults;
+
+	/**
+	 * Autowired constructor expecting the RestTemplate shared by all calls to the controller.
+	 */
+	@Autowired
+	public ResultReporter(ConfigProperties configProperties, RestTemplate restTemplate) {
+		this.configProperties = configProperties;
+		this.restTemplate = restTemplate;
+	}
+
+	/**
+	 * Starts the thread sending the queued results.
+	 */
+	@PostConstruct
+	public void start() {
+		final Thread sender = new Thread(() -> {
+			while(!Thread.currentThread().isInterrupted()) {
+				try {
+					reportNextBatch();
+				}
+				catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}, "result-reporter");
+		sender.setDaemon(true);
+		sender.start();
+	}
+
+	/**
+	 * Announces a result that is going to be reported once its computation has finished. The result counts as pending from now on.
+	 */
+	public void expectResult() {
+		synchronized(pendingLock) {
+			pendingResults++;
+		}
+	}
+
+	/**
+	 * Queues the given WorkPackageResult, announced through expectResult() before, to be reported to the controller service with the given path, which is
+	 * relative to the controller's URL.
+	 */
+	public void report(String servicePath, WorkPackageResult result) {
+		queuedResults.add(new QueuedResult(servicePath, result));
+	}
+
+	/**
+	 * Returns the number of results that are expected or queued, but not reported yet.
+	 */
+	public int getPendingResults() {
+		synchronized(pendingLock) {
+			return pendingResults;
+		}
+	}
+
+	/**
+	 * Waits up to the given time in milliseconds for all pending results to be reported. Returns true if there are no pending results left, otherwise false.
+	 */
+	public boolean awaitReported(long timeout) {
+		final long deadline = System.currentTimeMillis() + timeout;
+		synchronized(pendingLock) {
+			long remaining = timeout;
+			while(pendingResults > 0 && remaining > 0) {
+				try {
+					pendingLock.wait(remaining);
+				}
+				catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+				remaining = deadline - System.currentTimeMillis();
+			}
+			return pendingResults == 0;
+		}
+	}
+
+	/**
+	 * Waits for the next queued result and reports it together with all other queued results, up to the configured batch size.
+	 * Results of different controller services are sent in separate calls.
+	 * @throws InterruptedException if interrupted while waiting for a result.
+	 */
+	void reportNextBatch() throws InterruptedException {
+		final List<QueuedResult> batch = new ArrayList<>();
+		batch.add(queuedResults.take());
+		queuedResults.drainTo(batch, Math.max(1, configProperties.getNode().getResultBatchSize()) - 1);
+
+		final Map<String, List<WorkPackageResult>> resultsByPath = new LinkedHashMap<>();
+		for(QueuedResult queued : batch) {
+			resultsByPath.computeIfAbsent(queued.getServicePath(), (String path) -> new ArrayList<>()).add(queued.getResult());
+		}
+
+		for(Map.Entry<String, List<WorkPackageResult>> entry : resultsByPath.entrySet()) {
+			try {
+				send(entry.getKey(), entry.getValue());
+			}
+			finally {
+				synchronized(pendingLock) {
+					pendingResults = Math.max(0, pendingResults - entry.getValue().size());
+					pendingLock.notifyAll();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Posts the given WorkPackageResults to the controller service with the given path. Should the call fail, it is retried a number of times
+	 * (specified in the config file) before the results are given up.
+	 */
+	private void send(String servicePath, List<WorkPackageResult> results) {
+		final URI uri;
+		try {
+			uri = new URI(AbstractImplementationApplication.getControllerUrl(configProperties) + servicePath);
+		}
+		catch(URISyntaxException e) {
+			LOGGER.error(e.getMessage(), e);
+			return;
+		}
+
+		final HttpHeaders headers = new HttpHeaders();
+		final WireFormat wireFormat = configProperties.getController().getWireFormat();
+		if(wireFormat != null) {
+			wireFormat.applyTo(headers);
+		}
+		final HttpEntity<List<WorkPackageResult>> entity = new HttpEntity<>(results, headers);
+		final int retryCount = configProperties.getController().getRetryCount();
+		for(int attempt = 0; attempt <= retryCount; attempt++) {
+			try {
+				final ResponseEntity<Boolean[]> response = restTemplate.exchange(uri, HttpMethod.POST, entity, Boolean[].class);
+				LOGGER.info("Reported {} results @ {}: accepted={}", results.size(), uri, response.getBody() == null ? null : Arrays.toString(response.getBody()));
+				return;
+			}
+			catch(RestClientException e) {
+				LOGGER.warn("Reporting {} results @ {} failed: {}", results.size(), uri, e.getMessage());
+				waitForRetry();
+			}
+		}
+		LOGGER.error("{} results could not be reported @ {} - giving up", results.size(), uri);
+	}
+
+	/**
+	 * Waits for the retry delay specified in the config file and then returns.
+	 */
+	private void waitForRetry() {
+		try {
+			Thread.sleep(configProperties.getController().getRetryDelay());
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * A result waiting to be reported together with the path of the controller service it is to be reported to.
+	 */
+	private static class QueuedResult {
+
+		private final String servicePath;
+		private final WorkPackageResult result;
+
+		QueuedResult(String servicePath, WorkPackageResult result) {
+			this.servicePath = servicePath;
+			this.result = result;
+		}
+
+		String getServicePath() {
+			return servicePath;
+		}
+
+		WorkPackageResult getResult() {
+			return result;
+		}
+	}
+
+}
@@ -0,0 +1,205 @@
+package no.siriuslabs.computationapi.implementation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import no.siriuslabs.computationapi.api.transport.UnixSocketProtocol;
+import no.siriuslabs.computationapi.api.transport.UnixSockets;
+import no.siriuslabs.computationapi.implementation.config.ConfigProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Spring component serving the worker node's services through a Unix domain socket, so that a controller on the same host can call them without the TCP stack.<p>
+ * Only available if the node is configured with config.node.socketPath, in which case the node registers itself with an URI of the scheme "unix" pointing to the socket
+ * (provided the runtime supports Unix domain sockets, otherwise the node keeps being called over HTTP). Calls are framed as described in UnixSocketProtocol,
+ * their bodies are read and written as JSON and the services are called through the NodeServiceDispatcher. Each connection is served by its own thread.
+ */
+@Component
+@ConditionalOnProperty(prefix = "config.node", name = "socket-path")
+public class UnixSocketNodeServer {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(UnixSocketNodeServer.class);
+
+	/**
+	 * Path of the socket's file.
+	 */
+	private final Path socketPath;
+	/**
+	 * Dispatcher calling the node's services.
+	 */
+	private final NodeServiceDispatcher dispatcher;
+	/**
+	 * ObjectMapper reading request bodies and writing reply bodies.
+	 */
+	private final ObjectMapper objectMapper;
+
+	/**
+	 * Threads accepting and serving connections.
+	 */
+	private final ExecutorService connections = Executors.newCachedThreadPool((Runnable runnable) -> {
+		Thread thread = new Thread(runnable, "unix-socket-server");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Channel accepting connections. Null as long as the server is not listening.
+	 */
+	private ServerSocketChannel serverChannel;
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public UnixSocketNodeServer(ConfigProperties configProperties, NodeServiceDispatcher dispatcher, ObjectMapper objectMapper) {
+		this(Paths.get(configProperties.getNode().getSocketPath().trim()), dispatcher, objectMapper);
+	}
+
+	/**
+	 * Constructor expecting the path of the socket's file explicitly.
+	 */
+	public UnixSocketNodeServer(Path socketPath, NodeServiceDispatcher dispatcher, ObjectMapper objectMapper) {
+		this.socketPath = socketPath.toAbsolutePath();
+		this.dispatcher = dispatcher;
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Starts listening on the socket. Does nothing if the runtime does not support Unix domain sockets.
+	 * @throws IOException if the socket could not be bound.
+	 */
+	@PostConstruct
+	public synchronized void start() throws IOException {
+		if(!UnixSockets.isSupported()) {
+			LOGGER.warn("Unix domain sockets are not supported by this Java runtime - not listening on {}", socketPath);
+			return;
+		}
+
+		serverChannel = UnixSockets.bind(socketPath);
+		final ServerSocketChannel channel = serverChannel;
+		connections.execute(() -> accept(channel));
+		LOGGER.info("Listening on Unix domain socket {}", socketPath);
+	}
+
+	/**
+	 * Stops listening, closes all connections and removes the socket's file.
+	 */
+	@PreDestroy
+	public synchronized void stop() throws IOException {
+		if(serverChannel == null) {
+			return;
+		}
+		serverChannel.close();
+		serverChannel = null;
+		connections.shutdownNow();
+		Files.deleteIfExists(socketPath);
+		LOGGER.info("Stopped listening on Unix domain socket {}", socketPath);
+	}
+
+	/**
+	 * Returns true if the server is listening on its socket, otherwise false.
+	 */
+	public synchronized boolean isListening() {
+		return serverChannel != null;
+	}
+
+	/**
+	 * Accepts connections on the given channel until it is closed, serving each in its own thread.
+	 */
+	private void accept(ServerSocketChannel channel) {
+		while(channel.isOpen()) {
+			try {
+				final SocketChannel connection = channel.accept();
+				connections.execute(() -> serve(connection));
+			}
+			catch(ClosedChannelException e) {
+				return;
+			}
+			catch(IOException e) {
+				LOGGER.error("Accepting a connection on " + socketPath + " failed", e);
+			}
+		}
+	}
+
+	/**
+	 * Serves the calls arriving on the given connection one after another until the caller closes it.
+	 */
+	private void serve(SocketChannel connection) {
+		try(SocketChannel channel = connection) {
+			final DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+			final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+			while(true) {
+				final String method;
+				try {
+					method = in.readUTF();
+				}
+				catch(EOFException e) {
+					return;
+				}
+				final String servicePath = in.readUTF();
+				final long timeout = in.readLong();
+				final byte[] body = UnixSocketProtocol.readBody(in);
+
+				LOGGER.debug("Serving {} {} through Unix domain socket", method, servicePath);
+				handle(servicePath, timeout, body, out);
+			}
+		}
+		catch(IOException e) {
+			LOGGER.debug("Connection on {} closed: {}", socketPath, e.getMessage());
+		}
+	}
+
+	/**
+	 * Calls the service with the given path, passing the given body, and writes its reply to the given stream. Failures are replied with a matching HttpStatus.
+	 */
+	private void handle(String servicePath, long timeout, byte[] body, DataOutputStream out) throws IOException {
+		int status;
+		byte[] reply;
+		try {
+			final Class<?> requestType = dispatcher.getRequestType(servicePath);
+			final Object request = requestType == null || body == null ? null : objectMapper.readValue(body, requestType);
+			final ResponseEntity<?> response = dispatcher.dispatch(servicePath, request, timeout);
+			status = response.getStatusCodeValue();
+			reply = response.getBody() == null ? null : objectMapper.writeValueAsBytes(response.getBody());
+		}
+		catch(HttpStatusCodeException e) {
+			status = e.getRawStatusCode();
+			reply = objectMapper.writeValueAsBytes(e.getStatusText());
+		}
+		catch(IOException e) {
+			LOGGER.info("Could not read the body of {}: {}", servicePath, e.getMessage());
+			status = HttpStatus.BAD_REQUEST.value();
+			reply = objectMapper.writeValueAsBytes(e.getMessage());
+		}
+		catch(RuntimeException e) {
+			LOGGER.error("Service " + servicePath + " failed", e);
+			status = HttpStatus.INTERNAL_SERVER_ERROR.value();
+			reply = objectMapper.writeValueAsBytes(String.valueOf(e.getMessage()));
+		}
+		UnixSocketProtocol.writeReply(out, status, reply);
+	}
+
+}
@@ -0,0 +1,240 @@
+package no.siriuslabs.computationapi.implementation;
+
+import no.siriuslabs.computationapi.api.http.WireFormat;
+import no.siriuslabs.computationapi.api.model.computation.Status;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackageResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetches WorkPackages from the controller for a pulling worker node, computes them and reports their results back.<p>
+ * A single thread long-polls the controller's fetchWork-service for as many packages as the node has free computation slots, one per computation the node's
+ * ComputationEngine runs in parallel, and hands them to a pool of computation threads, one per slot. Each package is computed through the node's ImplementationController and its result is handed to the ResultReporter,
+ * which posts it to the controller's reportResults-service. The node thereby decides itself how much work it takes on and never has to be reachable by the controller.
+ */
+class WorkFetcher {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(WorkFetcher.class);
+
+	/**
+	 * Spring RestTemplate to execute Rest communication.
+	 */
+	private final RestTemplate restTemplate;
+	/**
+	 * ImplementationController computing the fetched WorkPackages.
+	 */
+	private final ImplementationController implementationController;
+	/**
+	 * Receiver of broadcast data, attaching a handle to it to the fetched WorkPackages.
+	 */
+	private final BroadcastReceiver broadcastReceiver;
+	/**
+	 * URI of the controller's fetchWork-service for this node, without parameters.
+	 */
+	private final URI fetchUri;
+	/**
+	 * ResultReporter reporting the results of the fetched WorkPackages.
+	 */
+	private final ResultReporter resultReporter;
+	/**
+	 * Path of the controller's reportResults-service for this node, relative to the controller's URL.
+	 */
+	private final String reportPath;
+	/**
+	 * Maximum time in milliseconds a single fetch request waits for work.
+	 */
+	private final long pollTimeout;
+	/**
+	 * Delay in milliseconds before fetching again after a failed attempt.
+	 */
+	private final long retryDelay;
+	/**
+	 * WireFormat the fetched WorkPackages are preferably sent in.
+	 */
+	private final WireFormat wireFormat;
+
+	/**
+	 * Free computation slots of the node.
+	 */
+	private final Semaphore freeSlots;
+	/**
+	 * Threads computing the fetched WorkPackages, one per computation slot.
+	 */
+	private final ExecutorService computations;
+	/**
+	 * Thread fetching WorkPackages from the controller.
+	 */
+	private final Thread fetchThread;
+	/**
+	 * Flag showing if new work is to be fetched.
+	 */
+	private volatile boolean running;
+
+	/**
+	 * Constructor expecting all elements.
+	 */
+	WorkFetcher(RestTemplate restTemplate, ImplementationController implementationController, BroadcastReceiver broadcastReceiver, ResultReporter resultReporter, URI fetchUri,
+				String reportPath, int capacity, long pollTimeout, long retryDelay, WireFormat wireFormat) {
+		this.restTemplate = restTemplate;
+		this.implementationController = implementationController;
+		this.broadcastReceiver = broadcastReceiver;
+		this.resultReporter = resultReporter;
+		this.fetchUri = fetchUri;
+		this.reportPath = reportPath;
+		this.pollTimeout = pollTimeout;
+		this.retryDelay = retryDelay;
+		this.wireFormat = wireFormat == null ? WireFormat.JSON : wireFormat;
+
+		final int slots = Math.max(1, capacity);
+		freeSlots = new Semaphore(slots);
+		computations = Executors.newFixedThreadPool(slots, (Runnable runnable) -> {
+			Thread thread = new Thread(runnable, "fetched-computation");
+			thread.setDaemon(true);
+			return thread;
+		});
+		fetchThread = new Thread(this::fetchWork, "work-fetcher");
+		fetchThread.setDaemon(true);
+	}
+
+	/**
+	 * Starts fetching and computing work.
+	 */
+	void start() {
+		LOGGER.info("Starting to fetch work @ {}", fetchUri);
+		running = true;
+		fetchThread.start();
+	}
+
+	/**
+	 * Stops fetching new work and waits up to the given time in milliseconds for the computations already fetched to finish and report their results.<p>
+	 * Returns true if all computations finished in time, otherwise false.
+	 */
+	boolean stop(long timeout) {
+		LOGGER.info("Stopping to fetch work");
+		final long deadline = System.currentTimeMillis() + timeout;
+		running = false;
+		fetchThread.interrupt();
+		try {
+			// a fetch request still waiting for work returns within the poll timeout - its packages are computed before shutting down
+			fetchThread.join(Math.max(1, deadline - System.currentTimeMillis()));
+			computations.shutdown();
+			return computations.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)
+					&& resultReporter.awaitReported(Math.max(0, deadline - System.currentTimeMillis()));
+		}
+		catch(InterruptedException e) {
+			LOGGER.error(e.getMessage(), e);
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Main loop of the fetch thread: waits for at least one free computation slot, fetches as many WorkPackages as slots are free and starts their computation.
+	 */
+	private void fetchWork() {
+		while(running) {
+			try {
+				freeSlots.acquire();
+			}
+			catch(InterruptedException e) {
+				LOGGER.info("Fetching work was interrupted");
+				return;
+			}
+
+			final int slots = 1 + freeSlots.drainPermits();
+			int started = 0;
+			try {
+				started = fetchAndStart(slots);
+			}
+			catch(RestClientException e) {
+				LOGGER.warn("Fetching work failed: {}", e.getMessage());
+				waitForRetry();
+			}
+			finally {
+				freeSlots.release(slots - started);
+			}
+		}
+	}
+
+	/**
+	 * Fetches up to the given number of WorkPackages from the controller and starts their computation. Returns the number of packages started.
+	 */
+	int fetchAndStart(int maxPackages) {
+		final URI uri = UriComponentsBuilder.fromUri(fetchUri).queryParam("maxPackages", maxPackages).queryParam("timeout", pollTimeout).build().toUri();
+		final HttpHeaders headers = new HttpHeaders();
+		wireFormat.applyTo(headers);
+		final ResponseEntity<WorkPackage[]> response = restTemplate.exchange(uri, HttpMethod.POST, new HttpEntity<>(headers), WorkPackage[].class);
+		if(HttpStatus.OK != response.getStatusCode() || response.getBody() == null) {
+			LOGGER.debug("No work handed out (response code {})", response.getStatusCode());
+			return 0;
+		}
+
+		final WorkPackage[] workPackages = response.getBody();
+		LOGGER.info("Fetched {} work packages", workPackages.length);
+		for(WorkPackage workPackage : workPackages) {
+			resultReporter.expectResult();
+			computations.execute(() -> {
+				try {
+					resultReporter.report(reportPath, compute(workPackage));
+				}
+				finally {
+					freeSlots.release();
+				}
+			});
+		}
+		return workPackages.length;
+	}
+
+	/**
+	 * Computes the given WorkPackage through the ImplementationController. A failing computation results in a WorkPackageResult with the status FAILED,
+	 * so that the controller does not wait for the package forever.
+	 */
+	WorkPackageResult compute(WorkPackage workPackage) {
+		try {
+			broadcastReceiver.attachTo(workPackage);
+			final WorkPackageResult result = implementationController.runComputation(workPackage).getBody();
+			return result == null ? createResult(workPackage, Status.FAILED) : result;
+		}
+		catch(RuntimeException e) {
+			LOGGER.error("Computation of package " + workPackage.getId() + " failed", e);
+			return createResult(workPackage, Status.FAILED);
+		}
+	}
+
+	/**
+	 * Creates a WorkPackageResult without data for the given WorkPackage with the given Status.
+	 */
+	private WorkPackageResult createResult(WorkPackage workPackage, Status status) {
+		WorkPackageResult result = new WorkPackageResult(workPackage);
+		result.setStatus(status);
+		return result;
+	}
+
+	/**
+	 * Waits for the configured retry delay and then returns.
+	 */
+	private void waitForRetry() {
+		try {
+			Thread.sleep(retryDelay);
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,60 @@
+package no.siriuslabs.computationapi.implementation;
+
+import no.siriuslabs.computationapi.api.model.node.WorkerState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Rest controller offering the status service of a worker node. It is shared by all implementations and needs no domain specific code.<p>
+ * The controller calls this service to find out if a node it considers to be stuck is actually still working. Computations running in the background and results
+ * not reported yet count as active requests, as the controller keeps the node occupied until it has received their results.
+ * The controller also calls it regularly as the node's heartbeat, which reports the capacity and occupancy of the node's ComputationEngine.
+ */
+@RestController
+public class WorkerStatusController {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(WorkerStatusController.class);
+
+	/**
+	 * Relative path of the status service.
+	 */
+	public static final String STATUS_SERVICE_PATH = "/workerStatus";
+
+	/**
+	 * Filter counting the requests currently being processed.
+	 */
+	private final ActiveRequestFilter activeRequestFilter;
+	/**
+	 * ResultReporter knowing the results still to be reported.
+	 */
+	private final ResultReporter resultReporter;
+	/**
+	 * Engine running the node's computations.
+	 */
+	private final ComputationEngine computationEngine;
+
+	/**
+	 * Autowired constructor.
+	 */
+	@Autowired
+	public WorkerStatusController(ActiveRequestFilter activeRequestFilter, ResultReporter resultReporter, ComputationEngine computationEngine) {
+		this.activeRequestFilter = activeRequestFilter;
+		this.resultReporter = resultReporter;
+		this.computationEngine = computationEngine;
+	}
+
+	/**
+	 * Returns the current WorkerState of this node.
+	 */
+	@GetMapping(STATUS_SERVICE_PATH)
+	public ResponseEntity<WorkerState> getWorkerStatus() {
+		final WorkerState state = new WorkerState(activeRequestFilter.getActiveRequests() + resultReporter.getPendingResults(),
+				computationEngine.getCapacity(), computationEngine.getOccupancy());
+		LOGGER.debug("Reporting worker status {}", state);
+		return ResponseEntity.ok(state);
+	}
+}
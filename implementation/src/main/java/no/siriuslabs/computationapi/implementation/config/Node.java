@@ -2,8 +2,13 @@ package no.siriuslabs.computationapi.implementation.config;
 
 import no.siriuslabs.computationapi.api.model.computation.DomainType;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
- * Configuration container class representing node related information. Currently only information about the DomainType of the node.
+ * Configuration container class representing node related information: the DomainType(s) of the node, whether and how it fetches its work from the controller,
+ * how it reports results, whether it is called in-process or through a Unix domain socket, where it caches blobs, how many runs' broadcast data it keeps
+ * and how many computations it runs in parallel.
  */
 public class Node {
 
@@ -12,6 +17,54 @@ public class Node {
 	 * @see ConfigDomainTypeConverter
 	 */
 	private DomainType domain;
+	/**
+	 * Further DomainTypes supported by this node. Optional.
+	 * @see ConfigDomainTypeConverter
+	 */
+	private List<DomainType> additionalDomains = new ArrayList<>();
+	/**
+	 * Flag showing if this node fetches its work from the controller itself instead of being sent work by the controller. Optional, defaults to false.
+	 */
+	private boolean pull;
+	/**
+	 * Maximum time in milliseconds a pulling node waits for the controller to hand out work in a single fetch request. Optional, defaults to 30 seconds.
+	 */
+	private long pollTimeout = 30000;
+	/**
+	 * Flag showing if this node accepts WorkPackages sent by the controller for computation in the background and reports their results later, instead of keeping
+	 * the controller's call open until the computation has finished. Optional, defaults to false.
+	 */
+	private boolean asyncResults;
+	/**
+	 * Maximum number of results reported to the controller in a single call. Optional, defaults to 50.
+	 */
+	private int resultBatchSize = 50;
+	/**
+	 * Flag showing if this node runs in the same JVM as the controller and is to be called directly instead of over HTTP. Optional, defaults to false.
+	 * The node is then registered with an URI of the scheme "inproc" and called through the InProcessNodeTransport.
+	 */
+	private boolean inProcess;
+	/**
+	 * Path of the Unix domain socket this node serves the controller's calls on in addition to HTTP. Optional, no socket by default.
+	 * If set (and supported by the runtime), the node registers with an URI of the scheme "unix" and is called through the socket by a controller on the same host.
+	 */
+	private String socketPath;
+	/**
+	 * Directory the blobs fetched from the controller's blob store are cached in. Optional, defaults to computation-blob-cache in the temporary directory.
+	 */
+	private String blobCacheDirectory = System.getProperty("java.io.tmpdir") + "/computation-blob-cache";
+	/**
+	 * Maximum disk space in bytes the cached blobs may take up. The least recently used blobs are deleted beyond it. Optional, defaults to 1 GiB.
+	 */
+	private long blobCacheSize = 1024L * 1024 * 1024;
+	/**
+	 * Number of computation runs whose broadcast data is kept. The data of the least recently used runs is dropped beyond it. Optional, defaults to 8.
+	 */
+	private int broadcastRuns = 8;
+	/**
+	 * Number of computations this node runs in parallel on the threads of its ComputationEngine. Optional, defaults to the number of available processors if not greater than zero.
+	 */
+	private int parallelism;
 
 	public DomainType getDomain() {
 		return domain;
@@ -20,4 +73,92 @@ public class Node {
 	public void setDomain(DomainType domain) {
 		this.domain = domain;
 	}
+
+	public List<DomainType> getAdditionalDomains() {
+		return additionalDomains;
+	}
+
+	public void setAdditionalDomains(List<DomainType> additionalDomains) {
+		this.additionalDomains = additionalDomains;
+	}
+
+	public boolean isPull() {
+		return pull;
+	}
+
+	public void setPull(boolean pull) {
+		this.pull = pull;
+	}
+
+	public long getPollTimeout() {
+		return pollTimeout;
+	}
+
+	public void setPollTimeout(long pollTimeout) {
+		this.pollTimeout = pollTimeout;
+	}
+
+	public boolean isAsyncResults() {
+		return asyncResults;
+	}
+
+	public void setAsyncResults(boolean asyncResults) {
+		this.asyncResults = asyncResults;
+	}
+
+	public int getResultBatchSize() {
+		return resultBatchSize;
+	}
+
+	public void setResultBatchSize(int resultBatchSize) {
+		this.resultBatchSize = resultBatchSize;
+	}
+
+	public boolean isInProcess() {
+		return inProcess;
+	}
+
+	public void setInProcess(boolean inProcess) {
+		this.inProcess = inProcess;
+	}
+
+	public String getSocketPath() {
+		return socketPath;
+	}
+
+	public void setSocketPath(String socketPath) {
+		this.socketPath = socketPath;
+	}
+
+	public String getBlobCacheDirectory() {
+		return blobCacheDirectory;
+	}
+
+	public void setBlobCacheDirectory(String blobCacheDirectory) {
+		this.blobCacheDirectory = blobCacheDirectory;
+	}
+
+	public long getBlobCacheSize() {
+		return blobCacheSize;
+	}
+
+	public void setBlobCacheSize(long blobCacheSize) {
+		this.blobCacheSize = blobCacheSize;
+	}
+
+	public int getBroadcastRuns() {
+		return broadcastRuns;
+	}
+
+	public void setBroadcastRuns(int broadcastRuns) {
+		this.broadcastRuns = broadcastRuns;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
 }
@@ -1,6 +1,7 @@
 package no.siriuslabs.computationapi.implementation;
 
 import no.siriuslabs.computationapi.api.model.config.Controller;
+import no.siriuslabs.computationapi.api.model.node.NodeStatus;
 import no.siriuslabs.computationapi.api.model.node.WorkerNode;
 import no.siriuslabs.computationapi.implementation.config.ConfigProperties;
 import no.siriuslabs.computationapi.implementation.config.Node;
@@ -161,6 +162,44 @@ public class AbstractImplementationApplicationTest {
 		assertEquals(HttpStatus.OK, application.callRegistrationService(AbstractImplementationApplication.RegistrationFlavour.REGISTER, uri, new HttpEntity<>(new WorkerNode())), "Status code 200 (OK) is expected to be returned after successful call");
 	}
 
+	/**
+	 * Tests that drain() keeps asking the controller until the node has been released.
+	 */
+	@DisplayName("Test drain() until the controller releases the node")
+	@Test
+	public void testDrain_Success() {
+		Controller controller = new Controller();
+		controller.setRetryDelay(10);
+		controller.setDrainTimeout(10000);
+		Mockito.when(configProperties.getController()).thenReturn(controller);
+
+		final URI uri = createUri();
+		Mockito.when(restTemplate.exchange(Mockito.eq(uri), Mockito.eq(HttpMethod.POST), Mockito.any(HttpEntity.class), Mockito.eq(NodeStatus.class)))
+				.thenReturn(ResponseEntity.ok(NodeStatus.DRAINING))
+				.thenReturn(ResponseEntity.ok(NodeStatus.DRAINING))
+				.thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+
+		assertTrue(application.drain(new WorkerNode(), uri), "Node released by the controller is expected to produce true");
+		Mockito.verify(restTemplate, Mockito.times(3)).exchange(Mockito.eq(uri), Mockito.eq(HttpMethod.POST), Mockito.any(HttpEntity.class), Mockito.eq(NodeStatus.class));
+	}
+
+	/**
+	 * Tests that drain() gives up once the drain timeout has passed.
+	 */
+	@DisplayName("Test drain() with the node still draining after the timeout")
+	@Test
+	public void testDrain_Timeout() {
+		Controller controller = new Controller();
+		controller.setRetryDelay(10);
+		controller.setDrainTimeout(50);
+		Mockito.when(configProperties.getController()).thenReturn(controller);
+
+		final URI uri = createUri();
+		Mockito.when(restTemplate.exchange(Mockito.eq(uri), Mockito.eq(HttpMethod.POST), Mockito.any(HttpEntity.class), Mockito.eq(NodeStatus.class))).thenReturn(ResponseEntity.ok(NodeStatus.DRAINING));
+
+		assertFalse(application.drain(new WorkerNode(), uri), "Node still draining after the timeout is expected to produce false");
+	}
+
 	private URI createUri() {
 		try {
 			return new URI("http://sirius-labs.no");
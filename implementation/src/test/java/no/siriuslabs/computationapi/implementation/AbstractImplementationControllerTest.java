@@ -0,0 +1,239 @@
+package no.siriuslabs.computationapi.implementation;
+
+import no.siriuslabs.computationapi.api.http.ComputationHeaders;
+import no.siriuslabs.computationapi.api.model.computation.ComputationResult;
+import no.siriuslabs.computationapi.api.model.computation.ResultsProtocol;
+import no.siriuslabs.computationapi.api.model.computation.Status;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackageResult;
+import no.siriuslabs.computationapi.api.model.request.ComputationRequest;
+import no.siriuslabs.computationapi.api.model.request.Payload;
+import no.siriuslabs.computationapi.implementation.config.ConfigProperties;
+import no.siriuslabs.computationapi.implementation.config.Node;
+import no.siriuslabs.computationapi.implementation.model.TestDomainType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the AbstractImplementationController class.
+ */
+public class AbstractImplementationControllerTest {
+
+	private ConfigProperties configProperties;
+
+	private AbstractImplementationController controller;
+
+	@BeforeEach
+	public void setup() {
+		configProperties = Mockito.mock(ConfigProperties.class);
+		controller = new TestImplementationController(configProperties);
+	}
+
+	/**
+	 * Tests that a computation run through executeComputation() and not cancelled produces a regular result.
+	 */
+	@DisplayName("Test executeComputation() without cancellation")
+	@Test
+	public void testExecuteComputation_Done() {
+		WorkPackage workPackage = new WorkPackage(TestDomainType.TEST_1, 1);
+
+		ResponseEntity<WorkPackageResult> response = controller.executeComputation(workPackage, WorkPackageResult::new);
+
+		assertEquals(Status.DONE, response.getBody().getStatus(), "Result of a computation that was not cancelled must have status DONE");
+	}
+
+	/**
+	 * Tests that cancelling a package that is not running has no effect.
+	 */
+	@DisplayName("Test cancelComputation() for a package not running")
+	@Test
+	public void testCancelComputation_NotRunning() {
+		ResponseEntity<Boolean> response = controller.cancelComputation(new WorkPackage(TestDomainType.TEST_1, 1));
+
+		assertFalse(response.getBody(), "Cancelling a package that is not running must report that nothing was found");
+	}
+
+	/**
+	 * Tests that a running computation gets interrupted by cancelComputation() and reports the status CANCELLED.
+	 */
+	@DisplayName("Test cancelComputation() for a running package")
+	@Test
+	public void testCancelComputation_Running() throws Exception {
+		final WorkPackage workPackage = new WorkPackage(TestDomainType.TEST_1, 1);
+		final CountDownLatch started = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<ResponseEntity<WorkPackageResult>> future = executor.submit(() -> controller.executeComputation(workPackage, (WorkPackage wp) -> {
+				started.countDown();
+				try {
+					Thread.sleep(60000);
+				}
+				catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return new WorkPackageResult(wp);
+			}));
+
+			assertTrue(started.await(5, TimeUnit.SECONDS), "Computation did not start in time");
+			assertTrue(controller.cancelComputation(workPackage).getBody(), "Cancelling a running package must report that it was found");
+
+			WorkPackageResult result = future.get(5, TimeUnit.SECONDS).getBody();
+			assertEquals(Status.CANCELLED, result.getStatus(), "Result of a cancelled computation must have status CANCELLED");
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Tests that a computation exceeding its timeout gets interrupted and reports the status TIMED_OUT.
+	 */
+	@DisplayName("Test executeComputation() with a computation exceeding its timeout")
+	@Test
+	public void testExecuteComputation_TimedOut() {
+		WorkPackage workPackage = new WorkPackage(TestDomainType.TEST_1, 1);
+
+		ResponseEntity<WorkPackageResult> response = controller.executeComputation(workPackage, (WorkPackage wp) -> {
+			try {
+				Thread.sleep(60000);
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return new WorkPackageResult(wp);
+		}, 100);
+
+		assertEquals(Status.TIMED_OUT, response.getBody().getStatus(), "Result of a computation exceeding its timeout must have status TIMED_OUT");
+		assertFalse(Thread.currentThread().isInterrupted(), "Interrupt flag of the computing thread must be cleared after the computation");
+	}
+
+	/**
+	 * Tests that a computation finishing within its timeout produces a regular result.
+	 */
+	@DisplayName("Test executeComputation() with a computation finishing within its timeout")
+	@Test
+	public void testExecuteComputation_WithinTimeout() {
+		WorkPackage workPackage = new WorkPackage(TestDomainType.TEST_1, 1);
+
+		ResponseEntity<WorkPackageResult> response = controller.executeComputation(workPackage, WorkPackageResult::new, 60000);
+
+		assertEquals(Status.DONE, response.getBody().getStatus(), "Result of a computation finishing in time must have status DONE");
+	}
+
+	/**
+	 * Tests that a computation offered a result callback is run in the background on a node configured to report results asynchronously
+	 * and that its result is handed to the ResultReporter.
+	 */
+	@DisplayName("Test executeComputation() with a result callback")
+	@Test
+	public void testExecuteComputation_Background() {
+		Node node = new Node();
+		node.setAsyncResults(true);
+		Mockito.when(configProperties.getNode()).thenReturn(node);
+		ResultReporter resultReporter = Mockito.mock(ResultReporter.class);
+		controller.setResultReporter(resultReporter);
+
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader(ComputationHeaders.RESULT_CALLBACK, "reportResults/node");
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+		try {
+			WorkPackage workPackage = new WorkPackage(TestDomainType.TEST_1, 1);
+
+			ResponseEntity<WorkPackageResult> response = controller.executeComputation(workPackage, WorkPackageResult::new);
+
+			assertEquals(HttpStatus.ACCEPTED, response.getStatusCode(), "Computation is expected to be accepted for the background");
+			assertNull(response.getBody(), "Result is not expected to be part of the response");
+			Mockito.verify(resultReporter).expectResult();
+			ArgumentCaptor<WorkPackageResult> result = ArgumentCaptor.forClass(WorkPackageResult.class);
+			Mockito.verify(resultReporter, Mockito.timeout(5000)).report(Mockito.eq("reportResults/node"), result.capture());
+			assertEquals(Status.DONE, result.getValue().getStatus(), "Result of the background computation is expected to be reported");
+		}
+		finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+	}
+
+	/**
+	 * Tests that a batch of packages is computed on the threads of the ComputationEngine, with a failing computation resulting in the status FAILED.
+	 */
+	@DisplayName("Test executeComputations() on the ComputationEngine")
+	@Test
+	public void testExecuteComputations() {
+		final ComputationEngine engine = new ComputationEngine(2);
+		controller.setComputationEngine(engine);
+		try {
+			List<WorkPackage> workPackages = Arrays.asList(new WorkPackage(TestDomainType.TEST_1, 1), new WorkPackage(TestDomainType.TEST_1, 2), new WorkPackage(TestDomainType.TEST_1, 3));
+			final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+			List<WorkPackageResult> results = controller.executeComputations(workPackages, (WorkPackage wp) -> {
+				threadNames.add(Thread.currentThread().getName());
+				if(wp.getId() == 2) {
+					throw new IllegalStateException("Computation failure");
+				}
+				return new WorkPackageResult(wp);
+			});
+
+			assertEquals(3, results.size(), "A result is expected for every package");
+			assertEquals(Status.DONE, results.get(0).getStatus(), "Result of a successful computation must have status DONE");
+			assertEquals(Status.FAILED, results.get(1).getStatus(), "Result of a failing computation must have status FAILED");
+			assertEquals(3, results.get(2).getWorkPackage().getId(), "Results are expected in the order of the packages");
+			assertTrue(threadNames.stream().allMatch((String name) -> name.startsWith("computation-engine-")), "Packages are expected to be computed by the engine");
+			assertEquals(0, engine.getOccupancy(), "No computation is expected to be left on the engine");
+		}
+		finally {
+			engine.shutdown();
+		}
+	}
+
+	/**
+	 * Minimal concrete implementation for testing purposes.
+	 */
+	private static class TestImplementationController extends AbstractImplementationController {
+
+		TestImplementationController(ConfigProperties configProperties) {
+			super(configProperties);
+		}
+
+		@Override
+		public ResponseEntity<List<String>> validateData(Payload payload) {
+			return null;
+		}
+
+		@Override
+		public ResponseEntity<List<WorkPackage>> prepareAndPackageData(ComputationRequest request) {
+			return null;
+		}
+
+		@Override
+		public ResponseEntity<WorkPackageResult> runComputation(WorkPackage workPackage) {
+			return null;
+		}
+
+		@Override
+		public ResponseEntity<ComputationResult> accumulateResults(ResultsProtocol protocol) {
+			return null;
+		}
+	}
+
+}
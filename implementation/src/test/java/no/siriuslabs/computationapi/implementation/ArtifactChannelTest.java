@@ -0,0 +1,104 @@
+package no.siriuslabs.computationapi.implementation;
+
+import no.siriuslabs.computationapi.api.artifact.ArtifactReference;
+import no.siriuslabs.computationapi.api.model.config.Controller;
+import no.siriuslabs.computationapi.implementation.config.ConfigProperties;
+import no.siriuslabs.computationapi.implementation.config.Node;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Set of tests for the logic of the ArtifactChannel class.
+ */
+public class ArtifactChannelTest {
+
+	private static final URI CONTROLLER_URL = URI.create("http://localhost:8080/");
+	private static final String ID = "0f8fad5b-d9cb-469f-a165-70867728950e";
+	private static final byte[] CONTENT = "large binary result".getBytes(StandardCharsets.UTF_8);
+
+	private Path directory;
+	private MockRestServiceServer server;
+	private ArtifactChannel artifactChannel;
+
+	@BeforeEach
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("artifact-channel");
+		Controller controller = new Controller();
+		controller.setLocalUrl(CONTROLLER_URL);
+		ConfigProperties configProperties = new ConfigProperties();
+		configProperties.setController(controller);
+		configProperties.setNode(new Node());
+
+		RestTemplate restTemplate = new RestTemplate();
+		server = MockRestServiceServer.bindTo(restTemplate).build();
+		artifactChannel = new ArtifactChannel(configProperties, restTemplate);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		FileSystemUtils.deleteRecursively(directory.toFile());
+	}
+
+	/**
+	 * Tests that a file is uploaded as it is and the controller's reference returned, and that an upload the controller did not store completely fails.
+	 */
+	@DisplayName("Test uploading an artifact")
+	@Test
+	public void testUpload() throws IOException {
+		final Path file = Files.write(directory.resolve("result.bin"), CONTENT);
+		server.expect(requestTo(CONTROLLER_URL + "artifacts/5")).andExpect(method(HttpMethod.POST)).andExpect(content().bytes(CONTENT))
+				.andRespond(withSuccess("{\"runId\":5,\"id\":\"" + ID + "\",\"size\":" + CONTENT.length + "}", MediaType.APPLICATION_JSON));
+		server.expect(requestTo(CONTROLLER_URL + "artifacts/5")).andExpect(method(HttpMethod.POST))
+				.andRespond(withSuccess("{\"runId\":5,\"id\":\"" + ID + "\",\"size\":3}", MediaType.APPLICATION_JSON));
+
+		final ArtifactReference reference = artifactChannel.upload(5, file);
+
+		assertEquals(ID, reference.getId(), "Reference replied by the controller is expected");
+		assertEquals(CONTENT.length, reference.getSize(), "Size of the file is expected");
+		assertThrows(UncheckedIOException.class, () -> artifactChannel.upload(5, file), "Incomplete upload is expected to fail");
+		server.verify();
+	}
+
+	/**
+	 * Tests that an artifact is downloaded into a local file or streamed to a reader, and that an incomplete download fails.
+	 */
+	@DisplayName("Test downloading and reading an artifact")
+	@Test
+	public void testDownloadAndRead() throws IOException {
+		final ArtifactReference reference = new ArtifactReference(5, ID, CONTENT.length);
+		server.expect(requestTo(CONTROLLER_URL + "artifacts/5/" + ID)).andExpect(method(HttpMethod.GET)).andRespond(withSuccess(CONTENT, MediaType.APPLICATION_OCTET_STREAM));
+		server.expect(requestTo(CONTROLLER_URL + "artifacts/5/" + ID)).andRespond(withSuccess(CONTENT, MediaType.APPLICATION_OCTET_STREAM));
+		server.expect(requestTo(CONTROLLER_URL + "artifacts/5/" + ID)).andRespond(withSuccess(new byte[3], MediaType.APPLICATION_OCTET_STREAM));
+
+		final Path target = artifactChannel.download(reference, directory.resolve("download.bin"));
+		assertArrayEquals(CONTENT, Files.readAllBytes(target), "Content is expected to be downloaded into the file");
+		assertEquals("large binary result", artifactChannel.read(reference, (content) -> StreamUtils.copyToString(content, StandardCharsets.UTF_8)),
+				"Content is expected to be streamed to the reader");
+		assertThrows(UncheckedIOException.class, () -> artifactChannel.download(reference, target), "Incomplete download is expected to fail");
+		server.verify();
+
+		assertThrows(IllegalArgumentException.class, () -> artifactChannel.read(new ArtifactReference(5, "../secret", 1), (content) -> null), "Invalid ID is expected to be refused");
+	}
+
+}
@@ -0,0 +1,196 @@
+package no.siriuslabs.computationapi.implementation;
+
+import no.siriuslabs.computationapi.api.blob.BlobHash;
+import no.siriuslabs.computationapi.api.model.config.Controller;
+import no.siriuslabs.computationapi.implementation.config.ConfigProperties;
+import no.siriuslabs.computationapi.implementation.config.Node;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the BlobCache class.
+ */
+public class BlobCacheTest {
+
+	private static final URI CONTROLLER_URL = URI.create("http://localhost:8080/");
+
+	private Path directory;
+	private ConfigProperties configProperties;
+	private RestTemplate restTemplate;
+
+	/**
+	 * Content of the blobs the mocked controller knows by their hashes.
+	 */
+	private Map<String, byte[]> controllerBlobs;
+
+	@BeforeEach
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("blob-cache");
+		Controller controller = new Controller();
+		controller.setLocalUrl(CONTROLLER_URL);
+		Node node = new Node();
+		node.setBlobCacheDirectory(directory.toString());
+		node.setBlobCacheSize(25);
+		configProperties = new ConfigProperties();
+		configProperties.setController(controller);
+		configProperties.setNode(node);
+
+		controllerBlobs = new HashMap<>();
+		restTemplate = Mockito.mock(RestTemplate.class);
+		Mockito.when(restTemplate.execute(Mockito.any(URI.class), Mockito.eq(HttpMethod.GET), Mockito.any(), Mockito.any(ResponseExtractor.class))).thenAnswer((invocation) -> {
+			final String path = invocation.getArgument(0).toString();
+			final ClientHttpResponse response = Mockito.mock(ClientHttpResponse.class);
+			Mockito.when(response.getBody()).thenReturn(new ByteArrayInputStream(controllerBlobs.get(path.substring(path.lastIndexOf('/') + 1))));
+			return ((ResponseExtractor<?>) invocation.getArgument(3)).extractData(response);
+		});
+	}
+
+	@AfterEach
+	public void tearDown() {
+		FileSystemUtils.deleteRecursively(directory.toFile());
+	}
+
+	/**
+	 * Tests that a blob is fetched from the controller once and then read from the cache, also by a new cache in the same directory.
+	 */
+	@DisplayName("Test fetching and caching a blob")
+	@Test
+	public void testGetBlob() throws IOException {
+		final String hash = addControllerBlob("0123456789");
+		BlobCache blobCache = new BlobCache(configProperties, restTemplate);
+
+		final Path blobFile = blobCache.getBlob(hash);
+		assertEquals("0123456789", new String(Files.readAllBytes(blobFile), StandardCharsets.UTF_8), "Fetched content is expected to be cached");
+		assertEquals(blobFile, blobCache.getBlob(hash), "Cached blob is expected to be returned again");
+		Mockito.verify(restTemplate, Mockito.times(1)).execute(Mockito.eq(URI.create(CONTROLLER_URL + "blobs/" + hash)), Mockito.eq(HttpMethod.GET), Mockito.any(), Mockito.any(ResponseExtractor.class));
+
+		blobCache = new BlobCache(configProperties, restTemplate);
+		assertTrue(blobCache.isCached(hash), "Blob cached before is expected to be kept");
+		assertEquals(10, blobCache.getCachedSize(), "Blob cached before is expected to count");
+	}
+
+	/**
+	 * Tests that the least recently used blobs are deleted once the cached blobs exceed the configured size.
+	 */
+	@DisplayName("Test eviction of the least recently used blobs")
+	@Test
+	public void testEviction() throws IOException {
+		final String first = addControllerBlob("first-blob");
+		final String second = addControllerBlob("second-blob");
+		final String third = addControllerBlob("third-blob");
+		final BlobCache blobCache = new BlobCache(configProperties, restTemplate);
+
+		blobCache.getBlob(first);
+		blobCache.getBlob(second);
+		blobCache.getBlob(first);
+		blobCache.getBlob(third);
+
+		assertTrue(blobCache.isCached(first), "Recently used blob is expected to be kept");
+		assertFalse(blobCache.isCached(second), "Least recently used blob is expected to be evicted");
+		assertFalse(Files.exists(directory.resolve(second)), "File of evicted blob is expected to be deleted");
+		assertTrue(blobCache.isCached(third), "Fetched blob is expected to be cached");
+		assertEquals(20, blobCache.getCachedSize(), "Size of the remaining blobs is expected");
+	}
+
+	/**
+	 * Tests that pinned blobs are kept even if the cache exceeds its size and are deleted once they are unpinned as many times as they were pinned.
+	 */
+	@DisplayName("Test pinning blobs in use")
+	@Test
+	public void testPinBlob() throws IOException {
+		final String first = addControllerBlob("first-blob");
+		final String second = addControllerBlob("second-blob");
+		final String third = addControllerBlob("third-blob");
+		final BlobCache blobCache = new BlobCache(configProperties, restTemplate);
+
+		final Path firstFile = blobCache.pinBlob(first);
+		blobCache.pinBlob(first);
+		blobCache.pinBlob(second);
+		blobCache.getBlob(third);
+
+		assertTrue(Files.exists(firstFile), "Pinned blob is expected to be kept");
+		assertTrue(blobCache.isCached(second), "Pinned blob is expected to be kept");
+		assertEquals(31, blobCache.getCachedSize(), "Pinned blobs are expected to be kept beyond the configured size");
+
+		blobCache.unpinBlob(first);
+		assertTrue(blobCache.isCached(first), "Blob still pinned is expected to be kept");
+		blobCache.unpinBlob(first);
+		assertFalse(blobCache.isCached(first), "Unpinned blob is expected to be evicted");
+		assertFalse(Files.exists(firstFile), "File of evicted blob is expected to be deleted");
+		assertEquals(21, blobCache.getCachedSize(), "Size of the remaining blobs is expected");
+	}
+
+	/**
+	 * Tests that content not matching its hash and invalid hashes are refused.
+	 */
+	@DisplayName("Test corrupted content and invalid hashes")
+	@Test
+	public void testInvalidBlobs() throws IOException {
+		final String hash = addControllerBlob("original");
+		controllerBlobs.put(hash, "modified".getBytes(StandardCharsets.UTF_8));
+		final BlobCache blobCache = new BlobCache(configProperties, restTemplate);
+
+		assertThrows(UncheckedIOException.class, () -> blobCache.getBlob(hash), "Content not matching its hash is expected to be refused");
+		assertFalse(blobCache.isCached(hash), "Refused content is not expected to be cached");
+		assertEquals(0, Files.list(directory).count(), "Refused content is not expected to be left on disk");
+		assertThrows(IllegalArgumentException.class, () -> blobCache.getBlob("../secret"), "Invalid hash is expected to be refused");
+	}
+
+	/**
+	 * Tests that a stored blob is uploaded to the controller and cached right away.
+	 */
+	@DisplayName("Test storing a blob")
+	@Test
+	public void testPutBlob() throws IOException {
+		final ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+		Mockito.when(restTemplate.execute(Mockito.eq(URI.create(CONTROLLER_URL + "blobs")), Mockito.eq(HttpMethod.POST), Mockito.any(), Mockito.any(ResponseExtractor.class))).thenAnswer((invocation) -> {
+			final ClientHttpRequest request = Mockito.mock(ClientHttpRequest.class);
+			Mockito.when(request.getHeaders()).thenReturn(new HttpHeaders());
+			Mockito.when(request.getBody()).thenReturn(uploaded);
+			((RequestCallback) invocation.getArgument(2)).doWithRequest(request);
+			final String hash = addControllerBlob(uploaded.toString("UTF-8"));
+			final ClientHttpResponse response = Mockito.mock(ClientHttpResponse.class);
+			Mockito.when(response.getBody()).thenReturn(new ByteArrayInputStream(hash.getBytes(StandardCharsets.UTF_8)));
+			return ((ResponseExtractor<?>) invocation.getArgument(3)).extractData(response);
+		});
+		final BlobCache blobCache = new BlobCache(configProperties, restTemplate);
+
+		final String hash = blobCache.putBlob(new ByteArrayInputStream("generated".getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals("generated", uploaded.toString("UTF-8"), "Content is expected to be uploaded");
+		assertTrue(blobCache.isCached(hash), "Stored blob is expected to be cached");
+		assertEquals("generated", new String(Files.readAllBytes(blobCache.getBlob(hash)), StandardCharsets.UTF_8), "Stored blob is expected to be read from the cache");
+	}
+
+	private String addControllerBlob(String content) throws IOException {
+		final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		final String hash = BlobHash.copy(new ByteArrayInputStream(bytes), new ByteArrayOutputStream());
+		controllerBlobs.put(hash, bytes);
+		return hash;
+	}
+
+}
@@ -0,0 +1,94 @@
+package no.siriuslabs.computationapi.implementation;
+
+import no.siriuslabs.computationapi.api.model.computation.RunBroadcast;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.api.model.config.Controller;
+import no.siriuslabs.computationapi.implementation.config.ConfigProperties;
+import no.siriuslabs.computationapi.implementation.config.Node;
+import no.siriuslabs.computationapi.implementation.model.TestDomainType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the BroadcastReceiver class.
+ */
+public class BroadcastReceiverTest {
+
+	private static final URI CONTROLLER_URL = URI.create("http://localhost:8080/");
+
+	private RestTemplate restTemplate;
+
+	private BroadcastReceiver broadcastReceiver;
+
+	@BeforeEach
+	public void setup() {
+		Controller controller = new Controller();
+		controller.setLocalUrl(CONTROLLER_URL);
+		Node node = new Node();
+		node.setBroadcastRuns(2);
+		ConfigProperties configProperties = new ConfigProperties();
+		configProperties.setController(controller);
+		configProperties.setNode(node);
+
+		restTemplate = Mockito.mock(RestTemplate.class);
+		broadcastReceiver = new BroadcastReceiver(configProperties, restTemplate);
+	}
+
+	/**
+	 * Tests that received broadcast data is handed to the WorkPackages of its run without calling the controller.
+	 */
+	@DisplayName("Test received broadcast data")
+	@Test
+	public void testReceiveBroadcast() {
+		final Map<String, Object> data = Collections.singletonMap("reference", "value");
+		assertTrue(broadcastReceiver.receiveBroadcast(new RunBroadcast(1, data)).getBody(), "Broadcast data is expected to be accepted");
+
+		WorkPackage workPackage = createWorkPackage(1);
+		broadcastReceiver.attachTo(workPackage);
+
+		assertNotNull(workPackage.getBroadcast(), "Handle is expected to be attached");
+		assertEquals(data, workPackage.getBroadcast().getData(), "Received data is expected to be handed to the package");
+		assertThrows(UnsupportedOperationException.class, () -> workPackage.getBroadcast().getData().put("other", "value"), "Data is not expected to be modifiable");
+		Mockito.verifyZeroInteractions(restTemplate);
+	}
+
+	/**
+	 * Tests that broadcast data not received is fetched from the controller once, and only when used, and that the data of the least recently used runs is dropped.
+	 */
+	@DisplayName("Test fetched broadcast data")
+	@Test
+	public void testFetchBroadcast() {
+		final URI uri = URI.create(CONTROLLER_URL + "broadcast/1");
+		Mockito.when(restTemplate.getForObject(uri, RunBroadcast.class)).thenReturn(new RunBroadcast(1, Collections.singletonMap("reference", "fetched")));
+
+		WorkPackage workPackage = createWorkPackage(1);
+		broadcastReceiver.attachTo(workPackage);
+		Mockito.verifyZeroInteractions(restTemplate);
+
+		assertEquals("fetched", workPackage.getBroadcast().getData().get("reference"), "Fetched data is expected to be handed to the package");
+		assertEquals("fetched", broadcastReceiver.getBroadcast(1).get("reference"), "Fetched data is expected to be kept");
+		Mockito.verify(restTemplate, Mockito.times(1)).getForObject(uri, RunBroadcast.class);
+
+		broadcastReceiver.receiveBroadcast(new RunBroadcast(2, null));
+		broadcastReceiver.receiveBroadcast(new RunBroadcast(3, null));
+		assertTrue(broadcastReceiver.getBroadcast(3).isEmpty(), "Run without broadcast data is expected to have empty data");
+		broadcastReceiver.getBroadcast(1);
+		Mockito.verify(restTemplate, Mockito.times(2)).getForObject(uri, RunBroadcast.class);
+	}
+
+	private WorkPackage createWorkPackage(long runId) {
+		WorkPackage workPackage = new WorkPackage(TestDomainType.TEST_1, 1);
+		workPackage.setRunId(runId);
+		return workPackage;
+	}
+
+}
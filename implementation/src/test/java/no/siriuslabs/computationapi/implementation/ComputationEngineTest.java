@@ -0,0 +1,104 @@
+package no.siriuslabs.computationapi.implementation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the ComputationEngine class.
+ */
+public class ComputationEngineTest {
+
+	private ComputationEngine engine;
+
+	@BeforeEach
+	public void setup() {
+		engine = new ComputationEngine(2);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		engine.shutdown();
+	}
+
+	/**
+	 * Tests that concurrent calls are computed at most as many at a time as the engine's capacity, with the waiting ones counting towards the occupancy.
+	 */
+	@DisplayName("Test capacity and occupancy with concurrent calls")
+	@Test
+	public void testConcurrentCalls() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+
+		ExecutorService callers = Executors.newFixedThreadPool(3);
+		try {
+			List<Future<Integer>> futures = new ArrayList<>();
+			for(int i = 0; i < 3; i++) {
+				final int value = i;
+				futures.add(callers.submit(() -> engine.execute(() -> {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					try {
+						release.await(5, TimeUnit.SECONDS);
+					}
+					catch(InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					running.decrementAndGet();
+					return value;
+				})));
+			}
+
+			final long deadline = System.currentTimeMillis() + 5000;
+			while(engine.getOccupancy() < 3 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertEquals(2, engine.getCapacity(), "Capacity is expected to be the configured parallelism");
+			assertEquals(3, engine.getOccupancy(), "Running and waiting computations are expected to count towards the occupancy");
+
+			release.countDown();
+			for(int i = 0; i < 3; i++) {
+				assertEquals(i, futures.get(i).get(5, TimeUnit.SECONDS), "Each call is expected to get the result of its computation");
+			}
+			assertTrue(maxRunning.get() <= 2, "No more computations than the capacity are expected to run at once");
+			assertEquals(0, engine.getOccupancy(), "No computation is expected to be left");
+		}
+		finally {
+			callers.shutdownNow();
+		}
+	}
+
+	/**
+	 * Tests that a batch is computed in order, that computations started from within a computation run right away and that exceptions are rethrown as they are.
+	 */
+	@DisplayName("Test batches, nested computations and failures")
+	@Test
+	public void testBatchAndFailures() {
+		List<Supplier<Integer>> batch = Arrays.asList(() -> 1, () -> engine.execute(() -> 2), () -> 3);
+		assertEquals(Arrays.asList(1, 2, 3), engine.executeAll(batch), "Results are expected in the order of the computations");
+
+		final IllegalArgumentException failure = new IllegalArgumentException("Computation failure");
+		assertSame(failure, assertThrows(IllegalArgumentException.class, () -> engine.execute(() -> {
+			throw failure;
+		}), "Exception of the computation is expected to be rethrown"), "Exception is expected to be rethrown as it is");
+		assertThrows(IllegalArgumentException.class, () -> engine.executeAll(Arrays.asList(() -> 1, () -> {
+			throw failure;
+		})), "Exception of a computation in a batch is expected to be rethrown");
+		assertEquals(0, engine.getOccupancy(), "No computation is expected to be left");
+	}
+
+}
@@ -0,0 +1,119 @@
+package no.siriuslabs.computationapi.implementation;
+
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackageResult;
+import no.siriuslabs.computationapi.api.model.request.Payload;
+import no.siriuslabs.computationapi.api.transport.NodeCall;
+import no.siriuslabs.computationapi.implementation.model.TestDomainType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the InProcessNodeTransport class.
+ */
+public class InProcessNodeTransportTest {
+
+	private static final URI NODE_URI = URI.create("inproc://localhost:8888");
+
+	private ImplementationController implementationController;
+	private ActiveRequestFilter activeRequestFilter;
+
+	private InProcessNodeTransport transport;
+
+	@BeforeEach
+	public void setup() {
+		implementationController = Mockito.mock(ImplementationController.class);
+		activeRequestFilter = new ActiveRequestFilter();
+		transport = new InProcessNodeTransport(new NodeServiceDispatcher(implementationController, Mockito.mock(WorkerStatusController.class), activeRequestFilter, Mockito.mock(BroadcastReceiver.class)));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		transport.destroy();
+	}
+
+	/**
+	 * Tests that only URIs of the in-process scheme are supported.
+	 */
+	@DisplayName("Test supports()")
+	@Test
+	public void testSupports() {
+		assertTrue(transport.supports(NODE_URI), "In-process URI is expected to be supported");
+		assertFalse(transport.supports(URI.create("http://localhost:8888")), "HTTP URI is not expected to be supported");
+	}
+
+	/**
+	 * Tests that a WorkPackage is handed to the node as it is, carrying the computation timeout, and that the node's result is returned as it is.
+	 */
+	@DisplayName("Test a computation call")
+	@Test
+	public void testComputation() {
+		final WorkPackage workPackage = new WorkPackage(TestDomainType.TEST_1, 1);
+		final WorkPackageResult result = new WorkPackageResult(workPackage);
+		Mockito.when(implementationController.runComputation(workPackage)).thenReturn(ResponseEntity.ok(result));
+
+		NodeCall call = new NodeCall("/runComputation", workPackage);
+		call.setTimeout(1000);
+		ResponseEntity<Object> response = transport.call(NODE_URI, call, Object.class);
+
+		assertSame(result, response.getBody(), "Result is expected to be returned without conversion");
+		assertEquals(1000, workPackage.getComputationTimeout(), "Timeout is expected to be passed with the WorkPackage");
+		assertEquals(0, activeRequestFilter.getActiveRequests(), "No request is expected to be active after the call");
+	}
+
+	/**
+	 * Tests that a call not replying within its reply timeout is given up like an HTTP call running into its read timeout, while being counted as active request.
+	 */
+	@DisplayName("Test a call exceeding its reply timeout")
+	@Test
+	public void testReplyTimeout() throws InterruptedException {
+		final WorkPackage workPackage = new WorkPackage(TestDomainType.TEST_1, 1);
+		final CountDownLatch interrupted = new CountDownLatch(1);
+		Mockito.when(implementationController.runComputation(workPackage)).thenAnswer((invocation) -> {
+			try {
+				Thread.sleep(60000);
+			}
+			catch(InterruptedException e) {
+				interrupted.countDown();
+			}
+			return ResponseEntity.ok(new WorkPackageResult(workPackage));
+		});
+
+		NodeCall call = new NodeCall("/runComputation", workPackage);
+		call.setReplyTimeout(200);
+		ResourceAccessException exception = assertThrows(ResourceAccessException.class, () -> transport.call(NODE_URI, call, Object.class), "Call is expected to time out");
+
+		assertTrue(exception.getCause() instanceof SocketTimeoutException, "Timeout is expected to be reported like a read timeout");
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS), "Abandoned call is expected to be interrupted");
+	}
+
+	/**
+	 * Tests that a reply with an error status is thrown like the RestTemplate does.
+	 */
+	@DisplayName("Test a reply with an error status")
+	@Test
+	public void testErrorStatus() {
+		final Payload payload = new Payload();
+		Mockito.when(implementationController.validateData(payload)).thenReturn(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Collections.singletonList("invalid")));
+
+		HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> transport.call(NODE_URI, new NodeCall("/validateData", payload), Object.class),
+				"Error status is expected to be thrown");
+		assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode(), "Status of the reply is expected to be kept");
+	}
+
+}
@@ -0,0 +1,110 @@
+package no.siriuslabs.computationapi.implementation;
+
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackageResult;
+import no.siriuslabs.computationapi.api.model.config.Controller;
+import no.siriuslabs.computationapi.implementation.config.ConfigProperties;
+import no.siriuslabs.computationapi.implementation.config.Node;
+import no.siriuslabs.computationapi.implementation.model.TestDomainType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the ResultReporter class.
+ */
+public class ResultReporterTest {
+
+	private static final URI CONTROLLER_URL = URI.create("http://localhost:8080/");
+
+	private RestTemplate restTemplate;
+
+	private ResultReporter resultReporter;
+
+	@BeforeEach
+	public void setup() {
+		Controller controller = new Controller();
+		controller.setLocalUrl(CONTROLLER_URL);
+		controller.setRetryCount(1);
+		controller.setRetryDelay(1);
+		Node node = new Node();
+		node.setResultBatchSize(2);
+		ConfigProperties configProperties = new ConfigProperties();
+		configProperties.setController(controller);
+		configProperties.setNode(node);
+
+		restTemplate = Mockito.mock(RestTemplate.class);
+		Mockito.when(restTemplate.exchange(Mockito.any(URI.class), Mockito.eq(HttpMethod.POST), Mockito.any(HttpEntity.class), Mockito.eq(Boolean[].class)))
+				.thenReturn(ResponseEntity.ok(new Boolean[] {true}));
+		// the sender thread is not started - batches are sent by the test itself
+		resultReporter = new ResultReporter(configProperties, restTemplate);
+	}
+
+	/**
+	 * Tests that queued results are sent in batches of at most the configured size, one call per controller service, and stop being pending once sent.
+	 */
+	@DisplayName("Test reportNextBatch() with several queued results")
+	@Test
+	public void testReportNextBatch() throws InterruptedException {
+		List<WorkPackageResult> results = Arrays.asList(createResult(1), createResult(2), createResult(3), createResult(4));
+		for(WorkPackageResult result : results) {
+			resultReporter.expectResult();
+		}
+		resultReporter.report("reportResults/a", results.get(0));
+		resultReporter.report("reportResults/a", results.get(1));
+		resultReporter.report("reportResults/a", results.get(2));
+		resultReporter.report("reportResults/b", results.get(3));
+		assertEquals(4, resultReporter.getPendingResults(), "Queued results are expected to be pending");
+
+		resultReporter.reportNextBatch();
+		assertEquals(2, resultReporter.getPendingResults(), "Results of a full batch are expected to be sent together");
+		assertFalse(resultReporter.awaitReported(1), "Results still queued are expected to be pending");
+
+		resultReporter.reportNextBatch();
+		assertTrue(resultReporter.awaitReported(1), "All results are expected to be reported");
+
+		ArgumentCaptor<URI> uris = ArgumentCaptor.forClass(URI.class);
+		ArgumentCaptor<HttpEntity> entities = ArgumentCaptor.forClass(HttpEntity.class);
+		Mockito.verify(restTemplate, Mockito.times(3)).exchange(uris.capture(), Mockito.eq(HttpMethod.POST), entities.capture(), Mockito.eq(Boolean[].class));
+		assertEquals(Arrays.asList(URI.create(CONTROLLER_URL + "reportResults/a"), URI.create(CONTROLLER_URL + "reportResults/a"), URI.create(CONTROLLER_URL + "reportResults/b")),
+				uris.getAllValues(), "Results of different services are expected to be sent separately");
+		assertEquals(results.subList(0, 2), entities.getAllValues().get(0).getBody(), "First batch is expected to contain the first two results");
+		assertEquals(results.subList(2, 3), entities.getAllValues().get(1).getBody(), "Second batch is expected to contain the remaining result of the service");
+	}
+
+	/**
+	 * Tests that a failed report is retried.
+	 */
+	@DisplayName("Test reportNextBatch() with a failing call")
+	@Test
+	public void testReportNextBatch_Retry() throws InterruptedException {
+		Mockito.when(restTemplate.exchange(Mockito.any(URI.class), Mockito.eq(HttpMethod.POST), Mockito.any(HttpEntity.class), Mockito.eq(Boolean[].class)))
+				.thenThrow(new RestClientException("Expected RestClientException"))
+				.thenReturn(ResponseEntity.ok(new Boolean[] {true}));
+
+		resultReporter.expectResult();
+		resultReporter.report("reportResults/a", createResult(1));
+		resultReporter.reportNextBatch();
+
+		Mockito.verify(restTemplate, Mockito.times(2)).exchange(Mockito.any(URI.class), Mockito.eq(HttpMethod.POST), Mockito.any(HttpEntity.class), Mockito.eq(Boolean[].class));
+		assertEquals(0, resultReporter.getPendingResults(), "Reported result is not expected to be pending anymore");
+	}
+
+	private WorkPackageResult createResult(long id) {
+		return new WorkPackageResult(new WorkPackage(TestDomainType.TEST_1, id));
+	}
+
+}
@@ -0,0 +1,240 @@
+package no.siriuslabs.computationapi.implementation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import no.siriuslabs.computationapi.api.http.PooledHttpClientFactory;
+import no.siriuslabs.computationapi.api.model.computation.Status;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackageResult;
+import no.siriuslabs.computationapi.api.model.config.Controller;
+import no.siriuslabs.computationapi.api.transport.NodeCall;
+import no.siriuslabs.computationapi.api.transport.UnixSocketNodeTransport;
+import no.siriuslabs.computationapi.api.transport.UnixSockets;
+import no.siriuslabs.computationapi.implementation.model.TestDomainType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the UnixSocketNodeServer class together with the UnixSocketNodeTransport calling it, including a benchmark comparing the
+ * Unix domain socket to HTTP over the loopback interface.
+ */
+public class UnixSocketNodeServerTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(UnixSocketNodeServerTest.class);
+
+	private ImplementationController implementationController;
+	private ObjectMapper objectMapper;
+	private NodeServiceDispatcher dispatcher;
+
+	private Path directory;
+	private URI nodeUri;
+	private UnixSocketNodeServer server;
+	private UnixSocketNodeTransport transport;
+
+	@BeforeEach
+	public void setup() throws IOException {
+		Assumptions.assumeTrue(UnixSockets.isSupported(), "Unix domain sockets are not supported by this Java runtime");
+
+		implementationController = Mockito.mock(ImplementationController.class);
+		Mockito.when(implementationController.runComputation(Mockito.any(WorkPackage.class)))
+				.thenAnswer((invocation) -> ResponseEntity.ok(new WorkPackageResult(invocation.getArgument(0))));
+		objectMapper = new ObjectMapper();
+		dispatcher = new NodeServiceDispatcher(implementationController, Mockito.mock(WorkerStatusController.class), new ActiveRequestFilter(), Mockito.mock(BroadcastReceiver.class));
+
+		directory = Files.createTempDirectory("node");
+		final Path socketPath = directory.resolve("worker.sock");
+		nodeUri = UnixSocketNodeTransport.toUri(socketPath);
+		server = new UnixSocketNodeServer(socketPath, dispatcher, objectMapper);
+		server.start();
+		transport = new UnixSocketNodeTransport(objectMapper);
+	}
+
+	@AfterEach
+	public void tearDown() throws IOException {
+		if(server != null) {
+			transport.close();
+			server.stop();
+			Files.deleteIfExists(directory);
+		}
+	}
+
+	/**
+	 * Tests that a WorkPackage is computed through the socket, with the computation timeout passed along, and its result replied in the generic structure.
+	 */
+	@DisplayName("Test a computation call through the socket")
+	@Test
+	public void testComputation() {
+		assertTrue(server.isListening(), "Server is expected to listen");
+		assertTrue(transport.supports(nodeUri), "Transport is expected to support the URI of an existing socket");
+
+		NodeCall call = new NodeCall("/runComputation", createWorkPackage(1));
+		call.setTimeout(1000);
+		for(int i = 0; i < 2; i++) {
+			ResponseEntity<Object> response = transport.call(nodeUri, call, Object.class);
+
+			assertEquals(HttpStatus.OK, response.getStatusCode(), "Call is expected to succeed");
+			Map<String, Object> result = (Map<String, Object>) response.getBody();
+			assertEquals(Status.DONE.name(), result.get("status"), "Result is expected to be replied");
+			assertEquals(1, ((Map<String, Object>) result.get("workPackage")).get("id"), "Result is expected to belong to the package");
+		}
+
+		ArgumentCaptor<WorkPackage> captor = ArgumentCaptor.forClass(WorkPackage.class);
+		Mockito.verify(implementationController, Mockito.times(2)).runComputation(captor.capture());
+		assertEquals(1000, captor.getValue().getComputationTimeout(), "Timeout is expected to be passed with the WorkPackage");
+		assertEquals(TestDomainType.TEST_1.getDomainType(), captor.getValue().getDomain().getDomainType(), "Domain is expected to be passed");
+	}
+
+	/**
+	 * Tests that a call of an unknown service is replied with HttpStatus 404 and thrown like the RestTemplate does.
+	 */
+	@DisplayName("Test a call of an unknown service")
+	@Test
+	public void testUnknownService() {
+		HttpClientErrorException exception = assertThrows(HttpClientErrorException.class, () -> transport.call(nodeUri, new NodeCall("/unknown", "body"), Object.class),
+				"Unknown service is expected to be refused");
+		assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode(), "Status 404 is expected");
+		assertFalse(transport.supports(URI.create(nodeUri + "-missing")), "Transport is not expected to support the URI of a missing socket");
+	}
+
+	/**
+	 * Benchmarks latency and throughput of computation calls through the Unix domain socket against the same calls over HTTP through the loopback interface,
+	 * both using keep-alive connections and JSON bodies. Results are only reported, as they depend on the machine.<p>
+	 * Only run on request with the system property "benchmark" set to true (mvn test -Dbenchmark=true).
+	 */
+	@DisplayName("Benchmark the socket against loopback HTTP")
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	public void testBenchmark() throws Exception {
+		// without it, the JDK's server delays small replies until the client acknowledges their headers, which would dominate the measurement
+		final String nodelay = System.setProperty("sun.net.httpserver.nodelay", "true");
+		final HttpServer httpServer;
+		try {
+			httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		}
+		finally {
+			restoreProperty("sun.net.httpserver.nodelay", nodelay);
+		}
+		httpServer.setExecutor(Executors.newCachedThreadPool());
+		httpServer.createContext("/runComputation", (exchange) -> {
+			WorkPackage workPackage = objectMapper.readValue(StreamUtils.copyToByteArray(exchange.getRequestBody()), WorkPackage.class);
+			byte[] reply = objectMapper.writeValueAsBytes(dispatcher.dispatch("/runComputation", workPackage, 0).getBody());
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, reply.length);
+			try(OutputStream out = exchange.getResponseBody()) {
+				out.write(reply);
+			}
+		});
+		httpServer.start();
+
+		final RestTemplate restTemplate = PooledHttpClientFactory.createRestTemplate(new Controller(), new SimpleMeterRegistry(), "benchmark");
+		final URI httpUri = URI.create("http://localhost:" + httpServer.getAddress().getPort() + "/runComputation");
+		final WorkPackage workPackage = createWorkPackage(1);
+		try {
+			benchmark("unix socket", () -> transport.call(nodeUri, new NodeCall("/runComputation", workPackage), Object.class));
+			benchmark("loopback HTTP", () -> restTemplate.exchange(httpUri, HttpMethod.POST, new HttpEntity<>(workPackage), Object.class));
+		}
+		finally {
+			httpServer.stop(0);
+			((ExecutorService) httpServer.getExecutor()).shutdownNow();
+		}
+	}
+
+	/**
+	 * Sets the system property with the given name back to the given previous value, or clears it if it had none.
+	 */
+	private static void restoreProperty(String name, String previousValue) {
+		if(previousValue == null) {
+			System.clearProperty(name);
+		}
+		else {
+			System.setProperty(name, previousValue);
+		}
+	}
+
+	/**
+	 * Measures the average latency of sequential calls and the throughput of concurrent calls made through the given call and reports them.
+	 */
+	private void benchmark(String name, Supplier<ResponseEntity<Object>> call) throws Exception {
+		final int warmup = 500;
+		final int iterations = 2000;
+		final int threads = 8;
+
+		for(int i = 0; i < warmup; i++) {
+			assertEquals(HttpStatus.OK, call.get().getStatusCode(), name + " call is expected to succeed");
+		}
+
+		long start = System.nanoTime();
+		for(int i = 0; i < iterations; i++) {
+			call.get();
+		}
+		final double latency = (System.nanoTime() - start) / 1000.0 / iterations;
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			start = System.nanoTime();
+			for(int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					for(int i = 0; i < iterations / threads; i++) {
+						call.get();
+					}
+				}));
+			}
+			for(Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		final double throughput = iterations / ((System.nanoTime() - start) / 1000000000.0);
+
+		LOGGER.info("{}: average latency {} µs, throughput with {} threads {} calls/s", name, String.format("%.1f", latency), threads, String.format("%.0f", throughput));
+	}
+
+	private WorkPackage createWorkPackage(long id) {
+		WorkPackage workPackage = new WorkPackage(TestDomainType.TEST_1, id);
+		Map<String, Object> data = new HashMap<>();
+		List<Double> values = new ArrayList<>();
+		for(int i = 0; i < 100; i++) {
+			values.add(i * 1.5);
+		}
+		data.put("values", values);
+		workPackage.setData(data);
+		return workPackage;
+	}
+
+}
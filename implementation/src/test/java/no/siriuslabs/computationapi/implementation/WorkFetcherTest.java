@@ -0,0 +1,96 @@
+package no.siriuslabs.computationapi.implementation;
+
+import no.siriuslabs.computationapi.api.http.WireFormat;
+import no.siriuslabs.computationapi.api.model.computation.Status;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackageResult;
+import no.siriuslabs.computationapi.implementation.model.TestDomainType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the WorkFetcher class.
+ */
+public class WorkFetcherTest {
+
+	private static final URI FETCH_URI = URI.create("http://localhost:8080/fetchWork/node");
+	private static final String REPORT_PATH = "reportResults/node";
+
+	private RestTemplate restTemplate;
+	private ImplementationController implementationController;
+	private ResultReporter resultReporter;
+
+	private WorkFetcher workFetcher;
+
+	@BeforeEach
+	public void setup() {
+		restTemplate = Mockito.mock(RestTemplate.class);
+		implementationController = Mockito.mock(ImplementationController.class);
+		resultReporter = Mockito.mock(ResultReporter.class);
+		Mockito.when(resultReporter.awaitReported(Mockito.anyLong())).thenReturn(true);
+		workFetcher = new WorkFetcher(restTemplate, implementationController, Mockito.mock(BroadcastReceiver.class), resultReporter, FETCH_URI, REPORT_PATH, 2, 1000, 1, WireFormat.SMILE);
+	}
+
+	/**
+	 * Tests that fetched packages are computed and their results handed to the ResultReporter and that the number of free slots is sent with the fetch request.
+	 */
+	@DisplayName("Test fetchAndStart() with fetched packages")
+	@Test
+	public void testFetchAndStart() {
+		WorkPackage workPackage = new WorkPackage(TestDomainType.TEST_1, 1);
+		Mockito.when(restTemplate.exchange(Mockito.any(URI.class), Mockito.eq(HttpMethod.POST), Mockito.any(HttpEntity.class), Mockito.eq(WorkPackage[].class)))
+				.thenReturn(ResponseEntity.ok(new WorkPackage[] {workPackage}));
+		WorkPackageResult result = new WorkPackageResult(workPackage);
+		result.setStatus(Status.DONE);
+		Mockito.when(implementationController.runComputation(workPackage)).thenReturn(ResponseEntity.ok(result));
+
+		assertEquals(1, workFetcher.fetchAndStart(2), "Fetched package is expected to be started");
+		assertTrue(workFetcher.stop(5000), "Computation is expected to finish");
+
+		ArgumentCaptor<URI> fetchUri = ArgumentCaptor.forClass(URI.class);
+		ArgumentCaptor<HttpEntity> fetchEntity = ArgumentCaptor.forClass(HttpEntity.class);
+		Mockito.verify(restTemplate).exchange(fetchUri.capture(), Mockito.eq(HttpMethod.POST), fetchEntity.capture(), Mockito.eq(WorkPackage[].class));
+		assertEquals("maxPackages=2&timeout=1000", fetchUri.getValue().getQuery(), "Free slots and poll timeout are expected to be sent");
+		assertEquals(WireFormat.SMILE.getMediaType(), fetchEntity.getValue().getHeaders().getAccept().get(0).toString(), "Configured wire format is expected to be asked for");
+
+		Mockito.verify(resultReporter).expectResult();
+		Mockito.verify(resultReporter).report(REPORT_PATH, result);
+	}
+
+	/**
+	 * Tests that nothing is started if the controller has no work.
+	 */
+	@DisplayName("Test fetchAndStart() without work")
+	@Test
+	public void testFetchAndStart_NoWork() {
+		Mockito.when(restTemplate.exchange(Mockito.any(URI.class), Mockito.eq(HttpMethod.POST), Mockito.any(HttpEntity.class), Mockito.eq(WorkPackage[].class)))
+				.thenReturn(ResponseEntity.noContent().build());
+
+		assertEquals(0, workFetcher.fetchAndStart(2), "No package is expected to be started");
+	}
+
+	/**
+	 * Tests that a failing computation is reported as FAILED.
+	 */
+	@DisplayName("Test compute() with a failing computation")
+	@Test
+	public void testCompute_Failure() {
+		WorkPackage workPackage = new WorkPackage(TestDomainType.TEST_1, 1);
+		Mockito.when(implementationController.runComputation(workPackage)).thenThrow(new IllegalStateException("Expected exception"));
+
+		WorkPackageResult result = workFetcher.compute(workPackage);
+		assertEquals(Status.FAILED, result.getStatus(), "Failed computation is expected to be reported as FAILED");
+	}
+
+}
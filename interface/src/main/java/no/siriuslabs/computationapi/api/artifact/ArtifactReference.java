@@ -0,0 +1,92 @@
+package no.siriuslabs.computationapi.api.artifact;
+
+import java.util.Map;
+
+/**
+ * Container class referencing a binary artifact of a computation run kept in the controller's artifact store.<p>
+ * Worker nodes upload large binary results as artifacts and put references to them into their WorkPackageResults (see WorkPackageResult.artifacts) instead of
+ * the content, so that the content is never part of a JSON body. The node accumulating the results downloads the artifacts it needs through the reference.
+ */
+public class ArtifactReference {
+
+	/**
+	 * ID of the computation run the artifact belongs to.
+	 */
+	private long runId;
+
+	/**
+	 * ID of the artifact, unique within its run (see ArtifactTransfer.isValidId()).
+	 */
+	private String id;
+
+	/**
+	 * Size of the artifact in bytes.
+	 */
+	private long size;
+
+	/**
+	 * Constructor needed for de-serialization.
+	 */
+	public ArtifactReference() {
+	}
+
+	/**
+	 * Constructor expecting all elements.
+	 */
+	public ArtifactReference(long runId, String id, long size) {
+		this.runId = runId;
+		this.id = id;
+		this.size = size;
+	}
+
+	/**
+	 * Returns the ArtifactReference in the given generic structure of a deserialized reference, or null if the given structure is null.
+	 */
+	public static ArtifactReference fromMap(Map<String, Object> map) {
+		if(map == null) {
+			return null;
+		}
+		final ArtifactReference reference = new ArtifactReference();
+		if(map.get("runId") != null) {
+			reference.setRunId(((Number) map.get("runId")).longValue());
+		}
+		reference.setId((String) map.get("id"));
+		if(map.get("size") != null) {
+			reference.setSize(((Number) map.get("size")).longValue());
+		}
+		return reference;
+	}
+
+	public long getRunId() {
+		return runId;
+	}
+
+	public void setRunId(long runId) {
+		this.runId = runId;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	public void setSize(long size) {
+		this.size = size;
+	}
+
+	@Override
+	public String toString() {
+		return "ArtifactReference{" +
+				"runId=" + runId +
+				", id='" + id + '\'' +
+				", size=" + size +
+				'}';
+	}
+}
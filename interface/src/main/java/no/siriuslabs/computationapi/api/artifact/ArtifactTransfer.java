@@ -0,0 +1,73 @@
+package no.siriuslabs.computationapi.api.artifact;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Helpers moving artifact content between files and streams through FileChannel.transferTo() and transferFrom(), shared by controller and worker nodes.<p>
+ * Content is handed to the channels in large chunks and never collected in memory. Where the other side is a socket, the operating system copies the
+ * file without it passing through the Java heap; otherwise the JDK copies through a small direct buffer.
+ */
+public final class ArtifactTransfer {
+
+	/**
+	 * Maximum number of bytes handed to a single transferTo() or transferFrom() call.
+	 */
+	static final long CHUNK_SIZE = 8L * 1024 * 1024;
+
+	/**
+	 * Pattern a valid artifact ID matches: a lowercase UUID.
+	 */
+	private static final Pattern ID_PATTERN = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+	/**
+	 * Default constructor.
+	 */
+	private ArtifactTransfer() {
+	}
+
+	/**
+	 * Returns a new artifact ID.
+	 */
+	public static String newId() {
+		return UUID.randomUUID().toString();
+	}
+
+	/**
+	 * Returns true if the given String is a valid artifact ID, otherwise false. As IDs are used as file names, anything else must not reach the file system.
+	 */
+	public static boolean isValidId(String id) {
+		return id != null && ID_PATTERN.matcher(id).matches();
+	}
+
+	/**
+	 * Writes the given FileChannel's content from the given position up to its end into the given target channel (without closing it). Returns the number of bytes written.
+	 */
+	public static long transferTo(FileChannel source, long position, WritableByteChannel target) throws IOException {
+		final long size = source.size();
+		long transferred = 0;
+		while(position + transferred < size) {
+			transferred += source.transferTo(position + transferred, Math.min(CHUNK_SIZE, size - position - transferred), target);
+		}
+		return transferred;
+	}
+
+	/**
+	 * Reads the given source channel (without closing it) up to its end into the given FileChannel, starting at its current size. Returns the number of bytes read.
+	 */
+	public static long transferFrom(ReadableByteChannel source, FileChannel target) throws IOException {
+		final long start = target.size();
+		long transferred = 0;
+		long count;
+		// a blocking source returns no bytes only at its end
+		while((count = target.transferFrom(source, start + transferred, CHUNK_SIZE)) > 0) {
+			transferred += count;
+		}
+		return transferred;
+	}
+
+}
@@ -0,0 +1,81 @@
+package no.siriuslabs.computationapi.api.blob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.regex.Pattern;
+
+/**
+ * Hashes identifying the blobs of the content-addressed blob store: the lowercase hexadecimal SHA-256 digest of a blob's content.<p>
+ * Controller and worker nodes compute the hash the same way, so that a node can verify a fetched blob against the hash it was referenced by.
+ */
+public final class BlobHash {
+
+	/**
+	 * Digest algorithm blobs are hashed with.
+	 */
+	public static final String ALGORITHM = "SHA-256";
+
+	/**
+	 * Pattern a valid hash matches.
+	 */
+	private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/**
+	 * Default constructor.
+	 */
+	private BlobHash() {
+	}
+
+	/**
+	 * Returns true if the given String is a valid hash, otherwise false. As hashes are used as file names, anything else must not reach the file system.
+	 */
+	public static boolean isValid(String hash) {
+		return hash != null && HASH_PATTERN.matcher(hash).matches();
+	}
+
+	/**
+	 * Returns a new MessageDigest computing a hash.
+	 */
+	public static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance(ALGORITHM);
+		}
+		catch(NoSuchAlgorithmException e) {
+			// every Java platform supports SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Returns the hash of the digest computed by the given MessageDigest.
+	 */
+	public static String toHash(MessageDigest digest) {
+		final byte[] bytes = digest.digest();
+		final char[] hex = new char[bytes.length * 2];
+		for(int i = 0; i < bytes.length; i++) {
+			hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0x0f];
+			hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0x0f];
+		}
+		return new String(hex);
+	}
+
+	/**
+	 * Copies the given stream to the given stream (without closing either) and returns the hash of the copied content.
+	 */
+	public static String copy(InputStream in, OutputStream out) throws IOException {
+		final MessageDigest digest = newDigest();
+		final byte[] buffer = new byte[64 * 1024];
+		int read;
+		while((read = in.read(buffer)) != -1) {
+			digest.update(buffer, 0, read);
+			out.write(buffer, 0, read);
+		}
+		return toHash(digest);
+	}
+
+}
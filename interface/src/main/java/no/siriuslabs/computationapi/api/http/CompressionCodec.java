@@ -0,0 +1,167 @@
+package no.siriuslabs.computationapi.api.http;
+
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Codecs request and response bodies between controller, worker nodes and clients can be compressed with, identified by their Content-Encoding.<p>
+ * Gzip is understood by every HTTP client and compresses best. LZ4 compresses less, but is many times faster in both directions, which pays off for large bodies
+ * on a fast network. It is not a registered content coding and thus only used between parties announcing it.
+ */
+public enum CompressionCodec {
+
+	GZIP("gzip") {
+		@Override
+		public OutputStream compress(OutputStream out) throws IOException {
+			return new GZIPOutputStream(out, BUFFER_SIZE);
+		}
+
+		@Override
+		public InputStream decompress(InputStream in) throws IOException {
+			return new GZIPInputStream(in, BUFFER_SIZE);
+		}
+	},
+	LZ4("lz4") {
+		@Override
+		public OutputStream compress(OutputStream out) throws IOException {
+			return new LZ4FrameOutputStream(out);
+		}
+
+		@Override
+		public InputStream decompress(InputStream in) throws IOException {
+			return new LZ4FrameInputStream(in);
+		}
+	};
+
+	/**
+	 * Size of the buffers used by the codecs' streams.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * Name of the codec in Content-Encoding and Accept-Encoding headers.
+	 */
+	private final String encoding;
+
+	/**
+	 * Enum constructor expecting all elements.
+	 */
+	CompressionCodec(String encoding) {
+		this.encoding = encoding;
+	}
+
+	public String getEncoding() {
+		return encoding;
+	}
+
+	/**
+	 * Returns a stream compressing everything written to it into the given OutputStream. Closing it finishes the compressed data and closes the given stream.
+	 */
+	public abstract OutputStream compress(OutputStream out) throws IOException;
+
+	/**
+	 * Returns a stream decompressing the data read from the given InputStream.
+	 */
+	public abstract InputStream decompress(InputStream in) throws IOException;
+
+	/**
+	 * Compresses the given data and returns the result.
+	 */
+	public byte[] compress(byte[] data) throws IOException {
+		ByteArrayOutputStream result = new ByteArrayOutputStream(Math.max(BUFFER_SIZE, data.length / 4));
+		try(OutputStream out = compress(result)) {
+			out.write(data);
+		}
+		return result.toByteArray();
+	}
+
+	/**
+	 * Returns the codec with the given Content-Encoding or null if the encoding is none of the codecs (including the encoding being null or "identity").
+	 */
+	public static CompressionCodec forEncoding(String encoding) {
+		if(encoding == null) {
+			return null;
+		}
+		for(CompressionCodec codec : values()) {
+			if(codec.encoding.equalsIgnoreCase(encoding.trim())) {
+				return codec;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the codecs listed in the given Accept-Encoding header value, leaving out those explicitly refused with a quality of zero.
+	 * Unknown encodings are ignored. Returns an empty list if the value is null.
+	 */
+	public static List<CompressionCodec> parseAcceptEncoding(String acceptEncoding) {
+		final List<CompressionCodec> codecs = new ArrayList<>();
+		if(acceptEncoding == null) {
+			return codecs;
+		}
+		for(String element : acceptEncoding.split(",")) {
+			String[] parts = element.split(";");
+			CompressionCodec codec = forEncoding(parts[0]);
+			if(codec != null && !codecs.contains(codec) && !isRefused(parts)) {
+				codecs.add(codec);
+			}
+		}
+		return codecs;
+	}
+
+	/**
+	 * Returns the codec to answer a request with the given Accept-Encoding header value in: the given preferred codec if it is accepted, otherwise the first
+	 * other codec accepted. Returns null if none of the codecs is accepted.
+	 */
+	public static CompressionCodec negotiate(String acceptEncoding, CompressionCodec preferredCodec) {
+		final List<CompressionCodec> accepted = parseAcceptEncoding(acceptEncoding);
+		if(preferredCodec != null && accepted.contains(preferredCodec)) {
+			return preferredCodec;
+		}
+		return accepted.isEmpty() ? null : accepted.get(0);
+	}
+
+	/**
+	 * Returns an Accept-Encoding header value listing all codecs, starting with the given preferred codec.
+	 */
+	public static String getAcceptEncoding(CompressionCodec preferredCodec) {
+		final StringBuilder builder = new StringBuilder();
+		if(preferredCodec != null) {
+			builder.append(preferredCodec.encoding);
+		}
+		for(CompressionCodec codec : values()) {
+			if(codec != preferredCodec) {
+				builder.append(builder.length() == 0 ? "" : ", ").append(codec.encoding);
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Returns true if the parameters of an Accept-Encoding element contain a quality of zero, otherwise false.
+	 */
+	private static boolean isRefused(String[] elementParts) {
+		for(int i = 1; i < elementParts.length; i++) {
+			String parameter = elementParts[i].trim();
+			if(parameter.startsWith("q=")) {
+				try {
+					return Double.parseDouble(parameter.substring(2)) <= 0;
+				}
+				catch(NumberFormatException e) {
+					return false;
+				}
+			}
+		}
+		return false;
+	}
+
+}
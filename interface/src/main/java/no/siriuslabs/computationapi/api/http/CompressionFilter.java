@@ -0,0 +1,520 @@
+package no.siriuslabs.computationapi.api.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import no.siriuslabs.computationapi.api.model.config.Compression;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Servlet filter decompressing compressed request bodies and compressing response bodies of all services, as negotiated with the caller.<p>
+ * A request body with a Content-Encoding of one of the CompressionCodecs is decompressed transparently; other encodings are refused with HttpStatus 415.
+ * Every response announces the codecs accepted for request bodies in an Accept-Encoding header (RFC 7694), so that callers know they may compress.
+ * A response body is compressed if the caller accepts one of the codecs and the body reaches the configured threshold - smaller bodies are sent as they are.
+ * Responses of asynchronously processed requests (e.g. long polls) are compressed once the asynchronous processing has finished.
+ */
+public class CompressionFilter extends OncePerRequestFilter {
+
+	/**
+	 * Configuration of the compression.
+	 */
+	private final Compression compression;
+	/**
+	 * Metrics the (de)compressed bodies are recorded in.
+	 */
+	private final CompressionMetrics metrics;
+
+	/**
+	 * Constructor expecting the configuration of the compression and the registry to record its metrics in.
+	 */
+	public CompressionFilter(Compression compression, MeterRegistry meterRegistry) {
+		this.compression = compression;
+		this.metrics = new CompressionMetrics(meterRegistry);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+		final CompressingResponse compressingResponse = WebUtils.getNativeResponse(response, CompressingResponse.class);
+		if(compressingResponse != null) {
+			// dispatch continuing an asynchronously processed request wrapped before
+			try {
+				filterChain.doFilter(request, response);
+			}
+			finally {
+				if(!isAsyncStarted(request)) {
+					compressingResponse.finish();
+				}
+			}
+			return;
+		}
+
+		response.setHeader(HttpHeaders.ACCEPT_ENCODING, CompressionCodec.getAcceptEncoding(compression.getCodec()));
+		final String endpoint = CompressionMetrics.getEndpoint(request.getRequestURI().substring(request.getContextPath().length()));
+
+		HttpServletRequest filteredRequest = request;
+		DecompressingRequest decompressingRequest = null;
+		final String contentEncoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+		if(contentEncoding != null && !"identity".equalsIgnoreCase(contentEncoding.trim())) {
+			final CompressionCodec codec = CompressionCodec.forEncoding(contentEncoding);
+			if(codec == null) {
+				response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "Unsupported Content-Encoding " + contentEncoding);
+				return;
+			}
+			decompressingRequest = new DecompressingRequest(request, codec, endpoint);
+			filteredRequest = decompressingRequest;
+		}
+
+		HttpServletResponse filteredResponse = response;
+		CompressingResponse newCompressingResponse = null;
+		final CompressionCodec responseCodec = compression.isEnabled() ? CompressionCodec.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING), compression.getCodec()) : null;
+		if(responseCodec != null) {
+			newCompressingResponse = new CompressingResponse(response, responseCodec, endpoint);
+			filteredResponse = newCompressingResponse;
+		}
+
+		try {
+			filterChain.doFilter(filteredRequest, filteredResponse);
+		}
+		finally {
+			if(decompressingRequest != null) {
+				decompressingRequest.finish();
+			}
+			if(newCompressingResponse != null && !isAsyncStarted(filteredRequest)) {
+				newCompressingResponse.finish();
+			}
+		}
+	}
+
+	@Override
+	protected boolean shouldNotFilterAsyncDispatch() {
+		// the response of an asynchronously processed request is written during the async dispatch and must be finished there
+		return false;
+	}
+
+	/**
+	 * Request wrapper providing the decompressed body of a compressed request, hiding the headers describing the compressed body.
+	 */
+	private class DecompressingRequest extends HttpServletRequestWrapper {
+
+		private final DecompressingInputStream body;
+		private ServletInputStream inputStream;
+		private BufferedReader reader;
+
+		DecompressingRequest(HttpServletRequest request, CompressionCodec codec, String endpoint) throws IOException {
+			super(request);
+			this.body = new DecompressingInputStream(request.getInputStream(), codec, metrics, endpoint, CompressionMetrics.REQUEST);
+		}
+
+		@Override
+		public ServletInputStream getInputStream() {
+			if(inputStream == null) {
+				inputStream = new ServletInputStream() {
+					@Override
+					public int read() throws IOException {
+						return body.read();
+					}
+
+					@Override
+					public int read(byte[] b, int off, int len) throws IOException {
+						return body.read(b, off, len);
+					}
+
+					@Override
+					public void close() throws IOException {
+						body.close();
+					}
+
+					@Override
+					public boolean isFinished() {
+						return body.isFinished();
+					}
+
+					@Override
+					public boolean isReady() {
+						return true;
+					}
+
+					@Override
+					public void setReadListener(ReadListener readListener) {
+						throw new UnsupportedOperationException("Non-blocking reads of compressed bodies are not supported");
+					}
+				};
+			}
+			return inputStream;
+		}
+
+		@Override
+		public BufferedReader getReader() throws IOException {
+			if(reader == null) {
+				final String encoding = getCharacterEncoding();
+				reader = new BufferedReader(new InputStreamReader(getInputStream(), encoding == null ? StandardCharsets.ISO_8859_1 : Charset.forName(encoding)));
+			}
+			return reader;
+		}
+
+		@Override
+		public int getContentLength() {
+			return -1;
+		}
+
+		@Override
+		public long getContentLengthLong() {
+			return -1;
+		}
+
+		@Override
+		public String getHeader(String name) {
+			return isHidden(name) ? null : super.getHeader(name);
+		}
+
+		@Override
+		public Enumeration<String> getHeaders(String name) {
+			return isHidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+		}
+
+		@Override
+		public Enumeration<String> getHeaderNames() {
+			final List<String> names = new ArrayList<>();
+			for(Enumeration<String> e = super.getHeaderNames(); e.hasMoreElements(); ) {
+				String name = e.nextElement();
+				if(!isHidden(name)) {
+					names.add(name);
+				}
+			}
+			return Collections.enumeration(names);
+		}
+
+		void finish() {
+			body.finish();
+		}
+
+		private boolean isHidden(String name) {
+			return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+		}
+	}
+
+	/**
+	 * Response wrapper buffering the body up to the configured threshold. A body reaching the threshold is compressed, a smaller one is sent as it is once the
+	 * response is finished. Content lengths set by the application are ignored, as they would not match a compressed body.
+	 */
+	private class CompressingResponse extends HttpServletResponseWrapper {
+
+		private final CompressionCodec codec;
+		private final String endpoint;
+
+		private ThresholdOutputStream body;
+		private ServletOutputStream outputStream;
+		private PrintWriter writer;
+
+		CompressingResponse(HttpServletResponse response, CompressionCodec codec, String endpoint) {
+			super(response);
+			this.codec = codec;
+			this.endpoint = endpoint;
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() {
+			if(outputStream == null) {
+				final ThresholdOutputStream stream = getBody();
+				outputStream = new ServletOutputStream() {
+					@Override
+					public void write(int b) throws IOException {
+						stream.write(b);
+					}
+
+					@Override
+					public void write(byte[] b, int off, int len) throws IOException {
+						stream.write(b, off, len);
+					}
+
+					@Override
+					public void flush() throws IOException {
+						stream.flush();
+					}
+
+					@Override
+					public boolean isReady() {
+						return true;
+					}
+
+					@Override
+					public void setWriteListener(WriteListener writeListener) {
+						throw new UnsupportedOperationException("Non-blocking writes of compressed bodies are not supported");
+					}
+				};
+			}
+			return outputStream;
+		}
+
+		@Override
+		public PrintWriter getWriter() {
+			if(writer == null) {
+				final String encoding = getCharacterEncoding();
+				writer = new PrintWriter(new OutputStreamWriter(getBody(), encoding == null ? StandardCharsets.ISO_8859_1 : Charset.forName(encoding)));
+			}
+			return writer;
+		}
+
+		@Override
+		public void setContentLength(int len) {
+			// ignored, see class comment
+		}
+
+		@Override
+		public void setContentLengthLong(long len) {
+			// ignored, see class comment
+		}
+
+		@Override
+		public void setHeader(String name, String value) {
+			if(!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				super.setHeader(name, value);
+			}
+		}
+
+		@Override
+		public void addHeader(String name, String value) {
+			if(!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				super.addHeader(name, value);
+			}
+		}
+
+		@Override
+		public void setIntHeader(String name, int value) {
+			if(!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				super.setIntHeader(name, value);
+			}
+		}
+
+		@Override
+		public void addIntHeader(String name, int value) {
+			if(!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				super.addIntHeader(name, value);
+			}
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			if(writer != null) {
+				writer.flush();
+			}
+			if(body == null || body.isStreaming()) {
+				super.flushBuffer();
+			}
+		}
+
+		@Override
+		public void resetBuffer() {
+			super.resetBuffer();
+			if(body != null) {
+				body.reset();
+			}
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+			if(body != null) {
+				body.reset();
+			}
+		}
+
+		/**
+		 * Writes what has been buffered and completes the compressed body, if any.
+		 */
+		void finish() throws IOException {
+			if(writer != null) {
+				writer.flush();
+			}
+			if(body != null) {
+				body.finish();
+			}
+		}
+
+		private ThresholdOutputStream getBody() {
+			if(body == null) {
+				body = new ThresholdOutputStream(this);
+			}
+			return body;
+		}
+	}
+
+	/**
+	 * OutputStream buffering a response body until it reaches the threshold, then compressing it into the actual response.
+	 */
+	private class ThresholdOutputStream extends OutputStream {
+
+		private final CompressingResponse response;
+		private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		/**
+		 * Stream writing into the actual response, compressing or not, once it has been decided.
+		 */
+		private OutputStream target;
+		private CountingOutputStream compressedTarget;
+		private long uncompressedBytes;
+		private long cpuTime;
+		private boolean finished;
+
+		ThresholdOutputStream(CompressingResponse response) {
+			this.response = response;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if(target == null) {
+				if(buffer.size() + len < compression.getThreshold()) {
+					buffer.write(b, off, len);
+					return;
+				}
+				startStreaming();
+			}
+			writeToTarget(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			// a buffered body is kept until it is complete or reaches the threshold
+			if(target != null) {
+				target.flush();
+			}
+		}
+
+		boolean isStreaming() {
+			return target != null;
+		}
+
+		void reset() {
+			if(target == null) {
+				buffer.reset();
+			}
+		}
+
+		/**
+		 * Writes a body below the threshold as it is, or completes the compressed body, and records its metrics.
+		 */
+		void finish() throws IOException {
+			if(finished) {
+				return;
+			}
+			finished = true;
+			if(target == null) {
+				final HttpServletResponse actual = (HttpServletResponse) response.getResponse();
+				if(buffer.size() > 0) {
+					if(!actual.isCommitted()) {
+						actual.setContentLength(buffer.size());
+					}
+					buffer.writeTo(actual.getOutputStream());
+				}
+				return;
+			}
+			if(compressedTarget == null) {
+				target.flush();
+				return;
+			}
+			final long start = CompressionMetrics.currentCpuTime();
+			target.close();
+			cpuTime += CompressionMetrics.currentCpuTime() - start;
+			metrics.record(response.endpoint, CompressionMetrics.RESPONSE, CompressionMetrics.COMPRESS, response.codec, uncompressedBytes, compressedTarget.getCount(), cpuTime);
+		}
+
+		/**
+		 * Decides how to write the body into the actual response - compressed unless the application encoded it itself or the response has been committed - and
+		 * writes what has been buffered.
+		 */
+		private void startStreaming() throws IOException {
+			final HttpServletResponse actual = (HttpServletResponse) response.getResponse();
+			if(actual.isCommitted() || actual.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+				target = actual.getOutputStream();
+			}
+			else {
+				actual.setHeader(HttpHeaders.CONTENT_ENCODING, response.codec.getEncoding());
+				actual.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+				compressedTarget = new CountingOutputStream(actual.getOutputStream());
+				target = response.codec.compress(compressedTarget);
+			}
+			final byte[] buffered = buffer.toByteArray();
+			buffer = null;
+			writeToTarget(buffered, 0, buffered.length);
+		}
+
+		private void writeToTarget(byte[] b, int off, int len) throws IOException {
+			if(compressedTarget == null) {
+				target.write(b, off, len);
+				return;
+			}
+			final long start = CompressionMetrics.currentCpuTime();
+			try {
+				target.write(b, off, len);
+			}
+			finally {
+				cpuTime += CompressionMetrics.currentCpuTime() - start;
+			}
+			uncompressedBytes += len;
+		}
+	}
+
+	/**
+	 * OutputStream counting the bytes written into the actual response. Closing it only flushes the response, which the servlet container completes itself.
+	 */
+	private static class CountingOutputStream extends FilterOutputStream {
+
+		private long count;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.flush();
+		}
+
+		long getCount() {
+			return count;
+		}
+	}
+
+}
@@ -0,0 +1,179 @@
+package no.siriuslabs.computationapi.api.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import no.siriuslabs.computationapi.api.model.config.Compression;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RestTemplate interceptor compressing request bodies and decompressing response bodies, as negotiated with the server called.<p>
+ * Every request announces the CompressionCodecs accepted for the response in an Accept-Encoding header, starting with the configured one.
+ * A request body reaching the configured threshold is compressed with the configured codec once the server has announced to accept it for request bodies
+ * (see CompressionFilter) - the first calls to a server are therefore sent as they are. Should a server refuse a compressed body nevertheless,
+ * the request is repeated uncompressed and the server is not sent compressed bodies anymore until it announces the codec again.
+ */
+public class CompressionInterceptor implements ClientHttpRequestInterceptor {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CompressionInterceptor.class);
+
+	/**
+	 * Configuration of the compression.
+	 */
+	private final Compression compression;
+	/**
+	 * Metrics the (de)compressed bodies are recorded in.
+	 */
+	private final CompressionMetrics metrics;
+	/**
+	 * Codecs the servers called accept for request bodies, per authority (host and port).
+	 */
+	private final Map<String, List<CompressionCodec>> acceptedCodecs = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor expecting the configuration of the compression and the registry to record its metrics in.
+	 */
+	public CompressionInterceptor(Compression compression, MeterRegistry meterRegistry) {
+		this.compression = compression;
+		this.metrics = new CompressionMetrics(meterRegistry);
+	}
+
+	/**
+	 * Adds a CompressionInterceptor with the given configuration and registry to the given RestTemplate and returns the RestTemplate.
+	 */
+	public static RestTemplate install(RestTemplate restTemplate, Compression compression, MeterRegistry meterRegistry) {
+		restTemplate.getInterceptors().add(new CompressionInterceptor(compression, meterRegistry));
+		return restTemplate;
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+		final HttpHeaders headers = request.getHeaders();
+		if(!compression.isEnabled() || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+			return decompress(request, execution.execute(request, body));
+		}
+
+		final URI uri = request.getURI();
+		final String endpoint = CompressionMetrics.getEndpoint(uri.getPath());
+		if(!headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+			headers.set(HttpHeaders.ACCEPT_ENCODING, CompressionCodec.getAcceptEncoding(compression.getCodec()));
+		}
+
+		final CompressionCodec codec = compression.getCodec();
+		final List<CompressionCodec> accepted = acceptedCodecs.get(uri.getAuthority());
+		if(codec == null || body.length < compression.getThreshold() || accepted == null || !accepted.contains(codec)) {
+			return decompress(request, remember(uri, execution.execute(request, body)));
+		}
+
+		final long start = CompressionMetrics.currentCpuTime();
+		final byte[] compressedBody = codec.compress(body);
+		metrics.record(endpoint, CompressionMetrics.REQUEST, CompressionMetrics.COMPRESS, codec, body.length, compressedBody.length, CompressionMetrics.currentCpuTime() - start);
+		headers.set(HttpHeaders.CONTENT_ENCODING, codec.getEncoding());
+
+		final ClientHttpResponse response = execution.execute(request, compressedBody);
+		if(response.getStatusCode() != HttpStatus.UNSUPPORTED_MEDIA_TYPE) {
+			return decompress(request, remember(uri, response));
+		}
+
+		LOGGER.warn("{} refused the {} compressed request body - repeating uncompressed", uri.getAuthority(), codec.getEncoding());
+		response.close();
+		acceptedCodecs.remove(uri.getAuthority());
+		headers.remove(HttpHeaders.CONTENT_ENCODING);
+		return decompress(request, remember(uri, execution.execute(request, body)));
+	}
+
+	/**
+	 * Remembers the codecs the server announces to accept for request bodies in the given response and returns the response.
+	 */
+	private ClientHttpResponse remember(URI uri, ClientHttpResponse response) {
+		final String announced = response.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+		if(announced != null && uri.getAuthority() != null) {
+			acceptedCodecs.put(uri.getAuthority(), CompressionCodec.parseAcceptEncoding(announced));
+		}
+		return response;
+	}
+
+	/**
+	 * Returns the given response with its body decompressed if it is compressed with one of the codecs, otherwise the response itself.
+	 */
+	private ClientHttpResponse decompress(HttpRequest request, ClientHttpResponse response) {
+		final CompressionCodec codec = CompressionCodec.forEncoding(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		if(codec == null) {
+			return response;
+		}
+		return new DecompressingResponse(response, codec, CompressionMetrics.getEndpoint(request.getURI().getPath()));
+	}
+
+	/**
+	 * Response providing the decompressed body of a compressed response, hiding the headers describing the compressed body.
+	 */
+	private class DecompressingResponse implements ClientHttpResponse {
+
+		private final ClientHttpResponse response;
+		private final CompressionCodec codec;
+		private final String endpoint;
+		private final HttpHeaders headers;
+
+		private DecompressingInputStream body;
+
+		DecompressingResponse(ClientHttpResponse response, CompressionCodec codec, String endpoint) {
+			this.response = response;
+			this.codec = codec;
+			this.endpoint = endpoint;
+			this.headers = new HttpHeaders();
+			this.headers.putAll(response.getHeaders());
+			this.headers.remove(HttpHeaders.CONTENT_ENCODING);
+			this.headers.remove(HttpHeaders.CONTENT_LENGTH);
+		}
+
+		@Override
+		public HttpStatus getStatusCode() throws IOException {
+			return response.getStatusCode();
+		}
+
+		@Override
+		public int getRawStatusCode() throws IOException {
+			return response.getRawStatusCode();
+		}
+
+		@Override
+		public String getStatusText() throws IOException {
+			return response.getStatusText();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+
+		@Override
+		public InputStream getBody() throws IOException {
+			if(body == null) {
+				body = new DecompressingInputStream(response.getBody(), codec, metrics, endpoint, CompressionMetrics.RESPONSE);
+			}
+			return body;
+		}
+
+		@Override
+		public void close() {
+			if(body != null) {
+				body.finish();
+			}
+			response.close();
+		}
+	}
+
+}
@@ -0,0 +1,86 @@
+package no.siriuslabs.computationapi.api.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how well and at what cost bodies are compressed and decompressed, per endpoint.<p>
+ * For every body the bytes before and after compression, the compression ratio and the CPU time spent by the codec are recorded, tagged with the endpoint
+ * (the first segment of the path called), the direction (request or response), the operation (compress or decompress) and the codec.
+ */
+public class CompressionMetrics {
+
+	public static final String BYTES_METRIC = "http.compression.bytes";
+	public static final String RATIO_METRIC = "http.compression.ratio";
+	public static final String CPU_METRIC = "http.compression.cpu";
+
+	public static final String REQUEST = "request";
+	public static final String RESPONSE = "response";
+	public static final String COMPRESS = "compress";
+	public static final String DECOMPRESS = "decompress";
+
+	private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+	/**
+	 * Registry the metrics are recorded in.
+	 */
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * Constructor expecting the registry to record the metrics in.
+	 */
+	public CompressionMetrics(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * Records a body of the given endpoint and direction, (de)compressed by the given operation and codec.
+	 * @param uncompressedBytes	Size of the body before compression or after decompression.
+	 * @param compressedBytes	Size of the body on the wire.
+	 * @param cpuTime			CPU time in nanoseconds spent by the codec.
+	 */
+	public void record(String endpoint, String direction, String operation, CompressionCodec codec, long uncompressedBytes, long compressedBytes, long cpuTime) {
+		final Tags tags = Tags.of("endpoint", endpoint, "direction", direction, "operation", operation, "codec", codec.getEncoding());
+		Counter.builder(BYTES_METRIC).tags(tags).tag("form", "uncompressed").register(meterRegistry).increment(uncompressedBytes);
+		Counter.builder(BYTES_METRIC).tags(tags).tag("form", "compressed").register(meterRegistry).increment(compressedBytes);
+		if(compressedBytes > 0) {
+			DistributionSummary.builder(RATIO_METRIC).tags(tags).register(meterRegistry).record((double) uncompressedBytes / compressedBytes);
+		}
+		Timer.builder(CPU_METRIC).tags(tags).register(meterRegistry).record(cpuTime, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Returns the CPU time of the current thread in nanoseconds, so that time spent waiting for the network is not counted. Falls back to the wall-clock time
+	 * if the JVM does not measure CPU time.
+	 */
+	public static long currentCpuTime() {
+		if(THREAD_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_BEAN.isThreadCpuTimeEnabled()) {
+			return THREAD_BEAN.getCurrentThreadCpuTime();
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * Returns the endpoint a path belongs to, i.e. its first segment, so that paths containing identifiers are counted together. Returns "root" for an empty path.
+	 */
+	public static String getEndpoint(String path) {
+		if(path == null) {
+			return "root";
+		}
+		int start = 0;
+		while(start < path.length() && path.charAt(start) == '/') {
+			start++;
+		}
+		int end = path.indexOf('/', start);
+		final String endpoint = end < 0 ? path.substring(start) : path.substring(start, end);
+		return endpoint.isEmpty() ? "root" : endpoint;
+	}
+
+}
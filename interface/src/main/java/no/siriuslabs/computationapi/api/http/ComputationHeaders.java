@@ -0,0 +1,29 @@
+package no.siriuslabs.computationapi.api.http;
+
+/**
+ * Names of the HTTP headers exchanged between controller and worker nodes in addition to the request bodies.
+ */
+public final class ComputationHeaders {
+
+	/**
+	 * Header carrying the maximum time in milliseconds a worker node may spend on the computation of a WorkPackage.
+	 * The time is relative to the moment the request arrives, so that clocks of controller and nodes do not have to be synchronized.
+	 */
+	public static final String COMPUTATION_TIMEOUT = "X-Computation-Timeout";
+	/**
+	 * Header carrying the identifier the controller assigned to a newly started computation run.
+	 * The identifier is needed to query the run's status and results and to cancel it.
+	 */
+	public static final String RUN_ID = "X-Run-Id";
+	/**
+	 * Header carrying the path, relative to the controller's URL, a worker node may post the result of a computation to instead of replying with it.
+	 * A node making use of it acknowledges the computation request with HttpStatus 202 right away and computes the WorkPackage in the background.
+	 */
+	public static final String RESULT_CALLBACK = "X-Result-Callback";
+
+	/**
+	 * Default constructor.
+	 */
+	private ComputationHeaders() {
+	}
+}
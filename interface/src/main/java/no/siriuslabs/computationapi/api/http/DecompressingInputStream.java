@@ -0,0 +1,139 @@
+package no.siriuslabs.computationapi.api.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * InputStream decompressing a body read from another stream with a CompressionCodec and recording the result in the CompressionMetrics once the body has been
+ * read completely or the stream is closed.
+ */
+class DecompressingInputStream extends InputStream {
+
+	private final CountingInputStream compressed;
+	private final CompressionCodec codec;
+	private final CompressionMetrics metrics;
+	private final String endpoint;
+	private final String direction;
+
+	/**
+	 * Decompressing stream, created on first read as the codecs read their header right away.
+	 */
+	private InputStream decompressor;
+	private long uncompressedBytes;
+	private long cpuTime;
+	private boolean finished;
+
+	/**
+	 * Constructor expecting the stream of compressed data, its codec and where to record the metrics.
+	 */
+	DecompressingInputStream(InputStream in, CompressionCodec codec, CompressionMetrics metrics, String endpoint, String direction) {
+		this.compressed = new CountingInputStream(in);
+		this.codec = codec;
+		this.metrics = metrics;
+		this.endpoint = endpoint;
+		this.direction = direction;
+	}
+
+	@Override
+	public int read() throws IOException {
+		final byte[] single = new byte[1];
+		final int read = read(single, 0, 1);
+		return read < 0 ? -1 : single[0] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if(finished) {
+			return -1;
+		}
+		final long start = CompressionMetrics.currentCpuTime();
+		final int read;
+		try {
+			if(decompressor == null) {
+				decompressor = codec.decompress(compressed);
+			}
+			read = decompressor.read(b, off, len);
+		}
+		finally {
+			cpuTime += CompressionMetrics.currentCpuTime() - start;
+		}
+		if(read < 0) {
+			finish();
+		}
+		else {
+			uncompressedBytes += read;
+		}
+		return read;
+	}
+
+	@Override
+	public void close() throws IOException {
+		finish();
+		if(decompressor != null) {
+			decompressor.close();
+		}
+		else {
+			compressed.close();
+		}
+	}
+
+	/**
+	 * Returns true if the body has been read completely or the stream was closed, otherwise false.
+	 */
+	boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Records the metrics of the body, unless done before.
+	 */
+	void finish() {
+		if(!finished) {
+			finished = true;
+			metrics.record(endpoint, direction, CompressionMetrics.DECOMPRESS, codec, uncompressedBytes, compressed.getCount(), cpuTime);
+		}
+	}
+
+	/**
+	 * InputStream counting the bytes read from another stream.
+	 */
+	private static class CountingInputStream extends FilterInputStream {
+
+		private long count;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			final int read = super.read();
+			if(read >= 0) {
+				count++;
+			}
+			return read;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			final int read = super.read(b, off, len);
+			if(read > 0) {
+				count += read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			final long skipped = super.skip(n);
+			count += skipped;
+			return skipped;
+		}
+
+		long getCount() {
+			return count;
+		}
+	}
+
+}
@@ -0,0 +1,122 @@
+package no.siriuslabs.computationapi.api.http;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import no.siriuslabs.computationapi.api.model.config.ConnectionPool;
+import no.siriuslabs.computationapi.api.model.config.Controller;
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Factory for the HTTP clients used by controller and worker nodes to call each other.<p>
+ * Connections are kept alive and pooled, so that the many short calls made for single WorkPackages do not set up a new TCP connection each time.
+ * The pool is limited in total and per server, idle connections are closed by a background thread before the server closes them and the pool's usage is
+ * recorded as gauges tagged with the client's name. The clients leave compressed bodies to the CompressionInterceptor installed in every RestTemplate created here.
+ */
+public final class PooledHttpClientFactory {
+
+	public static final String POOL_METRIC_PREFIX = "http.client.pool.";
+
+	/**
+	 * Default constructor.
+	 */
+	private PooledHttpClientFactory() {
+	}
+
+	/**
+	 * Creates a pooled HttpClient as configured in the given Controller configuration and records the usage of its pool under the given name.
+	 */
+	public static CloseableHttpClient createHttpClient(Controller config, MeterRegistry meterRegistry, String name) {
+		final ConnectionPool pool = config.getPool();
+		final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(pool.getMaxTotal());
+		connectionManager.setDefaultMaxPerRoute(pool.getMaxPerRoute());
+		connectionManager.setValidateAfterInactivity(pool.getValidateAfterInactivity());
+
+		registerGauge(meterRegistry, name, "leased", connectionManager, (PoolingHttpClientConnectionManager m) -> m.getTotalStats().getLeased());
+		registerGauge(meterRegistry, name, "available", connectionManager, (PoolingHttpClientConnectionManager m) -> m.getTotalStats().getAvailable());
+		registerGauge(meterRegistry, name, "pending", connectionManager, (PoolingHttpClientConnectionManager m) -> m.getTotalStats().getPending());
+		registerGauge(meterRegistry, name, "max", connectionManager, (PoolingHttpClientConnectionManager m) -> m.getTotalStats().getMax());
+
+		final RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout(config.getConnectTimeout())
+				.setConnectionRequestTimeout(pool.getConnectionRequestTimeout())
+				.build();
+
+		return HttpClientBuilder.create()
+				.setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(requestConfig)
+				.setKeepAliveStrategy(createKeepAliveStrategy(pool.getKeepAlive()))
+				.evictExpiredConnections()
+				.evictIdleConnections(pool.getIdleTimeout(), TimeUnit.MILLISECONDS)
+				// bodies are (de)compressed by the CompressionInterceptor, which knows more codecs and records metrics
+				.disableContentCompression()
+				.build();
+	}
+
+	/**
+	 * Creates a RestTemplate using the given request factory, compressing bodies as configured in the given Controller configuration.
+	 */
+	public static RestTemplate createRestTemplate(HttpComponentsClientHttpRequestFactory requestFactory, Controller config, MeterRegistry meterRegistry) {
+		return CompressionInterceptor.install(new RestTemplate(requestFactory), config.getCompression(), meterRegistry);
+	}
+
+	/**
+	 * Creates a RestTemplate using a new pooled HttpClient as configured in the given Controller configuration, with the pool's usage recorded under the given name.
+	 */
+	public static RestTemplate createRestTemplate(Controller config, MeterRegistry meterRegistry, String name) {
+		return createRestTemplate(new HttpComponentsClientHttpRequestFactory(createHttpClient(config, meterRegistry, name)), config, meterRegistry);
+	}
+
+	/**
+	 * Creates a RestTemplate for large binary content using a new pooled HttpClient as configured in the given Controller configuration, with the pool's usage
+	 * recorded under the given name. Request bodies are streamed to the connection instead of being buffered and bodies are left uncompressed, so that
+	 * content of any size passes through with constant memory.
+	 */
+	public static RestTemplate createStreamingRestTemplate(Controller config, MeterRegistry meterRegistry, String name) {
+		final HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(createHttpClient(config, meterRegistry, name));
+		requestFactory.setBufferRequestBody(false);
+		return new RestTemplate(requestFactory);
+	}
+
+	/**
+	 * Returns a strategy keeping connections alive for as long as the server states in its Keep-Alive header, otherwise for the given default time in milliseconds.
+	 */
+	static ConnectionKeepAliveStrategy createKeepAliveStrategy(long defaultKeepAlive) {
+		return (HttpResponse response, HttpContext context) -> {
+			final HeaderElementIterator iterator = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+			while(iterator.hasNext()) {
+				HeaderElement element = iterator.nextElement();
+				if("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+					try {
+						return Long.parseLong(element.getValue()) * 1000;
+					}
+					catch(NumberFormatException e) {
+						break;
+					}
+				}
+			}
+			return defaultKeepAlive;
+		};
+	}
+
+	private static void registerGauge(MeterRegistry meterRegistry, String name, String state, PoolingHttpClientConnectionManager connectionManager,
+									  ToDoubleFunction<PoolingHttpClientConnectionManager> value) {
+		Gauge.builder(POOL_METRIC_PREFIX + state, connectionManager, value).tag("client", name).register(meterRegistry);
+	}
+
+}
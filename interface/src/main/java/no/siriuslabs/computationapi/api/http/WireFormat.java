@@ -0,0 +1,76 @@
+package no.siriuslabs.computationapi.api.http;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Formats the bodies of requests and replies between controller and worker nodes can be encoded in.<p>
+ * JSON is understood by every party and remains the fallback. The binary Jackson formats Smile and CBOR encode the same object structure considerably more compactly,
+ * especially numbers, and are faster to parse. They are used only between parties that both support them: worker nodes announce the formats they understand
+ * when registering, and callers ask for a binary format through the Content-Type and Accept headers while still accepting JSON.
+ */
+public enum WireFormat {
+
+	JSON(MediaType.APPLICATION_JSON_VALUE, null),
+	SMILE("application/x-jackson-smile", "com.fasterxml.jackson.dataformat.smile.SmileFactory"),
+	CBOR("application/cbor", "com.fasterxml.jackson.dataformat.cbor.CBORFactory");
+
+	/**
+	 * Media type identifying the format in Content-Type and Accept headers.
+	 */
+	private final String mediaType;
+	/**
+	 * Jackson factory class needed to read and write the format or null if the format is always available.
+	 */
+	private final String factoryClassName;
+
+	/**
+	 * Enum constructor expecting all elements.
+	 */
+	WireFormat(String mediaType, String factoryClassName) {
+		this.mediaType = mediaType;
+		this.factoryClassName = factoryClassName;
+	}
+
+	public String getMediaType() {
+		return mediaType;
+	}
+
+	/**
+	 * Returns true if the format can be read and written by this application, i.e. its Jackson data format module is on the classpath, otherwise false.
+	 */
+	public boolean isAvailable() {
+		return factoryClassName == null || ClassUtils.isPresent(factoryClassName, WireFormat.class.getClassLoader());
+	}
+
+	/**
+	 * Sets the Content-Type and Accept headers of a request in the given HttpHeaders to this format. JSON is accepted as reply as well, with a lower preference.<p>
+	 * Nothing is set for JSON, which is what requests are sent and answered in by default.
+	 */
+	public void applyTo(HttpHeaders headers) {
+		if(this == JSON) {
+			return;
+		}
+		headers.setContentType(MediaType.parseMediaType(mediaType));
+		headers.setAccept(Arrays.asList(MediaType.parseMediaType(mediaType), MediaType.parseMediaType(MediaType.APPLICATION_JSON_VALUE + ";q=0.5")));
+	}
+
+	/**
+	 * Returns the binary formats that can be read and written by this application.
+	 */
+	public static List<WireFormat> getAvailableBinaryFormats() {
+		List<WireFormat> formats = new ArrayList<>();
+		for(WireFormat format : values()) {
+			if(format != JSON && format.isAvailable()) {
+				formats.add(format);
+			}
+		}
+		return formats;
+	}
+
+}
@@ -0,0 +1,18 @@
+package no.siriuslabs.computationapi.api.model.computation;
+
+import java.util.Map;
+
+/**
+ * Handle to the broadcast data of a computation run, as given in the broadcast section of the run's Payload.<p>
+ * Worker nodes attach a handle to every WorkPackage they compute (see WorkPackage.getBroadcast()). The data is shipped to a node once per run instead of
+ * with every WorkPackage and is only looked up when the handle is used, so computations not needing it do not pay for it.
+ */
+@FunctionalInterface
+public interface Broadcast {
+
+	/**
+	 * Returns the broadcast data of the run, an empty map if the run has none. The returned map is shared by all WorkPackages of the run and must not be modified.
+	 */
+	Map<String, Object> getData();
+
+}
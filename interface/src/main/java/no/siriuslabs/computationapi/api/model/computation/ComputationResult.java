@@ -1,10 +1,15 @@
 package no.siriuslabs.computationapi.api.model.computation;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
 import java.util.Map;
 
 /**
  * Container class representing the result of the computation run after all work packages are finished.
  * It contains the final status of the computation and may contain an error message (if something went wrong) and a collection of resulting data (if any).
+ * The results are held in the generic map form or as a typed object (see DomainDataTypes).
  */
 public class ComputationResult {
 
@@ -19,9 +24,11 @@ public class ComputationResult {
 	private String errorMessage;
 
 	/**
-	 * Optional results of this computation as key-value-pairs.
+	 * Optional results of this computation: key-value-pairs or an instance of the class registered for them.
 	 */
-	private Map<String, Object> results;
+	@JsonProperty("results")
+	@JsonDeserialize(using = DomainDataDeserializer.class)
+	private Object results;
 
 	/**
 	 * Constructor needed for de-serialization.
@@ -61,14 +68,35 @@ public class ComputationResult {
 		this.errorMessage = errorMessage;
 	}
 
+	/**
+	 * Returns the results in the generic map form. Typed results are converted to a new map on every call.
+	 */
+	@JsonIgnore
 	public Map<String, Object> getResults() {
-		return results;
+		return DomainDataTypes.toMap(results);
 	}
 
+	@JsonIgnore
 	public void setResults(Map<String, Object> results) {
 		this.results = results;
 	}
 
+	/**
+	 * Returns the results as an instance of the given class. Results bound to that class are returned as they are, otherwise they are converted.
+	 * @throws IllegalArgumentException if the results could not be converted.
+	 */
+	public <T> T getResults(Class<T> type) {
+		return DomainDataTypes.convert(results, type);
+	}
+
+	/**
+	 * Sets the results as a typed object, which is serialized as it is.
+	 */
+	@JsonIgnore
+	public void setTypedResults(Object results) {
+		this.results = results;
+	}
+
 	@Override
 	public String toString() {
 		return "ComputationResult{" +
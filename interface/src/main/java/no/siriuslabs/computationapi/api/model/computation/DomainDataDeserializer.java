@@ -0,0 +1,106 @@
+package no.siriuslabs.computationapi.api.model.computation;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import no.siriuslabs.computationapi.api.model.request.ComputationRequest;
+import no.siriuslabs.computationapi.api.model.request.Payload;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Jackson deserializer binding the domain specific data of the containers straight to the class registered for its DomainType and Role (see DomainDataTypes).<p>
+ * The DomainType is taken from the container being deserialized (or the ComputationRequest around a Payload), which serializes its domain before its data.
+ * Data whose DomainType is not known at that point or has no registered class is deserialized to the generic map form, as without typed payloads, except that
+ * NumericColumns in it are recognized and kept as such instead of as maps of their wire form.
+ */
+public class DomainDataDeserializer extends StdDeserializer<Object> {
+
+	/**
+	 * Default constructor, used by Jackson.
+	 */
+	public DomainDataDeserializer() {
+		super(Object.class);
+	}
+
+	@Override
+	public Object deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+		final Class<?> type = findType(parser);
+		if(type != null) {
+			return context.readValue(parser, type);
+		}
+		return readUntyped(parser, context, context.findRootValueDeserializer(context.constructType(Object.class)));
+	}
+
+	/**
+	 * Reads the value the given parser is positioned at in the generic map form, recognizing NumericColumns. Scalars are read by the given deserializer of untyped values.
+	 */
+	private static Object readUntyped(JsonParser parser, DeserializationContext context, JsonDeserializer<Object> scalarDeserializer) throws IOException {
+		if(parser.hasToken(JsonToken.START_OBJECT)) {
+			parser.nextToken();
+			if(parser.hasToken(JsonToken.FIELD_NAME) && NumericColumn.KIND_FIELD.equals(parser.getCurrentName())) {
+				return NumericColumn.readFields(parser, context);
+			}
+			final Map<String, Object> map = new LinkedHashMap<>();
+			while(parser.hasToken(JsonToken.FIELD_NAME)) {
+				final String name = parser.getCurrentName();
+				parser.nextToken();
+				map.put(name, readUntyped(parser, context, scalarDeserializer));
+				parser.nextToken();
+			}
+			return map;
+		}
+		if(parser.hasToken(JsonToken.START_ARRAY)) {
+			final List<Object> list = new ArrayList<>();
+			while(parser.nextToken() != JsonToken.END_ARRAY) {
+				list.add(readUntyped(parser, context, scalarDeserializer));
+			}
+			return list;
+		}
+		return scalarDeserializer.deserialize(parser, context);
+	}
+
+	/**
+	 * Returns the class registered for the data the given parser is positioned at, or null if there is none or its container is not known.
+	 */
+	private static Class<?> findType(JsonParser parser) {
+		JsonStreamContext streamContext = parser.getParsingContext();
+		if(parser.hasToken(JsonToken.START_OBJECT) || parser.hasToken(JsonToken.START_ARRAY)) {
+			// the data's own structure has been entered already
+			streamContext = streamContext.getParent();
+		}
+		if(streamContext == null) {
+			return null;
+		}
+
+		final Object container = streamContext.getCurrentValue();
+		if(container instanceof WorkPackage) {
+			return DomainDataTypes.getType(getDomainType(((WorkPackage) container).getDomain()), DomainDataTypes.Role.WORK_PACKAGE);
+		}
+		if(container instanceof WorkPackageResult) {
+			final WorkPackage workPackage = ((WorkPackageResult) container).getWorkPackage();
+			return DomainDataTypes.getType(workPackage == null ? null : getDomainType(workPackage.getDomain()), DomainDataTypes.Role.RESULT);
+		}
+		if(container instanceof Payload) {
+			final JsonStreamContext requestContext = streamContext.getParent();
+			final Object request = requestContext == null ? null : requestContext.getCurrentValue();
+			return DomainDataTypes.getType(request instanceof ComputationRequest ? getDomainType(((ComputationRequest) request).getDomain()) : null, DomainDataTypes.Role.PAYLOAD);
+		}
+		if(container instanceof ComputationResult) {
+			return DomainDataTypes.getType(null, DomainDataTypes.Role.COMPUTATION_RESULT);
+		}
+		return null;
+	}
+
+	private static String getDomainType(DomainType domain) {
+		return domain == null ? null : domain.getDomainType();
+	}
+
+}
@@ -0,0 +1,133 @@
+package no.siriuslabs.computationapi.api.model.computation;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the classes the domain specific data of each DomainType is bound to, so that an implementation works with typed objects instead of generic maps.<p>
+ * An implementation registers a POJO class per DomainType and Role, usually on start-up of its worker node. Deserialized data of a registered DomainType is then
+ * bound by Jackson straight to the class (see DomainDataDeserializer) - without building a map of boxed values first and without the implementation parsing it.
+ * Data of DomainTypes without a registered class, like all data on the controller, is kept in the generic map form.<p>
+ * Either form can be read as the other: the containers offer getData(Class) to read map data as a POJO and getData() to read typed data as a map, each at the
+ * cost of a conversion.
+ */
+public final class DomainDataTypes {
+
+	/**
+	 * Roles of domain specific data, each bound to a class of its own.
+	 */
+	public enum Role {
+		/**
+		 * Payload.data of a ComputationRequest.
+		 */
+		PAYLOAD,
+		/**
+		 * WorkPackage.data.
+		 */
+		WORK_PACKAGE,
+		/**
+		 * WorkPackageResult.data.
+		 */
+		RESULT,
+		/**
+		 * ComputationResult.results.
+		 */
+		COMPUTATION_RESULT
+	}
+
+	private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+
+	/**
+	 * ObjectMapper converting data between the map form and typed objects. Thread-safe once configured.
+	 */
+	private static final ObjectMapper CONVERTER = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+	/**
+	 * Registered classes by the names of their DomainTypes.
+	 */
+	private static final Map<String, Map<Role, Class<?>>> TYPES = new ConcurrentHashMap<>();
+
+	/**
+	 * Default constructor.
+	 */
+	private DomainDataTypes() {
+	}
+
+	/**
+	 * Registers the given class to bind the data of the given DomainType in the given Role to, replacing a class registered before.
+	 */
+	public static void register(DomainType domain, Role role, Class<?> type) {
+		final Map<Role, Class<?>> types = TYPES.computeIfAbsent(domain.getDomainType(), (String key) -> new EnumMap<>(Role.class));
+		synchronized(types) {
+			types.put(role, type);
+		}
+	}
+
+	/**
+	 * Removes all classes registered for the given DomainType, whose data is kept in the map form again.
+	 */
+	public static void unregister(DomainType domain) {
+		TYPES.remove(domain.getDomainType());
+	}
+
+	/**
+	 * Returns the class registered for the data of the DomainType with the given name in the given Role or null if there is none.<p>
+	 * Should the DomainType not be known (null), e.g. for a Payload sent on its own, the class is returned if exactly one DomainType registered one for the Role.
+	 */
+	public static Class<?> getType(String domainType, Role role) {
+		if(domainType != null) {
+			final Map<Role, Class<?>> types = TYPES.get(domainType);
+			if(types == null) {
+				return null;
+			}
+			synchronized(types) {
+				return types.get(role);
+			}
+		}
+
+		Class<?> single = null;
+		for(Map<Role, Class<?>> types : TYPES.values()) {
+			final Class<?> type;
+			synchronized(types) {
+				type = types.get(role);
+			}
+			if(type != null) {
+				if(single != null) {
+					return null;
+				}
+				single = type;
+			}
+		}
+		return single;
+	}
+
+	/**
+	 * Returns the given data in the generic map form: maps as they are, typed objects converted to a new map. Returns null if the given data is null.
+	 */
+	@SuppressWarnings("unchecked")
+	public static Map<String, Object> toMap(Object data) {
+		if(data == null || data instanceof Map) {
+			return (Map<String, Object>) data;
+		}
+		// columns are converted to maps of their wire form by Jackson
+		return (Map<String, Object>) NumericColumn.resolveColumns(CONVERTER.convertValue(data, MAP_TYPE));
+	}
+
+	/**
+	 * Returns the given data as an instance of the given class: instances as they are, other data (e.g. the map form) converted to a new instance.
+	 * Returns null if the given data is null.
+	 * @throws IllegalArgumentException if the data could not be converted.
+	 */
+	public static <T> T convert(Object data, Class<T> type) {
+		if(data == null || type.isInstance(data)) {
+			return type.cast(data);
+		}
+		return CONVERTER.convertValue(data, type);
+	}
+
+}
@@ -0,0 +1,290 @@
+package no.siriuslabs.computationapi.api.model.computation;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Value type holding a column of numbers as a primitive array, for large numeric vectors in domain specific data (e.g. in WorkPackageResult.data).<p>
+ * A column holds either doubles or longs, which are read without boxing through getDoubles() or getLongs(). On the wire it is a packed array:
+ * <code>{"@column": "double", "values": &lt;binary&gt;}</code>, the values being the little-endian bytes of the array - base64 encoded in JSON, raw bytes in the
+ * binary formats. Wherever domain data is deserialized in the generic map form (see DomainDataDeserializer), columns are recognized and kept as NumericColumns,
+ * so the controller's result store holds the primitive arrays instead of lists of boxed numbers.
+ */
+@JsonSerialize(using = NumericColumn.Serializer.class)
+@JsonDeserialize(using = NumericColumn.Deserializer.class)
+public final class NumericColumn {
+
+	/**
+	 * Name of the field stating the kind of values in the wire form. Its presence as first field marks a column.
+	 */
+	public static final String KIND_FIELD = "@column";
+	/**
+	 * Name of the field holding the packed values in the wire form.
+	 */
+	public static final String VALUES_FIELD = "values";
+
+	private static final String DOUBLE_KIND = "double";
+	private static final String LONG_KIND = "long";
+
+	/**
+	 * Values of a column of doubles, otherwise null.
+	 */
+	private final double[] doubles;
+	/**
+	 * Values of a column of longs, otherwise null.
+	 */
+	private final long[] longs;
+
+	private NumericColumn(double[] doubles, long[] longs) {
+		this.doubles = doubles;
+		this.longs = longs;
+	}
+
+	/**
+	 * Returns a column of the given doubles. The array is taken as it is, not copied.
+	 */
+	public static NumericColumn of(double... values) {
+		return new NumericColumn(values, null);
+	}
+
+	/**
+	 * Returns a column of the given longs. The array is taken as it is, not copied.
+	 */
+	public static NumericColumn of(long... values) {
+		return new NumericColumn(null, values);
+	}
+
+	/**
+	 * Returns true if the column holds doubles, false if it holds longs.
+	 */
+	public boolean isDoubles() {
+		return doubles != null;
+	}
+
+	/**
+	 * Returns the number of values.
+	 */
+	public int size() {
+		return doubles != null ? doubles.length : longs.length;
+	}
+
+	/**
+	 * Returns the values of a column of doubles, not copied.
+	 * @throws IllegalStateException if the column holds longs.
+	 */
+	public double[] getDoubles() {
+		if(doubles == null) {
+			throw new IllegalStateException("Column holds longs");
+		}
+		return doubles;
+	}
+
+	/**
+	 * Returns the values of a column of longs, not copied.
+	 * @throws IllegalStateException if the column holds doubles.
+	 */
+	public long[] getLongs() {
+		if(longs == null) {
+			throw new IllegalStateException("Column holds doubles");
+		}
+		return longs;
+	}
+
+	/**
+	 * Returns the value at the given index as a double, whatever the column holds.
+	 */
+	public double getDouble(int index) {
+		return doubles != null ? doubles[index] : longs[index];
+	}
+
+	/**
+	 * Returns the values packed as little-endian bytes.
+	 */
+	byte[] toBytes() {
+		final ByteBuffer buffer = ByteBuffer.allocate(size() * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		if(doubles != null) {
+			buffer.asDoubleBuffer().put(doubles);
+		}
+		else {
+			buffer.asLongBuffer().put(longs);
+		}
+		return buffer.array();
+	}
+
+	/**
+	 * Returns the column of the given kind whose values are packed in the given little-endian bytes.
+	 * @throws IllegalArgumentException if the kind is unknown or the bytes do not hold whole values.
+	 */
+	static NumericColumn fromBytes(String kind, byte[] bytes) {
+		if(bytes == null || bytes.length % Long.BYTES != 0) {
+			throw new IllegalArgumentException("Packed values of a column must be a multiple of " + Long.BYTES + " bytes");
+		}
+		final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+		if(DOUBLE_KIND.equals(kind)) {
+			final double[] values = new double[bytes.length / Long.BYTES];
+			buffer.asDoubleBuffer().get(values);
+			return of(values);
+		}
+		if(LONG_KIND.equals(kind)) {
+			final long[] values = new long[bytes.length / Long.BYTES];
+			buffer.asLongBuffer().get(values);
+			return of(values);
+		}
+		throw new IllegalArgumentException("Unknown column kind " + kind);
+	}
+
+	/**
+	 * Reads the fields of a column in the wire form, the given parser being positioned at the first field name. Leaves the parser at the end of the object.
+	 */
+	static NumericColumn readFields(JsonParser parser, DeserializationContext context) throws IOException {
+		String kind = null;
+		byte[] bytes = null;
+		while(parser.hasToken(JsonToken.FIELD_NAME)) {
+			final String name = parser.getCurrentName();
+			parser.nextToken();
+			if(KIND_FIELD.equals(name)) {
+				kind = parser.getText();
+			}
+			else if(VALUES_FIELD.equals(name)) {
+				bytes = parser.getBinaryValue();
+			}
+			else {
+				parser.skipChildren();
+			}
+			parser.nextToken();
+		}
+		try {
+			return fromBytes(kind, bytes);
+		}
+		catch(IllegalArgumentException e) {
+			throw context.weirdStringException(kind, NumericColumn.class, e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the given value of the generic map form with all columns in it, still in their wire form (e.g. after a conversion by Jackson or deserialized as
+	 * plain maps), replaced by NumericColumns. Maps and lists containing columns are replaced by copies.
+	 */
+	@SuppressWarnings("unchecked")
+	public static Object resolveColumns(Object value) {
+		if(value instanceof Map) {
+			final Map<String, Object> map = (Map<String, Object>) value;
+			if(map.containsKey(KIND_FIELD) && map.containsKey(VALUES_FIELD)) {
+				final Object values = map.get(VALUES_FIELD);
+				final byte[] bytes = values instanceof byte[] ? (byte[]) values : Base64.getDecoder().decode((String) values);
+				return fromBytes((String) map.get(KIND_FIELD), bytes);
+			}
+			Map<String, Object> resolved = null;
+			for(Map.Entry<String, Object> entry : map.entrySet()) {
+				final Object resolvedValue = resolveColumns(entry.getValue());
+				if(resolvedValue != entry.getValue() && resolved == null) {
+					resolved = new LinkedHashMap<>(map);
+				}
+				if(resolved != null) {
+					resolved.put(entry.getKey(), resolvedValue);
+				}
+			}
+			return resolved != null ? resolved : map;
+		}
+		if(value instanceof List) {
+			final List<Object> list = (List<Object>) value;
+			List<Object> resolved = null;
+			for(int i = 0; i < list.size(); i++) {
+				final Object resolvedValue = resolveColumns(list.get(i));
+				if(resolvedValue != list.get(i) && resolved == null) {
+					resolved = new ArrayList<>(list);
+				}
+				if(resolved != null) {
+					resolved.set(i, resolvedValue);
+				}
+			}
+			return resolved != null ? resolved : list;
+		}
+		return value;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if(this == o) {
+			return true;
+		}
+		if(o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		NumericColumn that = (NumericColumn) o;
+		return Arrays.equals(doubles, that.doubles) && Arrays.equals(longs, that.longs);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(doubles) + Arrays.hashCode(longs);
+	}
+
+	@Override
+	public String toString() {
+		// columns are large - only their shape is of interest in logs
+		return "NumericColumn{" + (doubles != null ? DOUBLE_KIND : LONG_KIND) + '[' + size() + "]}";
+	}
+
+	/**
+	 * Jackson serializer writing a NumericColumn as a packed array.
+	 */
+	public static class Serializer extends StdSerializer<NumericColumn> {
+
+		/**
+		 * Default constructor, used by Jackson.
+		 */
+		public Serializer() {
+			super(NumericColumn.class);
+		}
+
+		@Override
+		public void serialize(NumericColumn column, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			generator.writeStartObject();
+			generator.writeStringField(KIND_FIELD, column.isDoubles() ? DOUBLE_KIND : LONG_KIND);
+			generator.writeFieldName(VALUES_FIELD);
+			generator.writeBinary(column.toBytes());
+			generator.writeEndObject();
+		}
+	}
+
+	/**
+	 * Jackson deserializer reading a NumericColumn from a packed array.
+	 */
+	public static class Deserializer extends StdDeserializer<NumericColumn> {
+
+		/**
+		 * Default constructor, used by Jackson.
+		 */
+		public Deserializer() {
+			super(NumericColumn.class);
+		}
+
+		@Override
+		public NumericColumn deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+			if(!parser.hasToken(JsonToken.START_OBJECT)) {
+				return (NumericColumn) context.handleUnexpectedToken(NumericColumn.class, parser);
+			}
+			parser.nextToken();
+			return readFields(parser, context);
+		}
+	}
+
+}
@@ -16,6 +16,10 @@ public class RequestProtocol {
 	 * Domain type the computation run belongs to.
 	 */
 	private DomainType domain;
+	/**
+	 * Identifier of the computation run.
+	 */
+	private long runId;
 
 	/**
 	 * The initial ComputationRequest that started the computation run.
@@ -32,6 +36,16 @@ public class RequestProtocol {
 	 */
 	private List<WorkPackageResult> workPackageResults;
 
+	/**
+	 * Flag showing if the computation run was cancelled before all results were collected.
+	 */
+	private volatile boolean cancelled;
+
+	/**
+	 * Reason why the computation run failed before any WorkPackages were generated (e.g. because its data did not pass validation). Null as long as the run did not fail.
+	 */
+	private volatile String errorMessage;
+
 	/**
 	 * Constructor needed for de-serialization.
 	 */
@@ -39,10 +53,11 @@ public class RequestProtocol {
 	}
 
 	/**
-	 * Constructor accepting DomainType and the initial ComputationRequest.
+	 * Constructor accepting DomainType and the initial ComputationRequest. The run's identifier is taken from the ComputationRequest.
 	 */
 	public RequestProtocol(DomainType domain, ComputationRequest computationRequest) {
 		this.domain = domain;
+		runId = computationRequest.getRunId();
 		this.computationRequest = computationRequest;
 		workPackages = new ArrayList<>();
 		workPackageResults = new ArrayList<>();
@@ -52,6 +67,10 @@ public class RequestProtocol {
 		return domain;
 	}
 
+	public long getRunId() {
+		return runId;
+	}
+
 	public ComputationRequest getComputationRequest() {
 		return computationRequest;
 	}
@@ -84,4 +103,30 @@ public class RequestProtocol {
 	public void addWorkPackageResults(WorkPackageResult... workPackageResults) {
 		this.workPackageResults.addAll(Arrays.asList(workPackageResults));
 	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Marks this computation run as cancelled. Results reported afterwards are not expected to be added anymore.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public String getErrorMessage() {
+		return errorMessage;
+	}
+
+	/**
+	 * Marks this computation run as failed for the given reason.
+	 */
+	public void fail(String errorMessage) {
+		this.errorMessage = errorMessage;
+	}
+
+	public boolean isFailed() {
+		return errorMessage != null;
+	}
 }
@@ -20,6 +20,10 @@ public class ResultsProtocol {
 	@JsonSerialize(converter = DomainTypeToStringConverter.class)
 	@JsonDeserialize(converter = StringToDomainTypeConverter.class)
 	private DomainType domain;
+	/**
+	 * Identifier of the computation run.
+	 */
+	private long runId;
 
 	/**
 	 * Timestamp the computation run started.
@@ -85,6 +89,14 @@ public class ResultsProtocol {
 		return domain;
 	}
 
+	public long getRunId() {
+		return runId;
+	}
+
+	public void setRunId(long runId) {
+		this.runId = runId;
+	}
+
 	public long getStartedTimestamp() {
 		return startedTimestamp;
 	}
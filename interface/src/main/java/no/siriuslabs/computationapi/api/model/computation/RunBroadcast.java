@@ -0,0 +1,58 @@
+package no.siriuslabs.computationapi.api.model.computation;
+
+import java.util.Map;
+
+/**
+ * Container class carrying the broadcast data of a computation run from the controller to a worker node.<p>
+ * The controller sends it to each worker node once before the node's first WorkPackage of the run. Nodes that did not receive it fetch it from the controller.
+ */
+public class RunBroadcast {
+
+	/**
+	 * ID of the computation run the data belongs to.
+	 */
+	private long runId;
+
+	/**
+	 * Broadcast data of the run. Null if the run has none.
+	 */
+	private Map<String, Object> data;
+
+	/**
+	 * Constructor needed for de-serialization.
+	 */
+	public RunBroadcast() {
+	}
+
+	/**
+	 * Constructor expecting all elements.
+	 */
+	public RunBroadcast(long runId, Map<String, Object> data) {
+		this.runId = runId;
+		this.data = data;
+	}
+
+	public long getRunId() {
+		return runId;
+	}
+
+	public void setRunId(long runId) {
+		this.runId = runId;
+	}
+
+	public Map<String, Object> getData() {
+		return data;
+	}
+
+	public void setData(Map<String, Object> data) {
+		this.data = data;
+	}
+
+	@Override
+	public String toString() {
+		return "RunBroadcast{" +
+				"runId=" + runId +
+				", keys=" + (data == null ? null : data.keySet()) +
+				'}';
+	}
+}
@@ -0,0 +1,116 @@
+package no.siriuslabs.computationapi.api.model.computation;
+
+/**
+ * Container class representing the ticket handed out for an accepted computation request.
+ * It identifies the computation run and contains the relative paths of the services to query the run's status and result and to cancel it.
+ */
+public class RunTicket {
+
+	/**
+	 * Identifier of the computation run.
+	 */
+	private long runId;
+
+	/**
+	 * String representation of the DomainType the computation run belongs to.
+	 */
+	private String domain;
+
+	/**
+	 * Status of the computation run at the time the ticket was handed out.
+	 */
+	private Status status;
+
+	/**
+	 * Relative path of the service returning the run's current status.
+	 */
+	private String statusPath;
+
+	/**
+	 * Relative path of the service returning the run's result once it is done.
+	 */
+	private String resultPath;
+
+	/**
+	 * Relative path of the service cancelling the run.
+	 */
+	private String cancelPath;
+
+	/**
+	 * Constructor needed for de-serialization.
+	 */
+	public RunTicket() {
+	}
+
+	/**
+	 * Constructor accepting run-ID, DomainType and status. The service paths are derived from the run-ID.
+	 */
+	public RunTicket(long runId, DomainType domain, Status status) {
+		this.runId = runId;
+		this.domain = domain.getDomainType();
+		this.status = status;
+		statusPath = "/status/" + runId;
+		resultPath = "/result/" + runId;
+		cancelPath = "/cancelComputation/" + runId;
+	}
+
+	public long getRunId() {
+		return runId;
+	}
+
+	public void setRunId(long runId) {
+		this.runId = runId;
+	}
+
+	public String getDomain() {
+		return domain;
+	}
+
+	public void setDomain(String domain) {
+		this.domain = domain;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public String getStatusPath() {
+		return statusPath;
+	}
+
+	public void setStatusPath(String statusPath) {
+		this.statusPath = statusPath;
+	}
+
+	public String getResultPath() {
+		return resultPath;
+	}
+
+	public void setResultPath(String resultPath) {
+		this.resultPath = resultPath;
+	}
+
+	public String getCancelPath() {
+		return cancelPath;
+	}
+
+	public void setCancelPath(String cancelPath) {
+		this.cancelPath = cancelPath;
+	}
+
+	@Override
+	public String toString() {
+		return "RunTicket{" +
+				"runId=" + runId +
+				", domain='" + domain + '\'' +
+				", status=" + status +
+				", statusPath='" + statusPath + '\'' +
+				", resultPath='" + resultPath + '\'' +
+				", cancelPath='" + cancelPath + '\'' +
+				'}';
+	}
+}
@@ -1,7 +1,7 @@
 package no.siriuslabs.computationapi.api.model.computation;
 
 /**
- * Enum representing possible states of a computation run.
+ * Enum representing possible states of a computation run or of the computation of a single WorkPackage.
  */
 public enum Status {
 
@@ -9,6 +9,8 @@ public enum Status {
 	PENDING,
 	WORKING,
 	FAILED,
+	CANCELLED,
+	TIMED_OUT,
 	DONE;
 
 }
@@ -1,5 +1,8 @@
 package no.siriuslabs.computationapi.api.model.computation;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
@@ -9,7 +12,10 @@ import java.util.Objects;
 /**
  * Container class representing a single work package.<p>
  * A WorkPackage contains information about the DomainType and the ID of the computation run it belongs to, its own unique ID and a collection of domain specific data.
+ * Large inputs shared by many packages can be referenced by the hashes of blobs in the controller's blob store instead.
+ * The data is held in the generic map form or, if the implementation registered a class for it, as an instance of that class (see DomainDataTypes).
  */
+@JsonPropertyOrder({"domain"})
 public class WorkPackage {
 
 	/**
@@ -30,9 +36,47 @@ public class WorkPackage {
 	private long id;
 
 	/**
-	 * Map containing domain specific data needed for the computations.
+	 * Priority of this WorkPackage. Packages with a higher priority are computed first, e.g. those on the critical path of the computation run. Defaults to 0.
 	 */
-	private Map<String, Object> data;
+	private int priority;
+
+	/**
+	 * Estimated time in milliseconds the computation of this WorkPackage will take, as far as the implementation generating the package can tell. Zero if unknown.<p>
+	 * The estimate does not need to be exact - the controller learns from the observed running times how estimates relate to them, but it relies on the estimates
+	 * ranking the packages of a DomainType correctly.
+	 */
+	private long estimatedCost;
+
+	/**
+	 * Optional ID of the worker node this WorkPackage should preferably be computed on, e.g. the node that generated the package and still holds the data it needs.
+	 * The controller waits a short time for the preferred node to become free before giving the package to another node. Null if any node will do.
+	 */
+	private String preferredNode;
+
+	/**
+	 * Maximum time in milliseconds the computation of this WorkPackage may take. Zero means no limit.<p>
+	 * Only set by the controller for packages fetched by pulling worker nodes. Packages sent to a node by the controller carry their timeout in a request header instead.
+	 */
+	private long computationTimeout;
+
+	/**
+	 * Domain specific data needed for the computations: a map or an instance of the class registered for the DomainType.
+	 */
+	@JsonProperty("data")
+	@JsonDeserialize(using = DomainDataDeserializer.class)
+	private Object data;
+
+	/**
+	 * Large inputs needed for the computations, kept in the controller's blob store instead of being sent with every call: their hashes by the names the
+	 * implementation refers to them by. Worker nodes fetch the blobs once and cache them (see BlobCache). Null if the package has no blobs.
+	 */
+	private Map<String, String> blobs;
+
+	/**
+	 * Handle to the broadcast data of the computation run, attached by the worker node computing the package. Not transferred.
+	 */
+	@JsonIgnore
+	private Broadcast broadcast;
 
 	/**
 	 * Constructor needed for de-serialization.
@@ -72,14 +116,86 @@ public class WorkPackage {
 		this.id = id;
 	}
 
+	public int getPriority() {
+		return priority;
+	}
+
+	public void setPriority(int priority) {
+		this.priority = priority;
+	}
+
+	public long getEstimatedCost() {
+		return estimatedCost;
+	}
+
+	public void setEstimatedCost(long estimatedCost) {
+		this.estimatedCost = estimatedCost;
+	}
+
+	public String getPreferredNode() {
+		return preferredNode;
+	}
+
+	public void setPreferredNode(String preferredNode) {
+		this.preferredNode = preferredNode;
+	}
+
+	public long getComputationTimeout() {
+		return computationTimeout;
+	}
+
+	public void setComputationTimeout(long computationTimeout) {
+		this.computationTimeout = computationTimeout;
+	}
+
+	/**
+	 * Returns the data in the generic map form. Typed data is converted to a new map on every call, so typed implementations should use getData(Class) instead.
+	 */
+	@JsonIgnore
 	public Map<String, Object> getData() {
-		return data;
+		return DomainDataTypes.toMap(data);
 	}
 
+	@JsonIgnore
 	public void setData(Map<String, Object> data) {
 		this.data = data;
 	}
 
+	/**
+	 * Returns the data as an instance of the given class. Data bound to that class is returned as it is, otherwise it is converted.
+	 * @throws IllegalArgumentException if the data could not be converted.
+	 */
+	public <T> T getData(Class<T> type) {
+		return DomainDataTypes.convert(data, type);
+	}
+
+	/**
+	 * Sets the data as a typed object, which is serialized as it is.
+	 */
+	@JsonIgnore
+	public void setTypedData(Object data) {
+		this.data = data;
+	}
+
+	public Map<String, String> getBlobs() {
+		return blobs;
+	}
+
+	public void setBlobs(Map<String, String> blobs) {
+		this.blobs = blobs;
+	}
+
+	/**
+	 * Returns the handle to the broadcast data of the computation run this package belongs to. Null unless the package is being computed on a worker node.
+	 */
+	public Broadcast getBroadcast() {
+		return broadcast;
+	}
+
+	public void setBroadcast(Broadcast broadcast) {
+		this.broadcast = broadcast;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if(this == o) {
@@ -105,6 +221,7 @@ public class WorkPackage {
 				"domain=" + domain +
 				", id=" + id +
 				", data=" + data +
+				", blobs=" + blobs +
 				'}';
 	}
 }
@@ -1,11 +1,20 @@
 package no.siriuslabs.computationapi.api.model.computation;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import no.siriuslabs.computationapi.api.artifact.ArtifactReference;
+
 import java.util.Map;
 
 /**
  * Container class representing the computation result of a single WorkPackage.<p>
  * The result contains the original WorkPackage that lead to its creation, a collection of domain specific result data and some statistical information about the computation.
+ * Large binary results are not part of the data but uploaded to the controller's artifact store and referenced by name in the artifacts.
+ * The data is held in the generic map form or, if the implementation registered a class for it, as an instance of that class (see DomainDataTypes).
  */
+@JsonPropertyOrder({"workPackage"})
 public class WorkPackageResult {
 
 	/**
@@ -14,9 +23,21 @@ public class WorkPackageResult {
 	private WorkPackage workPackage;
 
 	/**
-	 * Map of domain specific result data.
+	 * Domain specific result data: a map or an instance of the class registered for the DomainType.
+	 */
+	@JsonProperty("data")
+	@JsonDeserialize(using = DomainDataDeserializer.class)
+	private Object data;
+
+	/**
+	 * Map of references to the binary artifacts of the computation by domain specific names. Null if the computation produced none.
+	 */
+	private Map<String, ArtifactReference> artifacts;
+
+	/**
+	 * Status of the computation of the WorkPackage. DONE unless the computation was stopped before it could finish regularly (e.g. CANCELLED).
 	 */
-	private Map<String, Object> data;
+	private Status status = Status.DONE;
 
 	/**
 	 * Running time of the work package computation.
@@ -49,14 +70,51 @@ public class WorkPackageResult {
 		return workPackage;
 	}
 
+	/**
+	 * Returns the data in the generic map form. Typed data is converted to a new map on every call, so typed implementations should use getData(Class) instead.
+	 */
+	@JsonIgnore
 	public Map<String, Object> getData() {
-		return data;
+		return DomainDataTypes.toMap(data);
 	}
 
+	@JsonIgnore
 	public void setData(Map<String, Object> data) {
 		this.data = data;
 	}
 
+	/**
+	 * Returns the data as an instance of the given class. Data bound to that class is returned as it is, otherwise it is converted.
+	 * @throws IllegalArgumentException if the data could not be converted.
+	 */
+	public <T> T getData(Class<T> type) {
+		return DomainDataTypes.convert(data, type);
+	}
+
+	/**
+	 * Sets the data as a typed object, which is serialized as it is.
+	 */
+	@JsonIgnore
+	public void setTypedData(Object data) {
+		this.data = data;
+	}
+
+	public Map<String, ArtifactReference> getArtifacts() {
+		return artifacts;
+	}
+
+	public void setArtifacts(Map<String, ArtifactReference> artifacts) {
+		this.artifacts = artifacts;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
 	public long getRunningTime() {
 		return runningTime;
 	}
@@ -85,7 +143,9 @@ public class WorkPackageResult {
 	public String toString() {
 		return "WorkPackageResult{" +
 				"workPackage=" + workPackage +
+				", status=" + status +
 				", data=" + data +
+				", artifacts=" + artifacts +
 				'}';
 	}
 }
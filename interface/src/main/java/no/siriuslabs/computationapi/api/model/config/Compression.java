@@ -0,0 +1,47 @@
+package no.siriuslabs.computationapi.api.model.config;
+
+import no.siriuslabs.computationapi.api.http.CompressionCodec;
+
+/**
+ * Configuration container class representing the compression of request and response bodies in Spring config files.<p>
+ * Used on both controller and implementation (WorkerNode) sides for the bodies they send and receive.
+ */
+public class Compression {
+
+	/**
+	 * Switch to compress bodies. Compressed bodies are still accepted and decompressed if switched off. Defaults to true.
+	 */
+	private boolean enabled = true;
+	/**
+	 * Codec bodies are preferably compressed with. Gzip is used for counterparts not supporting it. Defaults to gzip.
+	 */
+	private CompressionCodec codec = CompressionCodec.GZIP;
+	/**
+	 * Minimum size in bytes a body must have to be compressed. Smaller bodies are sent as they are, as compressing them costs more than it saves.
+	 */
+	private int threshold = 65536;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public CompressionCodec getCodec() {
+		return codec;
+	}
+
+	public void setCodec(CompressionCodec codec) {
+		this.codec = codec;
+	}
+
+	public int getThreshold() {
+		return threshold;
+	}
+
+	public void setThreshold(int threshold) {
+		this.threshold = threshold;
+	}
+}
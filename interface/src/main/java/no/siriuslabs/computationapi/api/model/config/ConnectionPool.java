@@ -0,0 +1,81 @@
+package no.siriuslabs.computationapi.api.model.config;
+
+/**
+ * Configuration container class representing the pool of HTTP connections in Spring config files.<p>
+ * Used on both controller and implementation (WorkerNode) sides for the calls they make to each other.
+ */
+public class ConnectionPool {
+
+	/**
+	 * Maximum number of connections open at once, to all servers together.
+	 */
+	private int maxTotal = 200;
+	/**
+	 * Maximum number of connections open at once to a single server (i.e. a worker node or the controller).
+	 */
+	private int maxPerRoute = 20;
+	/**
+	 * Maximum time in milliseconds a call waits for a connection to become available when the limits are reached. Zero means no limit.
+	 */
+	private int connectionRequestTimeout = 30000;
+	/**
+	 * Time in milliseconds an idle connection is kept open for if the server does not state how long it keeps connections alive.
+	 */
+	private long keepAlive = 15000;
+	/**
+	 * Time in milliseconds after which idle connections are closed by a background thread, so that connections closed by the server are not tried.
+	 */
+	private long idleTimeout = 10000;
+	/**
+	 * Time in milliseconds of inactivity after which a pooled connection is checked for being still open before it is used again.
+	 */
+	private int validateAfterInactivity = 2000;
+
+	public int getMaxTotal() {
+		return maxTotal;
+	}
+
+	public void setMaxTotal(int maxTotal) {
+		this.maxTotal = maxTotal;
+	}
+
+	public int getMaxPerRoute() {
+		return maxPerRoute;
+	}
+
+	public void setMaxPerRoute(int maxPerRoute) {
+		this.maxPerRoute = maxPerRoute;
+	}
+
+	public int getConnectionRequestTimeout() {
+		return connectionRequestTimeout;
+	}
+
+	public void setConnectionRequestTimeout(int connectionRequestTimeout) {
+		this.connectionRequestTimeout = connectionRequestTimeout;
+	}
+
+	public long getKeepAlive() {
+		return keepAlive;
+	}
+
+	public void setKeepAlive(long keepAlive) {
+		this.keepAlive = keepAlive;
+	}
+
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	public void setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	public int getValidateAfterInactivity() {
+		return validateAfterInactivity;
+	}
+
+	public void setValidateAfterInactivity(int validateAfterInactivity) {
+		this.validateAfterInactivity = validateAfterInactivity;
+	}
+}
@@ -1,6 +1,10 @@
 package no.siriuslabs.computationapi.api.model.config;
 
+import no.siriuslabs.computationapi.api.http.WireFormat;
+
 import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Configuration container class representing a controller in Spring config files on both controller and implementation (WorkerNode) sides.
@@ -26,6 +30,44 @@ public class Controller {
 	 * Delay between one retry attempt and the next try.
 	 */
 	private long retryDelay;
+	/**
+	 * Maximum time to wait for the controller to release a draining node before shutting down anyway.<p>
+	 * <b>Implementation side only!</b>
+	 */
+	private long drainTimeout;
+	/**
+	 * Format requests and replies between controller and worker nodes are preferably encoded in. Falls back to JSON for a counterpart not supporting it.
+	 * Defaults to JSON.
+	 */
+	private WireFormat wireFormat = WireFormat.JSON;
+	/**
+	 * Compression of large request and response bodies between controller, worker nodes and clients.
+	 */
+	private Compression compression = new Compression();
+	/**
+	 * Pool of keep-alive connections used for all calls between controller and worker nodes.
+	 */
+	private ConnectionPool pool = new ConnectionPool();
+
+	/**
+	 * Maximum time in milliseconds connecting to a worker node (or to the controller on the implementation side) may take. Zero means no limit.
+	 */
+	private int connectTimeout;
+	/**
+	 * Default maximum time in milliseconds the computation of a single WorkPackage may take. Zero means no limit.<p>
+	 * <b>Controller side only!</b>
+	 */
+	private long computationTimeout;
+	/**
+	 * Maximum times in milliseconds the computation of a single WorkPackage may take, per DomainType. Overrides the default computationTimeout.<p>
+	 * <b>Controller side only!</b>
+	 */
+	private Map<String, Long> domainComputationTimeouts = new HashMap<>();
+	/**
+	 * Additional time in milliseconds the controller waits for a worker node's reply after the computation timeout has passed, so that the node can report the timeout itself.<p>
+	 * <b>Controller side only!</b>
+	 */
+	private long timeoutGracePeriod;
 
 	/**
 	 * Timer related configuration data.<p>
@@ -65,6 +107,70 @@ public class Controller {
 		this.retryDelay = retryDelay;
 	}
 
+	public long getDrainTimeout() {
+		return drainTimeout;
+	}
+
+	public void setDrainTimeout(long drainTimeout) {
+		this.drainTimeout = drainTimeout;
+	}
+
+	public WireFormat getWireFormat() {
+		return wireFormat;
+	}
+
+	public void setWireFormat(WireFormat wireFormat) {
+		this.wireFormat = wireFormat;
+	}
+
+	public Compression getCompression() {
+		return compression;
+	}
+
+	public void setCompression(Compression compression) {
+		this.compression = compression;
+	}
+
+	public ConnectionPool getPool() {
+		return pool;
+	}
+
+	public void setPool(ConnectionPool pool) {
+		this.pool = pool;
+	}
+
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	public void setConnectTimeout(int connectTimeout) {
+		this.connectTimeout = connectTimeout;
+	}
+
+	public long getComputationTimeout() {
+		return computationTimeout;
+	}
+
+	public void setComputationTimeout(long computationTimeout) {
+		this.computationTimeout = computationTimeout;
+	}
+
+	public Map<String, Long> getDomainComputationTimeouts() {
+		return domainComputationTimeouts;
+	}
+
+	public void setDomainComputationTimeouts(Map<String, Long> domainComputationTimeouts) {
+		this.domainComputationTimeouts = domainComputationTimeouts;
+	}
+
+	public long getTimeoutGracePeriod() {
+		return timeoutGracePeriod;
+	}
+
+	public void setTimeoutGracePeriod(long timeoutGracePeriod) {
+		this.timeoutGracePeriod = timeoutGracePeriod;
+	}
+
 	public Timer getTimer() {
 		return timer;
 	}
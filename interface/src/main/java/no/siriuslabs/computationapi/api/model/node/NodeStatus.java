@@ -8,6 +8,7 @@ public enum NodeStatus {
 	READY,
 	RESERVED,
 	BUSY,
+	DRAINING,
 	DONE,
 	SUSPICIOUS,
 	UNAVAILABLE;
@@ -1,18 +1,23 @@
 package no.siriuslabs.computationapi.api.model.node;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import no.siriuslabs.computationapi.api.http.WireFormat;
 import no.siriuslabs.computationapi.api.model.computation.DomainType;
 import no.siriuslabs.computationapi.api.model.computation.DomainTypeToStringConverter;
 import no.siriuslabs.computationapi.api.model.computation.StringToDomainTypeConverter;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Container class representing a single worker node and its current state.<p>
- * The class contains information about the node's unique ID, the DomainType it can support and the URI it can be reached at.
+ * The class contains information about the node's unique ID, the DomainType(s) it can support and the URI it can be reached at.
  * The controller also uses it to keep track of the node's current state and when this state last changed.
+ * The node reports how many computations it runs in parallel on registration and its current occupancy on registration and with every heartbeat.
  */
 public class WorkerNode {
 
@@ -27,11 +32,34 @@ public class WorkerNode {
 	@JsonSerialize(converter = DomainTypeToStringConverter.class)
 	@JsonDeserialize(converter = StringToDomainTypeConverter.class)
 	private DomainType domainType;
+	/**
+	 * Further DomainTypes this node can support in addition to its main DomainType. Optional.
+	 */
+	@JsonSerialize(contentConverter = DomainTypeToStringConverter.class)
+	@JsonDeserialize(contentConverter = StringToDomainTypeConverter.class)
+	private List<DomainType> additionalDomainTypes = new ArrayList<>();
 
 	/**
 	 * The URI which the controller should use to contact this node.
 	 */
 	private URI uri;
+	/**
+	 * Flag showing if this node fetches its work from the controller itself instead of being sent work by the controller.<p>
+	 * The controller never calls a pulling node, so it does not have to be reachable through its URI.
+	 */
+	private boolean pulling;
+	/**
+	 * Binary formats this node can read requests in and write replies in, in addition to JSON. Empty for nodes that only understand JSON.
+	 */
+	private List<WireFormat> wireFormats = new ArrayList<>();
+	/**
+	 * Number of computations this node runs in parallel. Nodes not reporting it count as computing one at a time.
+	 */
+	private int capacity = 1;
+	/**
+	 * Number of computations this node has accepted and not finished yet, as last reported by the node.
+	 */
+	private int occupancy;
 
 	/**
 	 * This node's current status from the controller's point of view.
@@ -41,6 +69,10 @@ public class WorkerNode {
 	 * This node's last status change from the controller's point of view.
 	 */
 	private transient Date lastStatusChange;
+	/**
+	 * The last time this node fetched work or reported a result from the controller's point of view. Only tracked for pulling nodes.
+	 */
+	private transient Date lastContact;
 
 	/**
 	 * Constructor needed for de-serialization.
@@ -64,6 +96,40 @@ public class WorkerNode {
 		this.domainType = domainType;
 	}
 
+	public List<DomainType> getAdditionalDomainTypes() {
+		return additionalDomainTypes;
+	}
+
+	public void setAdditionalDomainTypes(List<DomainType> additionalDomainTypes) {
+		this.additionalDomainTypes = additionalDomainTypes == null ? new ArrayList<>() : additionalDomainTypes;
+	}
+
+	/**
+	 * Returns a list of all DomainTypes this node supports, starting with its main DomainType.
+	 */
+	@JsonIgnore
+	public List<DomainType> getAllDomainTypes() {
+		List<DomainType> domainTypes = new ArrayList<>(additionalDomainTypes.size() + 1);
+		if(domainType != null) {
+			domainTypes.add(domainType);
+		}
+		domainTypes.addAll(additionalDomainTypes);
+		return domainTypes;
+	}
+
+	/**
+	 * Returns true if this node supports the given DomainType (either as main or as additional DomainType), otherwise false.
+	 * DomainTypes are compared by their string representation.
+	 */
+	public boolean supportsDomain(DomainType domain) {
+		for(DomainType supported : getAllDomainTypes()) {
+			if(supported.getDomainType().equals(domain.getDomainType())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	public URI getUri() {
 		return uri;
 	}
@@ -72,6 +138,38 @@ public class WorkerNode {
 		this.uri = uri;
 	}
 
+	public boolean isPulling() {
+		return pulling;
+	}
+
+	public void setPulling(boolean pulling) {
+		this.pulling = pulling;
+	}
+
+	public List<WireFormat> getWireFormats() {
+		return wireFormats;
+	}
+
+	public void setWireFormats(List<WireFormat> wireFormats) {
+		this.wireFormats = wireFormats == null ? new ArrayList<>() : wireFormats;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	public int getOccupancy() {
+		return occupancy;
+	}
+
+	public void setOccupancy(int occupancy) {
+		this.occupancy = occupancy;
+	}
+
 	public NodeStatus getStatus() {
 		return status;
 	}
@@ -85,12 +183,25 @@ public class WorkerNode {
 		return lastStatusChange == null ? null : (Date) lastStatusChange.clone();
 	}
 
+	public Date getLastContact() {
+		return lastContact == null ? null : (Date) lastContact.clone();
+	}
+
+	public void setLastContact(Date lastContact) {
+		this.lastContact = lastContact == null ? null : (Date) lastContact.clone();
+	}
+
 	@Override
 	public String toString() {
 		return "WorkerNode{" +
 				"id='" + id + '\'' +
 				", domainType=" + domainType +
+				", additionalDomainTypes=" + additionalDomainTypes +
 				", uri=" + uri +
+				", pulling=" + pulling +
+				", wireFormats=" + wireFormats +
+				", capacity=" + capacity +
+				", occupancy=" + occupancy +
 				", status=" + status +
 				'}';
 	}
@@ -0,0 +1,78 @@
+package no.siriuslabs.computationapi.api.model.node;
+
+/**
+ * Container class representing the state a worker node reports about itself when asked by the controller.<p>
+ * The controller uses it to reconcile its own view of a node (as kept in the WorkerNode's status) with what the node is actually doing.
+ * It also serves as the node's heartbeat, carrying the capacity and occupancy of the node's computation engine.
+ */
+public class WorkerState {
+
+	/**
+	 * Number of requests from the controller that the node is currently working on (excluding the status request itself), including computations it accepted
+	 * for computation in the background and whose results it has not reported yet.
+	 */
+	private int activeRequests;
+	/**
+	 * Number of computations the node runs in parallel.
+	 */
+	private int capacity;
+	/**
+	 * Number of computations the node has accepted and not finished yet, whether running or waiting for a free slot.
+	 */
+	private int occupancy;
+
+	/**
+	 * Constructor needed for de-serialization.
+	 */
+	public WorkerState() {
+	}
+
+	/**
+	 * Constructor accepting the number of active requests.
+	 */
+	public WorkerState(int activeRequests) {
+		this.activeRequests = activeRequests;
+	}
+
+	/**
+	 * Constructor accepting the number of active requests as well as the capacity and occupancy of the node's computation engine.
+	 */
+	public WorkerState(int activeRequests, int capacity, int occupancy) {
+		this.activeRequests = activeRequests;
+		this.capacity = capacity;
+		this.occupancy = occupancy;
+	}
+
+	public int getActiveRequests() {
+		return activeRequests;
+	}
+
+	public void setActiveRequests(int activeRequests) {
+		this.activeRequests = activeRequests;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	public int getOccupancy() {
+		return occupancy;
+	}
+
+	public void setOccupancy(int occupancy) {
+		this.occupancy = occupancy;
+	}
+
+	@Override
+	public String toString() {
+		return "WorkerState{" +
+				"activeRequests=" + activeRequests +
+				", capacity=" + capacity +
+				", occupancy=" + occupancy +
+				'}';
+	}
+}
@@ -1,5 +1,6 @@
 package no.siriuslabs.computationapi.api.model.request;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import no.siriuslabs.computationapi.api.model.computation.DomainType;
@@ -11,6 +12,7 @@ import no.siriuslabs.computationapi.api.model.computation.StringToDomainTypeConv
  * The request contains the initial information required to start a computation run. This data is the DomainType the data belongs to and a Payload object which contains the domain specific data.
  * It also can contain some statistical information which will be added when available later in the computation process.
  */
+@JsonPropertyOrder({"domain"})
 public class ComputationRequest {
 
 	/**
@@ -20,11 +22,31 @@ public class ComputationRequest {
 	@JsonDeserialize(converter = StringToDomainTypeConverter.class)
 	private DomainType domain;
 
+	/**
+	 * Identifier of the computation run started by this request. Assigned by the controller when the request is accepted.
+	 */
+	private long runId;
+
+	/**
+	 * Identifier of the client sending the request. Optional. Worker nodes are shared between clients according to their configured weights.
+	 */
+	private String clientId;
+
+	/**
+	 * Priority of the request. It is added to the priority of each WorkPackage generated from the request. Defaults to 0.
+	 */
+	private int priority;
+
 	/**
 	 * Payload object containing domain specific data needed for the process.
 	 */
 	private Payload payload;
 
+	/**
+	 * Maximum time in milliseconds the computation of a single WorkPackage of this request may take. Overrides the controller's configured timeouts if greater than zero.
+	 */
+	private long computationTimeout;
+
 	/**
 	 * Timestamp the computation run started.
 	 */
@@ -56,6 +78,30 @@ public class ComputationRequest {
 		this.domain = domain;
 	}
 
+	public long getRunId() {
+		return runId;
+	}
+
+	public void setRunId(long runId) {
+		this.runId = runId;
+	}
+
+	public String getClientId() {
+		return clientId;
+	}
+
+	public void setClientId(String clientId) {
+		this.clientId = clientId;
+	}
+
+	public int getPriority() {
+		return priority;
+	}
+
+	public void setPriority(int priority) {
+		this.priority = priority;
+	}
+
 	public Payload getPayload() {
 		return payload;
 	}
@@ -64,6 +110,14 @@ public class ComputationRequest {
 		this.payload = payload;
 	}
 
+	public long getComputationTimeout() {
+		return computationTimeout;
+	}
+
+	public void setComputationTimeout(long computationTimeout) {
+		this.computationTimeout = computationTimeout;
+	}
+
 	public long getStartedTimestamp() {
 		return startedTimestamp;
 	}
@@ -100,6 +154,8 @@ public class ComputationRequest {
 	public String toString() {
 		return "ComputationRequest{" +
 				"domain=" + domain +
+				", runId=" + runId +
+				", clientId='" + clientId + '\'' +
 				", payload=" + payload +
 				'}';
 	}
@@ -1,16 +1,32 @@
 package no.siriuslabs.computationapi.api.model.request;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import no.siriuslabs.computationapi.api.model.computation.DomainDataDeserializer;
+import no.siriuslabs.computationapi.api.model.computation.DomainDataTypes;
+
 import java.util.Map;
 
 /**
  * Generic container class to encapsulate domain specific data in a ComputationRequest.
+ * The data is held in the generic map form or, if the implementation registered a class for it, as an instance of that class (see DomainDataTypes).
  */
 public class Payload {
 
 	/**
-	 * Map holding the data in key-value pairs
+	 * The data in key-value pairs or as an instance of the class registered for the DomainType.
 	 */
-	Map<String, Object> data;
+	@JsonProperty("data")
+	@JsonDeserialize(using = DomainDataDeserializer.class)
+	Object data;
+
+	/**
+	 * Map holding data needed by all WorkPackages of the computation run, e.g. a large reference dataset. Optional.<p>
+	 * Instead of being copied into every WorkPackage, it is shipped once to each worker node computing packages of the run and handed to the computations
+	 * through WorkPackage.getBroadcast().
+	 */
+	Map<String, Object> broadcast;
 
 	/**
 	 * Constructor needed for de-serialization.
@@ -18,18 +34,48 @@ public class Payload {
 	public Payload() {
 	}
 
+	/**
+	 * Returns the data in the generic map form. Typed data is converted to a new map on every call, so typed implementations should use getData(Class) instead.
+	 */
+	@JsonIgnore
 	public Map<String, Object> getData() {
-		return data;
+		return DomainDataTypes.toMap(data);
 	}
 
+	@JsonIgnore
 	public void setData(Map<String, Object> data) {
 		this.data = data;
 	}
 
+	/**
+	 * Returns the data as an instance of the given class. Data bound to that class is returned as it is, otherwise it is converted.
+	 * @throws IllegalArgumentException if the data could not be converted.
+	 */
+	public <T> T getData(Class<T> type) {
+		return DomainDataTypes.convert(data, type);
+	}
+
+	/**
+	 * Sets the data as a typed object, which is serialized as it is.
+	 */
+	@JsonIgnore
+	public void setTypedData(Object data) {
+		this.data = data;
+	}
+
+	public Map<String, Object> getBroadcast() {
+		return broadcast;
+	}
+
+	public void setBroadcast(Map<String, Object> broadcast) {
+		this.broadcast = broadcast;
+	}
+
 	@Override
 	public String toString() {
 		return "Payload{" +
 				"data=" + data +
+				", broadcast=" + (broadcast == null ? null : broadcast.keySet()) +
 				'}';
 	}
 }
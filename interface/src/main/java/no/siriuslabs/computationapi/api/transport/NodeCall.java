@@ -0,0 +1,115 @@
+package no.siriuslabs.computationapi.api.transport;
+
+import no.siriuslabs.computationapi.api.http.WireFormat;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Container class describing a single call of a worker node service, independent of the NodeTransport carrying it.<p>
+ * Besides the service path and the request body it holds the computation timeout and result callback path a node may be offered,
+ * the time the caller waits for the reply at most and the WireFormat the body should preferably be encoded in. Transports that do not need some of these
+ * (e.g. the WireFormat when nothing is serialized) simply ignore them.
+ */
+public class NodeCall {
+
+	/**
+	 * HttpMethod of the service, POST by default.
+	 */
+	private final HttpMethod method;
+	/**
+	 * Relative path of the worker node service to be called.
+	 */
+	private final String servicePath;
+	/**
+	 * Body to be passed in the call. Null for services without a request body.
+	 */
+	private final Object body;
+
+	/**
+	 * Maximum time in milliseconds the node may spend on the request. No limit if not greater than zero.
+	 */
+	private long timeout;
+	/**
+	 * Maximum time in milliseconds the caller waits for the reply. Waits as long as the transport does by default if not greater than zero.
+	 */
+	private long replyTimeout;
+	/**
+	 * Path, relative to the controller's URL, the node may report the result of the call to later instead of replying with it. Null if it has to reply.
+	 */
+	private String resultCallbackPath;
+	/**
+	 * WireFormat the body should preferably be sent and answered in.
+	 */
+	private WireFormat wireFormat = WireFormat.JSON;
+
+	/**
+	 * Constructor for a POST call of the service with the given path, passing the given body.
+	 */
+	public NodeCall(String servicePath, Object body) {
+		this(HttpMethod.POST, servicePath, body);
+	}
+
+	/**
+	 * Constructor expecting all mandatory elements.
+	 */
+	public NodeCall(HttpMethod method, String servicePath, Object body) {
+		this.method = method;
+		this.servicePath = servicePath;
+		this.body = body;
+	}
+
+	public HttpMethod getMethod() {
+		return method;
+	}
+
+	public String getServicePath() {
+		return servicePath;
+	}
+
+	public Object getBody() {
+		return body;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	public long getReplyTimeout() {
+		return replyTimeout;
+	}
+
+	public void setReplyTimeout(long replyTimeout) {
+		this.replyTimeout = replyTimeout;
+	}
+
+	public String getResultCallbackPath() {
+		return resultCallbackPath;
+	}
+
+	public void setResultCallbackPath(String resultCallbackPath) {
+		this.resultCallbackPath = resultCallbackPath;
+	}
+
+	public WireFormat getWireFormat() {
+		return wireFormat;
+	}
+
+	public void setWireFormat(WireFormat wireFormat) {
+		this.wireFormat = wireFormat == null ? WireFormat.JSON : wireFormat;
+	}
+
+	@Override
+	public String toString() {
+		return "NodeCall{" +
+				"method=" + method +
+				", servicePath='" + servicePath + '\'' +
+				", timeout=" + timeout +
+				", replyTimeout=" + replyTimeout +
+				", resultCallbackPath='" + resultCallbackPath + '\'' +
+				", wireFormat=" + wireFormat +
+				'}';
+	}
+}
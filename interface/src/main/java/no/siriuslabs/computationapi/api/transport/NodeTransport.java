@@ -0,0 +1,28 @@
+package no.siriuslabs.computationapi.api.transport;
+
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+
+/**
+ * Service provider interface for the ways the controller can reach a worker node.<p>
+ * Each transport is responsible for the nodes whose URI it supports, which is usually decided by the URI's scheme. The controller picks the transport for a node
+ * by asking all transports available in its application context and uses it for every service call of that node.<p>
+ * Implementations behave like a RestTemplate as far as callers are concerned: replies with an error status are thrown as HttpStatusCodeException,
+ * other failures as RestClientException, and a reply not received within the call's reply timeout as ResourceAccessException caused by a SocketTimeoutException.
+ */
+public interface NodeTransport {
+
+	/**
+	 * Returns true if this transport can reach the worker node with the given URI, otherwise false.
+	 */
+	boolean supports(URI nodeUri);
+
+	/**
+	 * Calls the service described by the given NodeCall on the worker node with the given URI and returns its reply.<p>
+	 * The reply's body is of the given type. For Object.class, the body has the generic structure a JSON parser would produce (maps, lists and simple values)
+	 * or, if the transport does not serialize anything, is the object returned by the node's service as it is.
+	 */
+	<T> ResponseEntity<T> call(URI nodeUri, NodeCall call, Class<T> responseType);
+
+}
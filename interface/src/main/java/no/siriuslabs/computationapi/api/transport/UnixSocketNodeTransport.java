@@ -0,0 +1,245 @@
+package no.siriuslabs.computationapi.api.transport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * NodeTransport calling worker nodes on the same host through a Unix domain socket instead of the TCP loopback interface.<p>
+ * A node listening on a socket registers with an URI of the scheme "unix" whose path is the socket's file (see toUri()). The transport supports such a node
+ * only if the runtime supports Unix domain sockets and the socket file exists, i.e. the node runs on the controller's host.<p>
+ * Calls are framed as described in UnixSocketProtocol, bodies are JSON. Connections are kept open and reused for later calls of the same node.
+ * As the channels have no read timeout, a call limited by a reply timeout runs in a separate thread and its connection is closed once the caller gives up on it.
+ */
+public class UnixSocketNodeTransport implements NodeTransport, Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(UnixSocketNodeTransport.class);
+
+	/**
+	 * URI scheme of nodes called through a Unix domain socket.
+	 */
+	public static final String SCHEME = "unix";
+
+	/**
+	 * ObjectMapper writing request bodies and reading reply bodies.
+	 */
+	private final ObjectMapper objectMapper;
+
+	/**
+	 * Connections currently not in use, by the path of their socket.
+	 */
+	private final ConcurrentHashMap<Path, Deque<Connection>> idleConnections = new ConcurrentHashMap<>();
+
+	/**
+	 * Threads running the calls limited by a reply timeout.
+	 */
+	private final ExecutorService timedCalls = Executors.newCachedThreadPool((Runnable runnable) -> {
+		Thread thread = new Thread(runnable, "unix-socket-call");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Constructor expecting the ObjectMapper to write and read the bodies with.
+	 */
+	public UnixSocketNodeTransport(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Returns the URI a node listening on the Unix domain socket with the given path is to be registered with.
+	 */
+	public static URI toUri(Path socketPath) {
+		try {
+			return new URI(SCHEME, null, socketPath.toAbsolutePath().toString(), null);
+		}
+		catch(URISyntaxException e) {
+			throw new IllegalArgumentException("Invalid socket path " + socketPath, e);
+		}
+	}
+
+	@Override
+	public boolean supports(URI nodeUri) {
+		return SCHEME.equalsIgnoreCase(nodeUri.getScheme()) && nodeUri.getPath() != null && UnixSockets.isSupported() && Files.exists(Paths.get(nodeUri.getPath()));
+	}
+
+	@Override
+	public <T> ResponseEntity<T> call(URI nodeUri, NodeCall call, Class<T> responseType) {
+		final Path socketPath = Paths.get(nodeUri.getPath());
+		final byte[] body;
+		try {
+			body = call.getBody() == null ? null : objectMapper.writeValueAsBytes(call.getBody());
+		}
+		catch(IOException e) {
+			throw new RestClientException("Could not write the body of " + call.getServicePath(), e);
+		}
+
+		LOGGER.debug("Calling {} through Unix domain socket {}", call.getServicePath(), socketPath);
+		final Reply reply = call.getReplyTimeout() > 0 ? exchangeWithTimeout(socketPath, call, body) : exchange(socketPath, call, body, true);
+
+		final HttpStatus status = HttpStatus.valueOf(reply.status);
+		if(status.isError()) {
+			throw status.is4xxClientError() ? new HttpClientErrorException(status, status.getReasonPhrase(), reply.body, StandardCharsets.UTF_8)
+					: new HttpServerErrorException(status, status.getReasonPhrase(), reply.body, StandardCharsets.UTF_8);
+		}
+		try {
+			return ResponseEntity.status(status).body(reply.body == null ? null : objectMapper.readValue(reply.body, responseType));
+		}
+		catch(IOException e) {
+			throw new RestClientException("Could not read the reply of " + call.getServicePath(), e);
+		}
+	}
+
+	/**
+	 * Exchanges the given call like exchange(), but in a separate thread, waiting for the reply for the call's reply timeout at most.
+	 * @throws ResourceAccessException caused by a SocketTimeoutException if there was no reply in time.
+	 */
+	private Reply exchangeWithTimeout(Path socketPath, NodeCall call, byte[] body) {
+		final Future<Reply> future = timedCalls.submit(() -> exchange(socketPath, call, body, true));
+		try {
+			return future.get(call.getReplyTimeout(), TimeUnit.MILLISECONDS);
+		}
+		catch(TimeoutException e) {
+			// interrupting the blocked thread closes its channel
+			future.cancel(true);
+			throw new ResourceAccessException("No reply of " + call.getServicePath() + " within " + call.getReplyTimeout() + " ms",
+					new SocketTimeoutException("Reply timeout of " + call.getReplyTimeout() + " ms exceeded"));
+		}
+		catch(InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new ResourceAccessException("Interrupted while waiting for the reply of " + call.getServicePath());
+		}
+		catch(ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RestClientException("Call of " + call.getServicePath() + " failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Sends the given call with the given body through an idle or a new connection to the socket with the given path and returns the reply.<p>
+	 * Should an idle connection turn out to have been closed by the node before the call was read, the call is repeated once on a new connection if retryStale is true.
+	 */
+	private Reply exchange(Path socketPath, NodeCall call, byte[] body, boolean retryStale) {
+		final Connection idle = idleConnections.computeIfAbsent(socketPath, (Path path) -> new ConcurrentLinkedDeque<>()).pollFirst();
+		Connection connection = idle;
+		try {
+			if(connection == null) {
+				connection = new Connection(UnixSockets.connect(socketPath));
+			}
+			UnixSocketProtocol.writeRequest(connection.out, call.getMethod().name(), call.getServicePath(), call.getTimeout(), body);
+			final Reply reply = new Reply(connection.in.readInt(), UnixSocketProtocol.readBody(connection.in));
+			idleConnections.get(socketPath).offerFirst(connection);
+			return reply;
+		}
+		catch(EOFException e) {
+			close(connection);
+			if(idle != null && retryStale) {
+				LOGGER.debug("Idle connection to {} was closed - retrying with a new one", socketPath);
+				return exchange(socketPath, call, body, false);
+			}
+			throw new ResourceAccessException("Connection to " + socketPath + " closed during " + call.getServicePath(), e);
+		}
+		catch(IOException e) {
+			close(connection);
+			throw new ResourceAccessException("I/O error on Unix domain socket " + socketPath + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Closes all idle connections and stops the threads running calls limited by a reply timeout.
+	 */
+	@Override
+	public void close() {
+		timedCalls.shutdownNow();
+		for(Deque<Connection> connections : idleConnections.values()) {
+			Connection connection;
+			while((connection = connections.pollFirst()) != null) {
+				close(connection);
+			}
+		}
+	}
+
+	private void close(Connection connection) {
+		if(connection == null) {
+			return;
+		}
+		try {
+			connection.channel.close();
+		}
+		catch(IOException e) {
+			LOGGER.debug("Closing connection failed: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Open connection to a node's socket with the streams calls are exchanged through.
+	 */
+	private static final class Connection {
+
+		private final SocketChannel channel;
+		private final DataInputStream in;
+		private final DataOutputStream out;
+
+		/**
+		 * Constructor expecting the connected channel.
+		 */
+		Connection(SocketChannel channel) {
+			this.channel = channel;
+			this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+			this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+		}
+	}
+
+	/**
+	 * Reply received from a node: its HttpStatus code and its body.
+	 */
+	private static final class Reply {
+
+		private final int status;
+		private final byte[] body;
+
+		/**
+		 * Constructor expecting all elements.
+		 */
+		Reply(int status, byte[] body) {
+			this.status = status;
+			this.body = body;
+		}
+	}
+
+}
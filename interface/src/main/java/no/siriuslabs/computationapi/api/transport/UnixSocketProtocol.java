@@ -0,0 +1,71 @@
+package no.siriuslabs.computationapi.api.transport;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Framing of the calls exchanged over a Unix domain socket between controller and worker node.<p>
+ * A connection carries any number of calls one after another. Each request consists of the HttpMethod and service path (as modified UTF-8 strings),
+ * the computation timeout in milliseconds (as long) and the body; each reply of the HttpStatus code (as int) and the body.
+ * A body is written as its length (as int) followed by its JSON bytes, a missing body as the length -1.
+ */
+public final class UnixSocketProtocol {
+
+	/**
+	 * Length written for a missing body.
+	 */
+	private static final int NO_BODY = -1;
+
+	/**
+	 * Default constructor.
+	 */
+	private UnixSocketProtocol() {
+	}
+
+	/**
+	 * Writes a request with the given elements to the given stream and flushes it.
+	 */
+	public static void writeRequest(DataOutputStream out, String method, String servicePath, long timeout, byte[] body) throws IOException {
+		out.writeUTF(method);
+		out.writeUTF(servicePath);
+		out.writeLong(timeout);
+		writeBody(out, body);
+		out.flush();
+	}
+
+	/**
+	 * Writes a reply with the given elements to the given stream and flushes it.
+	 */
+	public static void writeReply(DataOutputStream out, int status, byte[] body) throws IOException {
+		out.writeInt(status);
+		writeBody(out, body);
+		out.flush();
+	}
+
+	/**
+	 * Reads a body written by writeRequest() or writeReply() from the given stream. Returns null for a missing body.
+	 */
+	public static byte[] readBody(DataInputStream in) throws IOException {
+		final int length = in.readInt();
+		if(length == NO_BODY) {
+			return null;
+		}
+		if(length < 0) {
+			throw new IOException("Invalid body length " + length);
+		}
+		final byte[] body = new byte[length];
+		in.readFully(body);
+		return body;
+	}
+
+	private static void writeBody(DataOutputStream out, byte[] body) throws IOException {
+		if(body == null) {
+			out.writeInt(NO_BODY);
+			return;
+		}
+		out.writeInt(body.length);
+		out.write(body);
+	}
+
+}
@@ -0,0 +1,119 @@
+package no.siriuslabs.computationapi.api.transport;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Access to Unix domain sockets, which the JDK supports from Java 16 on.<p>
+ * As the framework is built for Java 8, the socket channels are opened reflectively. On older runtimes isSupported() returns false and the other methods fail.
+ */
+public final class UnixSockets {
+
+	/**
+	 * Factory method UnixDomainSocketAddress.of(Path) or null if not available.
+	 */
+	private static final Method ADDRESS_FACTORY = findMethod("java.net.UnixDomainSocketAddress", "of", Path.class);
+	/**
+	 * Factory method SocketChannel.open(ProtocolFamily) or null if not available.
+	 */
+	private static final Method CLIENT_FACTORY = findMethod(SocketChannel.class.getName(), "open", ProtocolFamily.class);
+	/**
+	 * Factory method ServerSocketChannel.open(ProtocolFamily) or null if not available.
+	 */
+	private static final Method SERVER_FACTORY = findMethod(ServerSocketChannel.class.getName(), "open", ProtocolFamily.class);
+
+	/**
+	 * Default constructor.
+	 */
+	private UnixSockets() {
+	}
+
+	/**
+	 * Returns true if the runtime supports Unix domain sockets, otherwise false.
+	 */
+	public static boolean isSupported() {
+		return ADDRESS_FACTORY != null && CLIENT_FACTORY != null && SERVER_FACTORY != null && getUnixFamily() != null;
+	}
+
+	/**
+	 * Opens a blocking channel connected to the Unix domain socket with the given path.
+	 * @throws IOException if the connection could not be established or the runtime does not support Unix domain sockets.
+	 */
+	public static SocketChannel connect(Path path) throws IOException {
+		final SocketChannel channel = (SocketChannel) invoke(CLIENT_FACTORY, getUnixFamily());
+		try {
+			channel.connect(createAddress(path));
+			return channel;
+		}
+		catch(IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens a blocking server channel listening on the Unix domain socket with the given path. A file left at the path by an earlier server is replaced.
+	 * @throws IOException if the socket could not be bound or the runtime does not support Unix domain sockets.
+	 */
+	public static ServerSocketChannel bind(Path path) throws IOException {
+		Files.deleteIfExists(path);
+		final ServerSocketChannel channel = (ServerSocketChannel) invoke(SERVER_FACTORY, getUnixFamily());
+		try {
+			channel.bind(createAddress(path));
+			return channel;
+		}
+		catch(IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private static SocketAddress createAddress(Path path) throws IOException {
+		return (SocketAddress) invoke(ADDRESS_FACTORY, path);
+	}
+
+	private static ProtocolFamily getUnixFamily() {
+		for(StandardProtocolFamily family : StandardProtocolFamily.values()) {
+			if("UNIX".equals(family.name())) {
+				return family;
+			}
+		}
+		return null;
+	}
+
+	private static Object invoke(Method method, Object argument) throws IOException {
+		if(!isSupported()) {
+			throw new IOException("Unix domain sockets are not supported by this Java runtime");
+		}
+		try {
+			return method.invoke(null, argument);
+		}
+		catch(InvocationTargetException e) {
+			if(e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+		catch(IllegalAccessException e) {
+			throw new IOException(e);
+		}
+	}
+
+	private static Method findMethod(String className, String name, Class<?> parameterType) {
+		try {
+			return Class.forName(className).getMethod(name, parameterType);
+		}
+		catch(ClassNotFoundException | NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+}
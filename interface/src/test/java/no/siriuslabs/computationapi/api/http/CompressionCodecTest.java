@@ -0,0 +1,110 @@
+package no.siriuslabs.computationapi.api.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the CompressionCodec enum, including a benchmark comparing the codecs on a realistic payload.
+ */
+public class CompressionCodecTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CompressionCodecTest.class);
+
+	/**
+	 * Tests parsing Accept-Encoding header values and choosing the codec to answer in.
+	 */
+	@DisplayName("Test negotiate()")
+	@Test
+	public void testNegotiate() {
+		assertEquals(Arrays.asList(CompressionCodec.LZ4, CompressionCodec.GZIP), CompressionCodec.parseAcceptEncoding("lz4, deflate, GZIP;q=0.8"),
+				"Known codecs are expected to be parsed in order");
+		assertEquals(Collections.singletonList(CompressionCodec.LZ4), CompressionCodec.parseAcceptEncoding("gzip;q=0, lz4"), "Refused codec is not expected to be accepted");
+		assertTrue(CompressionCodec.parseAcceptEncoding(null).isEmpty(), "Nothing is expected to be accepted without header");
+
+		assertEquals(CompressionCodec.LZ4, CompressionCodec.negotiate("gzip, lz4", CompressionCodec.LZ4), "Preferred codec is expected to be chosen if accepted");
+		assertEquals(CompressionCodec.GZIP, CompressionCodec.negotiate("gzip, deflate", CompressionCodec.LZ4), "Other accepted codec is expected to be chosen");
+		assertNull(CompressionCodec.negotiate("deflate, br", CompressionCodec.GZIP), "No codec is expected to be chosen if none is accepted");
+
+		assertEquals("lz4, gzip", CompressionCodec.getAcceptEncoding(CompressionCodec.LZ4), "Preferred codec is expected to be listed first");
+	}
+
+	/**
+	 * Benchmarks the compression ratio and the compression and decompression times of the codecs for a JSON body of results with numeric data.
+	 * Both codecs are expected to restore the original body and to shrink it. Times are only reported, as they depend on the machine.
+	 */
+	@DisplayName("Benchmark the codecs with a realistic payload")
+	@Test
+	public void testBenchmark() throws IOException {
+		final byte[] body = new ObjectMapper().writeValueAsBytes(createResults(200, 250));
+
+		for(CompressionCodec codec : CompressionCodec.values()) {
+			byte[] compressed = codec.compress(body);
+			assertArrayEquals(body, decompress(codec, compressed), codec + " is expected to restore the original body");
+			assertTrue(compressed.length < body.length, codec + " is expected to shrink the body");
+
+			// warm up before measuring
+			for(int i = 0; i < 10; i++) {
+				decompress(codec, codec.compress(body));
+			}
+			final int iterations = 20;
+			long compressTime = 0;
+			long decompressTime = 0;
+			for(int i = 0; i < iterations; i++) {
+				long start = System.nanoTime();
+				compressed = codec.compress(body);
+				compressTime += System.nanoTime() - start;
+				start = System.nanoTime();
+				decompress(codec, compressed);
+				decompressTime += System.nanoTime() - start;
+			}
+			LOGGER.info("{}: {} of {} bytes (ratio {}), compress {} ms, decompress {} ms", codec, compressed.length, body.length, (double) body.length / compressed.length,
+					compressTime / iterations / 1000000.0, decompressTime / iterations / 1000000.0);
+		}
+	}
+
+	private byte[] decompress(CompressionCodec codec, byte[] compressed) throws IOException {
+		try(InputStream in = codec.decompress(new ByteArrayInputStream(compressed))) {
+			return StreamUtils.copyToByteArray(in);
+		}
+	}
+
+	/**
+	 * Creates the given number of result-like maps, each carrying the given number of measured values along with some descriptive fields.
+	 */
+	private List<Map<String, Object>> createResults(int number, int values) {
+		final Random random = new Random(42);
+		final List<Map<String, Object>> results = new ArrayList<>(number);
+		for(int i = 0; i < number; i++) {
+			List<Double> series = new ArrayList<>(values);
+			for(int j = 0; j < values; j++) {
+				series.add(Math.round(random.nextGaussian() * 100000) / 100.0);
+			}
+			Map<String, Object> result = new HashMap<>();
+			result.put("id", i);
+			result.put("domain", "BENCHMARK");
+			result.put("status", "DONE");
+			result.put("nodeId", "worker-" + (i % 8) + ":8080");
+			result.put("series", series);
+			results.add(result);
+		}
+		return results;
+	}
+
+}
@@ -0,0 +1,144 @@
+package no.siriuslabs.computationapi.api.http;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import no.siriuslabs.computationapi.api.model.config.Compression;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the CompressionFilter class.
+ */
+public class CompressionFilterTest {
+
+	private static final int THRESHOLD = 1024;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private CompressionFilter compressionFilter;
+
+	@BeforeEach
+	public void setup() {
+		Compression compression = new Compression();
+		compression.setCodec(CompressionCodec.LZ4);
+		compression.setThreshold(THRESHOLD);
+		meterRegistry = new SimpleMeterRegistry();
+		compressionFilter = new CompressionFilter(compression, meterRegistry);
+	}
+
+	/**
+	 * Tests that a compressed request body is passed on decompressed, without the headers describing the compressed body, and that its metrics are recorded.
+	 */
+	@DisplayName("Test a compressed request")
+	@Test
+	public void testCompressedRequest() throws ServletException, IOException {
+		final byte[] body = createBody(10 * THRESHOLD);
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/reportResults/node");
+		request.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+		request.setContent(CompressionCodec.GZIP.compress(body));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		final byte[][] received = new byte[1][];
+		final String[] receivedEncoding = new String[1];
+		compressionFilter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+				receivedEncoding[0] = req.getHeader(HttpHeaders.CONTENT_ENCODING);
+				received[0] = StreamUtils.copyToByteArray(req.getInputStream());
+			}
+		}));
+
+		assertArrayEquals(body, received[0], "Request body is expected to be decompressed");
+		assertNull(receivedEncoding[0], "Content-Encoding is expected to be hidden");
+		assertEquals("lz4, gzip", response.getHeader(HttpHeaders.ACCEPT_ENCODING), "Accepted codecs are expected to be announced");
+		assertEquals(body.length, meterRegistry.get(CompressionMetrics.BYTES_METRIC).tag("endpoint", "reportResults").tag("direction", CompressionMetrics.REQUEST)
+				.tag("form", "uncompressed").counter().count(), 0.001, "Decompressed bytes are expected to be counted for the endpoint");
+		assertEquals(1, meterRegistry.get(CompressionMetrics.CPU_METRIC).tag("operation", CompressionMetrics.DECOMPRESS).timer().count(), "CPU time is expected to be recorded");
+	}
+
+	/**
+	 * Tests that a request with an unknown Content-Encoding is refused.
+	 */
+	@DisplayName("Test a request with an unsupported encoding")
+	@Test
+	public void testUnsupportedEncoding() throws ServletException, IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/reportResults/node");
+		request.addHeader(HttpHeaders.CONTENT_ENCODING, "br");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain filterChain = new MockFilterChain();
+
+		compressionFilter.doFilter(request, response, filterChain);
+
+		assertEquals(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, response.getStatus(), "Unknown encoding is expected to be refused");
+		assertNull(filterChain.getRequest(), "Request is not expected to be processed");
+	}
+
+	/**
+	 * Tests that a response body reaching the threshold is compressed with the preferred codec accepted by the caller, while a smaller one is sent as it is.
+	 */
+	@DisplayName("Test compressing responses")
+	@Test
+	public void testResponseCompression() throws ServletException, IOException {
+		final byte[] large = createBody(10 * THRESHOLD);
+		MockHttpServletResponse response = respond("gzip, lz4", large);
+		assertEquals("lz4", response.getHeader(HttpHeaders.CONTENT_ENCODING), "Large response is expected to be compressed with the preferred codec");
+		assertArrayEquals(large, StreamUtils.copyToByteArray(CompressionCodec.LZ4.decompress(new ByteArrayInputStream(response.getContentAsByteArray()))),
+				"Compressed response is expected to contain the body");
+		assertTrue(response.getContentAsByteArray().length < large.length, "Compressed response is expected to be smaller");
+		assertEquals(1, meterRegistry.get(CompressionMetrics.RATIO_METRIC).tag("endpoint", "accumulateResults").tag("direction", CompressionMetrics.RESPONSE)
+				.summary().count(), "Compression ratio is expected to be recorded for the endpoint");
+
+		final byte[] small = createBody(THRESHOLD / 2);
+		response = respond("gzip, lz4", small);
+		assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING), "Small response is not expected to be compressed");
+		assertArrayEquals(small, response.getContentAsByteArray(), "Small response is expected to be sent as it is");
+
+		response = respond(null, large);
+		assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING), "Response is not expected to be compressed for a caller not accepting it");
+		assertArrayEquals(large, response.getContentAsByteArray(), "Response is expected to be sent as it is");
+	}
+
+	private MockHttpServletResponse respond(String acceptEncoding, byte[] body) throws ServletException, IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/accumulateResults");
+		if(acceptEncoding != null) {
+			request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		compressionFilter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+				resp.setContentLength(body.length);
+				// written in pieces, as message converters do
+				for(int offset = 0; offset < body.length; offset += 100) {
+					resp.getOutputStream().write(body, offset, Math.min(100, body.length - offset));
+				}
+				resp.flushBuffer();
+			}
+		}));
+		return response;
+	}
+
+	private byte[] createBody(int size) {
+		final byte[] body = new byte[size];
+		final byte[] pattern = "{\"id\":1,\"value\":12.5},".getBytes();
+		for(int i = 0; i < size; i++) {
+			body[i] = pattern[i % pattern.length];
+		}
+		return body;
+	}
+
+}
@@ -0,0 +1,131 @@
+package no.siriuslabs.computationapi.api.http;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import no.siriuslabs.computationapi.api.model.config.Compression;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Set of tests for the logic of the CompressionInterceptor class.
+ */
+public class CompressionInterceptorTest {
+
+	private static final String URL = "http://localhost:8080/reportResults/node";
+	private static final int THRESHOLD = 1024;
+
+	private SimpleMeterRegistry meterRegistry;
+	private RestTemplate restTemplate;
+	private MockRestServiceServer server;
+
+	@BeforeEach
+	public void setup() {
+		Compression compression = new Compression();
+		compression.setCodec(CompressionCodec.LZ4);
+		compression.setThreshold(THRESHOLD);
+		meterRegistry = new SimpleMeterRegistry();
+		restTemplate = CompressionInterceptor.install(new RestTemplate(), compression, meterRegistry);
+		server = MockRestServiceServer.bindTo(restTemplate).build();
+	}
+
+	/**
+	 * Tests that a large request body is sent as it is until the server has announced to accept the codec and compressed afterwards,
+	 * while a small one is never compressed.
+	 */
+	@DisplayName("Test compressing requests")
+	@Test
+	public void testRequestCompression() throws IOException {
+		final String large = createBody(10 * THRESHOLD);
+		final HttpHeaders announcement = new HttpHeaders();
+		announcement.set(HttpHeaders.ACCEPT_ENCODING, "gzip, lz4");
+
+		server.expect(requestTo(URL)).andExpect(method(HttpMethod.POST)).andExpect(header(HttpHeaders.ACCEPT_ENCODING, "lz4, gzip"))
+				.andExpect((request) -> assertNull(request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING), "First request is not expected to be compressed"))
+				.andRespond(withSuccess().headers(announcement));
+		server.expect(requestTo(URL)).andExpect(header(HttpHeaders.CONTENT_ENCODING, "lz4"))
+				.andExpect((request) -> assertEquals(large, new String(decompress(((MockClientHttpRequest) request).getBodyAsBytes()))))
+				.andRespond(withSuccess().headers(announcement));
+		server.expect(requestTo(URL))
+				.andExpect((request) -> assertNull(request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING), "Small request is not expected to be compressed"))
+				.andRespond(withSuccess());
+
+		restTemplate.postForEntity(URL, large, String.class);
+		restTemplate.postForEntity(URL, large, String.class);
+		restTemplate.postForEntity(URL, "small", String.class);
+
+		server.verify();
+		assertEquals(1, meterRegistry.get(CompressionMetrics.RATIO_METRIC).tag("endpoint", "reportResults").tag("operation", CompressionMetrics.COMPRESS)
+				.summary().count(), "Compression ratio is expected to be recorded for the endpoint");
+	}
+
+	/**
+	 * Tests that a compressed request body refused by the server is sent again uncompressed.
+	 */
+	@DisplayName("Test a refused compressed request")
+	@Test
+	public void testRefusedCompression() {
+		final String large = createBody(10 * THRESHOLD);
+		final HttpHeaders announcement = new HttpHeaders();
+		announcement.set(HttpHeaders.ACCEPT_ENCODING, "lz4");
+
+		server.expect(requestTo(URL)).andRespond(withSuccess().headers(announcement));
+		server.expect(requestTo(URL)).andExpect(header(HttpHeaders.CONTENT_ENCODING, "lz4")).andRespond(withStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE));
+		server.expect(requestTo(URL))
+				.andExpect((request) -> assertNull(request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING), "Repeated request is not expected to be compressed"))
+				.andRespond(withSuccess());
+
+		restTemplate.postForEntity(URL, large, String.class);
+		assertEquals(HttpStatus.OK, restTemplate.postForEntity(URL, large, String.class).getStatusCode(), "Repeated request is expected to succeed");
+		server.verify();
+	}
+
+	/**
+	 * Tests that a compressed response body is decompressed before being converted.
+	 */
+	@DisplayName("Test decompressing responses")
+	@Test
+	public void testResponseDecompression() throws IOException {
+		final String body = createBody(10 * THRESHOLD);
+		final HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+		server.expect(requestTo(URL)).andRespond(withSuccess(CompressionCodec.GZIP.compress(body.getBytes()), MediaType.TEXT_PLAIN).headers(headers));
+
+		assertEquals(body, restTemplate.getForObject(URL, String.class), "Response is expected to be decompressed");
+		assertEquals(Arrays.asList(1L, 1L), Arrays.asList(
+				meterRegistry.get(CompressionMetrics.CPU_METRIC).tag("operation", CompressionMetrics.DECOMPRESS).timer().count(),
+				meterRegistry.get(CompressionMetrics.RATIO_METRIC).tag("direction", CompressionMetrics.RESPONSE).summary().count()),
+				"Decompression is expected to be recorded");
+	}
+
+	private byte[] decompress(byte[] compressed) throws IOException {
+		return StreamUtils.copyToByteArray(CompressionCodec.LZ4.decompress(new ByteArrayInputStream(compressed)));
+	}
+
+	private String createBody(int size) {
+		final StringBuilder builder = new StringBuilder(size);
+		while(builder.length() < size) {
+			builder.append("{\"id\":").append(builder.length() % 97).append(",\"value\":12.5},");
+		}
+		return builder.toString();
+	}
+
+}
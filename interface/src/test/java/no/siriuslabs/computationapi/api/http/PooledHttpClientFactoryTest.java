@@ -0,0 +1,59 @@
+package no.siriuslabs.computationapi.api.http;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import no.siriuslabs.computationapi.api.model.config.Controller;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HTTP;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the PooledHttpClientFactory class.
+ */
+public class PooledHttpClientFactoryTest {
+
+	/**
+	 * Tests that connections are kept alive as long as the server states, otherwise for the configured time.
+	 */
+	@DisplayName("Test the keep-alive strategy")
+	@Test
+	public void testKeepAliveStrategy() {
+		ConnectionKeepAliveStrategy strategy = PooledHttpClientFactory.createKeepAliveStrategy(15000);
+
+		HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+		assertEquals(15000, strategy.getKeepAliveDuration(response, new BasicHttpContext()), "Configured time is expected without Keep-Alive header");
+
+		response.addHeader(HTTP.CONN_KEEP_ALIVE, "timeout=5, max=100");
+		assertEquals(5000, strategy.getKeepAliveDuration(response, new BasicHttpContext()), "Time stated by the server is expected");
+	}
+
+	/**
+	 * Tests that the usage of the pool is reported with the configured limits.
+	 */
+	@DisplayName("Test the pool metrics")
+	@Test
+	public void testPoolMetrics() throws IOException {
+		Controller config = new Controller();
+		config.getPool().setMaxTotal(50);
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+		try(CloseableHttpClient httpClient = PooledHttpClientFactory.createHttpClient(config, meterRegistry, "test")) {
+			assertNotNull(httpClient, "Client is expected to be created");
+			assertEquals(50, meterRegistry.get(PooledHttpClientFactory.POOL_METRIC_PREFIX + "max").tag("client", "test").gauge().value(), 0.001,
+					"Maximum pool size is expected to be reported");
+			assertEquals(0, meterRegistry.get(PooledHttpClientFactory.POOL_METRIC_PREFIX + "leased").tag("client", "test").gauge().value(), 0.001,
+					"No connection is expected to be leased");
+		}
+	}
+
+}
@@ -0,0 +1,182 @@
+package no.siriuslabs.computationapi.api.http;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import no.siriuslabs.computationapi.api.model.computation.DomainTypeImpl;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackage;
+import no.siriuslabs.computationapi.api.model.computation.WorkPackageResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the WireFormat enum, including a benchmark comparing the formats on realistic payloads that is only run on request.
+ */
+public class WireFormatTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(WireFormatTest.class);
+
+	private static final TypeReference<List<WorkPackageResult>> RESULT_LIST_TYPE = new TypeReference<List<WorkPackageResult>>() {
+	};
+
+	/**
+	 * Tests that a binary format is asked for with JSON as fallback and that nothing is set for JSON.
+	 */
+	@DisplayName("Test applyTo()")
+	@Test
+	public void testApplyTo() {
+		HttpHeaders headers = new HttpHeaders();
+		WireFormat.SMILE.applyTo(headers);
+
+		assertEquals(WireFormat.SMILE.getMediaType(), headers.getContentType().toString(), "Body is expected to be sent in the format");
+		assertEquals(2, headers.getAccept().size(), "Format and fallback are expected to be accepted");
+		assertEquals(WireFormat.SMILE.getMediaType(), headers.getAccept().get(0).toString(), "Format is expected to be preferred");
+		assertTrue(headers.getAccept().get(1).isCompatibleWith(MediaType.APPLICATION_JSON), "JSON is expected to be accepted as fallback");
+		assertEquals(0.5, headers.getAccept().get(1).getQualityValue(), 0.001, "JSON is expected to be accepted with lower preference");
+
+		HttpHeaders jsonHeaders = new HttpHeaders();
+		WireFormat.JSON.applyTo(jsonHeaders);
+		assertTrue(jsonHeaders.isEmpty(), "No headers are expected for JSON");
+	}
+
+	/**
+	 * Tests that the binary formats are available and that Spring's RestTemplate, which the negotiation relies on, can read and write them.
+	 */
+	@DisplayName("Test availability of the binary formats")
+	@Test
+	public void testAvailability() {
+		assertTrue(WireFormat.getAvailableBinaryFormats().contains(WireFormat.SMILE), "Smile is expected to be available");
+		assertTrue(WireFormat.getAvailableBinaryFormats().contains(WireFormat.CBOR), "CBOR is expected to be available");
+		assertFalse(WireFormat.getAvailableBinaryFormats().contains(WireFormat.JSON), "JSON is not expected to be listed as binary format");
+
+		List<MediaType> supported = new ArrayList<>();
+		for(HttpMessageConverter<?> converter : new RestTemplate().getMessageConverters()) {
+			supported.addAll(converter.getSupportedMediaTypes());
+		}
+		for(WireFormat format : WireFormat.values()) {
+			assertTrue(supported.contains(MediaType.parseMediaType(format.getMediaType())), "RestTemplate is expected to support " + format);
+		}
+	}
+
+	/**
+	 * Tests that the formats decode a batch of results with numeric data, as reported by worker nodes, to the same data and that the binary formats are smaller than JSON.
+	 */
+	@DisplayName("Test round trip and size of the formats with realistic payloads")
+	@Test
+	public void testRoundTrip() throws IOException {
+		final List<WorkPackageResult> results = createResults(200, 250);
+		final Map<WireFormat, ObjectMapper> mappers = createMappers();
+		final ObjectMapper json = mappers.get(WireFormat.JSON);
+
+		final Map<WireFormat, Integer> sizes = new HashMap<>();
+		for(WireFormat format : WireFormat.values()) {
+			final ObjectMapper mapper = mappers.get(format);
+			final byte[] encoded = mapper.writeValueAsBytes(results);
+			List<WorkPackageResult> decoded = mapper.readValue(encoded, RESULT_LIST_TYPE);
+			assertEquals(json.writeValueAsString(results), json.writeValueAsString(decoded), format + " is expected to decode to the original data");
+			sizes.put(format, encoded.length);
+		}
+
+		assertTrue(sizes.get(WireFormat.SMILE) < sizes.get(WireFormat.JSON), "Smile is expected to be smaller than JSON");
+		assertTrue(sizes.get(WireFormat.CBOR) < sizes.get(WireFormat.JSON), "CBOR is expected to be smaller than JSON");
+	}
+
+	/**
+	 * Benchmarks the bytes on the wire and the encoding and decoding times of the formats for a batch of results with numeric data, as reported by worker nodes.
+	 * Results are only reported, as they depend on the machine.<p>
+	 * Only run on request with the system property "benchmark" set to true (mvn test -Dbenchmark=true).
+	 */
+	@DisplayName("Benchmark the formats with realistic payloads")
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	public void testBenchmark() throws IOException {
+		final List<WorkPackageResult> results = createResults(200, 250);
+		final Map<WireFormat, ObjectMapper> mappers = createMappers();
+		final int jsonSize = mappers.get(WireFormat.JSON).writeValueAsBytes(results).length;
+
+		for(WireFormat format : WireFormat.values()) {
+			final ObjectMapper mapper = mappers.get(format);
+			// warm up before measuring
+			for(int i = 0; i < 10; i++) {
+				mapper.readValue(mapper.writeValueAsBytes(results), RESULT_LIST_TYPE);
+			}
+			final int iterations = 20;
+			long encodeTime = 0;
+			long decodeTime = 0;
+			byte[] encoded = null;
+			for(int i = 0; i < iterations; i++) {
+				long start = System.nanoTime();
+				encoded = mapper.writeValueAsBytes(results);
+				encodeTime += System.nanoTime() - start;
+				start = System.nanoTime();
+				mapper.readValue(encoded, RESULT_LIST_TYPE);
+				decodeTime += System.nanoTime() - start;
+			}
+			LOGGER.info("{}: {} bytes ({}% of JSON), encode {} ms, decode {} ms", format, encoded.length, 100 * encoded.length / jsonSize,
+					encodeTime / iterations / 1000000.0, decodeTime / iterations / 1000000.0);
+		}
+	}
+
+	/**
+	 * Creates an ObjectMapper for each of the formats.
+	 */
+	private Map<WireFormat, ObjectMapper> createMappers() {
+		final Map<WireFormat, ObjectMapper> mappers = new HashMap<>();
+		mappers.put(WireFormat.JSON, new ObjectMapper());
+		mappers.put(WireFormat.SMILE, new ObjectMapper(new SmileFactory()));
+		mappers.put(WireFormat.CBOR, new ObjectMapper(new CBORFactory()));
+		return mappers;
+	}
+
+	/**
+	 * Creates the given number of results, each carrying the given number of measured values along with some counters and descriptive fields.
+	 */
+	private List<WorkPackageResult> createResults(int number, int values) {
+		final Random random = new Random(42);
+		final List<WorkPackageResult> results = new ArrayList<>(number);
+		for(int i = 0; i < number; i++) {
+			WorkPackage workPackage = new WorkPackage(new DomainTypeImpl("BENCHMARK"), i);
+			workPackage.setRunId(1);
+			Map<String, Object> input = new HashMap<>();
+			input.put("amount", random.nextInt(100000));
+			input.put("multiplier", random.nextDouble() * 10);
+			workPackage.setData(input);
+
+			List<Double> series = new ArrayList<>(values);
+			for(int j = 0; j < values; j++) {
+				series.add(random.nextGaussian() * 1000);
+			}
+			Map<String, Object> data = new HashMap<>();
+			data.put("series", series);
+			data.put("count", (long) values);
+			data.put("sum", series.stream().mapToDouble(Double::doubleValue).sum());
+			data.put("unit", "EUR");
+
+			WorkPackageResult result = new WorkPackageResult(workPackage);
+			result.setData(data);
+			result.setNodeId("worker-" + (i % 8) + ":8080");
+			result.setRunningTime(random.nextInt(5000));
+			result.setFinishedTimestamp(1500000000000L + i);
+			results.add(result);
+		}
+		return results;
+	}
+
+}
@@ -0,0 +1,98 @@
+package no.siriuslabs.computationapi.api.model.computation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import no.siriuslabs.computationapi.api.model.request.ComputationRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the DomainDataTypes class together with the DomainDataDeserializer binding data to the registered classes.
+ */
+public class DomainDataTypesTest {
+
+	private static final DomainType TYPED = new DomainTypeImpl("TYPED");
+	private static final DomainType UNTYPED = new DomainTypeImpl("UNTYPED");
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@AfterEach
+	public void tearDown() {
+		DomainDataTypes.unregister(TYPED);
+	}
+
+	/**
+	 * Tests that the data of a registered DomainType is bound straight to its class, also inside results and lists, and written back unchanged.
+	 */
+	@DisplayName("Test binding data to registered classes")
+	@Test
+	public void testTypedBinding() throws IOException {
+		DomainDataTypes.register(TYPED, DomainDataTypes.Role.WORK_PACKAGE, Amounts.class);
+		DomainDataTypes.register(TYPED, DomainDataTypes.Role.RESULT, Total.class);
+		final String json = "{\"workPackage\":{\"domain\":\"TYPED\",\"id\":3,\"data\":{\"amount\":\"7\",\"multiplier\":6}},\"data\":{\"result\":42}}";
+
+		final WorkPackageResult result = objectMapper.readValue(json, WorkPackageResult.class);
+
+		final Amounts amounts = result.getWorkPackage().getData(Amounts.class);
+		assertEquals(7, amounts.amount, "Data is expected to be bound to the registered class");
+		assertEquals(6, amounts.multiplier, "Data is expected to be bound to the registered class");
+		assertSame(amounts, result.getWorkPackage().getData(Amounts.class), "Bound data is expected to be returned without conversion");
+		assertEquals(42, result.getData(Total.class).result, "Result data is expected to be bound to its registered class");
+		assertEquals(42L, result.getData().get("result"), "Typed data is expected to be readable in the map form");
+
+		final WorkPackageResult copy = objectMapper.readValue(objectMapper.writeValueAsString(result), WorkPackageResult.class);
+		assertEquals(6, copy.getWorkPackage().getData(Amounts.class).multiplier, "Typed data is expected to be written as it is");
+
+		final List<WorkPackageResult> results = objectMapper.readValue("[" + json + "," + json + "]",
+				objectMapper.getTypeFactory().constructCollectionType(List.class, WorkPackageResult.class));
+		assertTrue(results.get(1).getWorkPackage().getData(Amounts.class) != null && results.get(1).getData(Total.class) != null, "Data in lists is expected to be bound");
+	}
+
+	/**
+	 * Tests that data of DomainTypes without registered classes, or whose DomainType follows the data, is kept in the map form and can be read as a class.
+	 */
+	@DisplayName("Test keeping the map form")
+	@Test
+	public void testMapForm() throws IOException {
+		DomainDataTypes.register(TYPED, DomainDataTypes.Role.WORK_PACKAGE, Amounts.class);
+		DomainDataTypes.register(TYPED, DomainDataTypes.Role.PAYLOAD, Amounts.class);
+
+		final WorkPackage untyped = objectMapper.readValue("{\"domain\":\"UNTYPED\",\"id\":1,\"data\":{\"amount\":\"7\"}}", WorkPackage.class);
+		assertEquals("7", untyped.getData().get("amount"), "Data of other DomainTypes is expected to be kept as a map");
+		assertEquals(7, untyped.getData(Amounts.class).amount, "Map data is expected to be converted on request");
+
+		final WorkPackage late = objectMapper.readValue("{\"data\":{\"amount\":\"7\"},\"domain\":\"UNTYPED\",\"id\":1}", WorkPackage.class);
+		assertTrue(late.getData() instanceof Map, "Data preceding an unregistered DomainType is expected to be kept as a map");
+		assertEquals(UNTYPED, late.getDomain(), "DomainType is expected to be read after the data");
+
+		final ComputationRequest request = objectMapper.readValue("{\"domain\":\"TYPED\",\"payload\":{\"data\":{\"amount\":2}}}", ComputationRequest.class);
+		assertEquals(2, request.getPayload().getData(Amounts.class).amount, "Payload data is expected to be bound by the request's DomainType");
+
+		final WorkPackage written = new WorkPackage(UNTYPED, 1);
+		written.setTypedData(new Amounts());
+		assertTrue(objectMapper.writeValueAsString(written).contains("\"data\":{\"amount\":0,\"multiplier\":0}"), "Typed data is expected to be written as its properties");
+		assertEquals(UNTYPED, objectMapper.readValue("{\"domain\":\"UNTYPED\",\"id\":1}", WorkPackage.class).getDomain(), "Package without data is expected to be read");
+	}
+
+	/**
+	 * Data class of the test's WorkPackages.
+	 */
+	public static class Amounts {
+		public long amount;
+		public long multiplier;
+	}
+
+	/**
+	 * Data class of the test's WorkPackageResults.
+	 */
+	public static class Total {
+		public long result;
+	}
+
+}
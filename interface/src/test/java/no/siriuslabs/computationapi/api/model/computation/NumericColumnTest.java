@@ -0,0 +1,99 @@
+package no.siriuslabs.computationapi.api.model.computation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set of tests for the logic of the NumericColumn class.
+ */
+public class NumericColumnTest {
+
+	private static final DomainType DOMAIN = new DomainTypeImpl("COLUMNS");
+
+	@AfterEach
+	public void tearDown() {
+		DomainDataTypes.unregister(DOMAIN);
+	}
+
+	/**
+	 * Tests that columns in result data of the generic map form survive every wire format as NumericColumns, packed more compactly than lists of numbers.
+	 */
+	@DisplayName("Test columns in map data on the wire")
+	@Test
+	public void testMapData() throws IOException {
+		final double[] doubles = new double[1000];
+		final List<Double> boxed = new ArrayList<>();
+		for(int i = 0; i < doubles.length; i++) {
+			doubles[i] = Math.sqrt(i) * 1.1;
+			boxed.add(doubles[i]);
+		}
+		final Map<String, Object> nested = new HashMap<>();
+		nested.put("counts", NumericColumn.of(3L, -1L, Long.MAX_VALUE));
+		final Map<String, Object> data = new HashMap<>();
+		data.put("vector", NumericColumn.of(doubles));
+		data.put("nested", Collections.singletonList(nested));
+		data.put("name", "result");
+		final WorkPackageResult result = new WorkPackageResult(new WorkPackage(DOMAIN, 1));
+		result.setData(data);
+
+		for(ObjectMapper objectMapper : new ObjectMapper[] {new ObjectMapper(), new ObjectMapper(new SmileFactory()), new ObjectMapper(new CBORFactory())}) {
+			final String format = objectMapper.getFactory().getFormatName();
+			final WorkPackageResult copy = objectMapper.readValue(objectMapper.writeValueAsBytes(result), WorkPackageResult.class);
+
+			final NumericColumn vector = (NumericColumn) copy.getData().get("vector");
+			assertArrayEquals(doubles, vector.getDoubles(), format + ": doubles are expected to be read back exactly");
+			final Map<String, Object> copiedNested = ((List<Map<String, Object>>) copy.getData().get("nested")).get(0);
+			assertArrayEquals(new long[] {3L, -1L, Long.MAX_VALUE}, ((NumericColumn) copiedNested.get("counts")).getLongs(), format + ": nested longs are expected to be read back");
+			assertEquals("result", copy.getData().get("name"), format + ": other data is expected to be kept");
+
+			final Map<String, Object> generic = (Map<String, Object>) objectMapper.readValue(objectMapper.writeValueAsBytes(result), Map.class).get("data");
+			assertEquals(vector, ((Map<String, Object>) NumericColumn.resolveColumns(generic)).get("vector"), format + ": column read as a plain map is expected to be resolved");
+
+			final Map<String, Object> listData = Collections.singletonMap("vector", boxed);
+			assertTrue(objectMapper.writeValueAsBytes(data.get("vector")).length < objectMapper.writeValueAsBytes(listData).length,
+					format + ": column is expected to be packed more compactly than a list of numbers");
+		}
+	}
+
+	/**
+	 * Tests columns as fields of typed data and that converting typed data to the map form keeps them as NumericColumns.
+	 */
+	@DisplayName("Test columns in typed data")
+	@Test
+	public void testTypedData() throws IOException {
+		DomainDataTypes.register(DOMAIN, DomainDataTypes.Role.RESULT, Series.class);
+		final Series series = new Series();
+		series.values = NumericColumn.of(1.5, 2.5);
+		final WorkPackageResult result = new WorkPackageResult(new WorkPackage(DOMAIN, 1));
+		result.setTypedData(series);
+
+		final ObjectMapper objectMapper = new ObjectMapper();
+		final WorkPackageResult copy = objectMapper.readValue(objectMapper.writeValueAsString(result), WorkPackageResult.class);
+
+		assertArrayEquals(new double[] {1.5, 2.5}, copy.getData(Series.class).values.getDoubles(), "Column field is expected to be read back");
+		assertEquals(series.values, copy.getData().get("values"), "Column is expected to be kept in the map form");
+		assertEquals("NumericColumn{double[2]}", series.values.toString(), "Only the shape is expected to be logged");
+		assertThrows(IllegalStateException.class, () -> series.values.getLongs(), "Doubles are not expected to be read as longs");
+	}
+
+	/**
+	 * Typed data of the test's WorkPackageResults.
+	 */
+	public static class Series {
+		public NumericColumn values;
+	}
+
+}
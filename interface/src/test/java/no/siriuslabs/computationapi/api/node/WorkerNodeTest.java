@@ -1,13 +1,18 @@
 package no.siriuslabs.computationapi.api.node;
 
+import no.siriuslabs.computationapi.api.model.computation.DomainTypeImpl;
 import no.siriuslabs.computationapi.api.model.node.NodeStatus;
 import no.siriuslabs.computationapi.api.model.node.WorkerNode;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Set of tests for behaviour of the WorkerNode class.
@@ -32,4 +37,17 @@ public class WorkerNodeTest {
 		assertNotNull(node.getLastStatusChange(), "Last status change date must not be null after changing node status");
 	}
 
+	@DisplayName("Test supported domains of a node serving several domains")
+	@Test
+	public void testSupportsDomain() {
+		WorkerNode node = new WorkerNode();
+		node.setDomainType(new DomainTypeImpl("MAIN"));
+		node.setAdditionalDomainTypes(Collections.singletonList(new DomainTypeImpl("OTHER")));
+
+		assertEquals(2, node.getAllDomainTypes().size(), "Main and additional domain types expected");
+		assertTrue(node.supportsDomain(new DomainTypeImpl("MAIN")), "Main domain type must be supported");
+		assertTrue(node.supportsDomain(new DomainTypeImpl("OTHER")), "Additional domain type must be supported");
+		assertFalse(node.supportsDomain(new DomainTypeImpl("UNKNOWN")), "Unknown domain type must not be supported");
+	}
+
 }